@@ -5,6 +5,8 @@ import com.unimessage.dto.SendResponse;
 import com.unimessage.dto.ShortUrlCreateRequest;
 import com.unimessage.dto.ShortUrlResponse;
 
+import java.util.List;
+
 /**
  * UniMessage 客户端接口
  *
@@ -54,4 +56,27 @@ public interface UniMessageClient {
         request.setTtl(ttlSeconds);
         return createShortUrl(request);
     }
+
+    /**
+     * 批量创建短链接 (不支持自定义短链码，已存在的URL复用原短链)
+     * 请求较多时自动分批提交
+     *
+     * @param requests 创建请求列表
+     * @return 与请求顺序一致的短链接响应
+     */
+    List<ShortUrlResponse> batchCreateShortUrls(List<ShortUrlCreateRequest> requests);
+
+    /**
+     * 批量创建短链接 (简化方法)
+     *
+     * @param urls       原始URL列表
+     * @param ttlSeconds 有效期(秒)，null表示使用服务端默认值
+     * @return 与URL顺序一致的短链接响应
+     */
+    default List<ShortUrlResponse> batchCreateShortUrls(List<String> urls, Long ttlSeconds) {
+        List<ShortUrlCreateRequest> requests = urls.stream()
+                .map(url -> ShortUrlCreateRequest.builder().url(url).ttl(ttlSeconds).build())
+                .toList();
+        return batchCreateShortUrls(requests);
+    }
 }
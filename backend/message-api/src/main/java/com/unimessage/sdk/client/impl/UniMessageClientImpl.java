@@ -2,6 +2,7 @@ package com.unimessage.sdk.client.impl;
 
 import com.unimessage.dto.SendRequest;
 import com.unimessage.dto.SendResponse;
+import com.unimessage.dto.ShortUrlBatchCreateRequest;
 import com.unimessage.dto.ShortUrlCreateRequest;
 import com.unimessage.dto.ShortUrlResponse;
 import com.unimessage.sdk.client.UniMessageClient;
@@ -14,6 +15,9 @@ import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * UniMessage 客户端默认实现
  *
@@ -23,6 +27,11 @@ import org.springframework.web.client.RestTemplate;
 @Slf4j
 public class UniMessageClientImpl implements UniMessageClient {
 
+    /**
+     * 批量创建短链接时单次请求的条数
+     */
+    private static final int SHORT_URL_BATCH_SIZE = 1000;
+
     private final UniMessageProperties properties;
     private final RestTemplate restTemplate;
 
@@ -59,6 +68,23 @@ public class UniMessageClientImpl implements UniMessageClient {
         throw new RuntimeException("Failed to create short url: " + errorMsg);
     }
 
+    @Override
+    public List<ShortUrlResponse> batchCreateShortUrls(List<ShortUrlCreateRequest> requests) {
+        String url = properties.getShortUrlBaseUrl() + "/batch";
+        List<ShortUrlResponse> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i += SHORT_URL_BATCH_SIZE) {
+            List<ShortUrlCreateRequest> chunk = requests.subList(i, Math.min(i + SHORT_URL_BATCH_SIZE, requests.size()));
+            ShortUrlBatchCreateRequest batchRequest = ShortUrlBatchCreateRequest.builder().items(chunk).build();
+            ShortUrlBatchApiResponse response = executeWithRetry(url, batchRequest, ShortUrlBatchApiResponse.class);
+            if (response == null || response.getCode() != 200 || response.getData() == null) {
+                String errorMsg = response != null ? response.getMessage() : "Unknown error";
+                throw new RuntimeException("Failed to batch create short urls: " + errorMsg);
+            }
+            results.addAll(response.getData());
+        }
+        return results;
+    }
+
     private <T, R> R executeWithRetry(String url, T request, Class<R> responseType) {
         HttpHeaders headers = createHeaders();
         HttpEntity<T> entity = new HttpEntity<>(request, headers);
@@ -107,6 +133,16 @@ public class UniMessageClientImpl implements UniMessageClient {
         return headers;
     }
 
+    /**
+     * 短链接批量创建API响应包装类
+     */
+    @lombok.Data
+    private static class ShortUrlBatchApiResponse {
+        private Integer code;
+        private String message;
+        private List<ShortUrlResponse> data;
+    }
+
     /**
      * 短链接API响应包装类
      */
@@ -4,9 +4,16 @@ import com.unimessage.util.RedisUtil;
 import jakarta.annotation.Resource;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -74,6 +81,16 @@ public class CacheService {
         return redisUtil.set(key, value, timeout, timeUnit);
     }
 
+    /**
+     * 批量设置缓存 (Pipeline)
+     *
+     * @param values   键值对
+     * @param timeouts 各键过期时间(秒)，缺失表示永不过期
+     */
+    public boolean pipelineSet(Map<String, String> values, Map<String, Long> timeouts) {
+        return redisUtil.pipelineSet(values, timeouts);
+    }
+
     /**
      * 设置对象缓存（自动序列化）
      *
@@ -108,6 +125,16 @@ public class CacheService {
         return redisUtil.get(key);
     }
 
+    /**
+     * 批量获取缓存 (MGET)
+     *
+     * @param keys 键
+     * @return 与键顺序一致的值列表，不存在的键对应 null；Redis 异常时返回 null
+     */
+    public List<String> multiGet(Collection<String> keys) {
+        return redisUtil.multiGet(keys);
+    }
+
     /**
      * 获取对象缓存（自动反序列化）
      *
@@ -150,6 +177,17 @@ public class CacheService {
         return redisUtil.expire(key, timeout, timeUnit);
     }
 
+    /**
+     * 获取剩余过期时间
+     *
+     * @param key      键
+     * @param timeUnit 单位
+     * @return 剩余时间，-1 永不过期，-2 不存在，异常时返回 null
+     */
+    public Long getExpire(String key, TimeUnit timeUnit) {
+        return redisUtil.getExpire(key, timeUnit);
+    }
+
     /**
      * 检查键是否存在
      *
@@ -183,6 +221,13 @@ public class CacheService {
         return redisUtil.lPush(key, value);
     }
 
+    /**
+     * 批量入队 (单条 LPUSH，出队顺序与集合顺序一致)
+     */
+    public boolean lPush(String key, Collection<String> values) {
+        return redisUtil.lPush(key, values);
+    }
+
     /**
      * 出队 (非阻塞)
      */
@@ -190,6 +235,13 @@ public class CacheService {
         return redisUtil.rPop(key);
     }
 
+    /**
+     * 批量出队 (非阻塞)
+     */
+    public List<String> rPop(String key, long count) {
+        return redisUtil.rPop(key, count);
+    }
+
     /**
      * 出队 (阻塞)
      */
@@ -197,6 +249,82 @@ public class CacheService {
         return redisUtil.rPop(key, timeout, unit);
     }
 
+    /**
+     * 批量添加有序集合成员 (延迟队列)
+     */
+    public boolean zAdd(String key, Map<String, Double> members) {
+        return redisUtil.zAdd(key, members);
+    }
+
+    // ==================== Stream ====================
+
+    /**
+     * 追加消息到 Stream
+     */
+    public String xAdd(String key, Map<String, String> fields) {
+        return redisUtil.xAdd(key, fields);
+    }
+
+    /**
+     * 批量追加消息到 Stream (Pipeline)
+     */
+    public boolean pipelineXAdd(String key, List<Map<String, String>> records) {
+        return redisUtil.pipelineXAdd(key, records);
+    }
+
+    /**
+     * 创建消费者组 (Stream 不存在时自动创建)
+     */
+    public boolean xGroupCreate(String key, String group) {
+        return redisUtil.xGroupCreate(key, group);
+    }
+
+    /**
+     * 消费者组读取新消息
+     */
+    public List<MapRecord<String, Object, Object>> xReadGroup(String key, String group, String consumer, long count, Duration block) {
+        return redisUtil.xReadGroup(key, group, consumer, count, block);
+    }
+
+    /**
+     * 确认并删除消息 (消息只有一个消费者组，确认后即可删除，避免 Stream 无限增长)
+     */
+    public boolean xAckAndDel(String key, String group, String recordId) {
+        boolean acked = redisUtil.xAck(key, group, recordId);
+        if (acked) {
+            redisUtil.xDel(key, recordId);
+        }
+        return acked;
+    }
+
+    /**
+     * 查询待确认消息
+     */
+    public PendingMessages xPending(String key, String group, long count) {
+        return redisUtil.xPending(key, group, count);
+    }
+
+    /**
+     * 认领空闲的待确认消息
+     */
+    public List<MapRecord<String, Object, Object>> xClaim(String key, String group, String consumer, Duration minIdle, RecordId... recordIds) {
+        return redisUtil.xClaim(key, group, consumer, minIdle, recordIds);
+    }
+
+    /**
+     * 重置待确认消息的空闲时间 (XCLAIM JUSTID 给当前消费者)
+     */
+    public boolean xClaimJustId(String key, String group, String consumer, RecordId... recordIds) {
+        return redisUtil.xClaimJustId(key, group, consumer, recordIds);
+    }
+
+    /**
+     * 发布消息 (Redis Pub/Sub)
+     */
+    public boolean publish(String channel, String message) {
+        return redisUtil.publish(channel, message);
+    }
+
     // ==================== 高级特性 ====================
 
     /**
@@ -224,4 +352,27 @@ public class CacheService {
         return redisUtil.setIfAbsent(key, value, seconds);
     }
 
+    /**
+     * 批量如果不存在则设置 (Pipeline)
+     *
+     * @param values  键值对
+     * @param seconds 过期时间（秒）
+     * @return 各键是否设置成功；Redis 异常时返回 null
+     */
+    public Map<String, Boolean> pipelineSetIfAbsent(Map<String, String> values, long seconds) {
+        return redisUtil.pipelineSetIfAbsent(values, seconds);
+    }
+
+    /**
+     * 以 Pipeline 多次执行同一 Lua 脚本
+     *
+     * @param script   脚本
+     * @param keysList 每次执行的键列表
+     * @param argsList 每次执行的参数
+     * @return 与参数顺序一致的执行结果；Redis 异常时返回 null
+     */
+    public List<Object> pipelineExecute(RedisScript<?> script, List<List<String>> keysList, List<List<String>> argsList) {
+        return redisUtil.pipelineExecute(script, keysList, argsList);
+    }
+
 }
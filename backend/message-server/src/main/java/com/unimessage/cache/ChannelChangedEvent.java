@@ -0,0 +1,21 @@
+package com.unimessage.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 渠道配置变更事件 (本地 Spring 事件)
+ * 渠道被修改、删除或启停时由元数据缓存在各节点发布，用于清理与渠道绑定的本地资源
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Getter
+@AllArgsConstructor
+public class ChannelChangedEvent {
+
+    /**
+     * 渠道ID
+     */
+    private final Long channelId;
+}
@@ -0,0 +1,211 @@
+package com.unimessage.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 本地租借式分布式限流器 (近似滑动窗口)
+ * Redis 中每个限流Key只保存当前/上一个固定窗口两个计数器，按时间比例加权估算滑动窗口内的请求数；
+ * 各节点按块从 Redis 租借配额并在本地计数，租借在后台线程异步完成，请求线程不访问 Redis。
+ * 租借返回前允许在本地预支至多一个块的配额，因此集群整体最多超发 节点数 × 块大小
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class LeasedRateLimiter {
+
+    /**
+     * 滑动窗口配额租借Lua脚本
+     * KEYS[1]: 当前窗口计数Key
+     * KEYS[2]: 上一窗口计数Key
+     * ARGV[1]: 窗口内最大请求数
+     * ARGV[2]: 期望租借数量
+     * ARGV[3]: 窗口大小(毫秒)
+     * ARGV[4]: 上一窗口权重 (0~1)
+     * 返回: 实际租借数量
+     */
+    private static final String LEASE_SCRIPT =
+            "local limit = tonumber(ARGV[1]) " +
+                    "local requested = tonumber(ARGV[2]) " +
+                    "local window = tonumber(ARGV[3]) " +
+                    "local weight = tonumber(ARGV[4]) " +
+                    "local current = tonumber(redis.call('GET', KEYS[1]) or '0') " +
+                    "local previous = tonumber(redis.call('GET', KEYS[2]) or '0') " +
+                    "local available = math.floor(limit - previous * weight - current) " +
+                    "if available <= 0 then " +
+                    "    return 0 " +
+                    "end " +
+                    "local granted = math.min(requested, available) " +
+                    "redis.call('INCRBY', KEYS[1], granted) " +
+                    "redis.call('PEXPIRE', KEYS[1], window * 2) " +
+                    "return granted";
+
+    private static final String THREAD_NAME_PREFIX = "rate-limit-lease-";
+    private static final int LEASE_THREADS = 2;
+    private static final int LEASE_QUEUE_CAPACITY = 10000;
+    private static final long LOCAL_MAX_KEYS = 100_000;
+    /**
+     * 配额耗尽后重新尝试租借的间隔 (窗口大小的比例)，滑动窗口随时间推移会释放配额
+     */
+    private static final int EXHAUSTED_RETRY_DIVISOR = 20;
+
+    private final DefaultRedisScript<Long> leaseScript;
+    private final AtomicInteger threadIndex = new AtomicInteger();
+    private final ThreadPoolExecutor leaseExecutor;
+    private final Cache<String, Window> windows;
+
+    @Resource
+    private CacheService cacheService;
+
+    public LeasedRateLimiter() {
+        leaseScript = new DefaultRedisScript<>();
+        leaseScript.setScriptText(LEASE_SCRIPT);
+        leaseScript.setResultType(Long.class);
+
+        leaseExecutor = new ThreadPoolExecutor(LEASE_THREADS, LEASE_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(LEASE_QUEUE_CAPACITY), r -> {
+            Thread t = new Thread(r, THREAD_NAME_PREFIX + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        windows = Caffeine.newBuilder()
+                .maximumSize(LOCAL_MAX_KEYS)
+                .expireAfterAccess(Duration.ofMinutes(5))
+                .build();
+    }
+
+    /**
+     * 尝试获取一次访问许可
+     *
+     * @param key          限流Key
+     * @param limit        窗口内最大请求数 (集群合计)
+     * @param windowMillis 窗口大小(毫秒)
+     * @param chunkSize    单次租借的配额块大小
+     * @return true 允许, false 被限流
+     */
+    public boolean tryAcquire(String key, int limit, long windowMillis, int chunkSize) {
+        if (limit <= 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        long index = now / windowMillis;
+        int chunk = Math.max(1, Math.min(chunkSize, limit));
+        Window window = windows.get(key, k -> new Window());
+
+        boolean allowed;
+        boolean needLease;
+        synchronized (window) {
+            if (window.index != index) {
+                window.reset(index);
+            }
+            boolean exhausted = window.exhaustedAt > 0 && now - window.exhaustedAt < windowMillis / EXHAUSTED_RETRY_DIVISOR;
+            // 未耗尽时允许预支一个块，等待后台租借补齐
+            int allowance = window.leased + (window.exhaustedAt > 0 ? 0 : chunk);
+            allowed = window.used < allowance;
+            if (allowed) {
+                window.used++;
+            }
+            needLease = !window.leasing && !exhausted && window.leased - window.used < (chunk + 1) / 2;
+            if (needLease) {
+                window.leasing = true;
+            }
+        }
+
+        if (needLease) {
+            try {
+                leaseExecutor.execute(() -> lease(key, window, index, limit, windowMillis, chunk));
+            } catch (RejectedExecutionException e) {
+                synchronized (window) {
+                    window.leasing = false;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * 从 Redis 租借配额，同时归还预支的部分
+     */
+    private void lease(String key, Window window, long index, int limit, long windowMillis, int chunk) {
+        int requested;
+        synchronized (window) {
+            if (window.index != index) {
+                window.leasing = false;
+                return;
+            }
+            requested = chunk + Math.max(0, window.used - window.leased);
+        }
+
+        long granted;
+        try {
+            long now = System.currentTimeMillis();
+            double previousWeight = 1 - (double) (now % windowMillis) / windowMillis;
+            String base = "{" + key + "}:";
+            Long result = cacheService.getRedisUtil().execute(leaseScript,
+                    Arrays.asList(base + index, base + (index - 1)),
+                    String.valueOf(limit), String.valueOf(requested), String.valueOf(windowMillis),
+                    String.valueOf(previousWeight));
+            // 降级策略：Redis 故障时放行
+            granted = result != null ? result : requested;
+        } catch (Exception e) {
+            log.error("限流配额租借失败: key={}", key, e);
+            granted = requested;
+        }
+
+        synchronized (window) {
+            window.leasing = false;
+            if (window.index != index) {
+                return;
+            }
+            window.leased += (int) granted;
+            window.exhaustedAt = granted < requested ? System.currentTimeMillis() : 0;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        leaseExecutor.shutdownNow();
+    }
+
+    /**
+     * 本节点在某个Key当前窗口内的配额使用情况
+     */
+    private static final class Window {
+        private long index = -1;
+        /**
+         * 已租借配额
+         */
+        private int leased;
+        /**
+         * 已使用配额 (可能因预支而大于 leased)
+         */
+        private int used;
+        /**
+         * 是否有进行中的租借
+         */
+        private boolean leasing;
+        /**
+         * 最近一次租借不足的时间，0 表示未耗尽
+         */
+        private long exhaustedAt;
+
+        void reset(long index) {
+            this.index = index;
+            this.leased = 0;
+            this.used = 0;
+            this.exhaustedAt = 0;
+        }
+    }
+}
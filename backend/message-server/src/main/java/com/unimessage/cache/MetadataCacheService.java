@@ -0,0 +1,275 @@
+package com.unimessage.cache;
+
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.unimessage.config.MetadataCacheProperties;
+import com.unimessage.constant.CacheKeyConstants;
+import com.unimessage.entity.SysApp;
+import com.unimessage.entity.SysChannel;
+import com.unimessage.entity.SysTemplate;
+import com.unimessage.mapper.SysAppMapper;
+import com.unimessage.mapper.SysChannelMapper;
+import com.unimessage.mapper.SysTemplateMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 元数据二级缓存服务
+ * 一级为进程内 Caffeine 缓存，二级为 Redis 缓存，用于发送链路上的应用、模板、渠道查询；
+ * 管理端修改后通过 Redis Pub/Sub 通知所有节点清除本地缓存
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class MetadataCacheService implements MessageListener {
+
+    private static final String TYPE_APP = "app";
+    private static final String TYPE_TEMPLATE = "template";
+    private static final String TYPE_CHANNEL = "channel";
+
+    @Resource
+    private SysAppMapper appMapper;
+    @Resource
+    private SysTemplateMapper templateMapper;
+    @Resource
+    private SysChannelMapper channelMapper;
+    @Resource
+    private CacheService cacheService;
+    @Resource
+    private MetadataCacheProperties properties;
+    @Resource
+    private RedisMessageListenerContainer listenerContainer;
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * appKey -> 应用
+     */
+    private Cache<String, SysApp> appCache;
+    /**
+     * 模板编码 -> 模板
+     */
+    private Cache<String, SysTemplate> templateCodeCache;
+    /**
+     * 模板ID -> 模板
+     */
+    private Cache<Long, SysTemplate> templateIdCache;
+    /**
+     * 渠道ID -> 渠道
+     */
+    private Cache<Long, SysChannel> channelCache;
+
+    @PostConstruct
+    public void init() {
+        appCache = newCache();
+        templateCodeCache = newCache();
+        templateIdCache = newCache();
+        channelCache = newCache();
+        listenerContainer.addMessageListener(this, new ChannelTopic(CacheKeyConstants.METADATA_INVALIDATE_TOPIC));
+    }
+
+    private <K, V> Cache<K, V> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(properties.getLocalTtlSeconds()))
+                .build();
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 根据 appKey 获取应用
+     */
+    public SysApp getAppByKey(String appKey) {
+        return load(appCache, appKey, redisKey(TYPE_APP, "key:", appKey), SysApp.class, () -> {
+            LambdaQueryWrapper<SysApp> query = new LambdaQueryWrapper<>();
+            query.eq(SysApp::getAppKey, appKey);
+            return appMapper.selectOne(query);
+        });
+    }
+
+    /**
+     * 根据模板编码获取模板
+     */
+    public SysTemplate getTemplateByCode(String code) {
+        return load(templateCodeCache, code, redisKey(TYPE_TEMPLATE, "code:", code), SysTemplate.class, () -> {
+            LambdaQueryWrapper<SysTemplate> query = new LambdaQueryWrapper<>();
+            query.eq(SysTemplate::getCode, code);
+            return templateMapper.selectOne(query);
+        });
+    }
+
+    /**
+     * 根据模板ID获取模板
+     */
+    public SysTemplate getTemplateById(Long id) {
+        return load(templateIdCache, id, redisKey(TYPE_TEMPLATE, "id:", String.valueOf(id)), SysTemplate.class,
+                () -> templateMapper.selectById(id));
+    }
+
+    /**
+     * 根据渠道ID获取渠道
+     */
+    public SysChannel getChannelById(Long id) {
+        return load(channelCache, id, redisKey(TYPE_CHANNEL, "id:", String.valueOf(id)), SysChannel.class,
+                () -> channelMapper.selectById(id));
+    }
+
+    /**
+     * 依次从本地缓存、Redis、数据库加载，数据不存在时不做缓存
+     */
+    private <K, V> V load(Cache<K, V> cache, K key, String redisKey, Class<V> clazz, Supplier<V> dbLoader) {
+        if (key == null) {
+            return null;
+        }
+        if (!properties.isEnabled()) {
+            return dbLoader.get();
+        }
+        return cache.get(key, k -> {
+            V value = cacheService.getObject(redisKey, clazz);
+            if (value == null) {
+                value = dbLoader.get();
+                if (value != null) {
+                    cacheService.setObject(redisKey, value, properties.getRedisTtlSeconds(), TimeUnit.SECONDS);
+                }
+            }
+            return value;
+        });
+    }
+
+    // ==================== 失效 ====================
+
+    /**
+     * 清除应用缓存 (所有节点)
+     */
+    public void evictApp(SysApp app) {
+        if (app == null || app.getAppKey() == null) {
+            return;
+        }
+        evict(new InvalidateMessage(TYPE_APP, null, app.getAppKey()));
+    }
+
+    /**
+     * 清除模板缓存 (所有节点)
+     */
+    public void evictTemplate(SysTemplate template) {
+        if (template == null) {
+            return;
+        }
+        evict(new InvalidateMessage(TYPE_TEMPLATE, template.getId(), template.getCode()));
+    }
+
+    /**
+     * 清除渠道缓存 (所有节点)
+     */
+    public void evictChannel(Long channelId) {
+        if (channelId == null) {
+            return;
+        }
+        evict(new InvalidateMessage(TYPE_CHANNEL, channelId, null));
+    }
+
+    private void evict(InvalidateMessage message) {
+        List<String> redisKeys = new ArrayList<>(2);
+        switch (message.getType()) {
+            case TYPE_APP -> redisKeys.add(redisKey(TYPE_APP, "key:", message.getKey()));
+            case TYPE_TEMPLATE -> {
+                if (message.getId() != null) {
+                    redisKeys.add(redisKey(TYPE_TEMPLATE, "id:", String.valueOf(message.getId())));
+                }
+                if (message.getKey() != null) {
+                    redisKeys.add(redisKey(TYPE_TEMPLATE, "code:", message.getKey()));
+                }
+            }
+            case TYPE_CHANNEL -> redisKeys.add(redisKey(TYPE_CHANNEL, "id:", String.valueOf(message.getId())));
+            default -> {
+            }
+        }
+        cacheService.delete(redisKeys);
+        invalidateLocal(message);
+        // 通知其他节点清除本地缓存 (本节点也会收到，重复清除无副作用)
+        cacheService.publish(CacheKeyConstants.METADATA_INVALIDATE_TOPIC, JSON.toJSONString(message));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            InvalidateMessage invalidate = JSON.parseObject(
+                    new String(message.getBody(), StandardCharsets.UTF_8), InvalidateMessage.class);
+            if (invalidate != null) {
+                invalidateLocal(invalidate);
+            }
+        } catch (Exception e) {
+            log.error("处理元数据缓存失效通知失败", e);
+        }
+    }
+
+    private void invalidateLocal(InvalidateMessage message) {
+        switch (message.getType()) {
+            case TYPE_APP -> appCache.invalidate(message.getKey());
+            case TYPE_TEMPLATE -> {
+                if (message.getId() != null) {
+                    templateIdCache.invalidate(message.getId());
+                }
+                if (message.getKey() != null) {
+                    templateCodeCache.invalidate(message.getKey());
+                }
+            }
+            case TYPE_CHANNEL -> {
+                channelCache.invalidate(message.getId());
+                eventPublisher.publishEvent(new ChannelChangedEvent(message.getId()));
+            }
+            default -> log.warn("未知的元数据缓存类型: {}", message.getType());
+        }
+    }
+
+    private String redisKey(String type, String dimension, String value) {
+        return cacheService.buildKey(CacheKeyConstants.METADATA, type, ":", dimension, value);
+    }
+
+    /**
+     * 缓存失效通知
+     */
+    @Data
+    @NoArgsConstructor
+    public static class InvalidateMessage {
+        /**
+         * 元数据类型: app / template / channel
+         */
+        private String type;
+        /**
+         * 主键ID
+         */
+        private Long id;
+        /**
+         * 业务键 (appKey / 模板编码)
+         */
+        private String key;
+
+        public InvalidateMessage(String type, Long id, String key) {
+            this.type = type;
+            this.id = id;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.unimessage.cache;
+
+import com.baomidou.mybatisplus.extension.toolkit.Db;
+import com.unimessage.config.ShortUrlProperties;
+import com.unimessage.entity.ShortUrlAccessLog;
+import com.unimessage.service.ShortUrlClickCounterService;
+import com.unimessage.service.ShortUrlStatsService;
+import com.unimessage.util.RingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 短链接访问记录缓冲
+ * 跳转请求只把访问事件写入无锁环形队列，由单个后台线程定期取出：
+ * 点击量按短链码在内存中聚合后批量累加到分片计数表，访问日志通过 JDBC 批量插入并累加到小时/每日统计，
+ * 跳转延迟与数据库写入能力解耦。队列满时丢弃访问记录，不阻塞跳转
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class ShortUrlAccessBuffer {
+
+    private static final String THREAD_NAME = "short-url-access-flusher";
+
+    @Resource
+    private ShortUrlClickCounterService shortUrlClickCounterService;
+    @Resource
+    private ShortUrlProperties properties;
+    @Resource
+    private ShortUrlStatsService shortUrlStatsService;
+
+    private RingBuffer<ShortUrlAccessLog> buffer;
+    private ScheduledExecutorService flusher;
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        ShortUrlProperties.AccessRecord config = properties.getAccessRecord();
+        buffer = new RingBuffer<>(config.getBufferSize());
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, THREAD_NAME);
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(10, config.getFlushIntervalMillis());
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 提交访问事件 (不阻塞)
+     *
+     * @return false 队列已满，事件被丢弃
+     */
+    public boolean offer(ShortUrlAccessLog accessLog) {
+        if (buffer.offer(accessLog)) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 取出本轮开始时队列中的事件并按批写入数据库
+     * 以开始时的队列长度为上限，持续高流量下单轮刷写也会结束；每批的点击量随访问日志一起提交，不在内存中长期累积
+     */
+    private void flush() {
+        try {
+            int batchSize = Math.max(1, properties.getAccessRecord().getBatchSize());
+            int remaining = buffer.size();
+            while (remaining > 0) {
+                // 按短链码排序，多节点并发更新时加锁顺序一致，避免死锁
+                Map<String, Long> clicks = new TreeMap<>();
+                List<ShortUrlAccessLog> logs = new ArrayList<>(Math.min(batchSize, remaining));
+                ShortUrlAccessLog accessLog;
+                while (logs.size() < batchSize && remaining > 0 && (accessLog = buffer.poll()) != null) {
+                    remaining--;
+                    clicks.merge(accessLog.getShortCode(), 1L, Long::sum);
+                    logs.add(accessLog);
+                }
+                if (logs.isEmpty()) {
+                    break;
+                }
+                saveLogs(logs);
+                saveClicks(clicks);
+            }
+
+            long droppedCount = dropped.getAndSet(0);
+            if (droppedCount > 0) {
+                log.warn("短链访问记录队列已满，丢弃访问记录: count={}", droppedCount);
+            }
+        } catch (Exception e) {
+            log.error("刷写短链访问记录失败", e);
+        }
+    }
+
+    private void saveLogs(List<ShortUrlAccessLog> logs) {
+        try {
+            Db.saveBatch(logs, logs.size());
+        } catch (Exception e) {
+            log.error("批量写入短链访问日志失败: count={}", logs.size(), e);
+        }
+        try {
+            shortUrlStatsService.rollup(logs);
+        } catch (Exception e) {
+            log.error("累加短链统计失败: count={}", logs.size(), e);
+        }
+    }
+
+    private void saveClicks(Map<String, Long> clicks) {
+        try {
+            shortUrlClickCounterService.increment(clicks);
+        } catch (Exception e) {
+            log.error("累加短链点击量失败: codes={}", clicks.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(30, TimeUnit.SECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 写入剩余事件
+        flush();
+    }
+}
@@ -0,0 +1,316 @@
+package com.unimessage.cache;
+
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.unimessage.config.ShortUrlProperties;
+import com.unimessage.constant.CacheKeyConstants;
+import com.unimessage.entity.ShortUrl;
+import com.unimessage.mapper.ShortUrlMapper;
+import com.unimessage.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 短链接本地缓存
+ * 热点短链缓存在进程内 (Caffeine W-TinyLFU)，命中时解析无需访问网络；
+ * 布隆过滤器记录所有有效短链码，不存在的短链码直接拒绝，不再访问 Redis 和数据库。
+ * 布隆过滤器在订阅同步通道成功时从数据库全量构建并定期重建，新建短链/禁用删除通过 Redis Pub/Sub 同步到所有节点；
+ * Pub/Sub 不保证送达，订阅断线重连后立即重建，补上断线期间丢失的新增通知
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class ShortUrlLocalCache implements MessageListener, SubscriptionListener {
+
+    private static final String ACTION_ADD = "add";
+    private static final String ACTION_EVICT = "evict";
+    private static final String THREAD_NAME = "short-url-bloom-builder";
+    private static final int SCAN_PAGE_SIZE = 5000;
+    private static final int SYNC_BATCH_SIZE = 1000;
+
+    @Resource
+    private ShortUrlMapper shortUrlMapper;
+    @Resource
+    private CacheService cacheService;
+    @Resource
+    private ShortUrlProperties properties;
+    @Resource
+    private RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * 短链码 -> 原始URL
+     */
+    private Cache<String, HotEntry> hotCache;
+    /**
+     * 当前生效的布隆过滤器，构建完成前为 null (不做拦截)
+     */
+    private volatile BloomFilter bloomFilter;
+    /**
+     * 正在重建的布隆过滤器，重建期间新增的短链码同时写入
+     */
+    private volatile BloomFilter building;
+    private ScheduledExecutorService builderExecutor;
+
+    @PostConstruct
+    public void init() {
+        ShortUrlProperties.LocalCache config = properties.getLocalCache();
+        hotCache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(config.getTtlSeconds()))
+                .build();
+        if (!config.isEnabled()) {
+            return;
+        }
+        builderExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, THREAD_NAME);
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1, config.getBloomRebuildMinutes());
+        // 首次构建由订阅成功回调触发 (先订阅再扫描，构建期间的新增通知不会丢失)
+        builderExecutor.scheduleWithFixedDelay(this::rebuildBloomFilter, interval, interval, TimeUnit.MINUTES);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CacheKeyConstants.SHORT_URL_SYNC_TOPIC));
+    }
+
+    /**
+     * 订阅 (含断线重连后的重新订阅) 成功时重建布隆过滤器
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        log.info("短链缓存同步通道已订阅，重建布隆过滤器");
+        try {
+            builderExecutor.execute(this::rebuildBloomFilter);
+        } catch (RejectedExecutionException e) {
+            // 停机中，不再重建
+        }
+    }
+
+    /**
+     * 获取本地缓存的原始URL
+     *
+     * @return 未命中或已过期返回 null
+     */
+    public String get(String shortCode) {
+        if (!properties.getLocalCache().isEnabled()) {
+            return null;
+        }
+        HotEntry entry = hotCache.getIfPresent(shortCode);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireAt > 0 && entry.expireAt <= System.currentTimeMillis()) {
+            hotCache.invalidate(shortCode);
+            return null;
+        }
+        return entry.url;
+    }
+
+    /**
+     * 缓存有效短链
+     */
+    public void put(ShortUrl shortUrl) {
+        long expireAt = shortUrl.getExpireAt() == null ? 0
+                : shortUrl.getExpireAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        put(shortUrl.getShortCode(), shortUrl.getOriginalUrl(), expireAt);
+    }
+
+    /**
+     * 缓存有效短链 (Redis 命中时使用，过期时间不晚于 Redis 缓存的过期时间)
+     *
+     * @param expireAt 过期时间戳(毫秒)，0 表示永不过期
+     */
+    public void put(String shortCode, String url, long expireAt) {
+        if (properties.getLocalCache().isEnabled()) {
+            hotCache.put(shortCode, new HotEntry(url, expireAt));
+        }
+    }
+
+    /**
+     * 短链码是否可能存在
+     *
+     * @return false 一定不存在; 布隆过滤器未就绪时返回 true
+     */
+    public boolean mightExist(String shortCode) {
+        BloomFilter filter = bloomFilter;
+        return filter == null || !properties.getLocalCache().isEnabled() || filter.mightContain(shortCode);
+    }
+
+    /**
+     * 新建短链后调用，通知所有节点加入布隆过滤器
+     */
+    public void onCreated(String shortCode) {
+        addToBloom(shortCode);
+        publish(new SyncMessage(ACTION_ADD, shortCode));
+    }
+
+    /**
+     * 批量新建短链后调用，按批通知所有节点加入布隆过滤器
+     */
+    public void onCreated(List<String> shortCodes) {
+        for (String shortCode : shortCodes) {
+            addToBloom(shortCode);
+        }
+        for (int i = 0; i < shortCodes.size(); i += SYNC_BATCH_SIZE) {
+            SyncMessage message = new SyncMessage(ACTION_ADD, null);
+            message.setShortCodes(new ArrayList<>(shortCodes.subList(i, Math.min(i + SYNC_BATCH_SIZE, shortCodes.size()))));
+            publish(message);
+        }
+    }
+
+    /**
+     * 短链禁用/删除后调用，通知所有节点清除本地缓存
+     */
+    public void evict(String shortCode) {
+        hotCache.invalidate(shortCode);
+        publish(new SyncMessage(ACTION_EVICT, shortCode));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            SyncMessage sync = JSON.parseObject(new String(message.getBody(), StandardCharsets.UTF_8), SyncMessage.class);
+            if (sync == null) {
+                return;
+            }
+            if (ACTION_ADD.equals(sync.getAction()) && sync.getShortCodes() != null) {
+                sync.getShortCodes().forEach(this::addToBloom);
+            }
+            if (sync.getShortCode() == null) {
+                return;
+            }
+            if (ACTION_ADD.equals(sync.getAction())) {
+                addToBloom(sync.getShortCode());
+            } else if (ACTION_EVICT.equals(sync.getAction())) {
+                hotCache.invalidate(sync.getShortCode());
+            }
+        } catch (Exception e) {
+            log.error("处理短链缓存同步通知失败", e);
+        }
+    }
+
+    private void addToBloom(String shortCode) {
+        BloomFilter filter = bloomFilter;
+        if (filter != null) {
+            filter.put(shortCode);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(shortCode);
+        }
+    }
+
+    private void publish(SyncMessage message) {
+        if (properties.getLocalCache().isEnabled()) {
+            cacheService.publish(CacheKeyConstants.SHORT_URL_SYNC_TOPIC, JSON.toJSONString(message));
+        }
+    }
+
+    /**
+     * 从数据库全量构建布隆过滤器 (按ID分页扫描全部短链码，含已禁用的：禁用后可重新启用，布隆过滤器不支持删除)
+     */
+    private void rebuildBloomFilter() {
+        try {
+            long start = System.currentTimeMillis();
+            ShortUrlProperties.LocalCache config = properties.getLocalCache();
+            Long total = shortUrlMapper.selectCount(new LambdaQueryWrapper<>());
+            long expected = Math.max(config.getBloomExpectedInsertions(), (total != null ? total : 0) * 2);
+            BloomFilter next = new BloomFilter(expected, config.getBloomFpp());
+            building = next;
+
+            long lastId = 0;
+            long count = 0;
+            while (true) {
+                LambdaQueryWrapper<ShortUrl> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(ShortUrl::getId, ShortUrl::getShortCode)
+                        .gt(ShortUrl::getId, lastId)
+                        .orderByAsc(ShortUrl::getId)
+                        .last("LIMIT " + SCAN_PAGE_SIZE);
+                List<ShortUrl> page = shortUrlMapper.selectList(wrapper);
+                for (ShortUrl shortUrl : page) {
+                    next.put(shortUrl.getShortCode());
+                }
+                count += page.size();
+                if (page.size() < SCAN_PAGE_SIZE) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1).getId();
+            }
+
+            bloomFilter = next;
+            log.info("短链布隆过滤器构建完成: count={}, cost={}ms", count, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("短链布隆过滤器构建失败", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (builderExecutor != null) {
+            builderExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 热点短链
+     */
+    private static final class HotEntry {
+        private final String url;
+        /**
+         * 过期时间戳(毫秒)，0 表示永不过期
+         */
+        private final long expireAt;
+
+        HotEntry(String url, long expireAt) {
+            this.url = url;
+            this.expireAt = expireAt;
+        }
+    }
+
+    /**
+     * 缓存同步通知
+     */
+    @Data
+    @NoArgsConstructor
+    public static class SyncMessage {
+        /**
+         * 动作: add / evict
+         */
+        private String action;
+        private String shortCode;
+        /**
+         * 批量新增的短链码
+         */
+        private List<String> shortCodes;
+
+        public SyncMessage(String action, String shortCode) {
+            this.action = action;
+            this.shortCode = shortCode;
+        }
+    }
+}
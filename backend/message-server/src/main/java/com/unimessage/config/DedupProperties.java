@@ -0,0 +1,38 @@
+package com.unimessage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 消息去重配置 (模板 deduplication_config 生效时使用)
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "un-imessage.dedup")
+public class DedupProperties {
+
+    /**
+     * 是否启用模板去重 (关闭后忽略模板去重配置)
+     */
+    private boolean enabled = true;
+
+    /**
+     * 单个模板单个时间窗口内预期的接收者数量
+     * 用于计算 Redis 布隆位图大小，超出后误判率上升
+     */
+    private long expectedInsertions = 100000;
+
+    /**
+     * 布隆位图期望误判率 (误判会导致消息被错误拦截，宜设置较小值)
+     */
+    private double falsePositiveRate = 0.0001;
+
+    /**
+     * 单次 Lua 脚本检查的接收者数量，多次脚本调用通过 Pipeline 一次提交
+     */
+    private int batchSize = 1000;
+}
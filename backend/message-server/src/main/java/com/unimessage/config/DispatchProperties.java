@@ -0,0 +1,135 @@
+package com.unimessage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 消息分发配置
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "un-imessage.dispatch")
+public class DispatchProperties {
+
+    /**
+     * 分发线程池大小 (所有渠道共享)
+     */
+    private int workerThreads = 200;
+
+    /**
+     * 单个渠道默认最大并发发送数
+     * 可在渠道配置JSON中通过 maxInFlight 覆盖
+     */
+    private int defaultMaxInFlight = 20;
+
+    /**
+     * 异步渠道 (Webhook 类) 单个渠道默认最大在途请求数
+     * 异步发送不占用分发线程，实际并发同时受 HTTP 客户端单主机并发上限约束
+     */
+    private int defaultAsyncMaxInFlight = 1000;
+
+    /**
+     * 渠道限流为等待模式时单条消息的最长等待时间(毫秒)，超时后按限流失败处理
+     */
+    private long rateLimitMaxWaitMillis = 30000;
+
+    /**
+     * 发送失败自动重试配置
+     */
+    private Retry retry = new Retry();
+
+    /**
+     * 渠道熔断配置
+     */
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    @Data
+    public static class Retry {
+        /**
+         * 是否启用自动重试 (关闭后仍可手动重试)
+         */
+        private boolean enabled = true;
+
+        /**
+         * 默认最大重试次数, 模板未配置 max_retry_count 时使用
+         */
+        private int defaultMaxRetries = 3;
+
+        /**
+         * 首次重试基础延迟(毫秒)，之后每次翻倍
+         */
+        private long baseDelayMillis = 5000;
+
+        /**
+         * 最大重试延迟(毫秒)
+         */
+        private long maxDelayMillis = 600000;
+
+        /**
+         * 延迟队列轮询间隔(毫秒)
+         */
+        private long pollIntervalMillis = 1000;
+
+        /**
+         * 单次从延迟队列取出的最大明细数
+         */
+        private int pollBatchSize = 500;
+
+        /**
+         * 取出明细的租约时长(毫秒)，处理未确认 (如节点宕机) 的明细租约到期后重新取出
+         */
+        private long leaseMillis = 300000;
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        /**
+         * 是否启用渠道熔断
+         */
+        private boolean enabled = true;
+
+        /**
+         * 滑动窗口大小 (最近N次第三方调用)
+         */
+        private int windowSize = 100;
+
+        /**
+         * 窗口内至少有该数量的调用才计算失败率
+         */
+        private int minimumCalls = 20;
+
+        /**
+         * 失败率阈值(%)，达到后熔断
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * 慢调用率阈值(%)，达到后熔断
+         */
+        private int slowCallRateThreshold = 80;
+
+        /**
+         * 慢调用耗时阈值(毫秒)
+         */
+        private long slowCallDurationMillis = 5000;
+
+        /**
+         * 熔断持续时间(毫秒)，到期后进入半开状态放行少量探测调用
+         */
+        private long openDurationMillis = 30000;
+
+        /**
+         * 半开状态允许的探测调用数
+         */
+        private int halfOpenPermittedCalls = 5;
+
+        /**
+         * 因熔断未发送的明细最长暂存时间(毫秒，自明细创建起计算)，超过后不再顺延重试；0 表示不限制
+         */
+        private long maxParkMillis = 21600000;
+    }
+}
@@ -0,0 +1,42 @@
+package com.unimessage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 异步 HTTP 客户端配置
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "un-imessage.http-client")
+public class HttpClientProperties {
+
+    /**
+     * 连接超时(毫秒)
+     */
+    private long connectTimeoutMillis = 5000;
+
+    /**
+     * 请求超时(毫秒)，从请求发出到收到响应头
+     */
+    private long requestTimeoutMillis = 10000;
+
+    /**
+     * 单个主机最大并发请求数
+     */
+    private int maxConcurrentPerHost = 200;
+
+    /**
+     * 单个主机最大排队请求数，超出时请求直接失败
+     */
+    private int maxPendingPerHost = 10000;
+
+    /**
+     * 响应回调线程数
+     */
+    private int callbackThreads = 8;
+}
@@ -0,0 +1,67 @@
+package com.unimessage.config;
+
+import com.alibaba.fastjson2.JSONException;
+import com.unimessage.mq.ChunkInProgressException;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+/**
+ * Kafka MQ 配置
+ * 批量消费 + 手动提交位点，处理失败的记录重试后投递到死信主题
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Configuration
+@ConditionalOnProperty(name = "un-imessage.mq.type", havingValue = "kafka")
+public class KafkaMqConfig {
+
+    public static final String BATCH_LISTENER_FACTORY = "kafkaBatchListenerContainerFactory";
+    private static final long CHUNK_IN_PROGRESS_RETRY_MILLIS = 10000;
+
+    @Bean(BATCH_LISTENER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaBatchListenerContainerFactory(
+            ConsumerFactory<String, String> consumerFactory,
+            KafkaTemplate<String, String> kafkaTemplate,
+            MqProperties mqProperties) {
+        MqProperties.Kafka config = mqProperties.getKafka();
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(Math.max(1, config.getConcurrency()));
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        // 死信分区交由 Kafka 分配，死信主题分区数无需与源主题一致
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, ex) -> new TopicPartition(config.getDeadLetterTopic(), -1));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer,
+                new FixedBackOff(config.getRetryIntervalMillis(), Math.max(0, config.getMaxRetries())));
+        // 消息格式错误重试无意义，直接进入死信
+        errorHandler.addNotRetryableExceptions(JSONException.class);
+        // 分片正由其他消费者处理 (如处理超过 max.poll.interval 触发再均衡，或原消费者宕机)：持续等待，
+        // 原处理者存活时会续期租约，完成后标记为已处理；宕机后租约过期，下一次重试即可接手
+        FixedBackOff inProgressBackOff = new FixedBackOff(CHUNK_IN_PROGRESS_RETRY_MILLIS, FixedBackOff.UNLIMITED_ATTEMPTS);
+        errorHandler.setBackOffFunction((record, ex) -> isChunkInProgress(ex) ? inProgressBackOff : null);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    private static boolean isChunkInProgress(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof ChunkInProgressException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
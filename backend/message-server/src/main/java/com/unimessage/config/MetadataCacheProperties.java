@@ -0,0 +1,38 @@
+package com.unimessage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 元数据缓存配置 (应用/模板/渠道)
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "un-imessage.metadata-cache")
+public class MetadataCacheProperties {
+
+    /**
+     * 是否启用元数据缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 本地缓存最大条目数 (每种元数据)
+     */
+    private long localMaxSize = 10000;
+
+    /**
+     * 本地缓存过期时间(秒)
+     * 作为失效通知丢失时的兜底
+     */
+    private long localTtlSeconds = 60;
+
+    /**
+     * Redis 缓存过期时间(秒)
+     */
+    private long redisTtlSeconds = 1800;
+}
@@ -0,0 +1,151 @@
+package com.unimessage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 消息队列配置
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "un-imessage.mq")
+public class MqProperties {
+
+    /**
+     * 消息队列类型: redis / redis-stream / kafka / rocketmq
+     */
+    private String type = "redis";
+
+    /**
+     * 单条 MQ 消息携带的最大接收者数量
+     * 超出时批次会被拆分为多个分片消息投递
+     */
+    private int chunkSize = 500;
+
+    /**
+     * 分片处理租约时长(秒)
+     * 处理期间每隔 1/3 租约时长自动续期，消费者异常退出后租约过期即可由其他消费者重新处理该分片；
+     * redis-stream 模式下须小于 stream.claimIdleMillis
+     */
+    private long chunkLeaseSeconds = 240;
+
+    /**
+     * Kafka 配置 (type = kafka 时生效)
+     */
+    private Kafka kafka = new Kafka();
+
+    /**
+     * Redis List 监听器配置 (type = redis 时生效)
+     */
+    private Listener listener = new Listener();
+
+    /**
+     * Redis Stream 配置 (type = redis-stream 时生效)
+     */
+    private Stream stream = new Stream();
+
+    @Data
+    public static class Kafka {
+        /**
+         * 监听容器并发数 (消费线程数，不超过分区数时才有意义)
+         */
+        private int concurrency = 3;
+
+        /**
+         * 处理失败时的重试次数，超过后投递到死信主题
+         */
+        private int maxRetries = 3;
+
+        /**
+         * 重试间隔(毫秒)
+         */
+        private long retryIntervalMillis = 1000;
+
+        /**
+         * 死信主题
+         */
+        private String deadLetterTopic = "un-imessage-send-topic.DLT";
+
+        /**
+         * 发送确认等待超时(毫秒)，超时或失败时入队失败
+         */
+        private long sendTimeoutMillis = 10000;
+    }
+
+    @Data
+    public static class Listener {
+        /**
+         * 业务线程池核心线程数
+         */
+        private int corePoolSize = 10;
+
+        /**
+         * 业务线程池最大线程数
+         */
+        private int maxPoolSize = 20;
+
+        /**
+         * 业务线程池队列容量
+         */
+        private int queueCapacity = 200;
+
+        /**
+         * 单次 RPOP 弹出的最大消息数
+         */
+        private int popBatchSize = 20;
+
+        /**
+         * 队列为空时阻塞等待时长(秒)
+         */
+        private long popTimeoutSeconds = 5;
+
+        /**
+         * 最大在途消息数 (执行中 + 排队中)，达到后暂停拉取
+         * 小于等于 0 时取 maxPoolSize + queueCapacity
+         */
+        private int maxInFlight = 0;
+    }
+
+    @Data
+    public static class Stream {
+        /**
+         * 消费者组名称
+         */
+        private String group = "un-imessage-group";
+
+        /**
+         * 消费线程数 (同时处理的最大消息数)
+         */
+        private int consumerThreads = 10;
+
+        /**
+         * 单次 XREADGROUP 读取的最大消息数
+         */
+        private int batchSize = 10;
+
+        /**
+         * XREADGROUP 阻塞等待时长(毫秒)
+         */
+        private long blockMillis = 2000;
+
+        /**
+         * 待确认消息空闲超过该时长(毫秒)后被其他消费者认领
+         * 处理中的消息随租约续期重置空闲时间，须大于分片处理租约 chunkLeaseSeconds (启动时校验)
+         */
+        private long claimIdleMillis = 300000;
+
+        /**
+         * 检查待确认消息的间隔(毫秒)
+         */
+        private long claimIntervalMillis = 30000;
+
+        /**
+         * 最大投递次数，超过后转入死信 Stream
+         */
+        private int maxDeliveries = 5;
+    }
+}
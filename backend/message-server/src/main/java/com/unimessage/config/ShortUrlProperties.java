@@ -1,5 +1,6 @@
 package com.unimessage.config;
 
+import jakarta.annotation.PostConstruct;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -25,6 +26,22 @@ public class ShortUrlProperties {
      */
     private int codeLength = 6;
 
+    /**
+     * 短链码生成方式: segment (号段ID编码，无需查重) / random (随机码)
+     */
+    private String codeGenerator = "segment";
+
+    /**
+     * 号段模式下是否对ID做可逆置换 (避免短链码连续可猜)
+     */
+    private boolean codeShuffle = true;
+
+    /**
+     * 号段模式下ID置换密钥 (上线后不可修改，否则新旧短链码可能冲突)
+     * 无默认值：公开的默认密钥可被用于还原ID、推算相邻短链码，开启置换时必须配置
+     */
+    private Long codeSecret;
+
     /**
      * 默认有效期(秒), 0表示永不过期
      */
@@ -40,6 +57,37 @@ public class ShortUrlProperties {
      */
     private AutoBan autoBan = new AutoBan();
 
+    /**
+     * 本地缓存配置 (热点短链缓存 + 布隆过滤器)
+     */
+    private LocalCache localCache = new LocalCache();
+
+    /**
+     * 访问记录配置 (点击量聚合 + 访问日志批量写入)
+     */
+    private AccessRecord accessRecord = new AccessRecord();
+
+    /**
+     * 统计配置 (小时/每日汇总 + 原始日志保留策略)
+     */
+    private Stats stats = new Stats();
+
+    /**
+     * 消息内容短链改写配置
+     */
+    private MessageLink messageLink = new MessageLink();
+
+    /**
+     * 号段模式开启ID置换但未配置密钥时拒绝启动
+     */
+    @PostConstruct
+    public void validate() {
+        if ("segment".equalsIgnoreCase(codeGenerator) && codeShuffle && codeSecret == null) {
+            throw new IllegalStateException(
+                    "un-imessage.short-url.code-shuffle 已开启，必须配置 un-imessage.short-url.code-secret");
+        }
+    }
+
     @Data
     public static class RateLimit {
         /**
@@ -56,6 +104,18 @@ public class ShortUrlProperties {
          * 全局每分钟最大访问次数
          */
         private int globalMaxRequestsPerMinute = 10000;
+
+        /**
+         * 单次从Redis租借的配额占限额的比例
+         * 越大访问Redis越少，但多节点间配额分配越不精确
+         */
+        private double leaseRatio = 0.01;
+
+        /**
+         * 单IP限流单次租借的最小配额数
+         * 单IP限额较小，按比例计算的配额块往往只有1，每次访问都要访问Redis
+         */
+        private int ipMinLeaseChunk = 10;
     }
 
     @Data
@@ -75,4 +135,96 @@ public class ShortUrlProperties {
          */
         private long duration = 3600;
     }
+
+    @Data
+    public static class LocalCache {
+        /**
+         * 是否启用本地缓存与布隆过滤器
+         */
+        private boolean enabled = true;
+
+        /**
+         * 热点短链本地缓存最大条数
+         */
+        private long maxSize = 100000;
+
+        /**
+         * 热点短链本地缓存有效期(秒)
+         */
+        private long ttlSeconds = 300;
+
+        /**
+         * 布隆过滤器预期短链数量
+         */
+        private long bloomExpectedInsertions = 10000000;
+
+        /**
+         * 布隆过滤器误判率
+         */
+        private double bloomFpp = 0.01;
+
+        /**
+         * 布隆过滤器全量重建间隔(分钟)
+         */
+        private long bloomRebuildMinutes = 60;
+    }
+
+    @Data
+    public static class AccessRecord {
+        /**
+         * 访问事件缓冲队列容量 (向上取整为2的幂)，队列满时丢弃访问记录，不阻塞跳转
+         */
+        private int bufferSize = 65536;
+
+        /**
+         * 刷写间隔(毫秒)
+         */
+        private long flushIntervalMillis = 1000;
+
+        /**
+         * 单批写入的访问日志条数
+         */
+        private int batchSize = 1000;
+
+        /**
+         * 每个短链的点击计数槽位数，每次随机累加一个槽位，读取时求和
+         */
+        private int counterSlots = 16;
+    }
+
+    @Data
+    public static class Stats {
+        /**
+         * 每日统计保留的来源域名数量
+         */
+        private int topReferers = 10;
+
+        /**
+         * 最近访问记录条数
+         */
+        private int recentAccessSize = 10;
+
+        /**
+         * 原始访问日志保留天数, 0表示永久保留
+         */
+        private int accessLogRetentionDays = 30;
+
+        /**
+         * 小时统计保留天数, 0表示永久保留 (每日统计永久保留)
+         */
+        private int hourlyRetentionDays = 90;
+
+        /**
+         * 累计点击数合计值缓存时间(秒)
+         */
+        private long clickCacheSeconds = 5;
+    }
+
+    @Data
+    public static class MessageLink {
+        /**
+         * 改写生成的短链有效期(秒), 0表示永不过期
+         */
+        private long ttlSeconds = 2592000;
+    }
 }
@@ -17,12 +17,44 @@ public final class CacheKeyConstants {
      * 消息发送队列
      */
     public static final String MQ_SEND_QUEUE = PREFIX + "mq:send:queue";
+    /**
+     * 消息发送 Stream (redis-stream 模式)
+     */
+    public static final String MQ_SEND_STREAM = PREFIX + "mq:send:stream";
+    /**
+     * 消息发送死信 Stream (超过最大投递次数的消息)
+     */
+    public static final String MQ_SEND_STREAM_DLQ = PREFIX + "mq:send:stream:dlq";
+    /**
+     * 发送失败明细重试延迟队列 (ZSET, member 为明细ID, score 为到期时间戳)
+     */
+    public static final String MQ_RETRY_QUEUE = PREFIX + "{mq:retry}:queue";
+    /**
+     * 重试明细租约 (HASH, field 为明细ID, value 为租约截止时间戳)，与延迟队列同一 hash tag
+     */
+    public static final String MQ_RETRY_LEASE = PREFIX + "{mq:retry}:lease";
 
     // ==================== 消息队列 ====================
     /**
      * 短链接缓存前缀 (后接 shortCode)
      */
     public static final String SHORT_URL = PREFIX + "short-url:";
+    /**
+     * 短链接本地缓存同步频道 (Pub/Sub)
+     */
+    public static final String SHORT_URL_SYNC_TOPIC = PREFIX + "short-url:sync";
+    /**
+     * 短链接统计前缀 (后接 {shortCode}:类型:时间)
+     */
+    public static final String SHORT_URL_STATS = PREFIX + "short-url:stats:";
+    /**
+     * 短链接统计过期数据清理锁
+     */
+    public static final String SHORT_URL_STATS_PURGE_LOCK = PREFIX + "short-url:stats:purge-lock";
+    /**
+     * 短链接点击数合计缓存前缀 (后接 shortCode)
+     */
+    public static final String SHORT_URL_CLICKS = PREFIX + "short-url:clicks:";
 
     // ==================== 短链接服务 ====================
     /**
@@ -45,8 +77,36 @@ public final class CacheKeyConstants {
      * 模版限流前缀 (后接 appid:template_code)
      */
     public static final String RATE_LIMIT_TEMPLATE = PREFIX + "rate-limit:template:";
+    /**
+     * 渠道令牌桶前缀 (后接 channelId，按接收者限流时再接 :recipient:xxx)
+     */
+    public static final String RATE_LIMIT_CHANNEL = PREFIX + "rate-limit:channel:";
+    /**
+     * 模板消息去重前缀 (后接 {templateId:窗口秒数}:类型:时间桶)
+     */
+    public static final String DEDUP = PREFIX + "dedup:";
 
     // ==================== 通用限流 ====================
+    /**
+     * 元数据缓存前缀 (后接 类型:维度:值, 如 template:code:xxx)
+     */
+    public static final String METADATA = PREFIX + "metadata:";
+    /**
+     * 元数据缓存失效通知频道 (Pub/Sub)
+     */
+    public static final String METADATA_INVALIDATE_TOPIC = PREFIX + "metadata:invalidate";
+
+    // ==================== 元数据缓存 ====================
+    /**
+     * 渠道访问令牌缓存前缀 (后接 provider:appId)
+     */
+    public static final String ACCESS_TOKEN = PREFIX + "access-token:";
+    /**
+     * 渠道访问令牌刷新锁前缀 (后接 provider:appId)
+     */
+    public static final String ACCESS_TOKEN_LOCK = PREFIX + "access-token:lock:";
+
+    // ==================== 渠道访问令牌 ====================
 
     private CacheKeyConstants() {
     }
@@ -106,4 +106,12 @@ public class LogMsgDetailController {
     public Result<Boolean> retry(@PathVariable Long id) {
         return Result.success(messageService.retry(id));
     }
+
+    /**
+     * 重试批次内全部失败消息
+     */
+    @PostMapping("/batch/{batchId}/retry")
+    public Result<Integer> retryBatch(@PathVariable Long batchId) {
+        return Result.success(messageService.retryBatch(batchId));
+    }
 }
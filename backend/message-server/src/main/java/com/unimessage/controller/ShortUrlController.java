@@ -3,18 +3,26 @@ package com.unimessage.controller;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.unimessage.cache.ShortUrlLocalCache;
 import com.unimessage.common.Result;
 import com.unimessage.config.ShortUrlProperties;
 import com.unimessage.context.AppContext;
+import com.unimessage.dto.ShortUrlBatchCreateRequest;
 import com.unimessage.dto.ShortUrlCreateRequest;
 import com.unimessage.dto.ShortUrlResponse;
 import com.unimessage.dto.ShortUrlStatsResponse;
 import com.unimessage.entity.ShortUrl;
 import com.unimessage.mapper.ShortUrlMapper;
+import com.unimessage.service.ShortUrlClickCounterService;
 import com.unimessage.service.ShortUrlService;
+import com.unimessage.service.ShortUrlStatsService;
 import jakarta.annotation.Resource;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 短链接管理控制器 (需要登录鉴权)
  *
@@ -25,15 +33,27 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/v1/short-url")
 public class ShortUrlController {
 
+    private static final int MAX_STATS_DAYS = 366;
+    private static final int MAX_BATCH_SIZE = 10000;
+
     @Resource
     private ShortUrlService shortUrlService;
 
+    @Resource
+    private ShortUrlStatsService shortUrlStatsService;
+
+    @Resource
+    private ShortUrlClickCounterService shortUrlClickCounterService;
+
     @Resource
     private ShortUrlMapper shortUrlMapper;
 
     @Resource
     private ShortUrlProperties shortUrlProperties;
 
+    @Resource
+    private ShortUrlLocalCache shortUrlLocalCache;
+
     /**
      * 分页查询短链接列表
      */
@@ -60,8 +80,10 @@ public class ShortUrlController {
         wrapper.orderByDesc(ShortUrl::getCreatedAt);
         Page<ShortUrl> resultPage = shortUrlMapper.selectPage(page, wrapper);
 
-        // 转换为响应DTO
-        IPage<ShortUrlResponse> responsePage = resultPage.convert(this::convertToResponse);
+        // 转换为响应DTO (当前页的点击数一次批量读取)
+        Map<String, Long> clicks = shortUrlClickCounterService.getTotalClicks(resultPage.getRecords());
+        IPage<ShortUrlResponse> responsePage = resultPage.convert(
+                shortUrl -> convertToResponse(shortUrl, clicks.get(shortUrl.getShortCode())));
         return Result.success(responsePage);
     }
 
@@ -79,6 +101,23 @@ public class ShortUrlController {
         }
     }
 
+    /**
+     * 批量创建短链接 (返回顺序与请求一致)
+     */
+    @PostMapping("/batch")
+    public Result<List<ShortUrlResponse>> batchCreate(@RequestBody ShortUrlBatchCreateRequest request) {
+        List<ShortUrlCreateRequest> items = request.getItems();
+        if (items != null && items.size() > MAX_BATCH_SIZE) {
+            return Result.fail("单次最多创建" + MAX_BATCH_SIZE + "条短链接");
+        }
+        try {
+            Long createdBy = AppContext.getCurrentAppId();
+            return Result.success(shortUrlService.batchCreateShortUrls(items, createdBy));
+        } catch (IllegalArgumentException e) {
+            return Result.fail(e.getMessage());
+        }
+    }
+
     /**
      * 获取短链接详情
      */
@@ -88,7 +127,7 @@ public class ShortUrlController {
         if (shortUrl == null) {
             return Result.fail("短链接不存在");
         }
-        return Result.success(convertToResponse(shortUrl));
+        return Result.success(convertToResponse(shortUrl, shortUrlClickCounterService.getTotalClicks(shortUrl)));
     }
 
     /**
@@ -103,6 +142,20 @@ public class ShortUrlController {
         return Result.success(stats);
     }
 
+    /**
+     * 获取短链接每日统计 (默认最近30天)
+     */
+    @GetMapping("/{shortCode}/stats/daily")
+    public Result<List<ShortUrlStatsResponse.DailyStats>> getDailyStats(@PathVariable String shortCode,
+                                                                        @RequestParam(defaultValue = "30") Integer days) {
+        if (shortUrlService.getByShortCode(shortCode) == null) {
+            return Result.fail("短链接不存在");
+        }
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(Math.max(1, Math.min(days, MAX_STATS_DAYS)) - 1L);
+        return Result.success(shortUrlStatsService.listDailyStats(shortCode, from, to));
+    }
+
     /**
      * 启用短链接
      */
@@ -114,6 +167,8 @@ public class ShortUrlController {
         }
         shortUrl.setStatus(1);
         shortUrlMapper.updateById(shortUrl);
+        // 通知所有节点将短链码加入布隆过滤器，避免启用后仍被判定为不存在
+        shortUrlLocalCache.onCreated(shortCode);
         return Result.success();
     }
 
@@ -138,12 +193,12 @@ public class ShortUrlController {
     /**
      * 转换为响应DTO
      */
-    private ShortUrlResponse convertToResponse(ShortUrl shortUrl) {
+    private ShortUrlResponse convertToResponse(ShortUrl shortUrl, Long clickCount) {
         return ShortUrlResponse.builder()
                 .shortCode(shortUrl.getShortCode())
                 .shortUrl(shortUrlProperties.getDomain() + "/s/" + shortUrl.getShortCode())
                 .originalUrl(shortUrl.getOriginalUrl())
-                .clickCount(shortUrl.getClickCount())
+                .clickCount(clickCount)
                 .expireAt(shortUrl.getExpireAt())
                 .createdAt(shortUrl.getCreatedAt())
                 .status(shortUrl.getStatus())
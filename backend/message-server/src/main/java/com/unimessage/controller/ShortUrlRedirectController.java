@@ -138,7 +138,7 @@ public class ShortUrlRedirectController {
             return;
         }
 
-        // 6. 异步记录访问日志
+        // 6. 记录访问日志 (写入缓冲，不阻塞跳转)
         String userAgent = request.getHeader("User-Agent");
         String referer = request.getHeader("Referer");
         shortUrlService.recordAccess(shortCode, ip, userAgent, referer);
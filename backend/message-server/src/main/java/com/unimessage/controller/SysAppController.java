@@ -3,6 +3,7 @@ package com.unimessage.controller;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.unimessage.cache.MetadataCacheService;
 import com.unimessage.common.Result;
 import com.unimessage.dto.SysAppDto;
 import com.unimessage.dto.SysAppRespDto;
@@ -29,6 +30,8 @@ public class SysAppController {
 
     @Resource
     private SysAppMapper appMapper;
+    @Resource
+    private MetadataCacheService metadataCacheService;
 
     /**
      * 分页查询应用列表
@@ -103,8 +106,12 @@ public class SysAppController {
         BeanUtils.copyProperties(appDto, app);
         app.setId(id);
         app.setUpdatedAt(LocalDateTime.now());
+        SysApp old = appMapper.selectById(id);
         appMapper.updateById(app);
-        return Result.success(convertToDto(appMapper.selectById(id)));
+        SysApp updated = appMapper.selectById(id);
+        metadataCacheService.evictApp(old);
+        metadataCacheService.evictApp(updated);
+        return Result.success(convertToDto(updated));
     }
 
     /**
@@ -112,7 +119,9 @@ public class SysAppController {
      */
     @DeleteMapping("/{id}")
     public Result<Void> delete(@PathVariable Long id) {
+        SysApp old = appMapper.selectById(id);
         appMapper.deleteById(id);
+        metadataCacheService.evictApp(old);
         return Result.success();
     }
 
@@ -126,6 +135,7 @@ public class SysAppController {
         app.setStatus(status);
         app.setUpdatedAt(LocalDateTime.now());
         appMapper.updateById(app);
+        metadataCacheService.evictApp(appMapper.selectById(id));
         return Result.success();
     }
 
@@ -140,6 +150,7 @@ public class SysAppController {
             app.setAppSecret(newSecret);
             app.setUpdatedAt(LocalDateTime.now());
             appMapper.updateById(app);
+            metadataCacheService.evictApp(app);
         }
         return Result.success(convertToDto(app));
     }
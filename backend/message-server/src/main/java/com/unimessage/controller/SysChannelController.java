@@ -3,7 +3,10 @@ package com.unimessage.controller;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.unimessage.cache.MetadataCacheService;
 import com.unimessage.common.Result;
+import com.unimessage.dispatch.ChannelCircuitBreaker;
+import com.unimessage.dto.ChannelCircuitStateDto;
 import com.unimessage.dto.SysChannelDto;
 import com.unimessage.entity.SysChannel;
 import com.unimessage.mapper.SysChannelMapper;
@@ -26,6 +29,10 @@ public class SysChannelController {
 
     @Resource
     private SysChannelMapper channelMapper;
+    @Resource
+    private MetadataCacheService metadataCacheService;
+    @Resource
+    private ChannelCircuitBreaker channelCircuitBreaker;
 
     /**
      * 分页查询渠道列表
@@ -93,6 +100,7 @@ public class SysChannelController {
         BeanUtils.copyProperties(channelDto, channel);
         channel.setId(id);
         channelMapper.updateById(channel);
+        metadataCacheService.evictChannel(id);
         return Result.success(channelMapper.selectById(id));
     }
 
@@ -102,6 +110,7 @@ public class SysChannelController {
     @DeleteMapping("/{id}")
     public Result<Void> delete(@PathVariable Long id) {
         channelMapper.deleteById(id);
+        metadataCacheService.evictChannel(id);
         return Result.success();
     }
 
@@ -114,6 +123,7 @@ public class SysChannelController {
         channel.setId(id);
         channel.setStatus(status);
         channelMapper.updateById(channel);
+        metadataCacheService.evictChannel(id);
         return Result.success();
     }
 
@@ -128,4 +138,20 @@ public class SysChannelController {
         }
         return Result.success("测试功能待实现");
     }
+
+    /**
+     * 查询各渠道熔断状态及健康分 (当前节点)
+     */
+    @GetMapping("/circuit-breakers")
+    public Result<List<ChannelCircuitStateDto>> circuitBreakers() {
+        return Result.success(channelCircuitBreaker.listStates());
+    }
+
+    /**
+     * 手动重置渠道熔断状态 (当前节点)
+     */
+    @PostMapping("/{id}/circuit-breaker/reset")
+    public Result<Boolean> resetCircuitBreaker(@PathVariable Long id) {
+        return Result.success(channelCircuitBreaker.reset(id));
+    }
 }
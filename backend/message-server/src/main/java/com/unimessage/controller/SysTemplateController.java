@@ -3,6 +3,7 @@ package com.unimessage.controller;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.unimessage.cache.MetadataCacheService;
 import com.unimessage.common.Result;
 import com.unimessage.dto.SysTemplateDto;
 import com.unimessage.entity.SysTemplate;
@@ -26,6 +27,8 @@ public class SysTemplateController {
 
     @Resource
     private SysTemplateMapper templateMapper;
+    @Resource
+    private MetadataCacheService metadataCacheService;
 
     /**
      * 分页查询模板列表
@@ -135,8 +138,13 @@ public class SysTemplateController {
         }
 
         template.setId(id);
+        SysTemplate old = templateMapper.selectById(id);
         templateMapper.updateById(template);
-        return Result.success(templateMapper.selectById(id));
+        SysTemplate updated = templateMapper.selectById(id);
+        // 模板编码可能变更，新旧缓存都需清除
+        metadataCacheService.evictTemplate(old);
+        metadataCacheService.evictTemplate(updated);
+        return Result.success(updated);
     }
 
     /**
@@ -144,7 +152,9 @@ public class SysTemplateController {
      */
     @DeleteMapping("/{id}")
     public Result<Void> delete(@PathVariable Long id) {
+        SysTemplate old = templateMapper.selectById(id);
         templateMapper.deleteById(id);
+        metadataCacheService.evictTemplate(old);
         return Result.success();
     }
 
@@ -157,6 +167,7 @@ public class SysTemplateController {
         template.setId(id);
         template.setStatus(status);
         templateMapper.updateById(template);
+        metadataCacheService.evictTemplate(templateMapper.selectById(id));
         return Result.success();
     }
 }
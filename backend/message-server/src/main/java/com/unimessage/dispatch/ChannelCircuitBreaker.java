@@ -0,0 +1,336 @@
+package com.unimessage.dispatch;
+
+import com.unimessage.config.DispatchProperties;
+import com.unimessage.dto.ChannelCircuitStateDto;
+import com.unimessage.entity.SysChannel;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 渠道熔断器 (节点本地)
+ * 按渠道统计最近N次第三方调用的失败率和慢调用率，超过阈值后熔断：熔断期间该渠道的发送直接失败并转入重试队列，
+ * 不再占用分发线程等待超时；熔断到期后进入半开状态放行少量探测调用，探测正常则恢复，否则继续熔断。
+ * 只有临时性错误 (超时、5xx、限流等) 计为失败，号码无效等业务错误不影响熔断
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class ChannelCircuitBreaker {
+
+    /**
+     * 熔断拒绝时写入明细的错误信息 (重试调度据此识别需暂存到熔断恢复后的明细)
+     */
+    public static final String OPEN_ERROR_MSG = "渠道熔断中，暂停发送";
+
+    public static final String STATE_CLOSED = "CLOSED";
+    public static final String STATE_OPEN = "OPEN";
+    public static final String STATE_HALF_OPEN = "HALF_OPEN";
+
+    private static final byte OUTCOME_FAILURE = 1;
+    private static final byte OUTCOME_SLOW = 2;
+    /**
+     * 平均耗时指数加权系数 (新样本权重)
+     */
+    private static final double LATENCY_ALPHA = 0.2;
+    private static final int FULL_HEALTH = 100;
+
+    @Resource
+    private DispatchProperties properties;
+
+    /**
+     * 渠道ID -> 熔断器
+     */
+    private final Map<Long, Breaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * 获取调用许可
+     *
+     * @param channel 渠道
+     * @return false 渠道熔断中，不应调用
+     */
+    public boolean tryAcquire(SysChannel channel) {
+        DispatchProperties.CircuitBreaker config = properties.getCircuitBreaker();
+        if (!config.isEnabled()) {
+            return true;
+        }
+        return getBreaker(channel).tryAcquire(config);
+    }
+
+    /**
+     * 归还未使用的调用许可 (获取许可后因限流等原因未实际调用)
+     */
+    public void release(SysChannel channel) {
+        Breaker breaker = breakers.get(channel.getId());
+        if (breaker != null) {
+            breaker.release();
+        }
+    }
+
+    /**
+     * 记录调用结果
+     *
+     * @param channel        渠道
+     * @param failure        是否为临时性失败
+     * @param durationMillis 调用耗时
+     */
+    public void onResult(SysChannel channel, boolean failure, long durationMillis) {
+        DispatchProperties.CircuitBreaker config = properties.getCircuitBreaker();
+        if (!config.isEnabled()) {
+            return;
+        }
+        getBreaker(channel).onResult(config, failure, durationMillis >= config.getSlowCallDurationMillis(), durationMillis);
+    }
+
+    /**
+     * 熔断中渠道的明细下次重试时间: 熔断恢复时间 + [0, 熔断时长) 随机抖动，避免恢复瞬间集中重发
+     *
+     * @param channel 渠道
+     * @return 时间戳(毫秒)
+     */
+    public long retryAtMillis(SysChannel channel) {
+        long openDuration = Math.max(1, properties.getCircuitBreaker().getOpenDurationMillis());
+        Breaker breaker = breakers.get(channel.getId());
+        long openUntil = breaker != null ? breaker.openUntil() : 0;
+        long base = Math.max(System.currentTimeMillis(), openUntil);
+        return base + ThreadLocalRandom.current().nextLong(openDuration);
+    }
+
+    /**
+     * 渠道是否处于熔断期 (不改变状态)
+     */
+    public boolean isOpen(SysChannel channel) {
+        Breaker breaker = breakers.get(channel.getId());
+        return properties.getCircuitBreaker().isEnabled() && breaker != null
+                && breaker.openUntil() > System.currentTimeMillis();
+    }
+
+    /**
+     * 渠道健康分 (0-100)，无调用记录时为满分
+     */
+    public int healthScore(Long channelId) {
+        Breaker breaker = breakers.get(channelId);
+        return breaker != null ? breaker.healthScore() : FULL_HEALTH;
+    }
+
+    /**
+     * 渠道平均调用耗时(毫秒, 指数加权)，无调用记录时为0
+     */
+    public long averageLatencyMillis(Long channelId) {
+        Breaker breaker = breakers.get(channelId);
+        return breaker != null ? breaker.averageLatencyMillis() : 0;
+    }
+
+    /**
+     * 当前节点各渠道熔断状态
+     */
+    public List<ChannelCircuitStateDto> listStates() {
+        List<ChannelCircuitStateDto> states = new ArrayList<>(breakers.size());
+        for (Breaker breaker : breakers.values()) {
+            states.add(breaker.snapshot());
+        }
+        states.sort(Comparator.comparing(ChannelCircuitStateDto::getChannelId));
+        return states;
+    }
+
+    /**
+     * 手动重置渠道熔断状态
+     *
+     * @return false 该渠道无熔断记录
+     */
+    public boolean reset(Long channelId) {
+        Breaker breaker = breakers.remove(channelId);
+        if (breaker != null) {
+            log.info("渠道熔断状态已手动重置: channelId={}", channelId);
+        }
+        return breaker != null;
+    }
+
+    private Breaker getBreaker(SysChannel channel) {
+        Breaker breaker = breakers.computeIfAbsent(channel.getId(),
+                id -> new Breaker(id, Math.max(1, properties.getCircuitBreaker().getWindowSize())));
+        breaker.channelName = channel.getName();
+        return breaker;
+    }
+
+    /**
+     * 单个渠道的熔断器，基于计数的滑动窗口
+     */
+    private static final class Breaker {
+        private final Long channelId;
+        private volatile String channelName;
+        private final byte[] outcomes;
+        private int index;
+        private int size;
+        private int failures;
+        private int slowCalls;
+        private String state = STATE_CLOSED;
+        private long openedAt;
+        private long openDurationMillis;
+        private long halfOpenAt;
+        private int halfOpenIssued;
+        private int halfOpenCompleted;
+        private int halfOpenFailures;
+        private int halfOpenSlowCalls;
+        private long rejected;
+        private double averageLatency;
+
+        Breaker(Long channelId, int windowSize) {
+            this.channelId = channelId;
+            this.outcomes = new byte[windowSize];
+        }
+
+        synchronized boolean tryAcquire(DispatchProperties.CircuitBreaker config) {
+            if (STATE_OPEN.equals(state)) {
+                if (System.currentTimeMillis() < openedAt + openDurationMillis) {
+                    rejected++;
+                    return false;
+                }
+                startHalfOpen();
+                log.info("渠道熔断到期，进入半开探测: channelId={}", channelId);
+            }
+            if (STATE_HALF_OPEN.equals(state)) {
+                // 探测调用长时间未返回结果时重新放行，避免停留在半开状态
+                if (halfOpenCompleted < halfOpenIssued
+                        && System.currentTimeMillis() > halfOpenAt + Math.max(openDurationMillis, config.getSlowCallDurationMillis())) {
+                    startHalfOpen();
+                }
+                if (halfOpenIssued >= Math.max(1, config.getHalfOpenPermittedCalls())) {
+                    rejected++;
+                    return false;
+                }
+                halfOpenIssued++;
+            }
+            return true;
+        }
+
+        private void startHalfOpen() {
+            state = STATE_HALF_OPEN;
+            halfOpenAt = System.currentTimeMillis();
+            halfOpenIssued = 0;
+            halfOpenCompleted = 0;
+            halfOpenFailures = 0;
+            halfOpenSlowCalls = 0;
+        }
+
+        synchronized void release() {
+            if (STATE_HALF_OPEN.equals(state) && halfOpenIssued > halfOpenCompleted) {
+                halfOpenIssued--;
+            }
+        }
+
+        synchronized void onResult(DispatchProperties.CircuitBreaker config, boolean failure, boolean slow, long durationMillis) {
+            averageLatency = averageLatency == 0 ? durationMillis
+                    : averageLatency * (1 - LATENCY_ALPHA) + durationMillis * LATENCY_ALPHA;
+            if (STATE_HALF_OPEN.equals(state)) {
+                halfOpenCompleted++;
+                halfOpenFailures += failure ? 1 : 0;
+                halfOpenSlowCalls += slow ? 1 : 0;
+                int permitted = Math.max(1, config.getHalfOpenPermittedCalls());
+                if (exceeds(config, halfOpenFailures, halfOpenSlowCalls, halfOpenCompleted)) {
+                    open(config);
+                } else if (halfOpenCompleted >= permitted) {
+                    close();
+                }
+                return;
+            }
+            if (STATE_OPEN.equals(state)) {
+                // 熔断前发出的调用，结果不再计入
+                return;
+            }
+
+            byte outcome = (byte) ((failure ? OUTCOME_FAILURE : 0) | (slow ? OUTCOME_SLOW : 0));
+            if (size == outcomes.length) {
+                byte evicted = outcomes[index];
+                failures -= (evicted & OUTCOME_FAILURE) != 0 ? 1 : 0;
+                slowCalls -= (evicted & OUTCOME_SLOW) != 0 ? 1 : 0;
+            } else {
+                size++;
+            }
+            outcomes[index] = outcome;
+            index = (index + 1) % outcomes.length;
+            failures += failure ? 1 : 0;
+            slowCalls += slow ? 1 : 0;
+
+            if (size >= Math.max(1, config.getMinimumCalls()) && exceeds(config, failures, slowCalls, size)) {
+                open(config);
+            }
+        }
+
+        private boolean exceeds(DispatchProperties.CircuitBreaker config, int failureCount, int slowCount, int total) {
+            return failureCount * 100 >= config.getFailureRateThreshold() * total
+                    || slowCount * 100 >= config.getSlowCallRateThreshold() * total;
+        }
+
+        private void open(DispatchProperties.CircuitBreaker config) {
+            log.warn("渠道熔断: channelId={}, channelName={}, failures={}, slowCalls={}, calls={}",
+                    channelId, channelName, STATE_HALF_OPEN.equals(state) ? halfOpenFailures : failures,
+                    STATE_HALF_OPEN.equals(state) ? halfOpenSlowCalls : slowCalls,
+                    STATE_HALF_OPEN.equals(state) ? halfOpenCompleted : size);
+            state = STATE_OPEN;
+            openedAt = System.currentTimeMillis();
+            openDurationMillis = Math.max(1, config.getOpenDurationMillis());
+        }
+
+        private void close() {
+            log.info("渠道熔断恢复: channelId={}, channelName={}", channelId, channelName);
+            state = STATE_CLOSED;
+            index = 0;
+            size = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+
+        synchronized long openUntil() {
+            return STATE_OPEN.equals(state) ? openedAt + openDurationMillis : 0;
+        }
+
+        synchronized int healthScore() {
+            if (STATE_OPEN.equals(state)) {
+                return 0;
+            }
+            return (int) Math.max(0, Math.round(FULL_HEALTH - failureRate() * 0.7 - slowCallRate() * 0.3));
+        }
+
+        synchronized long averageLatencyMillis() {
+            return Math.round(averageLatency);
+        }
+
+        private double failureRate() {
+            return size > 0 ? failures * 100.0 / size : 0;
+        }
+
+        private double slowCallRate() {
+            return size > 0 ? slowCalls * 100.0 / size : 0;
+        }
+
+        synchronized ChannelCircuitStateDto snapshot() {
+            boolean open = STATE_OPEN.equals(state);
+            return ChannelCircuitStateDto.builder()
+                    .channelId(channelId)
+                    .channelName(channelName)
+                    .state(state)
+                    .healthScore(healthScore())
+                    .failureRate(failureRate())
+                    .slowCallRate(slowCallRate())
+                    .averageLatencyMillis(averageLatencyMillis())
+                    .bufferedCalls(size)
+                    .rejectedCalls(rejected)
+                    .openUntil(open ? LocalDateTime.ofInstant(Instant.ofEpochMilli(openedAt + openDurationMillis),
+                            ZoneId.systemDefault()) : null)
+                    .build();
+        }
+    }
+}
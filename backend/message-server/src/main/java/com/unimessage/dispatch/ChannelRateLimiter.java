@@ -0,0 +1,215 @@
+package com.unimessage.dispatch;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.unimessage.cache.CacheService;
+import com.unimessage.config.DispatchProperties;
+import com.unimessage.constant.CacheKeyConstants;
+import com.unimessage.entity.SysChannel;
+import com.unimessage.service.RateLimiterService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 渠道发送限流器
+ * 按渠道配置JSON中的 rateLimit 对第三方调用做令牌桶限流 (集群共享一个 Redis 令牌桶)，
+ * 每次从 Redis 批量租借少量令牌在本地发放，避免每条消息访问一次 Redis；
+ * 配置示例: {"rateLimit": {"rate": 20, "periodSeconds": 60, "burst": 20, "mode": "delay",
+ * "recipientRate": 1, "recipientPeriodSeconds": 1}}
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class ChannelRateLimiter {
+
+    private static final String KEY_RATE_LIMIT = "rateLimit";
+    private static final String KEY_RATE = "rate";
+    private static final String KEY_PERIOD_SECONDS = "periodSeconds";
+    private static final String KEY_BURST = "burst";
+    private static final String KEY_MODE = "mode";
+    private static final String KEY_RECIPIENT_RATE = "recipientRate";
+    private static final String KEY_RECIPIENT_PERIOD_SECONDS = "recipientPeriodSeconds";
+    private static final String MODE_REJECT = "reject";
+    /**
+     * 单次租借的令牌约等于该时长(毫秒)内的生成量，租借的令牌超过该时长未用完即作废，
+     * 防止节点囤积令牌造成超发
+     */
+    private static final long LEASE_MILLIS = 100;
+
+    @Resource
+    private RateLimiterService rateLimiterService;
+    @Resource
+    private CacheService cacheService;
+    @Resource
+    private DispatchProperties properties;
+
+    /**
+     * 渠道ID -> 本地令牌桶
+     */
+    private final Map<Long, ChannelBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * 获取一次发送许可 (一次第三方调用)
+     * 等待模式下令牌不足时阻塞等待，拒绝模式下直接返回 false
+     *
+     * @param channel   渠道
+     * @param recipient 接收者，非空且渠道配置了按接收者限流时同时校验接收者维度
+     * @return true 允许发送, false 被限流
+     */
+    public boolean acquire(SysChannel channel, String recipient) {
+        ChannelBucket bucket = getBucket(channel);
+        if (bucket == null) {
+            return true;
+        }
+        long deadline = System.currentTimeMillis() + properties.getRateLimitMaxWaitMillis();
+        if (!acquire(bucket.rule, deadline, bucket::takeOrLease)) {
+            return false;
+        }
+        Rule recipientRule = bucket.recipientRule;
+        if (recipient == null || recipientRule == null) {
+            return true;
+        }
+        String recipientKey = cacheService.buildKey(CacheKeyConstants.RATE_LIMIT_CHANNEL,
+                String.valueOf(channel.getId()), ":recipient:", recipient);
+        return acquire(recipientRule, deadline, () -> {
+            long result = rateLimiterService.acquireTokens(recipientKey, recipientRule.ratePerSecond, recipientRule.burst, 1);
+            return result > 0 ? 0 : -result;
+        });
+    }
+
+    /**
+     * @param taker 获取令牌，返回0表示成功，否则为建议等待毫秒数
+     */
+    private boolean acquire(Rule rule, long deadline, TokenTaker taker) {
+        while (true) {
+            long waitMillis = taker.take();
+            if (waitMillis <= 0) {
+                return true;
+            }
+            if (rule.reject || System.currentTimeMillis() + waitMillis > deadline) {
+                return false;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 获取渠道令牌桶，渠道配置变更时重建；未配置限流返回 null
+     */
+    private ChannelBucket getBucket(SysChannel channel) {
+        if (channel == null || channel.getId() == null) {
+            return null;
+        }
+        String configJson = channel.getConfigJson();
+        ChannelBucket bucket = buckets.compute(channel.getId(), (id, existing) ->
+                existing != null && Objects.equals(existing.configJson, configJson) ? existing : createBucket(channel));
+        return bucket.rule != null ? bucket : null;
+    }
+
+    private ChannelBucket createBucket(SysChannel channel) {
+        Rule rule = null;
+        Rule recipientRule = null;
+        try {
+            JSONObject config = JSON.parseObject(channel.getConfigJson());
+            JSONObject rateLimit = config != null ? config.getJSONObject(KEY_RATE_LIMIT) : null;
+            if (rateLimit != null) {
+                boolean reject = MODE_REJECT.equalsIgnoreCase(rateLimit.getString(KEY_MODE));
+                rule = Rule.of(rateLimit.getDoubleValue(KEY_RATE), rateLimit.getIntValue(KEY_PERIOD_SECONDS, 1),
+                        rateLimit.getInteger(KEY_BURST), reject);
+                recipientRule = Rule.of(rateLimit.getDoubleValue(KEY_RECIPIENT_RATE),
+                        rateLimit.getIntValue(KEY_RECIPIENT_PERIOD_SECONDS, 1), null, reject);
+            }
+        } catch (Exception e) {
+            log.warn("解析渠道限流配置失败，不做限流: channelId={}", channel.getId());
+        }
+        String key = cacheService.buildKey(CacheKeyConstants.RATE_LIMIT_CHANNEL, String.valueOf(channel.getId()));
+        return new ChannelBucket(channel.getConfigJson(), key, rule, recipientRule);
+    }
+
+    @FunctionalInterface
+    private interface TokenTaker {
+        long take();
+    }
+
+    /**
+     * 限流规则
+     */
+    private static final class Rule {
+        private final double ratePerSecond;
+        private final int burst;
+        private final boolean reject;
+        private final int leaseSize;
+
+        private Rule(double ratePerSecond, int burst, boolean reject) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.reject = reject;
+            this.leaseSize = (int) Math.max(1, Math.min(burst, Math.floor(ratePerSecond * LEASE_MILLIS / 1000)));
+        }
+
+        /**
+         * @return 速率无效时返回 null
+         */
+        static Rule of(double rate, int periodSeconds, Integer burst, boolean reject) {
+            if (rate <= 0) {
+                return null;
+            }
+            double ratePerSecond = rate / Math.max(1, periodSeconds);
+            int capacity = burst != null && burst > 0 ? burst : (int) Math.max(1, Math.ceil(rate));
+            return new Rule(ratePerSecond, capacity, reject);
+        }
+    }
+
+    /**
+     * 渠道本地令牌桶，持有从 Redis 租借的令牌
+     */
+    private final class ChannelBucket {
+        private final String configJson;
+        private final String key;
+        private final Rule rule;
+        private final Rule recipientRule;
+        private int permits;
+        private long leaseExpireAt;
+
+        ChannelBucket(String configJson, String key, Rule rule, Rule recipientRule) {
+            this.configJson = configJson;
+            this.key = key;
+            this.rule = rule;
+            this.recipientRule = recipientRule;
+        }
+
+        /**
+         * 优先使用本地租借的令牌，不足时从 Redis 租借 (同一渠道同时只有一个线程访问 Redis)
+         *
+         * @return 0 获取成功，否则为建议等待毫秒数
+         */
+        synchronized long takeOrLease() {
+            long now = System.currentTimeMillis();
+            if (permits > 0 && now < leaseExpireAt) {
+                permits--;
+                return 0;
+            }
+            permits = 0;
+            long result = rateLimiterService.acquireTokens(key, rule.ratePerSecond, rule.burst, rule.leaseSize);
+            if (result > 0) {
+                permits = (int) result - 1;
+                leaseExpireAt = now + LEASE_MILLIS;
+                return 0;
+            }
+            return -result;
+        }
+    }
+}
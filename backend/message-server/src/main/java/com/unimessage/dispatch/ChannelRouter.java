@@ -0,0 +1,278 @@
+package com.unimessage.dispatch;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.unimessage.cache.MetadataCacheService;
+import com.unimessage.entity.SysChannel;
+import com.unimessage.entity.SysTemplate;
+import com.unimessage.enums.ChannelType;
+import com.unimessage.handler.ChannelHandler;
+import com.unimessage.handler.ChannelHandlerFactory;
+import jakarta.annotation.Resource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 渠道路由器 (渠道组故障转移)
+ * 模板除主渠道外可在 channelGroup 中配置同类备用渠道，发送时按路由策略为每个接收者确定渠道尝试顺序，
+ * 前一个渠道临时性失败或熔断时依次转移到下一个渠道；配置示例:
+ * {"strategy": "weighted", "primaryWeight": 3,
+ * "channels": [{"channelId": 2, "thirdPartyId": "123456", "weight": 1}]}
+ * 策略: priority 按配置顺序 (默认), weighted 按 权重x健康分 随机分流, health 健康分优先, cost 按渠道配置JSON中 cost 单价优先；
+ * 所有策略下熔断中的渠道排在最后。短信类渠道 (SMS/TENCENT_SMS/TWILIO) 之间可互为备用，其他渠道只能与同类型渠道组合
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class ChannelRouter {
+
+    public static final String STRATEGY_PRIORITY = "priority";
+    public static final String STRATEGY_WEIGHTED = "weighted";
+    public static final String STRATEGY_HEALTH = "health";
+    public static final String STRATEGY_COST = "cost";
+
+    private static final String KEY_STRATEGY = "strategy";
+    private static final String KEY_PRIMARY_WEIGHT = "primaryWeight";
+    private static final String KEY_CHANNELS = "channels";
+    private static final String KEY_CHANNEL_ID = "channelId";
+    private static final String KEY_THIRD_PARTY_ID = "thirdPartyId";
+    private static final String KEY_WEIGHT = "weight";
+    private static final String KEY_COST = "cost";
+    private static final int CHANNEL_ENABLED = 1;
+    private static final Set<String> SMS_TYPES = Set.of(
+            ChannelType.SMS.getCode(), ChannelType.TENCENT_SMS.getCode(), ChannelType.TWILIO.getCode());
+
+    @Resource
+    private MetadataCacheService metadataCacheService;
+    @Resource
+    private ChannelHandlerFactory handlerFactory;
+    @Resource
+    private ChannelCircuitBreaker circuitBreaker;
+
+    /**
+     * 解析模板的渠道路由
+     *
+     * @param template 模板
+     * @param channel  主渠道
+     * @param handler  主渠道处理器
+     * @return 路由，模板未配置渠道组或配置无效时只包含主渠道
+     */
+    public Route resolve(SysTemplate template, SysChannel channel, ChannelHandler handler) {
+        Candidate primary = new Candidate(channel, handler, template, 1, cost(channel));
+        String groupConfig = template.getChannelGroup();
+        if (groupConfig == null || groupConfig.isBlank()) {
+            return new Route(STRATEGY_PRIORITY, List.of(primary));
+        }
+        JSONObject config;
+        try {
+            config = JSON.parseObject(groupConfig);
+        } catch (Exception e) {
+            log.warn("模板渠道组配置解析失败，只使用主渠道: templateId={}", template.getId());
+            return new Route(STRATEGY_PRIORITY, List.of(primary));
+        }
+        if (config == null) {
+            return new Route(STRATEGY_PRIORITY, List.of(primary));
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        primary.weight = Math.max(0, config.getIntValue(KEY_PRIMARY_WEIGHT, 1));
+        candidates.add(primary);
+        Set<Long> channelIds = new HashSet<>();
+        channelIds.add(channel.getId());
+        JSONArray channels = config.getJSONArray(KEY_CHANNELS);
+        for (int i = 0; channels != null && i < channels.size(); i++) {
+            JSONObject item = channels.getJSONObject(i);
+            Long channelId = item != null ? item.getLong(KEY_CHANNEL_ID) : null;
+            if (channelId == null || !channelIds.add(channelId)) {
+                continue;
+            }
+            Candidate backup = toCandidate(template, channel, item, channelId);
+            if (backup != null) {
+                candidates.add(backup);
+            }
+        }
+        String strategy = config.getString(KEY_STRATEGY);
+        return new Route(strategy != null ? strategy : STRATEGY_PRIORITY, candidates);
+    }
+
+    private Candidate toCandidate(SysTemplate template, SysChannel primary, JSONObject item, Long channelId) {
+        SysChannel backup = metadataCacheService.getChannelById(channelId);
+        if (backup == null || !Integer.valueOf(CHANNEL_ENABLED).equals(backup.getStatus())) {
+            return null;
+        }
+        if (!compatible(primary.getType(), backup.getType())) {
+            log.warn("备用渠道类型与主渠道不兼容，忽略: templateId={}, channelId={}, type={}",
+                    template.getId(), channelId, backup.getType());
+            return null;
+        }
+        ChannelHandler handler = handlerFactory.getHandler(backup.getType());
+        if (handler == null) {
+            return null;
+        }
+        // 不同服务商的第三方模板ID不同，备用渠道可单独配置
+        SysTemplate backupTemplate = template;
+        String thirdPartyId = item.getString(KEY_THIRD_PARTY_ID);
+        if (thirdPartyId != null && !thirdPartyId.equals(template.getThirdPartyId())) {
+            backupTemplate = new SysTemplate();
+            BeanUtils.copyProperties(template, backupTemplate);
+            backupTemplate.setThirdPartyId(thirdPartyId);
+        }
+        return new Candidate(backup, handler, backupTemplate, Math.max(0, item.getIntValue(KEY_WEIGHT, 1)), cost(backup));
+    }
+
+    private boolean compatible(String primaryType, String backupType) {
+        return Objects.equals(primaryType, backupType)
+                || (SMS_TYPES.contains(primaryType) && SMS_TYPES.contains(backupType));
+    }
+
+    private double cost(SysChannel channel) {
+        try {
+            JSONObject config = JSON.parseObject(channel.getConfigJson());
+            if (config != null && config.containsKey(KEY_COST)) {
+                return config.getDoubleValue(KEY_COST);
+            }
+        } catch (Exception e) {
+            log.debug("解析渠道单价失败: channelId={}", channel.getId());
+        }
+        return Double.MAX_VALUE;
+    }
+
+    /**
+     * 渠道路由
+     */
+    public final class Route {
+        private final String strategy;
+        @Getter
+        private final List<Candidate> candidates;
+
+        Route(String strategy, List<Candidate> candidates) {
+            this.strategy = strategy;
+            this.candidates = candidates;
+        }
+
+        /**
+         * 是否只有一个渠道 (无需故障转移)
+         */
+        public boolean isSingle() {
+            return candidates.size() == 1;
+        }
+
+        public Candidate primary() {
+            return candidates.get(0);
+        }
+
+        /**
+         * 明细实际发送渠道对应的候选渠道，未记录或已不在渠道组中时返回主渠道
+         */
+        public Candidate find(Long channelId) {
+            for (Candidate candidate : candidates) {
+                if (candidate.channel.getId().equals(channelId)) {
+                    return candidate;
+                }
+            }
+            return primary();
+        }
+
+        /**
+         * 是否所有渠道均在熔断中
+         */
+        public boolean isOpen() {
+            for (Candidate candidate : candidates) {
+                if (!circuitBreaker.isOpen(candidate.channel)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 最早恢复的渠道允许试探发送的时间戳
+         */
+        public long retryAtMillis() {
+            long retryAt = Long.MAX_VALUE;
+            for (Candidate candidate : candidates) {
+                retryAt = Math.min(retryAt, circuitBreaker.retryAtMillis(candidate.channel));
+            }
+            return retryAt;
+        }
+
+        /**
+         * 按策略及实时健康状况确定一个接收者的渠道尝试顺序
+         * (weighted 策略每次调用随机选择首选渠道，其余策略同一时刻结果相同)
+         */
+        public List<Candidate> order() {
+            List<Candidate> ordered = new ArrayList<>(candidates);
+            switch (strategy) {
+                case STRATEGY_WEIGHTED -> {
+                    Candidate first = pickWeighted(ordered);
+                    ordered.sort(Comparator.comparingDouble(c -> -effectiveWeight(c)));
+                    ordered.remove(first);
+                    ordered.add(0, first);
+                }
+                case STRATEGY_HEALTH -> ordered.sort(Comparator
+                        .comparingInt((Candidate c) -> -circuitBreaker.healthScore(c.channel.getId()))
+                        .thenComparingLong(c -> circuitBreaker.averageLatencyMillis(c.channel.getId())));
+                case STRATEGY_COST -> ordered.sort(Comparator.comparingDouble((Candidate c) -> c.cost)
+                        .thenComparingInt(c -> -circuitBreaker.healthScore(c.channel.getId())));
+                default -> {
+                }
+            }
+            // 熔断中的渠道放到最后 (稳定排序，其余顺序不变)
+            ordered.sort(Comparator.comparing(c -> circuitBreaker.isOpen(c.channel)));
+            return ordered;
+        }
+
+        private double effectiveWeight(Candidate candidate) {
+            return candidate.weight * circuitBreaker.healthScore(candidate.channel.getId()) / 100.0;
+        }
+
+        private Candidate pickWeighted(List<Candidate> list) {
+            double total = 0;
+            for (Candidate candidate : list) {
+                total += effectiveWeight(candidate);
+            }
+            if (total <= 0) {
+                return list.get(0);
+            }
+            double point = ThreadLocalRandom.current().nextDouble(total);
+            for (Candidate candidate : list) {
+                point -= effectiveWeight(candidate);
+                if (point < 0) {
+                    return candidate;
+                }
+            }
+            return list.get(list.size() - 1);
+        }
+    }
+
+    /**
+     * 候选渠道
+     */
+    @Getter
+    public static final class Candidate {
+        private final SysChannel channel;
+        private final ChannelHandler handler;
+        /**
+         * 该渠道使用的模板 (第三方模板ID可能与主渠道不同)
+         */
+        private final SysTemplate template;
+        private int weight;
+        private final double cost;
+
+        Candidate(SysChannel channel, ChannelHandler handler, SysTemplate template, int weight, double cost) {
+            this.channel = channel;
+            this.handler = handler;
+            this.template = template;
+            this.weight = weight;
+            this.cost = cost;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.unimessage.dispatch;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.unimessage.config.DispatchProperties;
+import com.unimessage.entity.SysChannel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 消息分发引擎
+ * 将同一批次的发送任务分散到共享线程池并发执行，并按渠道限制最大并发数，
+ * 避免单个大批次长期占用 MQ 消费线程，同时防止某个渠道挤占其他渠道的发送能力
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class MessageDispatcher {
+
+    private static final String THREAD_NAME_PREFIX = "dispatch-worker-";
+    private static final String COORDINATOR_THREAD_NAME_PREFIX = "dispatch-coordinator-";
+    private static final String KEY_MAX_IN_FLIGHT = "maxInFlight";
+    private static final long KEEP_ALIVE_TIME = 60L;
+    private static final long SHUTDOWN_TIMEOUT = 60;
+
+    private final Map<Long, ChannelPermits> permitsMap = new ConcurrentHashMap<>();
+    /**
+     * 异步在途许可，默认上限与同步并发不同，单独缓存
+     */
+    private final Map<Long, ChannelPermits> asyncPermitsMap = new ConcurrentHashMap<>();
+    private final AtomicInteger threadIndex = new AtomicInteger();
+
+    @Resource
+    private DispatchProperties properties;
+
+    private ThreadPoolExecutor workerExecutor;
+    /**
+     * 协调线程池: 同一批次分流到多个渠道时，各渠道的分发在独立协调线程中发起并等待，不占用分发线程
+     */
+    private ExecutorService coordinatorExecutor;
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, properties.getWorkerThreads());
+        // 并发量由渠道信号量控制，队列长度不会超过各渠道并发上限之和
+        workerExecutor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                KEEP_ALIVE_TIME,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> new Thread(r, THREAD_NAME_PREFIX + threadIndex.incrementAndGet())
+        );
+        workerExecutor.allowCoreThreadTimeOut(true);
+        AtomicInteger coordinatorIndex = new AtomicInteger();
+        coordinatorExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, COORDINATOR_THREAD_NAME_PREFIX + coordinatorIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 并行执行多个分发过程 (如同一批次分流到多个渠道)，阻塞直到全部完成
+     * 第一个在当前线程执行，其余在协调线程中执行
+     *
+     * @param tasks 分发过程，各自内部调用 {@link #dispatch} 或 {@link #dispatchAsync}
+     */
+    public void runConcurrently(List<Runnable> tasks) {
+        if (tasks == null || tasks.isEmpty()) {
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>(tasks.size() - 1);
+        for (int i = 1; i < tasks.size(); i++) {
+            try {
+                futures.add(coordinatorExecutor.submit(tasks.get(i)));
+            } catch (RejectedExecutionException e) {
+                futures.add(CompletableFuture.runAsync(tasks.get(i), Runnable::run));
+            }
+        }
+        try {
+            tasks.get(0).run();
+        } finally {
+            boolean interrupted = false;
+            for (Future<?> future : futures) {
+                while (true) {
+                    try {
+                        future.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        log.error("分发过程执行异常", e.getCause());
+                        break;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 按渠道并发上限分发任务，阻塞直到所有任务执行完毕
+     *
+     * @param channel 渠道配置 (用于确定并发上限)
+     * @param tasks   待执行的任务单元
+     * @param action  单个任务的执行逻辑，异常由调用方自行处理
+     * @param <T>     任务单元类型
+     */
+    public <T> void dispatch(SysChannel channel, List<T> tasks, Consumer<T> action) {
+        if (tasks == null || tasks.isEmpty()) {
+            return;
+        }
+
+        Semaphore permits = getPermits(channel);
+        CountDownLatch latch = new CountDownLatch(tasks.size());
+
+        for (T task : tasks) {
+            // 获取渠道许可，渠道满载时在此处阻塞，形成背压
+            permits.acquireUninterruptibly();
+            Runnable runnable = () -> {
+                try {
+                    action.accept(task);
+                } catch (Exception e) {
+                    log.error("分发任务执行异常: channelId={}", channel.getId(), e);
+                } finally {
+                    permits.release();
+                    latch.countDown();
+                }
+            };
+            try {
+                workerExecutor.execute(runnable);
+            } catch (RejectedExecutionException e) {
+                // 线程池已关闭 (应用停机中)，由当前线程直接执行，保证每个任务都有结果
+                runnable.run();
+            }
+        }
+
+        awaitUninterruptibly(latch);
+    }
+
+    /**
+     * 按渠道在途上限分发异步任务，阻塞直到所有任务的 Future 完成
+     * 任务在当前线程发起，许可在 Future 完成时释放，请求在途期间不占用分发线程
+     *
+     * @param channel 渠道配置 (用于确定在途上限)
+     * @param tasks   待执行的任务单元
+     * @param action  单个任务的发起逻辑，返回的 Future 完成即视为任务结束
+     * @param <T>     任务单元类型
+     */
+    public <T> void dispatchAsync(SysChannel channel, List<T> tasks, Function<T, CompletableFuture<?>> action) {
+        if (tasks == null || tasks.isEmpty()) {
+            return;
+        }
+
+        Semaphore permits = getPermits(channel, properties.getDefaultAsyncMaxInFlight(), asyncPermitsMap);
+        CountDownLatch latch = new CountDownLatch(tasks.size());
+
+        for (T task : tasks) {
+            permits.acquireUninterruptibly();
+            CompletableFuture<?> future;
+            try {
+                future = action.apply(task);
+            } catch (Exception e) {
+                log.error("异步分发任务发起异常: channelId={}", channel.getId(), e);
+                future = CompletableFuture.completedFuture(null);
+            }
+            future.whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.error("异步分发任务执行异常: channelId={}", channel.getId(), ex);
+                }
+                permits.release();
+                latch.countDown();
+            });
+        }
+
+        awaitUninterruptibly(latch);
+    }
+
+    private Semaphore getPermits(SysChannel channel) {
+        return getPermits(channel, properties.getDefaultMaxInFlight(), permitsMap);
+    }
+
+    /**
+     * 获取渠道的并发许可；按渠道配置JSON缓存解析结果，配置未变化时不再解析，
+     * 上限变化时原地调整许可数量，正在持有许可的任务仍释放回同一个信号量
+     */
+    private Semaphore getPermits(SysChannel channel, int defaultLimit, Map<Long, ChannelPermits> cache) {
+        String configJson = channel.getConfigJson();
+        ChannelPermits current = cache.get(channel.getId());
+        if (current != null && Objects.equals(current.configJson, configJson)) {
+            return current.semaphore;
+        }
+        current = cache.compute(channel.getId(), (id, existing) -> {
+            if (existing != null && Objects.equals(existing.configJson, configJson)) {
+                return existing;
+            }
+            int limit = resolveMaxInFlight(channel, defaultLimit);
+            if (existing == null) {
+                return new ChannelPermits(configJson, limit);
+            }
+            existing.resize(configJson, limit);
+            return existing;
+        });
+        return current.semaphore;
+    }
+
+    private int resolveMaxInFlight(SysChannel channel, int defaultLimit) {
+        try {
+            JSONObject config = JSON.parseObject(channel.getConfigJson());
+            Integer maxInFlight = config != null ? config.getInteger(KEY_MAX_IN_FLIGHT) : null;
+            if (maxInFlight != null && maxInFlight > 0) {
+                return maxInFlight;
+            }
+        } catch (Exception e) {
+            log.warn("解析渠道并发配置失败，使用默认值: channelId={}", channel.getId());
+        }
+        return Math.max(1, defaultLimit);
+    }
+
+    private void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (coordinatorExecutor != null) {
+            coordinatorExecutor.shutdown();
+        }
+        if (workerExecutor != null) {
+            workerExecutor.shutdown();
+            try {
+                if (!workerExecutor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                    workerExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                workerExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("Message dispatcher stopped.");
+    }
+
+    /**
+     * 渠道并发许可 (公平信号量，多个批次共享同一渠道时按先后顺序获取)
+     */
+    private static class ChannelPermits {
+        private final ResizableSemaphore semaphore;
+        private volatile String configJson;
+        private int limit;
+
+        ChannelPermits(String configJson, int limit) {
+            this.configJson = configJson;
+            this.limit = limit;
+            this.semaphore = new ResizableSemaphore(limit);
+        }
+
+        /**
+         * 调整许可总数：增加时立即放出，减少时扣减可用许可 (可为负，待持有者释放后恢复)
+         */
+        void resize(String configJson, int limit) {
+            int delta = limit - this.limit;
+            if (delta > 0) {
+                semaphore.release(delta);
+            } else if (delta < 0) {
+                semaphore.reduce(-delta);
+            }
+            this.limit = limit;
+            this.configJson = configJson;
+        }
+    }
+
+    private static class ResizableSemaphore extends Semaphore {
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        void reduce(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+}
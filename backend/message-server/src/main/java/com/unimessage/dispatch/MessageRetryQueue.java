@@ -0,0 +1,228 @@
+package com.unimessage.dispatch;
+
+import com.unimessage.cache.CacheService;
+import com.unimessage.config.DispatchProperties;
+import com.unimessage.constant.CacheKeyConstants;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 发送失败明细重试延迟队列
+ * 基于 Redis ZSET 实现 (member 为明细ID, score 为到期时间戳)，集群内所有节点共享；
+ * 重试延迟按指数退避计算并叠加随机抖动，避免渠道故障恢复时大量重试同时到期；
+ * 取出的明细不立即删除，而是将到期时间顺延到租约截止时间，处理完成后确认删除，节点处理中宕机时租约到期后重新取出
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class MessageRetryQueue {
+
+    /**
+     * 原子取出到期成员，并将其到期时间顺延到租约截止时间、登记租约
+     * KEYS[1]: 延迟队列, KEYS[2]: 租约
+     * ARGV[1]: 当前时间戳
+     * ARGV[2]: 最大取出数量
+     * ARGV[3]: 租约截止时间戳
+     */
+    private static final String POLL_SCRIPT =
+            "local items = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+                    "for i = 1, #items do " +
+                    "    redis.call('ZADD', KEYS[1], 'XX', ARGV[3], items[i]) " +
+                    "    redis.call('HSET', KEYS[2], items[i], ARGV[3]) " +
+                    "end " +
+                    "return items";
+
+    /**
+     * 确认删除租约内的成员 (处理期间被重新入队的成员到期时间已变化，保留) 并释放租约
+     * KEYS[1]: 延迟队列, KEYS[2]: 租约
+     * ARGV[1]: 租约截止时间戳
+     * ARGV[2...]: 明细ID
+     */
+    private static final String ACK_SCRIPT =
+            "local removed = 0 " +
+                    "for i = 2, #ARGV do " +
+                    "    local score = redis.call('ZSCORE', KEYS[1], ARGV[i]) " +
+                    "    if score and tonumber(score) == tonumber(ARGV[1]) then " +
+                    "        redis.call('ZREM', KEYS[1], ARGV[i]) " +
+                    "        removed = removed + 1 " +
+                    "    end " +
+                    "    if redis.call('HGET', KEYS[2], ARGV[i]) == ARGV[1] then " +
+                    "        redis.call('HDEL', KEYS[2], ARGV[i]) " +
+                    "    end " +
+                    "end " +
+                    "return removed";
+
+    /**
+     * 手动重试入队：跳过租约未到期 (正被其他节点处理) 的成员，避免覆盖租约后被立即重复取出
+     * KEYS[1]: 延迟队列, KEYS[2]: 租约
+     * ARGV[1]: 到期时间戳 (当前时间)
+     * ARGV[2...]: 明细ID
+     * 返回: 入队数量
+     */
+    private static final String OFFER_UNLEASED_SCRIPT =
+            "local added = 0 " +
+                    "for i = 2, #ARGV do " +
+                    "    local lease = redis.call('HGET', KEYS[2], ARGV[i]) " +
+                    "    if not lease or tonumber(lease) <= tonumber(ARGV[1]) then " +
+                    "        redis.call('ZADD', KEYS[1], ARGV[1], ARGV[i]) " +
+                    "        added = added + 1 " +
+                    "    end " +
+                    "end " +
+                    "return added";
+
+    private static final List<String> KEYS = List.of(CacheKeyConstants.MQ_RETRY_QUEUE, CacheKeyConstants.MQ_RETRY_LEASE);
+
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> pollScript;
+    private final DefaultRedisScript<Long> ackScript;
+    private final DefaultRedisScript<Long> offerUnleasedScript;
+
+    @Resource
+    private CacheService cacheService;
+    @Resource
+    private DispatchProperties properties;
+
+    public MessageRetryQueue() {
+        pollScript = new DefaultRedisScript<>();
+        pollScript.setScriptText(POLL_SCRIPT);
+        pollScript.setResultType(List.class);
+
+        ackScript = new DefaultRedisScript<>();
+        ackScript.setScriptText(ACK_SCRIPT);
+        ackScript.setResultType(Long.class);
+
+        offerUnleasedScript = new DefaultRedisScript<>();
+        offerUnleasedScript.setScriptText(OFFER_UNLEASED_SCRIPT);
+        offerUnleasedScript.setResultType(Long.class);
+    }
+
+    /**
+     * 按指数退避延迟入队
+     *
+     * @param attempts 明细ID -> 即将进行的重试次数 (从1开始)
+     * @return true 入队成功
+     */
+    public boolean schedule(Map<Long, Integer> attempts) {
+        if (attempts.isEmpty()) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        Map<String, Double> members = new HashMap<>(attempts.size() * 2);
+        attempts.forEach((detailId, attempt) -> members.put(String.valueOf(detailId), (double) (now + delayMillis(attempt))));
+        return offer(members);
+    }
+
+    /**
+     * 立即入队 (手动重试)，正被其他节点处理 (租约未到期) 的明细不重复入队
+     *
+     * @param detailIds 明细ID
+     * @return true 入队成功
+     */
+    public boolean scheduleNow(Collection<Long> detailIds) {
+        if (detailIds.isEmpty()) {
+            return true;
+        }
+        List<String> args = new ArrayList<>(detailIds.size() + 1);
+        args.add(String.valueOf(System.currentTimeMillis()));
+        for (Long detailId : detailIds) {
+            args.add(String.valueOf(detailId));
+        }
+        Long added = cacheService.getRedisUtil().execute(offerUnleasedScript, KEYS, args.toArray());
+        if (added == null) {
+            log.error("重试明细入队失败: count={}", detailIds.size());
+            return false;
+        }
+        if (added < detailIds.size()) {
+            log.info("明细正在重试中，跳过入队: count={}", detailIds.size() - added);
+        }
+        return true;
+    }
+
+    /**
+     * 在指定时间入队 (如渠道熔断恢复后)
+     *
+     * @param detailIds   明细ID
+     * @param dueAtMillis 到期时间戳(毫秒)
+     * @return true 入队成功
+     */
+    public boolean scheduleAt(Collection<Long> detailIds, long dueAtMillis) {
+        if (detailIds.isEmpty()) {
+            return true;
+        }
+        Map<String, Double> members = new HashMap<>(detailIds.size() * 2);
+        for (Long detailId : detailIds) {
+            members.put(String.valueOf(detailId), (double) dueAtMillis);
+        }
+        return offer(members);
+    }
+
+    private boolean offer(Map<String, Double> members) {
+        boolean success = cacheService.zAdd(CacheKeyConstants.MQ_RETRY_QUEUE, members);
+        if (!success) {
+            log.error("重试明细入队失败: count={}", members.size());
+        }
+        return success;
+    }
+
+    /**
+     * 取出已到期的明细 (多节点并发调用时租约内每个明细只会被一个节点取出)，处理完成后需调用 {@link #ack}
+     *
+     * @param limit            最大数量
+     * @param leaseUntilMillis 租约截止时间戳(毫秒)，未确认的明细到期后重新取出
+     * @return 明细ID
+     */
+    @SuppressWarnings("unchecked")
+    public List<Long> pollDue(int limit, long leaseUntilMillis) {
+        List<Object> items = cacheService.getRedisUtil().execute(pollScript, KEYS,
+                String.valueOf(System.currentTimeMillis()), String.valueOf(limit), String.valueOf(leaseUntilMillis));
+        if (items == null || items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> detailIds = new ArrayList<>(items.size());
+        for (Object item : items) {
+            detailIds.add(Long.parseLong(String.valueOf(item)));
+        }
+        return detailIds;
+    }
+
+    /**
+     * 确认租约内的明细已处理，从队列删除；处理期间重新入队的明细保留新的到期时间
+     *
+     * @param detailIds        明细ID
+     * @param leaseUntilMillis 取出时的租约截止时间戳
+     */
+    public void ack(Collection<Long> detailIds, long leaseUntilMillis) {
+        if (detailIds.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(detailIds.size() + 1);
+        args.add(String.valueOf(leaseUntilMillis));
+        for (Long detailId : detailIds) {
+            args.add(String.valueOf(detailId));
+        }
+        Long removed = cacheService.getRedisUtil().execute(ackScript, KEYS, args.toArray());
+        if (removed == null) {
+            log.warn("重试明细确认失败，租约到期后将重新取出: count={}", detailIds.size());
+        }
+    }
+
+    /**
+     * 第 attempt 次重试的延迟: base * 2^(attempt-1)，不超过上限，在 [delay/2, delay] 内随机
+     */
+    private long delayMillis(int attempt) {
+        DispatchProperties.Retry config = properties.getRetry();
+        long base = Math.max(1, config.getBaseDelayMillis());
+        long max = Math.max(base, config.getMaxDelayMillis());
+        int shift = Math.min(Math.max(0, attempt - 1), 30);
+        long delay = Math.min(max, base << shift);
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+}
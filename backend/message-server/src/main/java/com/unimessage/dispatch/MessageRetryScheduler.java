@@ -0,0 +1,81 @@
+package com.unimessage.dispatch;
+
+import com.unimessage.config.DispatchProperties;
+import com.unimessage.service.MessageService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 发送失败重试调度器
+ * 定时从重试延迟队列取出到期明细交给发送引擎重新发送，自动重试与手动重试共用该流程
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class MessageRetryScheduler {
+
+    private static final String THREAD_NAME = "message-retry-scheduler";
+
+    @Resource
+    private MessageRetryQueue retryQueue;
+    @Resource
+    private MessageService messageService;
+    @Resource
+    private DispatchProperties properties;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, THREAD_NAME);
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(100, properties.getRetry().getPollIntervalMillis());
+        executor.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 取出全部到期明细并重试
+     */
+    private void poll() {
+        try {
+            int limit = Math.max(1, properties.getRetry().getPollBatchSize());
+            List<Long> detailIds;
+            do {
+                long leaseUntil = System.currentTimeMillis() + properties.getRetry().getLeaseMillis();
+                detailIds = retryQueue.pollDue(limit, leaseUntil);
+                if (!detailIds.isEmpty()) {
+                    // 处理异常时不确认，租约到期后重新取出
+                    messageService.processRetry(detailIds);
+                    retryQueue.ack(detailIds, leaseUntil);
+                }
+            } while (detailIds.size() >= limit);
+        } catch (Exception e) {
+            log.error("处理重试队列失败", e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.unimessage.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 渠道熔断状态 DTO (当前节点)
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChannelCircuitStateDto implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 渠道ID
+     */
+    private Long channelId;
+
+    /**
+     * 渠道名称
+     */
+    private String channelName;
+
+    /**
+     * 熔断状态: CLOSED 正常, OPEN 熔断, HALF_OPEN 半开探测
+     */
+    private String state;
+
+    /**
+     * 健康分 (0-100): 100 - 失败率*0.7 - 慢调用率*0.3，熔断时为0
+     */
+    private Integer healthScore;
+
+    /**
+     * 窗口内失败率(%)
+     */
+    private Double failureRate;
+
+    /**
+     * 窗口内慢调用率(%)
+     */
+    private Double slowCallRate;
+
+    /**
+     * 平均调用耗时(毫秒, 指数加权)
+     */
+    private Long averageLatencyMillis;
+
+    /**
+     * 窗口内调用数
+     */
+    private Integer bufferedCalls;
+
+    /**
+     * 熔断期间拒绝的调用数 (累计)
+     */
+    private Long rejectedCalls;
+
+    /**
+     * 熔断恢复探测时间 (仅熔断状态)
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime openUntil;
+}
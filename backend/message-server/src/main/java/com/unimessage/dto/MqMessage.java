@@ -11,11 +11,23 @@ import java.util.Map;
 @Data
 public class MqMessage implements Serializable {
     private Long batchId;
+    /**
+     * 所属应用ID
+     */
+    private Long appId;
     private SendRequest request;
     /**
      * 接收者名称映射 (identifier -> name)
      */
     private Map<String, String> recipientNames;
+    /**
+     * 分片序号 (从0开始)
+     */
+    private Integer chunkIndex;
+    /**
+     * 批次分片总数
+     */
+    private Integer chunkCount;
 
     public MqMessage() {
     }
@@ -30,4 +42,10 @@ public class MqMessage implements Serializable {
         this.request = request;
         this.recipientNames = recipientNames;
     }
+
+    public MqMessage(Long batchId, SendRequest request, Map<String, String> recipientNames, int chunkIndex, int chunkCount) {
+        this(batchId, request, recipientNames);
+        this.chunkIndex = chunkIndex;
+        this.chunkCount = chunkCount;
+    }
 }
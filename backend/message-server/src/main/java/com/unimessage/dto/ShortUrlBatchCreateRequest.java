@@ -0,0 +1,24 @@
+package com.unimessage.dto;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 短链接批量创建请求
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Data
+public class ShortUrlBatchCreateRequest implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 创建请求列表 (不支持自定义短链码)
+     */
+    private List<ShortUrlCreateRequest> items;
+}
@@ -8,8 +8,10 @@ import lombok.NoArgsConstructor;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 短链接统计响应
@@ -45,6 +47,26 @@ public class ShortUrlStatsResponse implements Serializable {
      */
     private Long todayClicks;
 
+    /**
+     * 今日独立IP数 (估算值)
+     */
+    private Long todayUniqueIps;
+
+    /**
+     * 今日来源域名 Top N
+     */
+    private List<CountItem> topReferers;
+
+    /**
+     * 今日浏览器类型分布
+     */
+    private Map<String, Long> uaFamilies;
+
+    /**
+     * 最近24小时每小时点击量
+     */
+    private List<HourlyStats> hourlyStats;
+
     /**
      * 创建时间
      */
@@ -66,4 +88,36 @@ public class ShortUrlStatsResponse implements Serializable {
         @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
         private LocalDateTime accessTime;
     }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CountItem implements Serializable {
+        private String name;
+        private Long count;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HourlyStats implements Serializable {
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        private LocalDateTime hour;
+        private Long clicks;
+        private Long uniqueIps;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyStats implements Serializable {
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate date;
+        private Long clicks;
+        private Long uniqueIps;
+        private List<CountItem> topReferers;
+        private Map<String, Long> uaFamilies;
+    }
 }
@@ -29,5 +29,17 @@ public class SysTemplateDto implements Serializable {
      * 频率限制 (每秒最大请求数)
      */
     private Integer rateLimit;
+    /**
+     * 是否自动将内容中的长链接改写为短链接
+     */
+    private Boolean shortLinkEnabled;
+    /**
+     * 发送失败最大自动重试次数
+     */
+    private Integer maxRetryCount;
+    /**
+     * 渠道组配置JSON (备用渠道及路由策略)
+     */
+    private String channelGroup;
     private Integer status;
 }
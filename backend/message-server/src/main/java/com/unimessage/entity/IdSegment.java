@@ -0,0 +1,44 @@
+package com.unimessage.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 号段ID分配表
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Data
+@TableName("id_segment")
+public class IdSegment implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 业务标识
+     */
+    @TableId(type = IdType.INPUT)
+    private String bizTag;
+
+    /**
+     * 已分配的最大ID
+     */
+    private Long maxId;
+
+    /**
+     * 每次分配的号段长度
+     */
+    private Integer step;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
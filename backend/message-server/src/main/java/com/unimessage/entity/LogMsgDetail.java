@@ -65,6 +65,11 @@ public class LogMsgDetail implements Serializable {
      */
     private Integer retryCount;
 
+    /**
+     * 实际发送渠道ID (渠道组故障转移时可能与模板渠道不同)
+     */
+    private Long channelId;
+
     /**
      * 实际发送时间
      */
@@ -0,0 +1,46 @@
+package com.unimessage.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 短链接分片点击计数表
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Data
+@TableName("short_url_click_counter")
+public class ShortUrlClickCounter implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 短链码
+     */
+    private String shortCode;
+
+    /**
+     * 分片槽位
+     */
+    private Integer slot;
+
+    /**
+     * 点击次数
+     */
+    private Long clicks;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
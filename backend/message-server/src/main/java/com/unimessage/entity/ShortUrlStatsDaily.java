@@ -0,0 +1,62 @@
+package com.unimessage.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 短链接每日统计表
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Data
+@TableName("short_url_stats_daily")
+public class ShortUrlStatsDaily implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 短链码
+     */
+    private String shortCode;
+
+    /**
+     * 统计日期
+     */
+    private LocalDate statDate;
+
+    /**
+     * 点击次数
+     */
+    private Long clicks;
+
+    /**
+     * 独立IP数 (HyperLogLog 估算)
+     */
+    private Long uniqueIps;
+
+    /**
+     * 来源域名 Top N (JSON 数组: [{"name": "google.com", "count": 10}])
+     */
+    private String topReferers;
+
+    /**
+     * 浏览器类型分布 (JSON 对象: {"Chrome": 10})
+     */
+    private String uaFamilies;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,51 @@
+package com.unimessage.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 短链接小时统计表
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Data
+@TableName("short_url_stats_hourly")
+public class ShortUrlStatsHourly implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 短链码
+     */
+    private String shortCode;
+
+    /**
+     * 统计小时 (整点)
+     */
+    private LocalDateTime statHour;
+
+    /**
+     * 点击次数
+     */
+    private Long clicks;
+
+    /**
+     * 独立IP数 (HyperLogLog 估算)
+     */
+    private Long uniqueIps;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
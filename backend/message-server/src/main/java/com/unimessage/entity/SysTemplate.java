@@ -90,6 +90,22 @@ public class SysTemplate implements Serializable {
      */
     private Integer rateLimit;
 
+    /**
+     * 是否自动将内容中的长链接改写为短链接
+     */
+    private Boolean shortLinkEnabled;
+
+    /**
+     * 发送失败最大自动重试次数 (null使用全局默认值, 0表示不重试)
+     */
+    private Integer maxRetryCount;
+
+    /**
+     * 渠道组配置JSON (备用渠道及路由策略, 可选)
+     * 示例: {"strategy":"priority","channels":[{"channelId":2,"thirdPartyId":"SMS_123"}]}
+     */
+    private String channelGroup;
+
     /**
      * 状态
      */
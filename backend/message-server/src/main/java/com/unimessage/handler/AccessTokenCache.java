@@ -0,0 +1,259 @@
+package com.unimessage.handler;
+
+import com.unimessage.cache.CacheService;
+import com.unimessage.constant.CacheKeyConstants;
+import jakarta.annotation.Resource;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 渠道访问令牌缓存 (飞书 tenant_access_token 等)
+ * 本地缓存 + Redis 共享：令牌按第三方返回的有效期缓存，临近过期时在后台提前刷新；
+ * 同一节点内并发刷新合并为一次，集群内通过 Redis 锁保证同一时刻只有一个节点调用令牌接口
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class AccessTokenCache {
+
+    /**
+     * 剩余有效期低于该值(秒)时触发后台刷新
+     */
+    private static final long REFRESH_AHEAD_SECONDS = 300;
+    /**
+     * 剩余有效期低于该值(秒)时视为已过期，避免令牌在请求途中失效
+     */
+    private static final long EXPIRE_MARGIN_SECONDS = 30;
+    private static final long LOCK_SECONDS = 10;
+    private static final long WAIT_INTERVAL_MILLIS = 200;
+    private static final int WAIT_ATTEMPTS = 25;
+
+    /**
+     * 锁仍由当前节点持有时释放 (比较与删除原子执行，避免误删锁过期后其他节点获取的锁)
+     * KEYS[1]: 锁键
+     * ARGV[1]: 持有者标识
+     */
+    private static final String UNLOCK_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+                    "    return redis.call('DEL', KEYS[1]) " +
+                    "end " +
+                    "return 0";
+
+    private final DefaultRedisScript<Long> unlockScript;
+
+    @Resource
+    private CacheService cacheService;
+
+    /**
+     * provider:appId -> 令牌
+     */
+    private final Map<String, CachedToken> localTokens = new ConcurrentHashMap<>();
+    /**
+     * provider:appId -> 进行中的刷新
+     */
+    private final Map<String, CompletableFuture<String>> refreshing = new ConcurrentHashMap<>();
+
+    public AccessTokenCache() {
+        unlockScript = new DefaultRedisScript<>();
+        unlockScript.setScriptText(UNLOCK_SCRIPT);
+        unlockScript.setResultType(Long.class);
+    }
+
+    /**
+     * 获取访问令牌
+     *
+     * @param provider 服务商标识 (如 feishu)
+     * @param appId    应用ID
+     * @param loader   令牌获取逻辑
+     * @return 访问令牌，获取失败时异常完成
+     */
+    public CompletableFuture<String> getToken(String provider, String appId, TokenLoader loader) {
+        String key = provider + ":" + appId;
+        CachedToken local = localTokens.get(key);
+        long now = System.currentTimeMillis();
+        if (local != null && local.isUsable(now)) {
+            if (local.needsRefresh(now)) {
+                refresh(key, loader);
+            }
+            return CompletableFuture.completedFuture(local.getToken());
+        }
+        return refresh(key, loader);
+    }
+
+    /**
+     * 令牌失效 (如第三方返回令牌无效) 时清除缓存，下次获取时重新加载
+     */
+    public void invalidate(String provider, String appId) {
+        String key = provider + ":" + appId;
+        localTokens.remove(key);
+        cacheService.delete(CacheKeyConstants.ACCESS_TOKEN + key);
+    }
+
+    /**
+     * 刷新令牌，同一 key 同时只有一个刷新在进行
+     */
+    private CompletableFuture<String> refresh(String key, TokenLoader loader) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = refreshing.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        future.whenComplete((token, ex) -> refreshing.remove(key, future));
+
+        try {
+            // 其他节点已刷新则直接使用
+            CachedToken shared = cacheService.getObject(CacheKeyConstants.ACCESS_TOKEN + key, CachedToken.class);
+            long now = System.currentTimeMillis();
+            if (shared != null && shared.isUsable(now) && !shared.needsRefresh(now)) {
+                localTokens.put(key, shared);
+                future.complete(shared.getToken());
+                return future;
+            }
+
+            String lockKey = CacheKeyConstants.ACCESS_TOKEN_LOCK + key;
+            String owner = UUID.randomUUID().toString();
+            if (cacheService.setIfAbsent(lockKey, owner, LOCK_SECONDS)) {
+                loadAndStore(key, loader).whenComplete((token, ex) -> {
+                    unlock(lockKey, owner);
+                    complete(future, token, ex);
+                });
+            } else {
+                // 其他节点正在刷新：当前令牌仍可用时直接使用，否则等待其写入 Redis
+                CachedToken usable = shared != null && shared.isUsable(now) ? shared : localTokens.get(key);
+                if (usable != null && usable.isUsable(now)) {
+                    localTokens.put(key, usable);
+                    future.complete(usable.getToken());
+                } else {
+                    waitForShared(key, loader, future, WAIT_ATTEMPTS);
+                }
+            }
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 等待持有锁的节点写入新令牌，超时后自行加载
+     */
+    private void waitForShared(String key, TokenLoader loader, CompletableFuture<String> future, int attempts) {
+        CompletableFuture.runAsync(() -> {
+            CachedToken shared = cacheService.getObject(CacheKeyConstants.ACCESS_TOKEN + key, CachedToken.class);
+            if (shared != null && shared.isUsable(System.currentTimeMillis())) {
+                localTokens.put(key, shared);
+                future.complete(shared.getToken());
+            } else if (attempts > 1) {
+                waitForShared(key, loader, future, attempts - 1);
+            } else {
+                log.warn("等待访问令牌刷新超时，直接获取: key={}", key);
+                loadAndStore(key, loader).whenComplete((token, ex) -> complete(future, token, ex));
+            }
+        }, CompletableFuture.delayedExecutor(WAIT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    private CompletableFuture<String> loadAndStore(String key, TokenLoader loader) {
+        CompletableFuture<AccessToken> loaded;
+        try {
+            loaded = loader.load();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return loaded.thenApply(accessToken -> {
+            long expiresIn = Math.max(1, accessToken.getExpiresIn());
+            CachedToken cached = new CachedToken(accessToken.getToken(),
+                    System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(expiresIn));
+            localTokens.put(key, cached);
+            cacheService.setObject(CacheKeyConstants.ACCESS_TOKEN + key, cached, expiresIn, TimeUnit.SECONDS);
+            log.info("刷新访问令牌: key={}, expiresIn={}s", key, expiresIn);
+            return cached.getToken();
+        });
+    }
+
+    private void unlock(String lockKey, String owner) {
+        try {
+            cacheService.getRedisUtil().execute(unlockScript, Collections.singletonList(lockKey), owner);
+        } catch (Exception e) {
+            // 释放失败时锁按超时自动过期
+            log.warn("释放访问令牌刷新锁失败: key={}", lockKey, e);
+        }
+    }
+
+    private void complete(CompletableFuture<String> future, String token, Throwable ex) {
+        if (ex != null) {
+            future.completeExceptionally(ex);
+        } else {
+            future.complete(token);
+        }
+    }
+
+    /**
+     * 令牌获取逻辑
+     */
+    @FunctionalInterface
+    public interface TokenLoader {
+        CompletableFuture<AccessToken> load();
+    }
+
+    /**
+     * 第三方返回的访问令牌
+     */
+    public static final class AccessToken {
+        private final String token;
+        private final long expiresIn;
+
+        /**
+         * @param token     令牌
+         * @param expiresIn 有效期(秒)
+         */
+        public AccessToken(String token, long expiresIn) {
+            this.token = token;
+            this.expiresIn = expiresIn;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public long getExpiresIn() {
+            return expiresIn;
+        }
+    }
+
+    /**
+     * 缓存的令牌 (本地及 Redis 共用)
+     */
+    @Data
+    @NoArgsConstructor
+    public static class CachedToken {
+        private String token;
+        /**
+         * 过期时间戳(毫秒)
+         */
+        private long expireAt;
+
+        public CachedToken(String token, long expireAt) {
+            this.token = token;
+            this.expireAt = expireAt;
+        }
+
+        boolean isUsable(long now) {
+            return token != null && now < expireAt - TimeUnit.SECONDS.toMillis(EXPIRE_MARGIN_SECONDS);
+        }
+
+        boolean needsRefresh(long now) {
+            return now >= expireAt - TimeUnit.SECONDS.toMillis(REFRESH_AHEAD_SECONDS);
+        }
+    }
+}
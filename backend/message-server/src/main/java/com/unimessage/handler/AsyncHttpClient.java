@@ -0,0 +1,238 @@
+package com.unimessage.handler;
+
+import com.unimessage.config.HttpClientProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步 HTTP 客户端 (Webhook 类渠道共用)
+ * 基于 JDK HttpClient，优先使用 HTTP/2 并复用连接；请求以非阻塞方式发出，
+ * 按目标主机限制并发数，超出部分排队等待，不占用调用线程
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Component
+public class AsyncHttpClient {
+
+    private static final String THREAD_NAME_PREFIX = "http-client-";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String CONTENT_TYPE_JSON = "application/json;charset=UTF-8";
+    private static final String CONTENT_TYPE_FORM = "application/x-www-form-urlencoded;charset=UTF-8";
+
+    @Resource
+    private HttpClientProperties properties;
+
+    private final Map<String, HostLimiter> limiters = new ConcurrentHashMap<>();
+    private final AtomicInteger threadIndex = new AtomicInteger();
+
+    private ExecutorService callbackExecutor;
+    private HttpClient httpClient;
+
+    @PostConstruct
+    public void init() {
+        callbackExecutor = Executors.newFixedThreadPool(Math.max(1, properties.getCallbackThreads()), r -> {
+            Thread t = new Thread(r, THREAD_NAME_PREFIX + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMillis()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(callbackExecutor)
+                .build();
+    }
+
+    /**
+     * POST JSON
+     */
+    public CompletableFuture<HttpResult> postJson(String url, String json, Map<String, String> headers) {
+        HttpRequest.Builder builder = newRequest(url, headers)
+                .header(CONTENT_TYPE, CONTENT_TYPE_JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8));
+        return execute(builder);
+    }
+
+    /**
+     * POST 表单
+     */
+    public CompletableFuture<HttpResult> postForm(String url, Map<String, Object> form) {
+        HttpRequest.Builder builder = newRequest(url, null)
+                .header(CONTENT_TYPE, CONTENT_TYPE_FORM)
+                .POST(HttpRequest.BodyPublishers.ofString(encodeForm(form), StandardCharsets.UTF_8));
+        return execute(builder);
+    }
+
+    /**
+     * GET
+     */
+    public CompletableFuture<HttpResult> get(String url, Map<String, String> headers) {
+        return execute(newRequest(url, headers).GET());
+    }
+
+    /**
+     * 发送请求，目标主机并发已满时排队
+     *
+     * @param builder 请求构建器 (未设置超时时使用默认请求超时)
+     * @return 响应结果，网络异常或排队已满时异常完成
+     */
+    public CompletableFuture<HttpResult> execute(HttpRequest.Builder builder) {
+        HttpRequest request;
+        try {
+            request = builder.build();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        HostLimiter limiter = limiters.computeIfAbsent(hostKey(request.uri()),
+                k -> new HostLimiter(Math.max(1, properties.getMaxConcurrentPerHost())));
+        CompletableFuture<HttpResult> future = new CompletableFuture<>();
+        boolean accepted = limiter.submit(() -> {
+            try {
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                        .whenComplete((response, ex) -> {
+                            limiter.release();
+                            if (ex != null) {
+                                future.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null
+                                        ? ex.getCause() : ex);
+                            } else {
+                                future.complete(new HttpResult(response.statusCode(), response.body()));
+                            }
+                        });
+            } catch (Exception e) {
+                limiter.release();
+                future.completeExceptionally(e);
+            }
+        }, properties.getMaxPendingPerHost());
+        if (!accepted) {
+            future.completeExceptionally(new RejectedExecutionException("HTTP 请求排队已满: " + request.uri().getHost()));
+        }
+        return future;
+    }
+
+    private HttpRequest.Builder newRequest(String url, Map<String, String> headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(properties.getRequestTimeoutMillis()));
+        if (headers != null) {
+            headers.forEach(builder::header);
+        }
+        return builder;
+    }
+
+    private String encodeForm(Map<String, Object> form) {
+        StringBuilder sb = new StringBuilder();
+        if (form != null) {
+            for (Map.Entry<String, Object> entry : form.entrySet()) {
+                if (sb.length() > 0) {
+                    sb.append('&');
+                }
+                sb.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8)).append('=')
+                        .append(URLEncoder.encode(String.valueOf(entry.getValue()), StandardCharsets.UTF_8));
+            }
+        }
+        return sb.toString();
+    }
+
+    private String hostKey(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (callbackExecutor != null) {
+            callbackExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * HTTP 响应结果
+     */
+    public static final class HttpResult {
+        private final int status;
+        private final String body;
+
+        public HttpResult(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * 是否为 2xx 响应
+         */
+        public boolean isOk() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    /**
+     * 单主机并发限制器
+     * 并发未满时立即发出请求，否则进入队列，由前一个请求完成时的回调线程发出
+     */
+    private static final class HostLimiter {
+        private final int limit;
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+        HostLimiter(int limit) {
+            this.limit = limit;
+        }
+
+        boolean submit(Runnable task, int maxPending) {
+            if (pendingCount.incrementAndGet() > maxPending) {
+                pendingCount.decrementAndGet();
+                return false;
+            }
+            pending.add(task);
+            drain();
+            return true;
+        }
+
+        void release() {
+            active.decrementAndGet();
+            drain();
+        }
+
+        private void drain() {
+            while (!pending.isEmpty()) {
+                int current = active.get();
+                if (current >= limit) {
+                    return;
+                }
+                if (!active.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                Runnable task = pending.poll();
+                if (task == null) {
+                    active.decrementAndGet();
+                    continue;
+                }
+                pendingCount.decrementAndGet();
+                task.run();
+            }
+        }
+    }
+}
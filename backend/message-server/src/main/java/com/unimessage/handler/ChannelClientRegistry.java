@@ -0,0 +1,146 @@
+package com.unimessage.handler;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.unimessage.cache.ChannelChangedEvent;
+import com.unimessage.entity.SysChannel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 渠道客户端注册表
+ * 按渠道ID缓存长生命周期、线程安全的第三方 SDK 客户端，渠道配置变化时自动重建，
+ * 渠道被修改/删除时 (ChannelChangedEvent) 主动释放；实现 AutoCloseable 的客户端释放后延迟一段时间再关闭，
+ * 避免正在使用旧客户端发送的线程被中断
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class ChannelClientRegistry {
+
+    /**
+     * 被替换的客户端延迟关闭时间(秒)，需大于单次第三方调用的最长耗时
+     */
+    private static final long RETIRE_DELAY_SECONDS = 60;
+
+    private final Map<Long, ClientHolder> clients = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService closer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "channel-client-closer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 获取渠道客户端，不存在或配置已变更时通过 factory 创建
+     *
+     * @param channel 渠道
+     * @param type    客户端类型
+     * @param factory 客户端创建逻辑 (入参为渠道配置JSON)
+     * @param <T>     客户端类型
+     * @return 客户端实例
+     */
+    public <T> T getClient(SysChannel channel, Class<T> type, ClientFactory<T> factory) {
+        String configJson = channel.getConfigJson();
+        ClientHolder holder = clients.compute(channel.getId(), (id, existing) -> {
+            if (existing != null && existing.matches(configJson, type)) {
+                return existing;
+            }
+            T client;
+            try {
+                client = factory.create(JSON.parseObject(configJson));
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            if (existing != null) {
+                retire(id, existing.client);
+            }
+            log.info("初始化渠道客户端: channelId={}, type={}", id, type.getSimpleName());
+            return new ClientHolder(configJson, client);
+        });
+        return type.cast(holder.client);
+    }
+
+    /**
+     * 释放渠道客户端
+     */
+    public void evict(Long channelId) {
+        ClientHolder holder = clients.remove(channelId);
+        if (holder != null) {
+            retire(channelId, holder.client);
+            log.info("释放渠道客户端: channelId={}", channelId);
+        }
+    }
+
+    @EventListener
+    public void onChannelChanged(ChannelChangedEvent event) {
+        evict(event.getChannelId());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 尚未到期的延迟关闭任务立即执行
+        closer.shutdownNow().forEach(Runnable::run);
+        clients.forEach((id, holder) -> closeQuietly(id, holder.client));
+        clients.clear();
+    }
+
+    /**
+     * 旧客户端可能仍被其他线程使用，延迟关闭
+     */
+    private void retire(Long channelId, Object client) {
+        if (!(client instanceof AutoCloseable)) {
+            return;
+        }
+        try {
+            closer.schedule(() -> closeQuietly(channelId, client), RETIRE_DELAY_SECONDS, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            closeQuietly(channelId, client);
+        }
+    }
+
+    private void closeQuietly(Long channelId, Object client) {
+        if (client instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("关闭渠道客户端异常: channelId={}", channelId, e);
+            }
+        }
+    }
+
+    /**
+     * 客户端创建逻辑
+     */
+    @FunctionalInterface
+    public interface ClientFactory<T> {
+        T create(JSONObject config) throws Exception;
+    }
+
+    private static final class ClientHolder {
+        private final String configJson;
+        private final Object client;
+
+        ClientHolder(String configJson, Object client) {
+            this.configJson = configJson;
+            this.client = client;
+        }
+
+        boolean matches(String configJson, Class<?> type) {
+            return Objects.equals(this.configJson, configJson) && type.isInstance(client);
+        }
+    }
+}
@@ -5,7 +5,10 @@ import com.unimessage.entity.SysChannel;
 import com.unimessage.entity.SysTemplate;
 import com.unimessage.enums.ChannelType;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 渠道处理策略接口
@@ -43,4 +46,71 @@ public interface ChannelHandler {
      * @return true 发送成功, false 发送失败
      */
     boolean send(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail, Map<String, Object> params);
+
+    /**
+     * 是否支持非阻塞异步发送
+     * 支持时发送引擎调用 {@link #sendAsync}，请求在途期间不占用分发线程
+     *
+     * @return 默认为 false
+     */
+    default boolean supportsAsync() {
+        return false;
+    }
+
+    /**
+     * 异步执行发送逻辑
+     * 返回的 Future 不应异常完成，发送失败时以 false 完成并将错误信息写入 msgDetail
+     *
+     * @param channel   渠道配置信息
+     * @param template  模板信息
+     * @param msgDetail 消息详情 (包含接收者)
+     * @param params    业务参数
+     * @return 发送结果，默认在当前线程同步调用 {@link #send}
+     */
+    default CompletableFuture<Boolean> sendAsync(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail,
+                                                 Map<String, Object> params) {
+        return CompletableFuture.completedFuture(send(channel, template, msgDetail, params));
+    }
+
+    /**
+     * 单次调用最多可发送的接收者数量
+     * 大于1时发送引擎会将接收者分组后调用 {@link #sendBatch}
+     *
+     * @param channel 渠道配置信息
+     * @return 最大批量大小，默认为1 (不支持批量)
+     */
+    default int getMaxBatchSize(SysChannel channel) {
+        return 1;
+    }
+
+    /**
+     * 批量发送 (同一模板、同一参数、多个接收者)
+     * 实现类需将发送内容、第三方消息ID、错误信息写回对应的 msgDetail
+     *
+     * @param channel    渠道配置信息
+     * @param template   模板信息
+     * @param msgDetails 消息详情列表 (数量不超过 {@link #getMaxBatchSize})
+     * @param params     业务参数
+     * @return 与 msgDetails 顺序一致的发送结果
+     */
+    default List<Boolean> sendBatch(SysChannel channel, SysTemplate template, List<LogMsgDetail> msgDetails,
+                                    Map<String, Object> params) {
+        List<Boolean> results = new ArrayList<>(msgDetails.size());
+        for (LogMsgDetail msgDetail : msgDetails) {
+            results.add(send(channel, template, msgDetail, params));
+        }
+        return results;
+    }
+
+    /**
+     * 发送失败是否可自动重试
+     * 默认按错误信息识别超时、网络异常、5xx、限流等临时性错误，渠道可按错误码覆盖
+     *
+     * @param channel   渠道配置信息
+     * @param msgDetail 发送失败的消息详情 (已写入错误信息)
+     * @return true 可重试
+     */
+    default boolean isRetryable(SysChannel channel, LogMsgDetail msgDetail) {
+        return SendErrorClassifier.isRetryable(msgDetail.getErrorMsg());
+    }
 }
@@ -0,0 +1,49 @@
+package com.unimessage.handler;
+
+import java.util.Locale;
+
+/**
+ * 发送失败原因分类
+ * 各渠道返回的错误信息格式不一，按关键字识别超时、网络异常、服务端 5xx、限流等临时性错误，
+ * 此类失败可自动重试；号码无效、模板不匹配、鉴权失败等其余错误重试无意义
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+public final class SendErrorClassifier {
+
+    /**
+     * 临时性错误关键字 (小写)
+     */
+    private static final String[] RETRYABLE_KEYWORDS = {
+            "timeout", "timed out", "超时",
+            "connection reset", "connection refused", "connection closed", "broken pipe", "connectexception",
+            "unknownhost", "no route to host", "eof",
+            "too many requests", "throttl", "rate limit", "ratelimit", "频率", "限流", "流控",
+            "temporarily", "unavailable", "busy", "繁忙", "稍后重试", "try again",
+            "internal server error", "bad gateway", "gateway timeout",
+            "status: 429", "status: 500", "status: 502", "status: 503", "status: 504"
+    };
+
+    private SendErrorClassifier() {
+    }
+
+    /**
+     * 是否为可重试的临时性错误
+     *
+     * @param errorMsg 错误信息
+     * @return 无错误信息时返回 false
+     */
+    public static boolean isRetryable(String errorMsg) {
+        if (errorMsg == null || errorMsg.isBlank()) {
+            return false;
+        }
+        String msg = errorMsg.toLowerCase(Locale.ROOT);
+        for (String keyword : RETRYABLE_KEYWORDS) {
+            if (msg.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,251 @@
+package com.unimessage.handler;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.unimessage.config.ShortUrlProperties;
+import com.unimessage.dto.ShortUrlCreateRequest;
+import com.unimessage.dto.ShortUrlResponse;
+import com.unimessage.entity.LogMsgBatch;
+import com.unimessage.entity.SysTemplate;
+import com.unimessage.service.ShortUrlService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 短链改写器 (发送链路中模板渲染前的可选环节)
+ * 模板开启短链改写后，在批次分片发送前识别模板内容及参数中的长链接，
+ * 通过短链批量创建接口一次性转换，所有接收者共享同一份改写后的模板和参数；
+ * 同一批次的后续分片复用本地缓存的映射，改写失败时按原内容发送
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class ShortLinkRewriter {
+
+    /**
+     * 与短链服务的URL校验规则保持一致，识别出的链接均可直接创建短链
+     */
+    private static final Pattern URL_PATTERN = Pattern.compile(
+            "https?://([\\w\\-]+\\.)*[\\w\\-]+(:\\d+)?(/[\\w\\-./?%&=@#]*)?",
+            Pattern.CASE_INSENSITIVE
+    );
+    private static final String PLACEHOLDER_PREFIX = "${";
+    /**
+     * 句末标点不视为链接的一部分
+     */
+    private static final String TRAILING_CHARS = ".?";
+    /**
+     * 不属于URL字符集的ASCII字符，可作为链接结束边界
+     */
+    private static final String BOUNDARY_CHARS = "\"<>`^{|}\\";
+    private static final int MAX_URL_LENGTH = 1024;
+    private static final int MAX_CACHED_BATCHES = 1000;
+    private static final Duration BATCH_CACHE_TTL = Duration.ofMinutes(30);
+
+    @Resource
+    private ShortUrlService shortUrlService;
+    @Resource
+    private ShortUrlProperties properties;
+
+    /**
+     * 批次ID -> (原始链接 -> 短链接)
+     */
+    private Cache<Long, Map<String, String>> batchLinks;
+
+    @PostConstruct
+    public void init() {
+        batchLinks = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_BATCHES)
+                .expireAfterWrite(BATCH_CACHE_TTL)
+                .build();
+    }
+
+    /**
+     * 模板是否开启短链改写
+     */
+    public boolean isEnabled(SysTemplate template) {
+        return template != null && Boolean.TRUE.equals(template.getShortLinkEnabled());
+    }
+
+    /**
+     * 改写模板内容中的长链接
+     *
+     * @param template 模板 (缓存对象，不会被修改)
+     * @param batch    批次
+     * @return 改写后的模板副本，无需改写或改写失败时返回原模板
+     */
+    public SysTemplate rewrite(SysTemplate template, LogMsgBatch batch) {
+        if (!isEnabled(template) || template.getContent() == null) {
+            return template;
+        }
+        String content = template.getContent();
+        Map<String, String> links = resolve(batch, extractUrls(content, true));
+        String rewritten = replace(content, links, true);
+        if (rewritten == content) {
+            return template;
+        }
+        SysTemplate copy = new SysTemplate();
+        BeanUtils.copyProperties(template, copy);
+        copy.setContent(rewritten);
+        return copy;
+    }
+
+    /**
+     * 改写模板参数中的长链接
+     *
+     * @param template 模板
+     * @param params   模板参数 (不会被修改)
+     * @param batch    批次
+     * @return 改写后的参数副本，无需改写或改写失败时返回原参数
+     */
+    public Map<String, Object> rewrite(SysTemplate template, Map<String, Object> params, LogMsgBatch batch) {
+        if (!isEnabled(template) || params == null || params.isEmpty()) {
+            return params;
+        }
+        Set<String> urls = new LinkedHashSet<>();
+        for (Object value : params.values()) {
+            if (value instanceof String text) {
+                urls.addAll(extractUrls(text, false));
+            }
+        }
+        Map<String, String> links = resolve(batch, urls);
+        if (links.isEmpty()) {
+            return params;
+        }
+        Map<String, Object> result = new LinkedHashMap<>(params);
+        for (Map.Entry<String, Object> entry : result.entrySet()) {
+            if (entry.getValue() instanceof String text) {
+                entry.setValue(replace(text, links, false));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 识别文本中值得缩短的链接
+     *
+     * @param skipPlaceholder 是否跳过紧跟占位符的链接 (模板中 https://host/${path} 需渲染后才完整)
+     */
+    private Set<String> extractUrls(String text, boolean skipPlaceholder) {
+        Set<String> urls = new LinkedHashSet<>();
+        Matcher matcher = URL_PATTERN.matcher(text);
+        while (matcher.find()) {
+            String url = trim(matcher.group());
+            if (isCandidate(text, matcher.start(), matcher.end(), url, skipPlaceholder)) {
+                urls.add(url);
+            }
+        }
+        return urls;
+    }
+
+    private String replace(String text, Map<String, String> links, boolean skipPlaceholder) {
+        if (links.isEmpty()) {
+            return text;
+        }
+        Matcher matcher = URL_PATTERN.matcher(text);
+        StringBuilder sb = null;
+        int pos = 0;
+        while (matcher.find()) {
+            String url = trim(matcher.group());
+            String shortUrl = links.get(url);
+            if (shortUrl == null || !isCandidate(text, matcher.start(), matcher.end(), url, skipPlaceholder)) {
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(text.length());
+            }
+            sb.append(text, pos, matcher.start()).append(shortUrl);
+            pos = matcher.start() + url.length();
+        }
+        if (sb == null) {
+            return text;
+        }
+        return sb.append(text, pos, text.length()).toString();
+    }
+
+    private boolean isCandidate(String text, int start, int end, String url, boolean skipPlaceholder) {
+        if (url.length() > MAX_URL_LENGTH || url.startsWith(properties.getDomain())) {
+            return false;
+        }
+        // 匹配止于 + , ; ! ~ : ( ) ' 等合法URL字符时链接并未结束，替换会留下残尾，不改写
+        if (!isBoundary(text, end)) {
+            return false;
+        }
+        // 短链 = 域名 + /s/ + 短链码，不比原链接短的不改写
+        if (url.length() <= properties.getDomain().length() + 3 + properties.getCodeLength()) {
+            return false;
+        }
+        return !skipPlaceholder || !text.startsWith(PLACEHOLDER_PREFIX, start + url.length());
+    }
+
+    /**
+     * 匹配结束位置是否为链接的真实边界：文本结尾、空白、非ASCII字符 (如中文标点) 或不属于URL字符集的字符
+     */
+    private boolean isBoundary(String text, int end) {
+        if (end >= text.length()) {
+            return true;
+        }
+        char c = text.charAt(end);
+        return Character.isWhitespace(c) || c > 0x7F || BOUNDARY_CHARS.indexOf(c) >= 0;
+    }
+
+    private String trim(String url) {
+        int end = url.length();
+        while (end > 0 && TRAILING_CHARS.indexOf(url.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return end == url.length() ? url : url.substring(0, end);
+    }
+
+    /**
+     * 获取链接对应的短链，批次内未转换过的链接一次性批量创建
+     */
+    private Map<String, String> resolve(LogMsgBatch batch, Collection<String> urls) {
+        if (urls.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> cached = batchLinks.get(batch.getId(), id -> new HashMap<>(16));
+        Map<String, String> result = new HashMap<>(urls.size() * 2);
+        List<ShortUrlCreateRequest> requests = new ArrayList<>();
+        synchronized (cached) {
+            for (String url : urls) {
+                String shortUrl = cached.get(url);
+                if (shortUrl != null) {
+                    result.put(url, shortUrl);
+                } else {
+                    ShortUrlCreateRequest request = new ShortUrlCreateRequest();
+                    request.setUrl(url);
+                    request.setTtl(properties.getMessageLink().getTtlSeconds());
+                    requests.add(request);
+                }
+            }
+        }
+        if (requests.isEmpty()) {
+            return result;
+        }
+
+        try {
+            // 已存在的有效短链会被复用，其他节点处理同一批次的分片时得到相同的短链
+            List<ShortUrlResponse> responses = shortUrlService.batchCreateShortUrls(requests, null);
+            synchronized (cached) {
+                for (ShortUrlResponse response : responses) {
+                    cached.put(response.getOriginalUrl(), response.getShortUrl());
+                    result.put(response.getOriginalUrl(), response.getShortUrl());
+                }
+            }
+        } catch (Exception e) {
+            log.error("短链改写失败，按原链接发送: batchId={}, urls={}", batch.getId(), requests.size(), e);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,177 @@
+package com.unimessage.handler;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.unimessage.entity.SysTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模板渲染器 (所有渠道共用)
+ * 模板内容首次使用时解析为 文本/占位符 片段列表并按 模板ID+内容哈希 缓存 (同一模板的原始内容与
+ * 短链改写后的内容各自缓存，互不覆盖)，渲染时单次遍历拼接；
+ * 同一批次内所有接收者共享同一份参数，相同参数对象的渲染结果会被复用
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Component
+public class TemplateRenderer {
+
+    private static final String PLACEHOLDER_PREFIX = "${";
+    private static final char PLACEHOLDER_SUFFIX = '}';
+    /**
+     * 复用的 StringBuilder 超过该容量时不再保留，避免长期占用内存
+     */
+    private static final int MAX_BUILDER_CAPACITY = 8192;
+    /**
+     * 编译结果缓存上限 (短链改写后的内容按批次不同，需限制数量)
+     */
+    private static final int MAX_COMPILED_TEMPLATES = 1000;
+    private static final Duration COMPILED_CACHE_TTL = Duration.ofMinutes(30);
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    /**
+     * 模板ID:内容哈希 -> 编译结果
+     */
+    private final Cache<String, CompiledTemplate> compiledCache = Caffeine.newBuilder()
+            .maximumSize(MAX_COMPILED_TEMPLATES)
+            .expireAfterAccess(COMPILED_CACHE_TTL)
+            .build();
+
+    /**
+     * 渲染模板内容
+     * 占位符格式为 ${key}，参数中不存在或值为 null 的占位符原样保留
+     *
+     * @param template 模板
+     * @param params   模板参数 (同一批次内视为不可变)
+     * @return 渲染结果，模板内容为空时返回空字符串
+     */
+    public String render(SysTemplate template, Map<String, Object> params) {
+        if (template == null || template.getContent() == null) {
+            return "";
+        }
+        CompiledTemplate compiled = getCompiled(template);
+
+        // 同一批次的参数对象相同，直接复用上次渲染结果
+        RenderResult last = compiled.lastResult;
+        if (last != null && last.params == params) {
+            return last.content;
+        }
+        String content = compiled.render(params);
+        compiled.lastResult = new RenderResult(params, content);
+        return content;
+    }
+
+    /**
+     * 获取编译结果，模板内容变更后按新的内容哈希重新编译
+     */
+    private CompiledTemplate getCompiled(SysTemplate template) {
+        String content = template.getContent();
+        if (template.getId() == null) {
+            return compile(content);
+        }
+        String key = template.getId() + ":" + content.hashCode();
+        CompiledTemplate cached = compiledCache.getIfPresent(key);
+        if (cached != null && cached.matches(content)) {
+            return cached;
+        }
+        CompiledTemplate compiled = compile(content);
+        compiledCache.put(key, compiled);
+        return compiled;
+    }
+
+    /**
+     * 将模板内容解析为片段列表
+     */
+    private CompiledTemplate compile(String content) {
+        List<String> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        int pos = 0;
+        StringBuilder literal = new StringBuilder();
+        while (pos < content.length()) {
+            int start = content.indexOf(PLACEHOLDER_PREFIX, pos);
+            int end = start < 0 ? -1 : content.indexOf(PLACEHOLDER_SUFFIX, start + PLACEHOLDER_PREFIX.length());
+            if (start < 0 || end < 0) {
+                literal.append(content, pos, content.length());
+                break;
+            }
+            literal.append(content, pos, start);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            keys.add(content.substring(start + PLACEHOLDER_PREFIX.length(), end));
+            pos = end + 1;
+        }
+        literals.add(literal.toString());
+        return new CompiledTemplate(content, literals.toArray(new String[0]), keys.toArray(new String[0]));
+    }
+
+    /**
+     * 编译后的模板: literals[0] keys[0] literals[1] keys[1] ... literals[n]
+     */
+    private static final class CompiledTemplate {
+        private final String source;
+        private final String[] literals;
+        private final String[] keys;
+        private final int literalLength;
+        private volatile RenderResult lastResult;
+
+        CompiledTemplate(String source, String[] literals, String[] keys) {
+            this.source = source;
+            this.literals = literals;
+            this.keys = keys;
+            int length = 0;
+            for (String literal : literals) {
+                length += literal.length();
+            }
+            this.literalLength = length;
+        }
+
+        boolean matches(String content) {
+            return source == content || source.equals(content);
+        }
+
+        String render(Map<String, Object> params) {
+            if (keys.length == 0) {
+                return source;
+            }
+            StringBuilder sb = BUILDER.get();
+            sb.setLength(0);
+            sb.ensureCapacity(literalLength + keys.length * 16);
+            for (int i = 0; i < keys.length; i++) {
+                sb.append(literals[i]);
+                String key = keys[i];
+                Object value = params != null ? params.get(key) : null;
+                if (value != null) {
+                    sb.append(value);
+                } else {
+                    sb.append(PLACEHOLDER_PREFIX).append(key).append(PLACEHOLDER_SUFFIX);
+                }
+            }
+            sb.append(literals[keys.length]);
+            String result = sb.toString();
+            if (sb.capacity() > MAX_BUILDER_CAPACITY) {
+                BUILDER.remove();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 最近一次渲染结果 (按参数对象引用匹配)
+     */
+    private static final class RenderResult {
+        private final Map<String, Object> params;
+        private final String content;
+
+        RenderResult(Map<String, Object> params, String content) {
+            this.params = params;
+            this.content = content;
+        }
+    }
+}
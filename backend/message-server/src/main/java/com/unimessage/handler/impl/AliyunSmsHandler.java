@@ -6,11 +6,19 @@ import com.unimessage.entity.LogMsgDetail;
 import com.unimessage.entity.SysChannel;
 import com.unimessage.entity.SysTemplate;
 import com.unimessage.enums.ChannelType;
+import com.unimessage.handler.ChannelClientRegistry;
 import com.unimessage.handler.ChannelHandler;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * 阿里云短信发送处理器
@@ -30,6 +38,23 @@ public class AliyunSmsHandler implements ChannelHandler {
     private static final String JSON_KEY_SIGN_NAME = "signName";
     private static final String JSON_KEY_ENDPOINT = "endpoint";
     private static final String EMPTY_JSON = "{}";
+    /**
+     * SendBatchSms 单次最多支持100个手机号
+     */
+    private static final int MAX_BATCH_SIZE = 100;
+    /**
+     * 手机号格式 (国内号码或带国家码的国际号码)，格式不合法的号码不放入批量请求，避免整批被拒绝
+     */
+    private static final Pattern PHONE_PATTERN = Pattern.compile("^\\+?\\d{6,20}$");
+    private static final String INVALID_PHONE_MSG = "手机号格式不正确";
+    /**
+     * 因个别号码导致整批被拒绝的错误码 (号码非法、单号码日发送量超限)，此时逐个发送定位失败号码；
+     * 限流、系统错误等其余错误码整批失败，交由重试队列和渠道熔断处理
+     */
+    private static final Set<String> NUMBER_SPECIFIC_CODES = Set.of("isv.MOBILE_NUMBER_ILLEGAL", "isv.DAY_LIMIT_CONTROL");
+
+    @Resource
+    private ChannelClientRegistry clientRegistry;
 
     @Override
     public boolean support(String channelType) {
@@ -52,30 +77,11 @@ public class AliyunSmsHandler implements ChannelHandler {
             log.info("准备发送阿里云短信: recipient={}, signName={}, templateCode={}",
                     msgDetail.getRecipient(), signName, templateCode);
 
-            String endpoint = config.getString(JSON_KEY_ENDPOINT);
-            if (endpoint == null || endpoint.isEmpty()) {
-                endpoint = DEFAULT_ENDPOINT;
-            }
+            // 客户端按渠道复用，避免每条短信重新初始化及 TLS 握手
+            com.aliyun.dysmsapi20170525.Client client = clientRegistry.getClient(channel,
+                    com.aliyun.dysmsapi20170525.Client.class, this::createClient);
 
-            com.aliyun.teaopenapi.models.Config clientConfig = new com.aliyun.teaopenapi.models.Config()
-                    .setAccessKeyId(accessKeyId)
-                    .setAccessKeySecret(accessKeySecret)
-                    .setEndpoint(endpoint);
-
-            com.aliyun.dysmsapi20170525.Client client = new com.aliyun.dysmsapi20170525.Client(clientConfig);
-
-            // 阿里云短信要求参数值为字符串，且验证码类型短信对字符集有严格要求（通常为[a-zA-Z0-9]）
-            // 这里将所有参数转换为String类型，避免数字类型导致的格式问题
-            String paramJson = EMPTY_JSON;
-            if (params != null && !params.isEmpty()) {
-                java.util.Map<String, String> stringParams = new java.util.HashMap<>();
-                for (Map.Entry<String, Object> entry : params.entrySet()) {
-                    if (entry.getValue() != null) {
-                        stringParams.put(entry.getKey(), String.valueOf(entry.getValue()));
-                    }
-                }
-                paramJson = JSON.toJSONString(stringParams);
-            }
+            String paramJson = buildParamJson(params);
 
             // 保存发送内容快照
             msgDetail.setContent("SignName: " + signName + ", TemplateCode: " + template.getThirdPartyId() + ", Params: " + paramJson);
@@ -113,6 +119,150 @@ public class AliyunSmsHandler implements ChannelHandler {
         }
     }
 
+    @Override
+    public int getMaxBatchSize(SysChannel channel) {
+        return MAX_BATCH_SIZE;
+    }
+
+    /**
+     * 批量发送 (SendBatchSms)
+     * 阿里云批量接口按整体返回结果，格式不合法的号码预先剔除；批量请求因个别号码被拒绝时
+     * 逐个改用单条接口发送，使其余接收者不受影响，其余错误整批失败
+     */
+    @Override
+    public List<Boolean> sendBatch(SysChannel channel, SysTemplate template, List<LogMsgDetail> msgDetails,
+                                   Map<String, Object> params) {
+        Boolean[] results = new Boolean[msgDetails.size()];
+        List<LogMsgDetail> valid = new ArrayList<>(msgDetails.size());
+        for (int i = 0; i < msgDetails.size(); i++) {
+            LogMsgDetail msgDetail = msgDetails.get(i);
+            if (msgDetail.getRecipient() == null || !PHONE_PATTERN.matcher(msgDetail.getRecipient()).matches()) {
+                msgDetail.setErrorMsg(INVALID_PHONE_MSG);
+                results[i] = false;
+            } else {
+                valid.add(msgDetail);
+            }
+        }
+        if (valid.size() < msgDetails.size()) {
+            log.warn("阿里云短信批量发送剔除格式不正确的号码: count={}", msgDetails.size() - valid.size());
+        }
+        List<Boolean> validResults = valid.size() == 1
+                ? List.of(send(channel, template, valid.get(0), params))
+                : sendBatchValid(channel, template, valid, params);
+        for (int i = 0, j = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = validResults.get(j++);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private List<Boolean> sendBatchValid(SysChannel channel, SysTemplate template, List<LogMsgDetail> msgDetails,
+                                         Map<String, Object> params) {
+        if (msgDetails.isEmpty()) {
+            return List.of();
+        }
+        log.info("开始批量发送阿里云短信: size={}", msgDetails.size());
+
+        try {
+            JSONObject config = JSON.parseObject(channel.getConfigJson());
+            String signName = config.getString(JSON_KEY_SIGN_NAME);
+            validateConfig(config.getString(JSON_KEY_ACCESS_KEY_ID), config.getString(JSON_KEY_ACCESS_KEY_SECRET), signName);
+
+            com.aliyun.dysmsapi20170525.Client client = clientRegistry.getClient(channel,
+                    com.aliyun.dysmsapi20170525.Client.class, this::createClient);
+
+            String paramJson = buildParamJson(params);
+            List<String> phoneNumbers = new ArrayList<>(msgDetails.size());
+            List<String> signNames = new ArrayList<>(msgDetails.size());
+            List<JSONObject> templateParams = new ArrayList<>(msgDetails.size());
+            JSONObject paramObject = JSON.parseObject(paramJson);
+            for (LogMsgDetail msgDetail : msgDetails) {
+                phoneNumbers.add(msgDetail.getRecipient());
+                signNames.add(signName);
+                templateParams.add(paramObject);
+                msgDetail.setContent("SignName: " + signName + ", TemplateCode: " + template.getThirdPartyId() + ", Params: " + paramJson);
+            }
+
+            com.aliyun.dysmsapi20170525.models.SendBatchSmsRequest request = new com.aliyun.dysmsapi20170525.models.SendBatchSmsRequest()
+                    .setPhoneNumberJson(JSON.toJSONString(phoneNumbers))
+                    .setSignNameJson(JSON.toJSONString(signNames))
+                    .setTemplateCode(template.getThirdPartyId())
+                    .setTemplateParamJson(JSON.toJSONString(templateParams));
+
+            com.aliyun.dysmsapi20170525.models.SendBatchSmsResponse response = client.sendBatchSms(request);
+            String code = response.getBody().getCode();
+            String message = response.getBody().getMessage();
+            List<Boolean> results = new ArrayList<>(msgDetails.size());
+            if (NUMBER_SPECIFIC_CODES.contains(code)) {
+                // 批量请求因个别号码被拒绝 (未发出)，逐个发送以定位失败的接收者
+                log.warn("阿里云短信批量发送失败，改为逐个发送: code={}, message={}, size={}", code, message, msgDetails.size());
+                for (LogMsgDetail msgDetail : msgDetails) {
+                    results.add(send(channel, template, msgDetail, params));
+                }
+                return results;
+            }
+            if (!SUCCESS_CODE.equals(code)) {
+                // 限流、系统错误等：整批失败并记录错误码，由重试队列按退避重试、熔断器统计失败率
+                log.error("阿里云短信批量发送失败: code={}, message={}, size={}", code, message, msgDetails.size());
+                for (LogMsgDetail msgDetail : msgDetails) {
+                    msgDetail.setErrorMsg(code + ": " + message);
+                    results.add(false);
+                }
+                return results;
+            }
+            for (LogMsgDetail msgDetail : msgDetails) {
+                msgDetail.setThirdPartyMsgId(response.getBody().getBizId());
+                results.add(true);
+            }
+            return results;
+
+        } catch (Exception e) {
+            log.error("阿里云短信批量发送异常", e);
+            List<Boolean> results = new ArrayList<>(msgDetails.size());
+            for (LogMsgDetail msgDetail : msgDetails) {
+                msgDetail.setErrorMsg(e.getMessage());
+                results.add(false);
+            }
+            return results;
+        }
+    }
+
+    /**
+     * 构建模板参数JSON
+     * 阿里云短信要求参数值为字符串，且验证码类型短信对字符集有严格要求（通常为[a-zA-Z0-9]）
+     * 这里将所有参数转换为String类型，避免数字类型导致的格式问题
+     */
+    private String buildParamJson(Map<String, Object> params) {
+        if (params == null || params.isEmpty()) {
+            return EMPTY_JSON;
+        }
+        Map<String, String> stringParams = new HashMap<>(params.size() * 2);
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+            if (entry.getValue() != null) {
+                stringParams.put(entry.getKey(), String.valueOf(entry.getValue()));
+            }
+        }
+        return JSON.toJSONString(stringParams);
+    }
+
+    /**
+     * 创建阿里云短信客户端
+     */
+    private com.aliyun.dysmsapi20170525.Client createClient(JSONObject config) throws Exception {
+        String endpoint = config.getString(JSON_KEY_ENDPOINT);
+        if (endpoint == null || endpoint.isEmpty()) {
+            endpoint = DEFAULT_ENDPOINT;
+        }
+
+        com.aliyun.teaopenapi.models.Config clientConfig = new com.aliyun.teaopenapi.models.Config()
+                .setAccessKeyId(config.getString(JSON_KEY_ACCESS_KEY_ID))
+                .setAccessKeySecret(config.getString(JSON_KEY_ACCESS_KEY_SECRET))
+                .setEndpoint(endpoint);
+
+        return new com.aliyun.dysmsapi20170525.Client(clientConfig);
+    }
+
     /**
      * 校验配置参数
      */
@@ -6,11 +6,16 @@ import com.unimessage.entity.LogMsgDetail;
 import com.unimessage.entity.SysChannel;
 import com.unimessage.entity.SysTemplate;
 import com.unimessage.enums.ChannelType;
+import com.unimessage.handler.AsyncHttpClient;
 import com.unimessage.handler.ChannelHandler;
+import com.unimessage.handler.TemplateRenderer;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 钉钉消息发送处理器
@@ -23,6 +28,11 @@ import java.util.Map;
 @Component
 public class DingTalkHandler implements ChannelHandler {
 
+    @Resource
+    private TemplateRenderer templateRenderer;
+    @Resource
+    private AsyncHttpClient asyncHttpClient;
+
     private static final String KEY_WEBHOOK = "webhook";
     private static final String KEY_MSGTYPE = "msgtype";
     private static final String KEY_TEXT = "text";
@@ -42,6 +52,17 @@ public class DingTalkHandler implements ChannelHandler {
 
     @Override
     public boolean send(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail, Map<String, Object> params) {
+        return sendAsync(channel, template, msgDetail, params).join();
+    }
+
+    @Override
+    public boolean supportsAsync() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> sendAsync(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail,
+                                                Map<String, Object> params) {
         log.info("开始发送钉钉消息: recipient={}", msgDetail.getRecipient());
 
         try {
@@ -49,40 +70,39 @@ public class DingTalkHandler implements ChannelHandler {
             String webhook = config.getString(KEY_WEBHOOK);
 
             if (webhook != null && !webhook.isEmpty()) {
-                return sendByWebhook(webhook, template, msgDetail, params);
+                return sendByWebhook(webhook, template, msgDetail, params)
+                        .exceptionally(e -> fail(msgDetail, "钉钉Webhook发送失败", e));
             }
 
             throw new UnsupportedOperationException("目前仅支持钉钉 Webhook 方式");
 
         } catch (Exception e) {
-            log.error("钉钉消息发送异常", e);
-            msgDetail.setErrorMsg(e.getMessage());
-            return false;
+            return CompletableFuture.completedFuture(fail(msgDetail, "钉钉消息发送异常", e));
         }
     }
 
     /**
      * 通过 Webhook 发送消息
      */
-    private boolean sendByWebhook(String webhook, SysTemplate template, LogMsgDetail msgDetail,
-                                  Map<String, Object> params) {
-        try {
-            String content = renderContent(template.getContent(), params);
-            msgDetail.setContent(content);
-
-            JSONObject request = new JSONObject();
-            request.put(KEY_MSGTYPE, MSG_TYPE_TEXT);
-            JSONObject text = new JSONObject();
-            text.put(KEY_CONTENT, content);
-            request.put(KEY_TEXT, text);
-
-            if (isPhoneNumber(msgDetail.getRecipient())) {
-                JSONObject at = new JSONObject();
-                at.put(KEY_AT_MOBILES, java.util.Collections.singletonList(msgDetail.getRecipient()));
-                request.put(KEY_AT, at);
-            }
+    private CompletableFuture<Boolean> sendByWebhook(String webhook, SysTemplate template, LogMsgDetail msgDetail,
+                                                     Map<String, Object> params) {
+        String content = templateRenderer.render(template, params);
+        msgDetail.setContent(content);
+
+        JSONObject request = new JSONObject();
+        request.put(KEY_MSGTYPE, MSG_TYPE_TEXT);
+        JSONObject text = new JSONObject();
+        text.put(KEY_CONTENT, content);
+        request.put(KEY_TEXT, text);
+
+        if (isPhoneNumber(msgDetail.getRecipient())) {
+            JSONObject at = new JSONObject();
+            at.put(KEY_AT_MOBILES, java.util.Collections.singletonList(msgDetail.getRecipient()));
+            request.put(KEY_AT, at);
+        }
 
-            String result = cn.hutool.http.HttpUtil.post(webhook, request.toJSONString());
+        return asyncHttpClient.postJson(webhook, request.toJSONString(), null).thenApply(response -> {
+            String result = response.getBody();
             log.info("钉钉Webhook响应: {}", result);
 
             JSONObject res = JSON.parseObject(result);
@@ -93,11 +113,14 @@ public class DingTalkHandler implements ChannelHandler {
                 msgDetail.setErrorMsg(res.getString(KEY_ERRMSG));
                 return false;
             }
-        } catch (Exception e) {
-            log.error("钉钉Webhook发送失败", e);
-            msgDetail.setErrorMsg(e.getMessage());
-            return false;
-        }
+        });
+    }
+
+    private boolean fail(LogMsgDetail msgDetail, String message, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error(message, cause);
+        msgDetail.setErrorMsg(cause.getMessage());
+        return false;
     }
 
     /**
@@ -109,20 +132,4 @@ public class DingTalkHandler implements ChannelHandler {
         }
         return str.matches(PHONE_REGEX);
     }
-
-    /**
-     * 渲染模板内容
-     */
-    private String renderContent(String template, Map<String, Object> params) {
-        String content = template;
-        if (params != null) {
-            for (Map.Entry<String, Object> entry : params.entrySet()) {
-                String key = "${" + entry.getKey() + "}";
-                if (content.contains(key)) {
-                    content = content.replace(key, String.valueOf(entry.getValue()));
-                }
-            }
-        }
-        return content;
-    }
 }
@@ -6,19 +6,30 @@ import com.unimessage.entity.LogMsgDetail;
 import com.unimessage.entity.SysChannel;
 import com.unimessage.entity.SysTemplate;
 import com.unimessage.enums.ChannelType;
+import com.unimessage.handler.ChannelClientRegistry;
 import com.unimessage.handler.ChannelHandler;
+import com.unimessage.handler.TemplateRenderer;
+import jakarta.annotation.Resource;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-import java.util.Properties;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * 邮件发送处理器
- * 重构：使用 Spring JavaMailSender 替代 Hutool 以解决 Jakarta/Javax 冲突
+ * 重构：使用 Jakarta Mail 替代 Hutool 以解决 Jakarta/Javax 冲突
+ * 每个渠道维护一个 SMTP 连接池，连接在多封邮件之间复用
  *
  * @author 海明
  * @since 2025-12-04
@@ -27,6 +38,21 @@ import java.util.Properties;
 @Component
 public class EmailHandler implements ChannelHandler {
 
+    private static final String JSON_KEY_POOL_SIZE = "poolSize";
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final String MAIL_TIMEOUT = "5000";
+    private static final String JSON_KEY_BCC_BATCH_SIZE = "bccBatchSize";
+    /**
+     * 单封邮件最多密送收件人数 (多数 SMTP 服务器限制单次事务 RCPT 数量)
+     */
+    private static final int MAX_BCC_BATCH_SIZE = 50;
+    private static final String UNDISCLOSED_RECIPIENTS = "undisclosed-recipients:;";
+
+    @Resource
+    private TemplateRenderer templateRenderer;
+    @Resource
+    private ChannelClientRegistry clientRegistry;
+
     @Override
     public boolean support(String channelType) {
         return ChannelType.EMAIL.getCode().equals(channelType);
@@ -47,33 +73,18 @@ public class EmailHandler implements ChannelHandler {
 
             validateConfig(host, port, username, password);
 
-            // 2. 动态构建 JavaMailSender
-            JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
-            mailSender.setHost(host);
-            mailSender.setPort(port);
-            mailSender.setUsername(username);
-            mailSender.setPassword(password);
-            mailSender.setDefaultEncoding("UTF-8");
-
-            Properties props = mailSender.getJavaMailProperties();
-            props.put("mail.transport.protocol", "smtp");
-            props.put("mail.smtp.auth", "true");
-            props.put("mail.smtp.connectiontimeout", "5000");
-            props.put("mail.smtp.timeout", "5000");
-            props.put("mail.smtp.writetimeout", "5000");
-
-            if (Boolean.TRUE.equals(ssl)) {
-                props.put("mail.smtp.ssl.enable", "true");
-                // 某些环境可能需要指定 socketFactory，但在 Spring Boot 3 + Jakarta Mail 中通常只需 ssl.enable
-            }
+            // 2. 获取渠道复用的 SMTP 连接池
+            MailClient mailClient = clientRegistry.getClient(channel, MailClient.class,
+                    cfg -> new MailClient(host, port, username, password, Boolean.TRUE.equals(ssl),
+                            cfg.getIntValue(JSON_KEY_POOL_SIZE, DEFAULT_POOL_SIZE)));
 
             // 3. 构建邮件内容
-            String content = renderContent(template.getContent(), params);
+            String content = templateRenderer.render(template, params);
             msgDetail.setContent(content);
 
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
+            MimeMessage mimeMessage = mailClient.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-            
+
             helper.setFrom(username);
             helper.setTo(msgDetail.getRecipient());
             helper.setSubject(template.getTitle());
@@ -81,9 +92,9 @@ public class EmailHandler implements ChannelHandler {
             helper.setText(content, true);
 
             // 4. 发送
-            mailSender.send(mimeMessage);
+            mailClient.send(mimeMessage);
 
-            // JavaMailSender 不直接返回 Message-ID，通常如果没报错即为成功
+            // 发送前 saveChanges 会生成 Message-ID，未报错即为成功
             String msgId = mimeMessage.getMessageID();
             if (msgId == null) {
             // Fallback
@@ -101,6 +112,108 @@ public class EmailHandler implements ChannelHandler {
         }
     }
 
+    /**
+     * 邮件默认逐个发送 (收件人出现在 To 中)；渠道配置 bccBatchSize 大于1时，
+     * 同一内容以密送方式一次 SMTP 事务投递给多个收件人
+     */
+    @Override
+    public int getMaxBatchSize(SysChannel channel) {
+        JSONObject config = JSON.parseObject(channel.getConfigJson());
+        int batchSize = config != null ? config.getIntValue(JSON_KEY_BCC_BATCH_SIZE, 1) : 1;
+        return Math.max(1, Math.min(batchSize, MAX_BCC_BATCH_SIZE));
+    }
+
+    /**
+     * 批量发送 (多 RCPT)
+     * 部分收件人被服务器拒绝时，通过 SendFailedException 区分成功与失败的地址
+     */
+    @Override
+    public List<Boolean> sendBatch(SysChannel channel, SysTemplate template, List<LogMsgDetail> msgDetails,
+                                   Map<String, Object> params) {
+        if (msgDetails.size() == 1) {
+            return List.of(send(channel, template, msgDetails.get(0), params));
+        }
+        log.info("开始批量发送邮件: size={}", msgDetails.size());
+        List<Boolean> results = new ArrayList<>(msgDetails.size());
+
+        try {
+            JSONObject config = JSON.parseObject(channel.getConfigJson());
+            String host = config.getString("host");
+            Integer port = config.getInteger("port");
+            String username = config.getString("username");
+            String password = config.getString("password");
+            Boolean ssl = config.getBoolean("ssl");
+
+            validateConfig(host, port, username, password);
+
+            MailClient mailClient = clientRegistry.getClient(channel, MailClient.class,
+                    cfg -> new MailClient(host, port, username, password, Boolean.TRUE.equals(ssl),
+                            cfg.getIntValue(JSON_KEY_POOL_SIZE, DEFAULT_POOL_SIZE)));
+
+            String content = templateRenderer.render(template, params);
+
+            MimeMessage mimeMessage = mailClient.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+            helper.setFrom(username);
+            // 收件人全部密送，To 使用空组地址，避免发件人出现在每封邮件的收件人中
+            mimeMessage.setHeader("To", UNDISCLOSED_RECIPIENTS);
+            String[] bcc = new String[msgDetails.size()];
+            for (int i = 0; i < msgDetails.size(); i++) {
+                msgDetails.get(i).setContent(content);
+                bcc[i] = msgDetails.get(i).getRecipient();
+            }
+            helper.setBcc(bcc);
+            helper.setSubject(template.getTitle());
+            helper.setText(content, true);
+
+            Set<String> failed = new HashSet<>();
+            String errorMsg = null;
+            try {
+                mailClient.send(mimeMessage, mimeMessage.getRecipients(Message.RecipientType.BCC));
+            } catch (SendFailedException e) {
+                Address[] sent = e.getValidSentAddresses();
+                if (sent == null || sent.length == 0) {
+                    throw e;
+                }
+                errorMsg = e.getMessage();
+                addAddresses(failed, e.getInvalidAddresses());
+                addAddresses(failed, e.getValidUnsentAddresses());
+            }
+
+            String msgId = mimeMessage.getMessageID();
+            for (LogMsgDetail msgDetail : msgDetails) {
+                if (failed.contains(msgDetail.getRecipient().toLowerCase())) {
+                    msgDetail.setErrorMsg(errorMsg);
+                    results.add(false);
+                } else {
+                    msgDetail.setThirdPartyMsgId(msgId);
+                    results.add(true);
+                }
+            }
+            log.info("邮件批量发送完成: size={}, failed={}", msgDetails.size(), failed.size());
+            return results;
+
+        } catch (Exception e) {
+            log.error("邮件批量发送异常", e);
+            results.clear();
+            for (LogMsgDetail msgDetail : msgDetails) {
+                msgDetail.setErrorMsg(e.getMessage());
+                results.add(false);
+            }
+            return results;
+        }
+    }
+
+    private void addAddresses(Set<String> target, Address[] addresses) {
+        if (addresses == null) {
+            return;
+        }
+        for (Address address : addresses) {
+            String value = address instanceof InternetAddress internetAddress ? internetAddress.getAddress() : address.toString();
+            target.add(value.toLowerCase());
+        }
+    }
+
     /**
      * 校验配置参数
      */
@@ -120,18 +233,100 @@ public class EmailHandler implements ChannelHandler {
     }
 
     /**
-     * 渲染模板内容
+     * 渠道级 SMTP 客户端
+     * 持有 Session 及已认证的 Transport 连接池，连接失效或发送异常时丢弃重建
      */
-    private String renderContent(String template, Map<String, Object> params) {
-        String content = template;
-        if (params != null) {
-            for (Map.Entry<String, Object> entry : params.entrySet()) {
-                String key = "${" + entry.getKey() + "}";
-                if (content.contains(key)) {
-                    content = content.replace(key, String.valueOf(entry.getValue()));
+    static final class MailClient implements AutoCloseable {
+        private final Session session;
+        private final String host;
+        private final int port;
+        private final String username;
+        private final String password;
+        private final BlockingQueue<Transport> idleTransports;
+        private volatile boolean closed;
+
+        MailClient(String host, int port, String username, String password, boolean ssl, int poolSize) {
+            this.host = host;
+            this.port = port;
+            this.username = username;
+            this.password = password;
+            this.idleTransports = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+
+            Properties props = new Properties();
+            props.put("mail.transport.protocol", "smtp");
+            props.put("mail.smtp.auth", "true");
+            props.put("mail.smtp.connectiontimeout", MAIL_TIMEOUT);
+            props.put("mail.smtp.timeout", MAIL_TIMEOUT);
+            props.put("mail.smtp.writetimeout", MAIL_TIMEOUT);
+            // 多收件人时部分地址被拒绝仍投递其余地址，并通过 SendFailedException 返回明细
+            props.put("mail.smtp.sendpartial", "true");
+            if (ssl) {
+                props.put("mail.smtp.ssl.enable", "true");
+            }
+            this.session = Session.getInstance(props);
+        }
+
+        MimeMessage createMimeMessage() {
+            return new MimeMessage(session);
+        }
+
+        void send(MimeMessage message) throws MessagingException {
+            send(message, null);
+        }
+
+        /**
+         * 投递给指定收件人
+         *
+         * @param recipients 实际投递地址，为 null 时投递给邮件头中的全部收件人
+         */
+        void send(MimeMessage message, Address[] recipients) throws MessagingException {
+            Transport transport = borrow();
+            try {
+                message.saveChanges();
+                transport.sendMessage(message, recipients != null ? recipients : message.getAllRecipients());
+            } catch (MessagingException e) {
+                // 连接状态未知，不再放回连接池
+                closeQuietly(transport);
+                throw e;
+            }
+            release(transport);
+        }
+
+        private Transport borrow() throws MessagingException {
+            Transport transport;
+            while ((transport = idleTransports.poll()) != null) {
+                // isConnected 会发送 NOOP 探测，服务端已断开的空闲连接在此处被丢弃
+                if (transport.isConnected()) {
+                    return transport;
                 }
+                closeQuietly(transport);
+            }
+            transport = session.getTransport("smtp");
+            transport.connect(host, port, username, password);
+            return transport;
+        }
+
+        private void release(Transport transport) {
+            if (closed || !idleTransports.offer(transport)) {
+                closeQuietly(transport);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            Transport transport;
+            while ((transport = idleTransports.poll()) != null) {
+                closeQuietly(transport);
+            }
+        }
+
+        private static void closeQuietly(Transport transport) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("关闭 SMTP 连接异常", e);
             }
         }
-        return content;
     }
 }
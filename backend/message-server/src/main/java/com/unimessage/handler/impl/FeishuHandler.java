@@ -6,11 +6,18 @@ import com.unimessage.entity.LogMsgDetail;
 import com.unimessage.entity.SysChannel;
 import com.unimessage.entity.SysTemplate;
 import com.unimessage.enums.ChannelType;
+import com.unimessage.handler.AccessTokenCache;
+import com.unimessage.handler.AsyncHttpClient;
 import com.unimessage.handler.ChannelHandler;
+import com.unimessage.handler.TemplateRenderer;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 飞书消息推送处理器
@@ -23,6 +30,13 @@ import java.util.Map;
 @Component
 public class FeishuHandler implements ChannelHandler {
 
+    @Resource
+    private TemplateRenderer templateRenderer;
+    @Resource
+    private AsyncHttpClient asyncHttpClient;
+    @Resource
+    private AccessTokenCache accessTokenCache;
+
     private static final String KEY_WEBHOOK = "webhook";
     private static final String KEY_APP_ID = "appId";
     private static final String KEY_APP_SECRET = "appSecret";
@@ -35,6 +49,13 @@ public class FeishuHandler implements ChannelHandler {
     private static final String KEY_CONTENT = "content";
     private static final String MSG_TYPE_TEXT = "text";
     private static final String KEY_TENANT_ACCESS_TOKEN = "tenant_access_token";
+    private static final String KEY_EXPIRE = "expire";
+    private static final long DEFAULT_TOKEN_EXPIRE = 7200;
+    private static final String TOKEN_PROVIDER = "feishu";
+    /**
+     * 令牌无效/过期错误码
+     */
+    private static final Set<Integer> TOKEN_INVALID_CODES = Set.of(99991661, 99991663, 99991668);
     private static final String KEY_RECEIVE_ID = "receive_id";
     private static final String KEY_CODE = "code";
     private static final String KEY_STATUS_CODE = "StatusCode";
@@ -51,6 +72,17 @@ public class FeishuHandler implements ChannelHandler {
 
     @Override
     public boolean send(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail, Map<String, Object> params) {
+        return sendAsync(channel, template, msgDetail, params).join();
+    }
+
+    @Override
+    public boolean supportsAsync() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> sendAsync(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail,
+                                                Map<String, Object> params) {
         log.info("开始发送飞书消息: recipient={}", msgDetail.getRecipient());
 
         try {
@@ -58,40 +90,40 @@ public class FeishuHandler implements ChannelHandler {
             String webhook = config.getString(KEY_WEBHOOK);
 
             if (webhook != null && !webhook.isEmpty()) {
-                return sendByWebhook(webhook, template, msgDetail, params);
+                return sendByWebhook(webhook, template, msgDetail, params)
+                        .exceptionally(e -> fail(msgDetail, "飞书Webhook发送异常", e));
             }
 
             String appId = config.getString(KEY_APP_ID);
             String appSecret = config.getString(KEY_APP_SECRET);
             if (appId != null && appSecret != null) {
-                return sendByApp(config, appId, appSecret, template, msgDetail, params);
+                return sendByApp(config, appId, appSecret, template, msgDetail, params)
+                        .exceptionally(e -> fail(msgDetail, "飞书应用消息发送失败", e));
             }
 
             throw new IllegalArgumentException("飞书配置错误: 需要配置 webhook 或 appId/appSecret");
 
         } catch (Exception e) {
-            log.error("飞书消息发送异常", e);
-            msgDetail.setErrorMsg(e.getMessage());
-            return false;
+            return CompletableFuture.completedFuture(fail(msgDetail, "飞书消息发送异常", e));
         }
     }
 
     /**
      * Webhook 机器人模式发送
      */
-    private boolean sendByWebhook(String webhook, SysTemplate template, LogMsgDetail msgDetail,
-                                  Map<String, Object> params) {
-        try {
-            String content = renderContent(template.getContent(), params);
-            msgDetail.setContent(content);
-
-            JSONObject request = new JSONObject();
-            request.put(KEY_MSG_TYPE, MSG_TYPE_TEXT);
-            JSONObject textContent = new JSONObject();
-            textContent.put(KEY_TEXT, content);
-            request.put(KEY_CONTENT, textContent);
-
-            String result = cn.hutool.http.HttpUtil.post(webhook, request.toJSONString());
+    private CompletableFuture<Boolean> sendByWebhook(String webhook, SysTemplate template, LogMsgDetail msgDetail,
+                                                     Map<String, Object> params) {
+        String content = templateRenderer.render(template, params);
+        msgDetail.setContent(content);
+
+        JSONObject request = new JSONObject();
+        request.put(KEY_MSG_TYPE, MSG_TYPE_TEXT);
+        JSONObject textContent = new JSONObject();
+        textContent.put(KEY_TEXT, content);
+        request.put(KEY_CONTENT, textContent);
+
+        return asyncHttpClient.postJson(webhook, request.toJSONString(), null).thenApply(response -> {
+            String result = response.getBody();
             log.info("飞书Webhook响应: {}", result);
 
             JSONObject res = JSON.parseObject(result);
@@ -110,87 +142,74 @@ public class FeishuHandler implements ChannelHandler {
                 log.error("飞书Webhook发送失败: {}", errorMsg);
                 return false;
             }
-        } catch (Exception e) {
-            log.error("飞书Webhook发送异常", e);
-            msgDetail.setErrorMsg(e.getMessage());
-            return false;
-        }
+        });
     }
 
     /**
-     * 应用消息模式发送（使用官方SDK）
+     * 应用消息模式发送 (tenant_access_token 由 AccessTokenCache 缓存复用)
      */
-    private boolean sendByApp(JSONObject config, String appId, String appSecret, SysTemplate template,
-                              LogMsgDetail msgDetail, Map<String, Object> params) {
-        try {
-
-            String tokenUrl = config.getString(KEY_TOKEN_URL);
-            if (tokenUrl == null || tokenUrl.isEmpty()) {
-                tokenUrl = DEFAULT_TOKEN_URL;
-            }
+    private CompletableFuture<Boolean> sendByApp(JSONObject config, String appId, String appSecret, SysTemplate template,
+                                                 LogMsgDetail msgDetail, Map<String, Object> params) {
+        String content = templateRenderer.render(template, params);
+        msgDetail.setContent(content);
+
+        String sendUrl = config.getString(KEY_SEND_URL);
+        String targetUrl = sendUrl == null || sendUrl.isEmpty() ? DEFAULT_SEND_URL : sendUrl;
+
+        JSONObject sendReq = new JSONObject();
+        sendReq.put(KEY_RECEIVE_ID, msgDetail.getRecipient());
+        sendReq.put(KEY_MSG_TYPE, MSG_TYPE_TEXT);
+        sendReq.put(KEY_CONTENT, JSON.toJSONString(Map.of(KEY_TEXT, content)));
+
+        return accessTokenCache.getToken(TOKEN_PROVIDER, appId, () -> fetchToken(config, appId, appSecret))
+                .thenCompose(accessToken -> asyncHttpClient.postJson(targetUrl, sendReq.toJSONString(),
+                        Map.of("Authorization", "Bearer " + accessToken)))
+                .thenApply(response -> {
+                    String sendRes = response.getBody();
+                    log.info("飞书应用消息响应: {}", sendRes);
+                    JSONObject sendJson = JSON.parseObject(sendRes);
+
+                    int code = sendJson.getIntValue(KEY_CODE);
+                    if (code == SUCCESS_CODE) {
+                        msgDetail.setThirdPartyMsgId(sendJson.getJSONObject(KEY_DATA).getString(KEY_MESSAGE_ID));
+                        return true;
+                    }
+                    if (TOKEN_INVALID_CODES.contains(code)) {
+                        // 令牌被提前作废 (如应用密钥重置)，清除缓存，重试时重新获取
+                        accessTokenCache.invalidate(TOKEN_PROVIDER, appId);
+                    }
+                    msgDetail.setErrorMsg(sendJson.getString(KEY_MSG));
+                    return false;
+                });
+    }
 
-            JSONObject tokenReq = new JSONObject();
-            tokenReq.put("app_id", appId);
-            tokenReq.put("app_secret", appSecret);
+    /**
+     * 调用飞书接口获取 tenant_access_token
+     */
+    private CompletableFuture<AccessTokenCache.AccessToken> fetchToken(JSONObject config, String appId, String appSecret) {
+        String tokenUrl = config.getString(KEY_TOKEN_URL);
+        if (tokenUrl == null || tokenUrl.isEmpty()) {
+            tokenUrl = DEFAULT_TOKEN_URL;
+        }
 
-            String tokenRes = cn.hutool.http.HttpUtil.post(tokenUrl, tokenReq.toJSONString());
-            JSONObject tokenJson = JSON.parseObject(tokenRes);
+        JSONObject tokenReq = new JSONObject();
+        tokenReq.put("app_id", appId);
+        tokenReq.put("app_secret", appSecret);
 
+        return asyncHttpClient.postJson(tokenUrl, tokenReq.toJSONString(), null).thenApply(tokenRes -> {
+            JSONObject tokenJson = JSON.parseObject(tokenRes.getBody());
             if (tokenJson.getIntValue(KEY_CODE) != SUCCESS_CODE) {
-                throw new RuntimeException("获取飞书Token失败: " + tokenJson.getString(KEY_MSG));
+                throw new IllegalStateException("获取飞书Token失败: " + tokenJson.getString(KEY_MSG));
             }
-
-            String accessToken = tokenJson.getString(KEY_TENANT_ACCESS_TOKEN);
-
-            String content = renderContent(template.getContent(), params);
-            msgDetail.setContent(content);
-
-            String sendUrl = config.getString(KEY_SEND_URL);
-            if (sendUrl == null || sendUrl.isEmpty()) {
-                sendUrl = DEFAULT_SEND_URL;
-            }
-
-            JSONObject sendReq = new JSONObject();
-            sendReq.put(KEY_RECEIVE_ID, msgDetail.getRecipient());
-            sendReq.put(KEY_MSG_TYPE, MSG_TYPE_TEXT);
-            sendReq.put(KEY_CONTENT, JSON.toJSONString(Map.of(KEY_TEXT, content)));
-
-            String sendRes = cn.hutool.http.HttpRequest.post(sendUrl)
-                    .header("Authorization", "Bearer " + accessToken)
-                    .header("Content-Type", "application/json")
-                    .body(sendReq.toJSONString())
-                    .execute()
-                    .body();
-
-            log.info("飞书应用消息响应: {}", sendRes);
-            JSONObject sendJson = JSON.parseObject(sendRes);
-
-            if (sendJson.getIntValue(KEY_CODE) == SUCCESS_CODE) {
-                msgDetail.setThirdPartyMsgId(sendJson.getJSONObject(KEY_DATA).getString(KEY_MESSAGE_ID));
-                return true;
-            } else {
-                msgDetail.setErrorMsg(sendJson.getString(KEY_MSG));
-                return false;
-            }
-
-        } catch (Exception e) {
-            throw new RuntimeException("飞书应用消息发送失败", e);
-        }
+            return new AccessTokenCache.AccessToken(tokenJson.getString(KEY_TENANT_ACCESS_TOKEN),
+                    tokenJson.getLongValue(KEY_EXPIRE, DEFAULT_TOKEN_EXPIRE));
+        });
     }
 
-    /**
-     * 渲染模板内容
-     */
-    private String renderContent(String template, Map<String, Object> params) {
-        String content = template;
-        if (params != null) {
-            for (Map.Entry<String, Object> entry : params.entrySet()) {
-                String key = "${" + entry.getKey() + "}";
-                if (content.contains(key)) {
-                    content = content.replace(key, String.valueOf(entry.getValue()));
-                }
-            }
-        }
-        return content;
+    private boolean fail(LogMsgDetail msgDetail, String message, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error(message, cause);
+        msgDetail.setErrorMsg(cause.getMessage());
+        return false;
     }
 }
@@ -1,18 +1,22 @@
 package com.unimessage.handler.impl;
 
-import cn.hutool.http.HttpUtil;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
 import com.unimessage.entity.LogMsgDetail;
 import com.unimessage.entity.SysChannel;
 import com.unimessage.entity.SysTemplate;
 import com.unimessage.enums.ChannelType;
+import com.unimessage.handler.AsyncHttpClient;
 import com.unimessage.handler.ChannelHandler;
+import com.unimessage.handler.TemplateRenderer;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Slack 发送处理器 (Webhook方式)
@@ -24,6 +28,11 @@ import java.util.Map;
 @Component
 public class SlackHandler implements ChannelHandler {
 
+    @Resource
+    private TemplateRenderer templateRenderer;
+    @Resource
+    private AsyncHttpClient asyncHttpClient;
+
     @Override
     public boolean support(String channelType) {
         return ChannelType.SLACK.getCode().equals(channelType);
@@ -31,6 +40,17 @@ public class SlackHandler implements ChannelHandler {
 
     @Override
     public boolean send(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail, Map<String, Object> params) {
+        return sendAsync(channel, template, msgDetail, params).join();
+    }
+
+    @Override
+    public boolean supportsAsync() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> sendAsync(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail,
+                                                Map<String, Object> params) {
         log.info("开始发送Slack消息");
 
         try {
@@ -41,41 +61,32 @@ public class SlackHandler implements ChannelHandler {
                 throw new IllegalArgumentException("Slack配置缺失: webhookUrl 为空");
             }
 
-            String content = renderContent(template.getContent(), params);
+            String content = templateRenderer.render(template, params);
             msgDetail.setContent(content);
 
             Map<String, Object> paramMap = new HashMap<>();
             paramMap.put("text", content);
 
             // Slack Webhook accepts JSON payload
-            String response = HttpUtil.post(webhookUrl, JSON.toJSONString(paramMap));
-            log.info("Slack响应: {}", response);
-
-            if ("ok".equals(response)) {
-                return true;
-            } else {
+            return asyncHttpClient.postJson(webhookUrl, JSON.toJSONString(paramMap), null).thenApply(res -> {
+                String response = res.getBody();
+                log.info("Slack响应: {}", response);
+                if ("ok".equals(response)) {
+                    return true;
+                }
                 msgDetail.setErrorMsg(response);
                 return false;
-            }
+            }).exceptionally(e -> fail(msgDetail, e));
 
         } catch (Exception e) {
-            log.error("Slack发送异常", e);
-            msgDetail.setErrorMsg(e.getMessage());
-            return false;
+            return CompletableFuture.completedFuture(fail(msgDetail, e));
         }
     }
 
-    private String renderContent(String template, Map<String, Object> params) {
-        if (template == null) return "";
-        String content = template;
-        if (params != null) {
-            for (Map.Entry<String, Object> entry : params.entrySet()) {
-                String key = "${" + entry.getKey() + "}";
-                if (content.contains(key)) {
-                    content = content.replace(key, String.valueOf(entry.getValue()));
-                }
-            }
-        }
-        return content;
+    private boolean fail(LogMsgDetail msgDetail, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("Slack发送异常", cause);
+        msgDetail.setErrorMsg(cause.getMessage());
+        return false;
     }
 }
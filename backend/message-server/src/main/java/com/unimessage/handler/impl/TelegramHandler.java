@@ -1,18 +1,22 @@
 package com.unimessage.handler.impl;
 
-import cn.hutool.http.HttpUtil;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
 import com.unimessage.entity.LogMsgDetail;
 import com.unimessage.entity.SysChannel;
 import com.unimessage.entity.SysTemplate;
 import com.unimessage.enums.ChannelType;
+import com.unimessage.handler.AsyncHttpClient;
 import com.unimessage.handler.ChannelHandler;
+import com.unimessage.handler.TemplateRenderer;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Telegram 发送处理器
@@ -24,6 +28,11 @@ import java.util.Map;
 @Component
 public class TelegramHandler implements ChannelHandler {
 
+    @Resource
+    private TemplateRenderer templateRenderer;
+    @Resource
+    private AsyncHttpClient asyncHttpClient;
+
     @Override
     public boolean support(String channelType) {
         return ChannelType.TELEGRAM.getCode().equals(channelType);
@@ -31,6 +40,17 @@ public class TelegramHandler implements ChannelHandler {
 
     @Override
     public boolean send(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail, Map<String, Object> params) {
+        return sendAsync(channel, template, msgDetail, params).join();
+    }
+
+    @Override
+    public boolean supportsAsync() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> sendAsync(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail,
+                                                Map<String, Object> params) {
         log.info("开始发送Telegram消息: recipient={}", msgDetail.getRecipient());
 
         try {
@@ -41,7 +61,7 @@ public class TelegramHandler implements ChannelHandler {
                 throw new IllegalArgumentException("Telegram配置缺失: botToken 为空");
             }
 
-            String content = renderContent(template.getContent(), params);
+            String content = templateRenderer.render(template, params);
             msgDetail.setContent(content);
 
             String url = "https://api.telegram.org/bot" + botToken + "/sendMessage";
@@ -49,37 +69,29 @@ public class TelegramHandler implements ChannelHandler {
             paramMap.put("chat_id", msgDetail.getRecipient());
             paramMap.put("text", content);
 
-            String response = HttpUtil.post(url, paramMap);
-            log.info("Telegram响应: {}", response);
+            return asyncHttpClient.postForm(url, paramMap).thenApply(res -> {
+                String response = res.getBody();
+                log.info("Telegram响应: {}", response);
 
-            JSONObject resObj = JSON.parseObject(response);
-            if (resObj != null && resObj.getBooleanValue("ok")) {
-                msgDetail.setThirdPartyMsgId(resObj.getJSONObject("result").getString("message_id"));
-                return true;
-            } else {
+                JSONObject resObj = JSON.parseObject(response);
+                if (resObj != null && resObj.getBooleanValue("ok")) {
+                    msgDetail.setThirdPartyMsgId(resObj.getJSONObject("result").getString("message_id"));
+                    return true;
+                }
                 String error = resObj != null ? resObj.getString("description") : "Unknown error";
                 msgDetail.setErrorMsg(error);
                 return false;
-            }
+            }).exceptionally(e -> fail(msgDetail, e));
 
         } catch (Exception e) {
-            log.error("Telegram发送异常", e);
-            msgDetail.setErrorMsg(e.getMessage());
-            return false;
+            return CompletableFuture.completedFuture(fail(msgDetail, e));
         }
     }
 
-    private String renderContent(String template, Map<String, Object> params) {
-        if (template == null) return "";
-        String content = template;
-        if (params != null) {
-            for (Map.Entry<String, Object> entry : params.entrySet()) {
-                String key = "${" + entry.getKey() + "}";
-                if (content.contains(key)) {
-                    content = content.replace(key, String.valueOf(entry.getValue()));
-                }
-            }
-        }
-        return content;
+    private boolean fail(LogMsgDetail msgDetail, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("Telegram发送异常", cause);
+        msgDetail.setErrorMsg(cause.getMessage());
+        return false;
     }
 }
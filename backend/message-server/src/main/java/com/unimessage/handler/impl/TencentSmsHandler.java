@@ -13,13 +13,13 @@ import com.unimessage.entity.LogMsgDetail;
 import com.unimessage.entity.SysChannel;
 import com.unimessage.entity.SysTemplate;
 import com.unimessage.enums.ChannelType;
+import com.unimessage.handler.ChannelClientRegistry;
 import com.unimessage.handler.ChannelHandler;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * 腾讯云短信发送处理器
@@ -31,6 +31,18 @@ import java.util.Map;
 @Component
 public class TencentSmsHandler implements ChannelHandler {
 
+    private static final String DEFAULT_REGION = "ap-guangzhou";
+    private static final String ENDPOINT = "sms.tencentcloudapi.com";
+    /**
+     * SendSms 单次最多支持200个手机号
+     */
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final String CN_COUNTRY_CODE = "+86";
+    private static final int CN_MOBILE_LENGTH = 11;
+
+    @Resource
+    private ChannelClientRegistry clientRegistry;
+
     @Override
     public boolean support(String channelType) {
         return ChannelType.TENCENT_SMS.getCode().equals(channelType);
@@ -39,78 +51,152 @@ public class TencentSmsHandler implements ChannelHandler {
     @Override
     public boolean send(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail, Map<String, Object> params) {
         log.info("开始发送腾讯云短信: recipient={}", msgDetail.getRecipient());
+        return doSend(channel, template, List.of(msgDetail), params).get(0);
+    }
+
+    @Override
+    public int getMaxBatchSize(SysChannel channel) {
+        return MAX_BATCH_SIZE;
+    }
 
+    @Override
+    public List<Boolean> sendBatch(SysChannel channel, SysTemplate template, List<LogMsgDetail> msgDetails,
+                                   Map<String, Object> params) {
+        log.info("开始批量发送腾讯云短信: size={}", msgDetails.size());
+        return doSend(channel, template, msgDetails, params);
+    }
+
+    /**
+     * 发送短信，PhoneNumberSet 携带全部接收者，SendStatusSet 返回每个号码 (E.164 格式) 的结果
+     */
+    private List<Boolean> doSend(SysChannel channel, SysTemplate template, List<LogMsgDetail> msgDetails,
+                                 Map<String, Object> params) {
+        List<Boolean> results = new ArrayList<>(msgDetails.size());
         try {
             JSONObject config = JSON.parseObject(channel.getConfigJson());
             String secretId = config.getString("secretId");
             String secretKey = config.getString("secretKey");
             String sdkAppId = config.getString("sdkAppId");
             String signName = config.getString("signName");
-            String region = config.getString("region"); // e.g., "ap-guangzhou"
 
             if (secretId == null || secretKey == null || sdkAppId == null || signName == null) {
                 throw new IllegalArgumentException("腾讯云短信配置缺失");
             }
-            if (region == null || region.isEmpty()) {
-                region = "ap-guangzhou";
-            }
 
-            Credential cred = new Credential(secretId, secretKey);
-            HttpProfile httpProfile = new HttpProfile();
-            httpProfile.setEndpoint("sms.tencentcloudapi.com");
-
-            ClientProfile clientProfile = new ClientProfile();
-            clientProfile.setHttpProfile(httpProfile);
-            SmsClient client = new SmsClient(cred, region, clientProfile);
+            // 客户端按渠道复用，避免每条短信重新初始化及 TLS 握手
+            SmsClient client = clientRegistry.getClient(channel, SmsClient.class, this::createClient);
 
             SendSmsRequest req = new SendSmsRequest();
             req.setSmsSdkAppId(sdkAppId);
             req.setSignName(signName);
             req.setTemplateId(template.getThirdPartyId());
 
-            String[] phoneNumberSet = {msgDetail.getRecipient()};
+            String[] phoneNumberSet = new String[msgDetails.size()];
+            for (int i = 0; i < msgDetails.size(); i++) {
+                phoneNumberSet[i] = msgDetails.get(i).getRecipient();
+            }
             req.setPhoneNumberSet(phoneNumberSet);
 
-            List<String> paramList = new ArrayList<>();
-            if (params != null) {
-                // Try to find "1", "2"...
-                for (int i = 1; i <= params.size(); i++) {
-                    if (params.containsKey(String.valueOf(i))) {
-                        paramList.add(String.valueOf(params.get(String.valueOf(i))));
-                    } else {
-                        break;
-                    }
-                }
-                if (paramList.isEmpty() && !params.isEmpty()) {
-                    for (Object val : params.values()) {
-                        paramList.add(String.valueOf(val));
-                    }
-                }
-            }
+            List<String> paramList = buildParamList(params);
             req.setTemplateParamSet(paramList.toArray(new String[0]));
 
             // Snapshot
-            msgDetail.setContent("TemplateId: " + template.getThirdPartyId() + ", Params: " + JSON.toJSONString(paramList));
+            String snapshot = "TemplateId: " + template.getThirdPartyId() + ", Params: " + JSON.toJSONString(paramList);
+            for (LogMsgDetail msgDetail : msgDetails) {
+                msgDetail.setContent(snapshot);
+            }
 
             SendSmsResponse resp = client.SendSms(req);
 
-            SendStatus[] sendStatusSet = resp.getSendStatusSet();
-            if (sendStatusSet != null && sendStatusSet.length > 0) {
-                SendStatus status = sendStatusSet[0];
-                if ("Ok".equalsIgnoreCase(status.getCode())) {
+            // 按号码 (E.164) 匹配发送状态，不依赖返回顺序；同一号码重复出现时依次取用，最后一个状态共用
+            Map<String, Deque<SendStatus>> statusByPhone = new HashMap<>();
+            if (resp.getSendStatusSet() != null) {
+                for (SendStatus status : resp.getSendStatusSet()) {
+                    statusByPhone.computeIfAbsent(toE164(status.getPhoneNumber()), k -> new ArrayDeque<>()).add(status);
+                }
+            }
+            for (LogMsgDetail msgDetail : msgDetails) {
+                Deque<SendStatus> statuses = statusByPhone.get(toE164(msgDetail.getRecipient()));
+                SendStatus status = statuses == null ? null : statuses.size() > 1 ? statuses.poll() : statuses.peek();
+                if (status != null && "Ok".equalsIgnoreCase(status.getCode())) {
                     msgDetail.setThirdPartyMsgId(status.getSerialNo());
-                    return true;
+                    results.add(true);
                 } else {
-                    msgDetail.setErrorMsg(status.getMessage());
-                    return false;
+                    msgDetail.setErrorMsg(status != null ? status.getMessage() : "未返回发送状态");
+                    results.add(false);
                 }
             }
-            return false;
+            return results;
 
         } catch (Exception e) {
             log.error("腾讯云短信发送异常", e);
-            msgDetail.setErrorMsg(e.getMessage());
-            return false;
+            results.clear();
+            for (LogMsgDetail msgDetail : msgDetails) {
+                msgDetail.setErrorMsg(e.getMessage());
+                results.add(false);
+            }
+            return results;
         }
     }
+
+    /**
+     * 手机号规范化为 E.164 格式，无国家码的11位号码按中国大陆 (+86) 处理
+     */
+    private String toE164(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        String digits = phone.replaceAll("[\\s\\-()]", "");
+        if (digits.startsWith("+")) {
+            return digits;
+        }
+        if (digits.startsWith("00")) {
+            return "+" + digits.substring(2);
+        }
+        if (digits.length() == CN_MOBILE_LENGTH) {
+            return CN_COUNTRY_CODE + digits;
+        }
+        return "+" + digits;
+    }
+
+    /**
+     * 构建模板参数列表，优先按 "1", "2"... 顺序取值
+     */
+    private List<String> buildParamList(Map<String, Object> params) {
+        List<String> paramList = new ArrayList<>();
+        if (params != null) {
+            // Try to find "1", "2"...
+            for (int i = 1; i <= params.size(); i++) {
+                if (params.containsKey(String.valueOf(i))) {
+                    paramList.add(String.valueOf(params.get(String.valueOf(i))));
+                } else {
+                    break;
+                }
+            }
+            if (paramList.isEmpty() && !params.isEmpty()) {
+                for (Object val : params.values()) {
+                    paramList.add(String.valueOf(val));
+                }
+            }
+        }
+        return paramList;
+    }
+
+    /**
+     * 创建腾讯云短信客户端
+     */
+    private SmsClient createClient(JSONObject config) {
+        String region = config.getString("region"); // e.g., "ap-guangzhou"
+        if (region == null || region.isEmpty()) {
+            region = DEFAULT_REGION;
+        }
+
+        Credential cred = new Credential(config.getString("secretId"), config.getString("secretKey"));
+        HttpProfile httpProfile = new HttpProfile();
+        httpProfile.setEndpoint(ENDPOINT);
+
+        ClientProfile clientProfile = new ClientProfile();
+        clientProfile.setHttpProfile(httpProfile);
+        return new SmsClient(cred, region, clientProfile);
+    }
 }
@@ -2,14 +2,17 @@ package com.unimessage.handler.impl;
 
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
-import com.twilio.Twilio;
+import com.twilio.http.TwilioRestClient;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
 import com.unimessage.entity.LogMsgDetail;
 import com.unimessage.entity.SysChannel;
 import com.unimessage.entity.SysTemplate;
 import com.unimessage.enums.ChannelType;
+import com.unimessage.handler.ChannelClientRegistry;
 import com.unimessage.handler.ChannelHandler;
+import com.unimessage.handler.TemplateRenderer;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -25,6 +28,11 @@ import java.util.Map;
 @Component
 public class TwilioHandler implements ChannelHandler {
 
+    @Resource
+    private TemplateRenderer templateRenderer;
+    @Resource
+    private ChannelClientRegistry clientRegistry;
+
     @Override
     public boolean support(String channelType) {
         return ChannelType.TWILIO.getCode().equals(channelType);
@@ -44,16 +52,18 @@ public class TwilioHandler implements ChannelHandler {
                 throw new IllegalArgumentException("Twilio配置缺失");
             }
 
-            Twilio.init(accountSid, authToken);
+            // 每个渠道使用独立的客户端，避免 Twilio.init 全局凭证在多渠道并发时相互覆盖
+            TwilioRestClient client = clientRegistry.getClient(channel, TwilioRestClient.class,
+                    cfg -> new TwilioRestClient.Builder(accountSid, authToken).build());
 
-            String content = renderContent(template.getContent(), params);
+            String content = templateRenderer.render(template, params);
             msgDetail.setContent(content);
 
             Message message = Message.creator(
                             new PhoneNumber(msgDetail.getRecipient()),
                             new PhoneNumber(fromPhone),
                             content)
-                    .create();
+                    .create(client);
 
             if (message.getSid() != null) {
                 msgDetail.setThirdPartyMsgId(message.getSid());
@@ -69,18 +79,4 @@ public class TwilioHandler implements ChannelHandler {
             return false;
         }
     }
-
-    private String renderContent(String template, Map<String, Object> params) {
-        if (template == null) return "";
-        String content = template;
-        if (params != null) {
-            for (Map.Entry<String, Object> entry : params.entrySet()) {
-                String key = "${" + entry.getKey() + "}";
-                if (content.contains(key)) {
-                    content = content.replace(key, String.valueOf(entry.getValue()));
-                }
-            }
-        }
-        return content;
-    }
 }
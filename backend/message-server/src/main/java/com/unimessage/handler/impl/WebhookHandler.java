@@ -1,19 +1,22 @@
 package com.unimessage.handler.impl;
 
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
 import com.unimessage.entity.LogMsgDetail;
 import com.unimessage.entity.SysChannel;
 import com.unimessage.entity.SysTemplate;
 import com.unimessage.enums.ChannelType;
+import com.unimessage.handler.AsyncHttpClient;
 import com.unimessage.handler.ChannelHandler;
+import com.unimessage.handler.TemplateRenderer;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Webhook 通用发送处理器
@@ -25,6 +28,11 @@ import java.util.Map;
 @Component
 public class WebhookHandler implements ChannelHandler {
 
+    @Resource
+    private TemplateRenderer templateRenderer;
+    @Resource
+    private AsyncHttpClient asyncHttpClient;
+
     @Override
     public boolean support(String channelType) {
         return ChannelType.WEBHOOK.getCode().equals(channelType);
@@ -32,6 +40,17 @@ public class WebhookHandler implements ChannelHandler {
 
     @Override
     public boolean send(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail, Map<String, Object> params) {
+        return sendAsync(channel, template, msgDetail, params).join();
+    }
+
+    @Override
+    public boolean supportsAsync() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> sendAsync(SysChannel channel, SysTemplate template, LogMsgDetail msgDetail,
+                                                Map<String, Object> params) {
         log.info("开始发送Webhook: recipient={}", msgDetail.getRecipient());
 
         try {
@@ -50,53 +69,42 @@ public class WebhookHandler implements ChannelHandler {
             payload.put("templateCode", template.getCode());
             payload.put("params", params);
 
-            String content = renderContent(template.getContent(), params);
+            String content = templateRenderer.render(template, params);
             payload.put("content", content);
 
-            msgDetail.setContent(JSON.toJSONString(payload));
-
-            HttpRequest request = "GET".equalsIgnoreCase(method) ? HttpRequest.get(url) : HttpRequest.post(url);
+            String body = JSON.toJSONString(payload);
+            msgDetail.setContent(body);
 
+            Map<String, String> headerMap = new HashMap<>();
             if (headers != null) {
                 for (Map.Entry<String, Object> entry : headers.entrySet()) {
-                    request.header(entry.getKey(), String.valueOf(entry.getValue()));
+                    headerMap.put(entry.getKey(), String.valueOf(entry.getValue()));
                 }
             }
 
             // If POST, send JSON
-            if (!"GET".equalsIgnoreCase(method)) {
-                request.body(JSON.toJSONString(payload));
-            }
-
-            HttpResponse response = request.execute();
-            String body = response.body();
-            log.info("Webhook响应: status={}, body={}", response.getStatus(), body);
-
-            if (response.isOk()) {
-                return true;
-            } else {
-                msgDetail.setErrorMsg("Status: " + response.getStatus() + ", Body: " + body);
+            CompletableFuture<AsyncHttpClient.HttpResult> future = "GET".equalsIgnoreCase(method)
+                    ? asyncHttpClient.get(url, headerMap)
+                    : asyncHttpClient.postJson(url, body, headerMap);
+
+            return future.thenApply(response -> {
+                log.info("Webhook响应: status={}, body={}", response.getStatus(), response.getBody());
+                if (response.isOk()) {
+                    return true;
+                }
+                msgDetail.setErrorMsg("Status: " + response.getStatus() + ", Body: " + response.getBody());
                 return false;
-            }
+            }).exceptionally(e -> fail(msgDetail, e));
 
         } catch (Exception e) {
-            log.error("Webhook发送异常", e);
-            msgDetail.setErrorMsg(e.getMessage());
-            return false;
+            return CompletableFuture.completedFuture(fail(msgDetail, e));
         }
     }
 
-    private String renderContent(String template, Map<String, Object> params) {
-        if (template == null) return "";
-        String content = template;
-        if (params != null) {
-            for (Map.Entry<String, Object> entry : params.entrySet()) {
-                String key = "${" + entry.getKey() + "}";
-                if (content.contains(key)) {
-                    content = content.replace(key, String.valueOf(entry.getValue()));
-                }
-            }
-        }
-        return content;
+    private boolean fail(LogMsgDetail msgDetail, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("Webhook发送异常", cause);
+        msgDetail.setErrorMsg(cause.getMessage());
+        return false;
     }
 }
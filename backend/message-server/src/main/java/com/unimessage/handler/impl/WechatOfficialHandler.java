@@ -7,7 +7,9 @@ import com.unimessage.entity.LogMsgDetail;
 import com.unimessage.entity.SysChannel;
 import com.unimessage.entity.SysTemplate;
 import com.unimessage.enums.ChannelType;
+import com.unimessage.handler.ChannelClientRegistry;
 import com.unimessage.handler.ChannelHandler;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import me.chanjar.weixin.mp.api.WxMpService;
 import me.chanjar.weixin.mp.api.impl.WxMpServiceImpl;
@@ -19,7 +21,6 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 微信服务号消息发送处理器
@@ -32,7 +33,8 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class WechatOfficialHandler implements ChannelHandler {
 
-    private final Map<Long, WxMpService> clientCache = new ConcurrentHashMap<>();
+    @Resource
+    private ChannelClientRegistry clientRegistry;
 
     @Override
     public boolean support(String channelType) {
@@ -98,11 +100,10 @@ public class WechatOfficialHandler implements ChannelHandler {
     }
 
     /**
-     * 获取或创建 WxMpService 实例（带缓存）
+     * 获取或创建 WxMpService 实例（按渠道缓存，配置变更后重建）
      */
     private WxMpService getService(SysChannel channel) {
-        return clientCache.computeIfAbsent(channel.getId(), k -> {
-            JSONObject config = JSON.parseObject(channel.getConfigJson());
+        return clientRegistry.getClient(channel, WxMpService.class, config -> {
             String appId = config.getString("appId");
             String secret = config.getString("secret");
 
@@ -6,16 +6,19 @@ import com.unimessage.entity.LogMsgDetail;
 import com.unimessage.entity.SysChannel;
 import com.unimessage.entity.SysTemplate;
 import com.unimessage.enums.ChannelType;
+import com.unimessage.handler.ChannelClientRegistry;
 import com.unimessage.handler.ChannelHandler;
+import com.unimessage.handler.TemplateRenderer;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import me.chanjar.weixin.cp.api.WxCpService;
 import me.chanjar.weixin.cp.api.impl.WxCpServiceImpl;
 import me.chanjar.weixin.cp.bean.message.WxCpMessage;
+import me.chanjar.weixin.cp.bean.message.WxCpMessageSendResult;
 import me.chanjar.weixin.cp.config.impl.WxCpDefaultConfigImpl;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.*;
 
 /**
  * 企业微信消息发送处理器
@@ -28,7 +31,16 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class WechatWorkHandler implements ChannelHandler {
 
-    private final Map<Long, WxCpService> clientCache = new ConcurrentHashMap<>();
+    /**
+     * 消息接口单次最多支持1000个成员
+     */
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String USER_SEPARATOR = "|";
+
+    @Resource
+    private TemplateRenderer templateRenderer;
+    @Resource
+    private ChannelClientRegistry clientRegistry;
 
     @Override
     public boolean support(String channelType) {
@@ -45,7 +57,7 @@ public class WechatWorkHandler implements ChannelHandler {
             JSONObject config = JSON.parseObject(channel.getConfigJson());
             Integer agentId = config.getIntValue("agentId");
 
-            String content = renderContent(template.getContent(), params);
+            String content = templateRenderer.render(template, params);
             msgDetail.setContent(content);
 
             WxCpMessage message = WxCpMessage.TEXT()
@@ -67,12 +79,75 @@ public class WechatWorkHandler implements ChannelHandler {
         }
     }
 
+    @Override
+    public int getMaxBatchSize(SysChannel channel) {
+        return MAX_BATCH_SIZE;
+    }
+
     /**
-     * 获取或创建 WxCpService 实例（带缓存）
+     * 批量发送: toUser 以 "|" 拼接多个成员，接口返回的 invaliduser 视为发送失败
      */
-    private WxCpService getService(SysChannel channel) {
-        return clientCache.computeIfAbsent(channel.getId(), k -> {
+    @Override
+    public List<Boolean> sendBatch(SysChannel channel, SysTemplate template, List<LogMsgDetail> msgDetails,
+                                   Map<String, Object> params) {
+        log.info("开始批量发送企业微信消息: size={}", msgDetails.size());
+        List<Boolean> results = new ArrayList<>(msgDetails.size());
+
+        try {
+            WxCpService wxCpService = getService(channel);
+
             JSONObject config = JSON.parseObject(channel.getConfigJson());
+            Integer agentId = config.getIntValue("agentId");
+
+            String content = templateRenderer.render(template, params);
+            StringJoiner toUser = new StringJoiner(USER_SEPARATOR);
+            for (LogMsgDetail msgDetail : msgDetails) {
+                msgDetail.setContent(content);
+                toUser.add(msgDetail.getRecipient());
+            }
+
+            WxCpMessage message = WxCpMessage.TEXT()
+                    .agentId(agentId)
+                    .toUser(toUser.toString())
+                    .content(content)
+                    .build();
+
+            WxCpMessageSendResult result = wxCpService.getMessageService().send(message);
+
+            Set<String> invalidUsers = new HashSet<>();
+            if (result != null && result.getInvalidUser() != null && !result.getInvalidUser().isEmpty()) {
+                invalidUsers.addAll(Arrays.asList(result.getInvalidUser().split("\\" + USER_SEPARATOR)));
+            }
+            String msgId = result != null && result.getMsgId() != null ? result.getMsgId() : "WxWork_" + System.currentTimeMillis();
+
+            for (LogMsgDetail msgDetail : msgDetails) {
+                if (invalidUsers.contains(msgDetail.getRecipient())) {
+                    msgDetail.setErrorMsg("无效的企业微信成员: " + msgDetail.getRecipient());
+                    results.add(false);
+                } else {
+                    msgDetail.setThirdPartyMsgId(msgId);
+                    results.add(true);
+                }
+            }
+            log.info("企业微信消息批量发送完成: size={}, invalid={}", msgDetails.size(), invalidUsers.size());
+            return results;
+
+        } catch (Exception e) {
+            log.error("企业微信消息批量发送异常", e);
+            results.clear();
+            for (LogMsgDetail msgDetail : msgDetails) {
+                msgDetail.setErrorMsg(e.getMessage());
+                results.add(false);
+            }
+            return results;
+        }
+    }
+
+    /**
+     * 获取或创建 WxCpService 实例（按渠道缓存，配置变更后重建）
+     */
+    private WxCpService getService(SysChannel channel) {
+        return clientRegistry.getClient(channel, WxCpService.class, config -> {
             String corpId = config.getString("corpId");
             String corpSecret = config.getString("corpSecret");
             Integer agentId = config.getIntValue("agentId");
@@ -92,20 +167,4 @@ public class WechatWorkHandler implements ChannelHandler {
             return service;
         });
     }
-
-    /**
-     * 渲染模板内容
-     */
-    private String renderContent(String template, Map<String, Object> params) {
-        String content = template;
-        if (params != null) {
-            for (Map.Entry<String, Object> entry : params.entrySet()) {
-                String key = "${" + entry.getKey() + "}";
-                if (content.contains(key)) {
-                    content = content.replace(key, String.valueOf(entry.getValue()));
-                }
-            }
-        }
-        return content;
-    }
 }
@@ -1,9 +1,8 @@
 package com.unimessage.interceptor;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.unimessage.cache.MetadataCacheService;
 import com.unimessage.context.AppContext;
 import com.unimessage.entity.SysApp;
-import com.unimessage.mapper.SysAppMapper;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -22,7 +21,7 @@ import org.springframework.web.servlet.HandlerInterceptor;
 public class AppAuthInterceptor implements HandlerInterceptor {
 
     @Resource
-    private SysAppMapper appMapper;
+    private MetadataCacheService metadataCacheService;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
@@ -44,10 +43,8 @@ public class AppAuthInterceptor implements HandlerInterceptor {
             return false;
         }
 
-        // 查询 App
-        LambdaQueryWrapper<SysApp> query = new LambdaQueryWrapper<>();
-        query.eq(SysApp::getAppKey, appKey);
-        SysApp app = appMapper.selectOne(query);
+        // 查询 App (优先走本地/Redis 缓存)
+        SysApp app = metadataCacheService.getAppByKey(appKey);
 
         if (app == null) {
             response.setStatus(401);
@@ -0,0 +1,37 @@
+package com.unimessage.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.unimessage.entity.IdSegment;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 号段ID分配 Mapper
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Mapper
+public interface IdSegmentMapper extends BaseMapper<IdSegment> {
+
+    /**
+     * 初始化业务号段 (已存在则忽略)
+     *
+     * @param bizTag 业务标识
+     * @param step   号段长度
+     * @return 影响行数
+     */
+    @Insert("INSERT IGNORE INTO id_segment (biz_tag, max_id, step) VALUES (#{bizTag}, 0, #{step})")
+    int insertIgnore(@Param("bizTag") String bizTag, @Param("step") int step);
+
+    /**
+     * 分配下一个号段 (需与查询在同一事务中执行)
+     *
+     * @param bizTag 业务标识
+     * @return 影响行数
+     */
+    @Update("UPDATE id_segment SET max_id = max_id + step WHERE biz_tag = #{bizTag}")
+    int advance(@Param("bizTag") String bizTag);
+}
@@ -0,0 +1,49 @@
+package com.unimessage.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.unimessage.entity.ShortUrlClickCounter;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 短链接分片点击计数 Mapper
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Mapper
+public interface ShortUrlClickCounterMapper extends BaseMapper<ShortUrlClickCounter> {
+
+    /**
+     * 批量累加槽位点击数 (不存在则插入)
+     *
+     * @param rows 各短链槽位增量
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO short_url_click_counter (short_code, slot, clicks) VALUES " +
+            "<foreach collection='rows' item='row' separator=','>" +
+            "(#{row.shortCode}, #{row.slot}, #{row.clicks})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE clicks = clicks + VALUES(clicks)" +
+            "</script>")
+    int batchIncrement(@Param("rows") List<ShortUrlClickCounter> rows);
+
+    /**
+     * 按短链码汇总各槽位点击数
+     *
+     * @param shortCodes 短链码
+     * @return 每个短链码一行 (shortCode, clicks)，无点击的短链码不返回
+     */
+    @Select("<script>" +
+            "SELECT short_code, SUM(clicks) AS clicks FROM short_url_click_counter WHERE short_code IN " +
+            "<foreach collection='shortCodes' item='code' open='(' separator=',' close=')'>#{code}</foreach>" +
+            " GROUP BY short_code" +
+            "</script>")
+    List<ShortUrlClickCounter> sumByShortCodes(@Param("shortCodes") Collection<String> shortCodes);
+}
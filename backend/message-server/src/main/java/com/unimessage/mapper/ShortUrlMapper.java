@@ -2,9 +2,11 @@ package com.unimessage.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.unimessage.entity.ShortUrl;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
-import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
 
 /**
  * 短链接 Mapper
@@ -16,11 +18,16 @@ import org.apache.ibatis.annotations.Update;
 public interface ShortUrlMapper extends BaseMapper<ShortUrl> {
 
     /**
-     * 增加点击次数
+     * 批量插入短链 (单条多行 INSERT)
      *
-     * @param shortCode 短链码
+     * @param rows 短链
      * @return 影响行数
      */
-    @Update("UPDATE short_url SET click_count = click_count + 1 WHERE short_code = #{shortCode}")
-    int incrementClickCount(@Param("shortCode") String shortCode);
+    @Insert("<script>" +
+            "INSERT INTO short_url (short_code, original_url, created_by, click_count, status, expire_at, created_at) VALUES " +
+            "<foreach collection='rows' item='row' separator=','>" +
+            "(#{row.shortCode}, #{row.originalUrl}, #{row.createdBy}, #{row.clickCount}, #{row.status}, #{row.expireAt}, #{row.createdAt})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("rows") List<ShortUrl> rows);
 }
@@ -0,0 +1,38 @@
+package com.unimessage.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.unimessage.entity.ShortUrlStatsDaily;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 短链接每日统计 Mapper
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Mapper
+public interface ShortUrlStatsDailyMapper extends BaseMapper<ShortUrlStatsDaily> {
+
+    /**
+     * 批量累加每日统计 (不存在则插入)
+     * 点击数累加，独立IP数及来源/浏览器分布取 Redis 中的最新快照 (Redis 不可用时保留原值)
+     *
+     * @param rows 增量统计
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO short_url_stats_daily (short_code, stat_date, clicks, unique_ips, top_referers, ua_families) VALUES " +
+            "<foreach collection='rows' item='row' separator=','>" +
+            "(#{row.shortCode}, #{row.statDate}, #{row.clicks}, #{row.uniqueIps}, #{row.topReferers}, #{row.uaFamilies})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE clicks = clicks + VALUES(clicks), " +
+            "unique_ips = GREATEST(unique_ips, VALUES(unique_ips)), " +
+            "top_referers = IFNULL(VALUES(top_referers), top_referers), " +
+            "ua_families = IFNULL(VALUES(ua_families), ua_families)" +
+            "</script>")
+    int batchUpsert(@Param("rows") List<ShortUrlStatsDaily> rows);
+}
@@ -0,0 +1,36 @@
+package com.unimessage.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.unimessage.entity.ShortUrlStatsHourly;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 短链接小时统计 Mapper
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Mapper
+public interface ShortUrlStatsHourlyMapper extends BaseMapper<ShortUrlStatsHourly> {
+
+    /**
+     * 批量累加小时统计 (不存在则插入)
+     * 点击数累加，独立IP数取 HyperLogLog 最新估算值
+     *
+     * @param rows 增量统计
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO short_url_stats_hourly (short_code, stat_hour, clicks, unique_ips) VALUES " +
+            "<foreach collection='rows' item='row' separator=','>" +
+            "(#{row.shortCode}, #{row.statHour}, #{row.clicks}, #{row.uniqueIps})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE clicks = clicks + VALUES(clicks), " +
+            "unique_ips = GREATEST(unique_ips, VALUES(unique_ips))" +
+            "</script>")
+    int batchUpsert(@Param("rows") List<ShortUrlStatsHourly> rows);
+}
@@ -0,0 +1,23 @@
+package com.unimessage.mq;
+
+import lombok.Getter;
+
+/**
+ * 分片正由其他消费者处理 (或处理者宕机后租约尚未过期)
+ * 监听器不应确认该消息，由 MQ 稍后重新投递，租约过期或处理完成后即可继续
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Getter
+public class ChunkInProgressException extends RuntimeException {
+
+    private final Long batchId;
+    private final int chunkIndex;
+
+    public ChunkInProgressException(Long batchId, int chunkIndex) {
+        super("分片处理中, batchId=" + batchId + ", chunk=" + chunkIndex);
+        this.batchId = batchId;
+        this.chunkIndex = chunkIndex;
+    }
+}
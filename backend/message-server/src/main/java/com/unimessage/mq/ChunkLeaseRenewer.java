@@ -0,0 +1,111 @@
+package com.unimessage.mq;
+
+import com.unimessage.cache.CacheService;
+import com.unimessage.config.MqProperties;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片处理租约续期
+ * 分片处理期间每隔 1/3 租约时长续期一次 (仅当租约仍属于当前处理者)，
+ * 限流等待等导致分片处理超过租约时长时不会被其他消费者重复处理；处理者宕机后停止续期，租约照常过期
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class ChunkLeaseRenewer {
+
+    /**
+     * 租约仍属于当前处理者时续期
+     * KEYS[1]: 租约键
+     * ARGV[1]: 租约令牌, ARGV[2]: 续期时长(秒)
+     */
+    private static final String RENEW_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+                    "    return redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+                    "end " +
+                    "return 0";
+
+    private final DefaultRedisScript<Long> renewScript;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "chunk-lease-renewer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Resource
+    private CacheService cacheService;
+    @Resource
+    private MqProperties mqProperties;
+
+    public ChunkLeaseRenewer() {
+        renewScript = new DefaultRedisScript<>();
+        renewScript.setScriptText(RENEW_SCRIPT);
+        renewScript.setResultType(Long.class);
+    }
+
+    /**
+     * 开始续期
+     *
+     * @param key       租约键
+     * @param token     租约令牌
+     * @param heartbeat 每次续期时额外执行的回调 (如重置 MQ 消息空闲时间)，可为 null
+     * @return 续期任务，分片处理结束后须取消
+     */
+    public Renewal start(String key, String token, Runnable heartbeat) {
+        long leaseSeconds = mqProperties.getChunkLeaseSeconds();
+        long periodMillis = Math.max(1000, leaseSeconds * 1000 / 3);
+        try {
+            ScheduledFuture<?> future = scheduler.scheduleWithFixedDelay(() -> renew(key, token, leaseSeconds, heartbeat),
+                    periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+            return () -> future.cancel(false);
+        } catch (RejectedExecutionException e) {
+            // 停机中，不再续期
+            return () -> {
+            };
+        }
+    }
+
+    private void renew(String key, String token, long leaseSeconds, Runnable heartbeat) {
+        try {
+            Long renewed = cacheService.getRedisUtil().execute(renewScript, Collections.singletonList(key),
+                    token, String.valueOf(leaseSeconds));
+            if (renewed == null || renewed == 0) {
+                log.warn("分片租约续期失败 (已过期或被其他处理者持有): key={}", key);
+            }
+            if (heartbeat != null) {
+                heartbeat.run();
+            }
+        } catch (Exception e) {
+            log.warn("分片租约续期异常: key={}", key, e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 续期任务
+     */
+    @FunctionalInterface
+    public interface Renewal {
+        /**
+         * 停止续期
+         */
+        void cancel();
+    }
+}
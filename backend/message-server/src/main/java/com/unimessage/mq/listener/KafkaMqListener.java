@@ -1,6 +1,7 @@
 package com.unimessage.mq.listener;
 
 import com.alibaba.fastjson2.JSON;
+import com.unimessage.config.KafkaMqConfig;
 import com.unimessage.dto.MqMessage;
 import com.unimessage.service.MessageService;
 import jakarta.annotation.Resource;
@@ -8,10 +9,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Kafka 消息监听器
+ * 批量拉取，整批处理成功后手动提交位点；
+ * 某条记录处理失败时抛出 BatchListenerFailedException，由错误处理器提交其之前的位点、
+ * 从失败记录开始重试，重试耗尽后投递到死信主题
  *
  * @author 海明
  * @since 2025-12-08
@@ -27,16 +35,22 @@ public class KafkaMqListener {
     @Resource
     private MessageService messageService;
 
-    @KafkaListener(topics = TOPIC, groupId = GROUP_ID)
-    public void onMessage(ConsumerRecord<String, String> record) {
-        try {
-            String value = record.value();
-            if (value != null) {
-                MqMessage message = JSON.parseObject(value, MqMessage.class);
-                messageService.processBatch(message);
+    @KafkaListener(topics = TOPIC, groupId = GROUP_ID, containerFactory = KafkaMqConfig.BATCH_LISTENER_FACTORY)
+    public void onMessages(List<ConsumerRecord<String, String>> records, Acknowledgment ack) {
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            try {
+                String value = record.value();
+                if (value != null) {
+                    MqMessage message = JSON.parseObject(value, MqMessage.class);
+                    messageService.processBatch(message);
+                }
+            } catch (Exception e) {
+                log.error("Error processing Kafka message: partition={}, offset={}",
+                        record.partition(), record.offset(), e);
+                throw new BatchListenerFailedException("Error processing Kafka message", e, i);
             }
-        } catch (Exception e) {
-            log.error("Error processing Kafka message", e);
         }
+        ack.acknowledge();
     }
 }
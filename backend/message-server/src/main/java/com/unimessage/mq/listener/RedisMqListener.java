@@ -2,6 +2,7 @@ package com.unimessage.mq.listener;
 
 import com.alibaba.fastjson2.JSON;
 import com.unimessage.cache.CacheService;
+import com.unimessage.config.MqProperties;
 import com.unimessage.constant.CacheKeyConstants;
 import com.unimessage.dto.MqMessage;
 import com.unimessage.service.MessageService;
@@ -12,10 +13,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.concurrent.*;
 
 /**
  * Redis MQ 监听器
+ * 拉取线程按空闲处理槽位批量弹出消息，业务线程池饱和时暂停拉取，而不是由拉取线程自己执行任务
  *
  * @author 海明
  */
@@ -26,17 +29,17 @@ public class RedisMqListener {
 
     private static final String THREAD_NAME_PREFIX_WORKER = "mq-worker-";
     private static final String THREAD_NAME_POLLER = "mq-poller";
-    private static final int CORE_POOL_SIZE = 10;
-    private static final int MAX_POOL_SIZE = 20;
     private static final long KEEP_ALIVE_TIME = 60L;
-    private static final int QUEUE_CAPACITY = 1000;
-    private static final long POP_TIMEOUT = 5;
     private static final long SHUTDOWN_TIMEOUT = 60;
 
     @Resource
     private CacheService cacheService;
     @Resource
     private MessageService messageService;
+    @Resource
+    private MqProperties mqProperties;
+
+    private MqProperties.Listener config;
     /**
      * 用于执行具体业务逻辑的线程池
      */
@@ -47,25 +50,38 @@ public class RedisMqListener {
      */
     private ExecutorService pollerExecutor;
 
+    /**
+     * 空闲处理槽位，槽位耗尽时拉取线程阻塞等待
+     */
+    private Semaphore freeSlots;
+
     private volatile boolean running = true;
 
     @PostConstruct
     public void init() {
+        config = mqProperties.getListener();
+        int corePoolSize = Math.max(1, config.getCorePoolSize());
+        int maxPoolSize = Math.max(corePoolSize, config.getMaxPoolSize());
+        int queueCapacity = Math.max(1, config.getQueueCapacity());
+
         // 1. 初始化业务处理线程池
-        // 核心线程数10，最大线程数20，空闲线程存活时间60s，队列容量1000
+        // 在途数量不超过 最大线程数 + 队列容量，正常运行时不会触发拒绝策略
         workerExecutor = new ThreadPoolExecutor(
-                CORE_POOL_SIZE,
-                MAX_POOL_SIZE,
+                corePoolSize,
+                maxPoolSize,
                 KEEP_ALIVE_TIME,
                 TimeUnit.SECONDS,
-                new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+                new LinkedBlockingQueue<>(queueCapacity),
                 r -> {
                     Thread t = new Thread(r);
                     t.setName(THREAD_NAME_PREFIX_WORKER + t.getId());
                     return t;
                 },
-                new ThreadPoolExecutor.CallerRunsPolicy()
+                new ThreadPoolExecutor.AbortPolicy()
         );
+        int capacity = maxPoolSize + queueCapacity;
+        int maxInFlight = config.getMaxInFlight() > 0 ? Math.min(config.getMaxInFlight(), capacity) : capacity;
+        freeSlots = new Semaphore(maxInFlight);
 
         // 2. 初始化监听器线程池 (单线程)
         pollerExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, THREAD_NAME_POLLER));
@@ -73,19 +89,41 @@ public class RedisMqListener {
         // 3. 启动监听
         pollerExecutor.execute(this::listen);
 
-        log.info("Redis MQ Listener started.");
+        log.info("Redis MQ Listener started: corePoolSize={}, maxPoolSize={}, maxInFlight={}",
+                corePoolSize, maxPoolSize, maxInFlight);
     }
 
     private void listen() {
+        int popBatchSize = Math.max(1, config.getPopBatchSize());
         while (running && !Thread.currentThread().isInterrupted()) {
+            int acquired = 0;
             try {
-                // 阻塞式弹出，超时时间 5秒
-                String messageJson = cacheService.rPop(CacheKeyConstants.MQ_SEND_QUEUE, POP_TIMEOUT, TimeUnit.SECONDS);
-                if (messageJson != null) {
-                    // 提交给业务线程池处理
-                    workerExecutor.submit(() -> processMessage(messageJson));
+                // 1. 至少等待一个空闲槽位 (业务线程池饱和时在此暂停拉取)，再尽量多占用，不超过单次弹出上限
+                freeSlots.acquire();
+                acquired = 1 + freeSlots.drainPermits();
+                if (acquired > popBatchSize) {
+                    freeSlots.release(acquired - popBatchSize);
+                    acquired = popBatchSize;
+                }
+
+                // 2. 批量弹出，队列为空时退化为阻塞弹出单条，避免空转
+                List<String> messages = cacheService.rPop(CacheKeyConstants.MQ_SEND_QUEUE, acquired);
+                if (messages.isEmpty()) {
+                    String messageJson = cacheService.rPop(CacheKeyConstants.MQ_SEND_QUEUE,
+                            config.getPopTimeoutSeconds(), TimeUnit.SECONDS);
+                    messages = messageJson == null ? List.of() : List.of(messageJson);
+                }
+                freeSlots.release(acquired - messages.size());
+                acquired = 0;
+
+                // 3. 提交给业务线程池处理
+                for (String messageJson : messages) {
+                    submit(messageJson);
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             } catch (Exception e) {
+                freeSlots.release(acquired);
                 if (running) {
                     log.error("Error in Redis MQ Listener loop", e);
                     try {
@@ -98,6 +136,26 @@ public class RedisMqListener {
         }
     }
 
+    /**
+     * 提交消息到业务线程池，调用方需已占用一个空闲槽位
+     */
+    private void submit(String messageJson) {
+        try {
+            workerExecutor.execute(() -> {
+                try {
+                    processMessage(messageJson);
+                } finally {
+                    freeSlots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 停机中，消息放回队列由其他节点处理
+            freeSlots.release();
+            cacheService.lPush(CacheKeyConstants.MQ_SEND_QUEUE, messageJson);
+            log.warn("Listener is shutting down, message requeued");
+        }
+    }
+
     private void processMessage(String messageJson) {
         try {
             MqMessage message = JSON.parseObject(messageJson, MqMessage.class);
@@ -0,0 +1,300 @@
+package com.unimessage.mq.listener;
+
+import com.alibaba.fastjson2.JSON;
+import com.unimessage.cache.CacheService;
+import com.unimessage.config.MqProperties;
+import com.unimessage.constant.CacheKeyConstants;
+import com.unimessage.dto.MqMessage;
+import com.unimessage.mq.ChunkInProgressException;
+import com.unimessage.mq.producer.RedisStreamMqProducer;
+import com.unimessage.service.MessageService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Redis Stream MQ 监听器
+ * 基于消费者组实现至少一次投递：消息处理完成后才 XACK，
+ * 节点宕机遗留的待确认消息在空闲超时后由其他节点 XCLAIM 认领重新处理
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "un-imessage.mq.type", havingValue = "redis-stream")
+public class RedisStreamMqListener {
+
+    private static final String THREAD_NAME_PREFIX_WORKER = "mq-stream-worker-";
+    private static final String THREAD_NAME_POLLER = "mq-stream-poller";
+    private static final String THREAD_NAME_CLAIMER = "mq-stream-claimer";
+    private static final String FIELD_PAYLOAD = RedisStreamMqProducer.FIELD_PAYLOAD;
+    private static final int PENDING_SCAN_COUNT = 100;
+    private static final long SHUTDOWN_TIMEOUT = 60;
+
+    @Resource
+    private CacheService cacheService;
+    @Resource
+    private MessageService messageService;
+    @Resource
+    private MqProperties mqProperties;
+
+    private MqProperties.Stream config;
+    private String consumerName;
+
+    /**
+     * 业务处理线程池
+     */
+    private ExecutorService workerExecutor;
+    /**
+     * 拉取消息线程
+     */
+    private ExecutorService pollerExecutor;
+    /**
+     * 认领超时消息线程
+     */
+    private ScheduledExecutorService claimerExecutor;
+    /**
+     * 空闲处理槽位，拉取数量不超过空闲槽位，避免消息在本地堆积
+     */
+    private Semaphore freeSlots;
+
+    private volatile boolean running = true;
+
+    @PostConstruct
+    public void init() {
+        config = mqProperties.getStream();
+        // 认领时原处理者的租约须已过期，否则认领到的消息只能再次等待空闲超时
+        if (mqProperties.getChunkLeaseSeconds() * 1000 >= config.getClaimIdleMillis()) {
+            throw new IllegalStateException("un-imessage.mq.chunk-lease-seconds 必须小于 stream.claim-idle-millis: lease="
+                    + mqProperties.getChunkLeaseSeconds() + "s, claimIdle=" + config.getClaimIdleMillis() + "ms");
+        }
+        consumerName = ManagementFactory.getRuntimeMXBean().getName();
+        int threads = Math.max(1, config.getConsumerThreads());
+        freeSlots = new Semaphore(threads);
+
+        if (!cacheService.xGroupCreate(CacheKeyConstants.MQ_SEND_STREAM, config.getGroup())) {
+            log.warn("Redis Stream 消费者组创建失败，将在拉取时重试: group={}", config.getGroup());
+        }
+
+        workerExecutor = Executors.newFixedThreadPool(threads, new NamedThreadFactory(THREAD_NAME_PREFIX_WORKER));
+        pollerExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, THREAD_NAME_POLLER));
+        claimerExecutor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, THREAD_NAME_CLAIMER));
+
+        pollerExecutor.execute(this::listen);
+        claimerExecutor.scheduleWithFixedDelay(this::claimPending, config.getClaimIntervalMillis(),
+                config.getClaimIntervalMillis(), TimeUnit.MILLISECONDS);
+
+        log.info("Redis Stream MQ Listener started: consumer={}", consumerName);
+    }
+
+    private void listen() {
+        Duration block = Duration.ofMillis(config.getBlockMillis());
+        while (running && !Thread.currentThread().isInterrupted()) {
+            int acquired = 0;
+            try {
+                // 至少等待一个空闲槽位，再尽量多取 (不超过 batchSize)
+                freeSlots.acquire();
+                acquired = 1 + freeSlots.drainPermits();
+                int count = Math.min(acquired, Math.max(1, config.getBatchSize()));
+                freeSlots.release(acquired - count);
+                acquired = count;
+
+                List<MapRecord<String, Object, Object>> records = cacheService.xReadGroup(
+                        CacheKeyConstants.MQ_SEND_STREAM, config.getGroup(), consumerName, count, block);
+                freeSlots.release(count - records.size());
+                acquired = 0;
+
+                for (MapRecord<String, Object, Object> record : records) {
+                    submit(record);
+                }
+                if (records.isEmpty() && !cacheService.hasKey(CacheKeyConstants.MQ_SEND_STREAM)) {
+                    // Stream 被清空删除后需重新创建消费者组
+                    cacheService.xGroupCreate(CacheKeyConstants.MQ_SEND_STREAM, config.getGroup());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                freeSlots.release(acquired);
+                if (running) {
+                    log.error("Error in Redis Stream MQ Listener loop", e);
+                    sleepQuietly();
+                }
+            }
+        }
+    }
+
+    /**
+     * 提交消息到业务线程池，调用方需已占用一个空闲槽位
+     */
+    private void submit(MapRecord<String, Object, Object> record) {
+        try {
+            workerExecutor.execute(() -> {
+                try {
+                    processRecord(record);
+                } finally {
+                    freeSlots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 停机中，消息保持待确认状态，由其他节点认领
+            freeSlots.release();
+        }
+    }
+
+    private void processRecord(MapRecord<String, Object, Object> record) {
+        String recordId = record.getId().getValue();
+        Object payload = record.getValue().get(FIELD_PAYLOAD);
+        MqMessage message;
+        try {
+            message = JSON.parseObject(String.valueOf(payload), MqMessage.class);
+        } catch (Exception e) {
+            // 无法解析的消息重试无意义，直接确认丢弃
+            log.error("Invalid stream message, discarded: id={}, payload={}", recordId, payload, e);
+            cacheService.xAckAndDel(CacheKeyConstants.MQ_SEND_STREAM, config.getGroup(), recordId);
+            return;
+        }
+
+        try {
+            // 处理期间定时重置消息空闲时间，避免长时间处理的分片被其他节点认领
+            messageService.processBatch(message, () -> cacheService.xClaimJustId(CacheKeyConstants.MQ_SEND_STREAM,
+                    config.getGroup(), consumerName, record.getId()));
+            cacheService.xAckAndDel(CacheKeyConstants.MQ_SEND_STREAM, config.getGroup(), recordId);
+        } catch (ChunkInProgressException e) {
+            // 不确认，空闲超时后重新认领 (届时原处理者已完成或租约已过期)
+            log.warn("分片处理中，稍后重新投递: id={}, batchId={}, chunk={}", recordId, e.getBatchId(), e.getChunkIndex());
+        } catch (Exception e) {
+            // 不确认，空闲超时后重新投递
+            log.error("Error processing stream message, will be redelivered: id={}", recordId, e);
+        }
+    }
+
+    /**
+     * 认领空闲超时的待确认消息 (XPENDING + XCLAIM)
+     * 投递次数超过上限的消息转入死信 Stream
+     */
+    private void claimPending() {
+        if (!running) {
+            return;
+        }
+        try {
+            PendingMessages pendingMessages = cacheService.xPending(CacheKeyConstants.MQ_SEND_STREAM,
+                    config.getGroup(), PENDING_SCAN_COUNT);
+            if (pendingMessages == null || pendingMessages.isEmpty()) {
+                return;
+            }
+
+            Duration minIdle = Duration.ofMillis(config.getClaimIdleMillis());
+            List<RecordId> retryIds = new ArrayList<>();
+            List<RecordId> deadIds = new ArrayList<>();
+            for (PendingMessage pending : pendingMessages) {
+                if (pending.getElapsedTimeSinceLastDelivery().compareTo(minIdle) < 0) {
+                    continue;
+                }
+                if (pending.getTotalDeliveryCount() >= config.getMaxDeliveries()) {
+                    deadIds.add(pending.getId());
+                } else {
+                    retryIds.add(pending.getId());
+                }
+            }
+
+            if (!deadIds.isEmpty()) {
+                moveToDeadLetter(cacheService.xClaim(CacheKeyConstants.MQ_SEND_STREAM, config.getGroup(),
+                        consumerName, minIdle, deadIds.toArray(new RecordId[0])));
+            }
+
+            if (!retryIds.isEmpty()) {
+                // XCLAIM 带最小空闲时间，多个节点同时认领时只有一个成功
+                List<MapRecord<String, Object, Object>> claimed = cacheService.xClaim(CacheKeyConstants.MQ_SEND_STREAM,
+                        config.getGroup(), consumerName, minIdle, retryIds.toArray(new RecordId[0]));
+                if (!claimed.isEmpty()) {
+                    log.warn("认领超时未确认的 Stream 消息: count={}", claimed.size());
+                }
+                for (MapRecord<String, Object, Object> record : claimed) {
+                    freeSlots.acquire();
+                    submit(record);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Error claiming pending stream messages", e);
+        }
+    }
+
+    private void moveToDeadLetter(List<MapRecord<String, Object, Object>> records) {
+        for (MapRecord<String, Object, Object> record : records) {
+            String recordId = record.getId().getValue();
+            Map<String, String> fields = new HashMap<>(4);
+            fields.put(FIELD_PAYLOAD, String.valueOf(record.getValue().get(FIELD_PAYLOAD)));
+            fields.put("originId", recordId);
+            if (cacheService.xAdd(CacheKeyConstants.MQ_SEND_STREAM_DLQ, fields) != null) {
+                cacheService.xAckAndDel(CacheKeyConstants.MQ_SEND_STREAM, config.getGroup(), recordId);
+                log.error("Stream 消息超过最大投递次数，已转入死信: id={}", recordId);
+            }
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            TimeUnit.SECONDS.sleep(1);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        running = false;
+
+        if (pollerExecutor != null) {
+            pollerExecutor.shutdownNow();
+        }
+        if (claimerExecutor != null) {
+            claimerExecutor.shutdownNow();
+        }
+
+        // 等待处理中的消息完成并确认，未完成的消息由其他节点认领
+        if (workerExecutor != null) {
+            workerExecutor.shutdown();
+            try {
+                if (!workerExecutor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                    workerExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                workerExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("Redis Stream MQ Listener stopped.");
+    }
+
+    /**
+     * 带序号的线程工厂
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private int index;
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public synchronized Thread newThread(Runnable r) {
+            return new Thread(r, prefix + (++index));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.unimessage.mq.listener;
 
 import com.alibaba.fastjson2.JSON;
 import com.unimessage.dto.MqMessage;
+import com.unimessage.mq.ChunkInProgressException;
 import com.unimessage.service.MessageService;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
@@ -30,6 +31,10 @@ public class RocketMqMessageListener implements RocketMQListener<String> {
         try {
             MqMessage message = JSON.parseObject(messageJson, MqMessage.class);
             messageService.processBatch(message);
+        } catch (ChunkInProgressException e) {
+            // 抛出异常由 RocketMQ 稍后重新投递
+            log.warn("分片处理中，稍后重新投递: batchId={}, chunk={}", e.getBatchId(), e.getChunkIndex());
+            throw e;
         } catch (Exception e) {
             log.error("Error processing RocketMQ message", e);
         }
@@ -1,14 +1,24 @@
 package com.unimessage.mq.producer;
 
 import com.alibaba.fastjson2.JSON;
+import com.unimessage.config.MqProperties;
 import com.unimessage.dto.MqMessage;
 import jakarta.annotation.Resource;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Kafka MQ 生产者
+ * 以 应用ID:模板编码 作为消息键，同一应用同一模板的批次落在同一分区；
+ * 批量发送时所有分片先异步提交再统一等待确认，任一分片失败或超时即抛出异常
  *
  * @author 海明
  */
@@ -20,9 +30,35 @@ public class KafkaMqProducer implements MqProducer {
 
     @Resource
     private KafkaTemplate<String, String> kafkaTemplate;
+    @Resource
+    private MqProperties mqProperties;
 
     @Override
     public void send(MqMessage message) {
-        kafkaTemplate.send(TOPIC, JSON.toJSONString(message));
+        sendBatch(Collections.singletonList(message));
+    }
+
+    @Override
+    public void sendBatch(List<MqMessage> messages) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[messages.size()];
+        for (int i = 0; i < messages.size(); i++) {
+            MqMessage message = messages.get(i);
+            futures[i] = kafkaTemplate.send(TOPIC, buildKey(message), JSON.toJSONString(message));
+        }
+        try {
+            CompletableFuture.allOf(futures).get(mqProperties.getKafka().getSendTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Kafka消息发送被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Kafka消息发送失败: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Kafka消息发送超时: count=" + messages.size(), e);
+        }
+    }
+
+    private String buildKey(MqMessage message) {
+        String templateCode = message.getRequest() != null ? message.getRequest().getTemplateCode() : null;
+        return (message.getAppId() != null ? message.getAppId() : 0L) + ":" + templateCode;
     }
 }
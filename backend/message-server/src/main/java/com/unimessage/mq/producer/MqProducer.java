@@ -2,6 +2,8 @@ package com.unimessage.mq.producer;
 
 import com.unimessage.dto.MqMessage;
 
+import java.util.List;
+
 /**
  * Message Queue Producer Interface
  *
@@ -14,4 +16,15 @@ public interface MqProducer {
      * @param message Message content
      */
     void send(MqMessage message);
+
+    /**
+     * Send messages to MQ (e.g. chunks of one batch)
+     *
+     * @param messages Message list
+     */
+    default void sendBatch(List<MqMessage> messages) {
+        for (MqMessage message : messages) {
+            send(message);
+        }
+    }
 }
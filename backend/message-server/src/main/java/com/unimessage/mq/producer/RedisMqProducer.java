@@ -8,6 +8,9 @@ import jakarta.annotation.Resource;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Redis MQ 生产者
  *
@@ -22,6 +25,22 @@ public class RedisMqProducer implements MqProducer {
 
     @Override
     public void send(MqMessage message) {
-        cacheService.lPush(CacheKeyConstants.MQ_SEND_QUEUE, JSON.toJSONString(message));
+        if (!cacheService.lPush(CacheKeyConstants.MQ_SEND_QUEUE, JSON.toJSONString(message))) {
+            throw new IllegalStateException("消息写入 Redis 队列失败");
+        }
+    }
+
+    /**
+     * 同一批次的所有分片通过一条 LPUSH 写入
+     */
+    @Override
+    public void sendBatch(List<MqMessage> messages) {
+        List<String> values = new ArrayList<>(messages.size());
+        for (MqMessage message : messages) {
+            values.add(JSON.toJSONString(message));
+        }
+        if (!cacheService.lPush(CacheKeyConstants.MQ_SEND_QUEUE, values)) {
+            throw new IllegalStateException("消息写入 Redis 队列失败");
+        }
     }
 }
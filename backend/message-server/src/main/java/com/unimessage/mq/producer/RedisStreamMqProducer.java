@@ -0,0 +1,56 @@
+package com.unimessage.mq.producer;
+
+import com.alibaba.fastjson2.JSON;
+import com.unimessage.cache.CacheService;
+import com.unimessage.constant.CacheKeyConstants;
+import com.unimessage.dto.MqMessage;
+import jakarta.annotation.Resource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis Stream MQ 生产者
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(name = "un-imessage.mq.type", havingValue = "redis-stream")
+public class RedisStreamMqProducer implements MqProducer {
+
+    /**
+     * Stream 消息体字段名
+     */
+    public static final String FIELD_PAYLOAD = "payload";
+
+    @Resource
+    private CacheService cacheService;
+
+    @Override
+    public void send(MqMessage message) {
+        String recordId = cacheService.xAdd(CacheKeyConstants.MQ_SEND_STREAM,
+                Collections.singletonMap(FIELD_PAYLOAD, JSON.toJSONString(message)));
+        if (recordId == null) {
+            throw new IllegalStateException("消息写入 Redis Stream 失败");
+        }
+    }
+
+    /**
+     * 同一批次的所有分片通过 Pipeline 一次写入
+     */
+    @Override
+    public void sendBatch(List<MqMessage> messages) {
+        List<Map<String, String>> records = new ArrayList<>(messages.size());
+        for (MqMessage message : messages) {
+            records.add(Collections.singletonMap(FIELD_PAYLOAD, JSON.toJSONString(message)));
+        }
+        if (!cacheService.pipelineXAdd(CacheKeyConstants.MQ_SEND_STREAM, records)) {
+            throw new IllegalStateException("消息写入 Redis Stream 失败");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.unimessage.service;
+
+/**
+ * 号段ID分配服务接口
+ * 按业务标识从数据库批量租借连续ID，在内存中逐个发放
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+public interface IdSegmentService {
+
+    /**
+     * 获取下一个ID (同一业务标识下全局唯一、单节点内递增)
+     *
+     * @param bizTag 业务标识
+     * @return ID
+     */
+    long nextId(String bizTag);
+}
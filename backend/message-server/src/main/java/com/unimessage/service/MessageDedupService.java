@@ -0,0 +1,36 @@
+package com.unimessage.service;
+
+import com.unimessage.entity.SysTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 消息去重服务 (按模板 deduplication_config 拦截时间窗口内的重复消息)
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+public interface MessageDedupService {
+
+    /**
+     * 检查并登记本次发送，返回时间窗口内已发送过的接收者
+     * 未重复的接收者会被登记，同一窗口内再次发送时即视为重复
+     *
+     * @param template   模板
+     * @param params     模板参数
+     * @param recipients 接收者
+     * @return 重复的接收者 (应被拦截)，模板未配置去重或 Redis 不可用时为空
+     */
+    Set<String> checkAndMark(SysTemplate template, Map<String, Object> params, Collection<String> recipients);
+
+    /**
+     * 撤销 {@link #checkAndMark} 的登记 (发送入队失败时调用，使接收者可立即重发)
+     *
+     * @param template   模板
+     * @param params     模板参数
+     * @param recipients 已登记的接收者
+     */
+    void unmark(SysTemplate template, Map<String, Object> params, Collection<String> recipients);
+}
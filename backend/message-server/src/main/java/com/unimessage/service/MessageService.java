@@ -4,6 +4,8 @@ import com.unimessage.dto.MqMessage;
 import com.unimessage.dto.SendRequest;
 import com.unimessage.dto.SendResponse;
 
+import java.util.List;
+
 /**
  * 消息服务
  *
@@ -23,14 +25,41 @@ public interface MessageService {
      * 异步处理批次
      *
      * @param message MQ消息
+     * @throws com.unimessage.mq.ChunkInProgressException 分片正由其他消费者处理，监听器不应确认该消息
      */
-    void processBatch(MqMessage message);
+    default void processBatch(MqMessage message) {
+        processBatch(message, null);
+    }
 
     /**
-     * 重试发送单条消息
+     * 异步处理批次，处理期间定时续期分片租约并调用 heartbeat (如重置 MQ 消息的空闲时间，避免被重新投递)
+     *
+     * @param message   MQ消息
+     * @param heartbeat 续期时回调，可为 null
+     * @throws com.unimessage.mq.ChunkInProgressException 分片正由其他消费者处理，监听器不应确认该消息
+     */
+    void processBatch(MqMessage message, Runnable heartbeat);
+
+    /**
+     * 重试发送单条消息 (立即加入重试队列)
      *
      * @param detailId 详情ID
-     * @return 结果
+     * @return true 已提交重试, false 明细不存在或非失败状态
      */
     boolean retry(Long detailId);
+
+    /**
+     * 重试批次内全部失败消息 (立即加入重试队列)
+     *
+     * @param batchId 批次ID
+     * @return 提交重试的明细数
+     */
+    int retryBatch(Long batchId);
+
+    /**
+     * 重新发送重试队列中到期的明细
+     *
+     * @param detailIds 详情ID
+     */
+    void processRetry(List<Long> detailIds);
 }
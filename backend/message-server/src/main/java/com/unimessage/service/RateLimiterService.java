@@ -17,4 +17,15 @@ public interface RateLimiterService {
      * @return true: 允许通过, false: 被限流
      */
     boolean tryAcquire(String key, int limit, int windowSeconds);
+
+    /**
+     * 从令牌桶批量获取令牌
+     *
+     * @param key           令牌桶Key
+     * @param ratePerSecond 每秒生成令牌数
+     * @param burst         桶容量 (最大突发量)
+     * @param requested     期望获取的令牌数
+     * @return 大于0: 实际获取的令牌数 (不超过 requested); 小于0: 无可用令牌，绝对值为预计等待毫秒数
+     */
+    long acquireTokens(String key, double ratePerSecond, int burst, int requested);
 }
@@ -0,0 +1,45 @@
+package com.unimessage.service;
+
+import com.unimessage.entity.ShortUrl;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 短链接点击计数服务接口
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+public interface ShortUrlClickCounterService {
+
+    /**
+     * 累加点击数
+     *
+     * @param clicks 短链码 -> 增量
+     */
+    void increment(Map<String, Long> clicks);
+
+    /**
+     * 获取累计点击数
+     *
+     * @param shortUrl 短链
+     * @return 累计点击数
+     */
+    long getTotalClicks(ShortUrl shortUrl);
+
+    /**
+     * 批量获取累计点击数
+     *
+     * @param shortUrls 短链
+     * @return 短链码 -> 累计点击数
+     */
+    Map<String, Long> getTotalClicks(Collection<ShortUrl> shortUrls);
+
+    /**
+     * 删除短链的计数
+     *
+     * @param shortCode 短链码
+     */
+    void delete(String shortCode);
+}
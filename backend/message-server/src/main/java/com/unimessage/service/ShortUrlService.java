@@ -5,6 +5,8 @@ import com.unimessage.dto.ShortUrlResponse;
 import com.unimessage.dto.ShortUrlStatsResponse;
 import com.unimessage.entity.ShortUrl;
 
+import java.util.List;
+
 /**
  * 短链接服务接口
  *
@@ -22,6 +24,16 @@ public interface ShortUrlService {
      */
     ShortUrlResponse createShortUrl(ShortUrlCreateRequest request, Long createdBy);
 
+    /**
+     * 批量创建短链接 (不支持自定义短链码)
+     * 已存在有效短链的URL直接复用，不报错
+     *
+     * @param requests  创建请求列表
+     * @param createdBy 创建者ID
+     * @return 与请求顺序一致的短链接响应
+     */
+    List<ShortUrlResponse> batchCreateShortUrls(List<ShortUrlCreateRequest> requests, Long createdBy);
+
     /**
      * 根据短链码获取原始URL
      *
@@ -0,0 +1,61 @@
+package com.unimessage.service;
+
+import com.unimessage.dto.ShortUrlStatsResponse;
+import com.unimessage.entity.ShortUrlAccessLog;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 短链接统计汇总服务接口
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+public interface ShortUrlStatsService {
+
+    /**
+     * 将一批访问日志累加到小时/每日统计
+     *
+     * @param logs 访问日志
+     */
+    void rollup(List<ShortUrlAccessLog> logs);
+
+    /**
+     * 获取指定日期的统计
+     *
+     * @param shortCode 短链码
+     * @param date      日期
+     * @return 统计信息，无访问时各项为0
+     */
+    ShortUrlStatsResponse.DailyStats getDailyStats(String shortCode, LocalDate date);
+
+    /**
+     * 获取日期范围内的每日统计
+     *
+     * @param shortCode 短链码
+     * @param from      开始日期 (含)
+     * @param to        结束日期 (含)
+     * @return 按日期升序的统计，无访问的日期不返回
+     */
+    List<ShortUrlStatsResponse.DailyStats> listDailyStats(String shortCode, LocalDate from, LocalDate to);
+
+    /**
+     * 获取时间范围内的小时统计
+     *
+     * @param shortCode 短链码
+     * @param from      开始小时 (含)
+     * @param to        结束小时 (含)
+     * @return 按小时升序的统计，无访问的小时不返回
+     */
+    List<ShortUrlStatsResponse.HourlyStats> listHourlyStats(String shortCode, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 获取最近访问记录
+     *
+     * @param shortCode 短链码
+     * @return 按时间倒序的访问记录
+     */
+    List<ShortUrlStatsResponse.AccessRecord> getRecentAccess(String shortCode);
+}
@@ -0,0 +1,159 @@
+package com.unimessage.service.impl;
+
+import com.unimessage.entity.IdSegment;
+import com.unimessage.mapper.IdSegmentMapper;
+import com.unimessage.service.IdSegmentService;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 号段ID分配服务实现 (双号段缓冲)
+ * 每次从 id_segment 表取一段 [max_id + 1, max_id + step] 在内存中发放，发放ID不访问数据库；
+ * 当前号段消耗超过一定比例时在后台预取下一号段，号段切换无需等待数据库。
+ * 节点重启时未用完的号段直接丢弃，ID 不连续但不重复
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class IdSegmentServiceImpl implements IdSegmentService {
+
+    /**
+     * 新业务标识的默认号段长度 (之后以表中 step 为准)
+     */
+    private static final int DEFAULT_STEP = 1000;
+    /**
+     * 当前号段剩余比例低于该值时预取下一号段
+     */
+    private static final double PRELOAD_THRESHOLD = 0.9;
+    private static final String THREAD_NAME = "id-segment-loader";
+
+    @Resource
+    private IdSegmentMapper idSegmentMapper;
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<String, SegmentBuffer> buffers = new ConcurrentHashMap<>();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, THREAD_NAME);
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Override
+    public long nextId(String bizTag) {
+        SegmentBuffer buffer = buffers.computeIfAbsent(bizTag, k -> new SegmentBuffer());
+        boolean preload;
+        long id;
+        synchronized (buffer) {
+            if (buffer.current == null || buffer.current.isExhausted()) {
+                if (buffer.next != null) {
+                    buffer.current = buffer.next;
+                    buffer.next = null;
+                } else {
+                    // 预取未完成时同步加载
+                    buffer.current = loadSegment(bizTag);
+                }
+            }
+            id = buffer.current.value++;
+            preload = buffer.next == null && !buffer.loading && buffer.current.usedRatio() >= 1 - PRELOAD_THRESHOLD;
+            if (preload) {
+                buffer.loading = true;
+            }
+        }
+        if (preload) {
+            preload(bizTag, buffer);
+        }
+        return id;
+    }
+
+    private void preload(String bizTag, SegmentBuffer buffer) {
+        try {
+            loader.execute(() -> {
+                Segment segment = null;
+                try {
+                    segment = loadSegment(bizTag);
+                } catch (Exception e) {
+                    log.error("预取号段失败: bizTag={}", bizTag, e);
+                }
+                synchronized (buffer) {
+                    buffer.loading = false;
+                    if (segment != null && buffer.next == null) {
+                        buffer.next = segment;
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (buffer) {
+                buffer.loading = false;
+            }
+        }
+    }
+
+    /**
+     * 从数据库分配一个号段 (UPDATE 与 SELECT 在同一事务中，行锁保证各节点号段不重叠)
+     */
+    private Segment loadSegment(String bizTag) {
+        Segment segment = transactionTemplate.execute(status -> {
+            if (idSegmentMapper.advance(bizTag) == 0) {
+                idSegmentMapper.insertIgnore(bizTag, DEFAULT_STEP);
+                idSegmentMapper.advance(bizTag);
+            }
+            IdSegment row = idSegmentMapper.selectById(bizTag);
+            long max = row.getMaxId();
+            return new Segment(max - row.getStep() + 1, max);
+        });
+        if (segment == null) {
+            throw new IllegalStateException("号段分配失败: " + bizTag);
+        }
+        log.info("分配号段: bizTag={}, range=[{}, {}]", bizTag, segment.value, segment.max);
+        return segment;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * 单个业务标识的双号段缓冲
+     */
+    private static final class SegmentBuffer {
+        private Segment current;
+        private Segment next;
+        private boolean loading;
+    }
+
+    /**
+     * 号段 [value, max]
+     */
+    private static final class Segment {
+        private final long start;
+        private final long max;
+        private long value;
+
+        Segment(long start, long max) {
+            this.start = start;
+            this.max = max;
+            this.value = start;
+        }
+
+        boolean isExhausted() {
+            return value > max;
+        }
+
+        double usedRatio() {
+            return (double) (value - start) / (max - start + 1);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.unimessage.service.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONWriter;
+import com.unimessage.cache.CacheService;
+import com.unimessage.config.DedupProperties;
+import com.unimessage.constant.CacheKeyConstants;
+import com.unimessage.entity.SysTemplate;
+import com.unimessage.service.MessageDedupService;
+import com.unimessage.util.BloomFilter;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 消息去重服务实现
+ * 模板去重配置示例: {"interval": 300, "count": 1, "scope": "content"}
+ * interval 时间窗口(秒); count 窗口内同一指纹最多发送次数 (默认1); scope 指纹范围:
+ * content 接收者+模板参数 (默认，同一内容不重复发送), recipient 仅接收者 (同一模板的发送频次上限)。
+ * 时间按 interval 分桶，检查当前桶与上一个桶，实际拦截时长在 interval ~ 2*interval 之间；
+ * count 为 1 时每个桶是一个 Redis 布隆位图 (内存与接收者数量无关，极小概率误判为重复)，
+ * 大于 1 时每个桶是以 64 位指纹为字段的计数哈希。同一批接收者按 batchSize 分段执行 Lua 脚本，
+ * 各段通过 Pipeline 一次提交；Redis 不可用时不拦截。发送入队失败时撤销登记 (布隆位图清除对应位，
+ * 可能使共用这些位的其他指纹漏拦截，与 Redis 不可用时一样按不拦截处理)
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class MessageDedupServiceImpl implements MessageDedupService {
+
+    private static final String KEY_INTERVAL = "interval";
+    private static final String KEY_COUNT = "count";
+    private static final String KEY_SCOPE = "scope";
+    private static final String SCOPE_RECIPIENT = "recipient";
+    private static final String TYPE_BLOOM = "bloom";
+    private static final String TYPE_COUNT = "count";
+    /**
+     * 桶过期时间在两个窗口之外的余量(秒)
+     */
+    private static final long TTL_MARGIN_SECONDS = 60;
+
+    /**
+     * 布隆位图检查并登记
+     * KEYS[1]: 当前桶, KEYS[2]: 上一个桶
+     * ARGV[1]: 每个指纹的哈希位数 k, ARGV[2]: 过期时间(秒), 其后每 k 个参数为一个指纹的位偏移
+     * 返回: 与指纹顺序一致的数组, 1 重复 0 未重复 (未重复的已登记到当前桶)
+     */
+    private static final String BLOOM_LUA_SCRIPT =
+            "local k = tonumber(ARGV[1]) " +
+                    "local result = {} " +
+                    "for base = 2, #ARGV - 1, k do " +
+                    "    local inCurrent = true " +
+                    "    local inPrevious = true " +
+                    "    for j = 1, k do " +
+                    "        local offset = ARGV[base + j] " +
+                    "        if inCurrent and redis.call('GETBIT', KEYS[1], offset) == 0 then inCurrent = false end " +
+                    "        if inPrevious and redis.call('GETBIT', KEYS[2], offset) == 0 then inPrevious = false end " +
+                    "        if not inCurrent and not inPrevious then break end " +
+                    "    end " +
+                    "    if inCurrent or inPrevious then " +
+                    "        result[#result + 1] = 1 " +
+                    "    else " +
+                    "        for j = 1, k do redis.call('SETBIT', KEYS[1], ARGV[base + j], 1) end " +
+                    "        result[#result + 1] = 0 " +
+                    "    end " +
+                    "end " +
+                    "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+                    "return result";
+    /**
+     * 计数哈希检查并登记
+     * KEYS[1]: 当前桶, KEYS[2]: 上一个桶
+     * ARGV[1]: 窗口内最多发送次数, ARGV[2]: 过期时间(秒), 其后为指纹
+     * 返回: 与指纹顺序一致的数组, 1 重复 0 未重复 (未重复的已在当前桶计数)
+     */
+    private static final String COUNT_LUA_SCRIPT =
+            "local limit = tonumber(ARGV[1]) " +
+                    "local result = {} " +
+                    "for i = 3, #ARGV do " +
+                    "    local field = ARGV[i] " +
+                    "    local sent = tonumber(redis.call('HGET', KEYS[1], field) or '0') " +
+                    "        + tonumber(redis.call('HGET', KEYS[2], field) or '0') " +
+                    "    if sent >= limit then " +
+                    "        result[#result + 1] = 1 " +
+                    "    else " +
+                    "        redis.call('HINCRBY', KEYS[1], field, 1) " +
+                    "        result[#result + 1] = 0 " +
+                    "    end " +
+                    "end " +
+                    "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+                    "return result";
+    /**
+     * 撤销布隆位图登记：指纹所有位在当前桶均已置位时清除，否则 (登记后已跨桶) 在上一个桶清除
+     * KEYS、ARGV 与 BLOOM_LUA_SCRIPT 相同
+     */
+    private static final String BLOOM_UNMARK_LUA_SCRIPT =
+            "local k = tonumber(ARGV[1]) " +
+                    "for base = 2, #ARGV - 1, k do " +
+                    "    for _, key in ipairs(KEYS) do " +
+                    "        local marked = true " +
+                    "        for j = 1, k do " +
+                    "            if redis.call('GETBIT', key, ARGV[base + j]) == 0 then marked = false break end " +
+                    "        end " +
+                    "        if marked then " +
+                    "            for j = 1, k do redis.call('SETBIT', key, ARGV[base + j], 0) end " +
+                    "            break " +
+                    "        end " +
+                    "    end " +
+                    "end " +
+                    "return 1";
+    /**
+     * 撤销计数哈希登记：当前桶有计数时减一，否则 (登记后已跨桶) 在上一个桶减一
+     * KEYS、ARGV 与 COUNT_LUA_SCRIPT 相同
+     */
+    private static final String COUNT_UNMARK_LUA_SCRIPT =
+            "for i = 3, #ARGV do " +
+                    "    for _, key in ipairs(KEYS) do " +
+                    "        if tonumber(redis.call('HGET', key, ARGV[i]) or '0') > 0 then " +
+                    "            redis.call('HINCRBY', key, ARGV[i], -1) " +
+                    "            break " +
+                    "        end " +
+                    "    end " +
+                    "end " +
+                    "return 1";
+
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> bloomScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> countScript;
+    private final DefaultRedisScript<Long> bloomUnmarkScript;
+    private final DefaultRedisScript<Long> countUnmarkScript;
+
+    @Resource
+    private CacheService cacheService;
+    @Resource
+    private DedupProperties properties;
+
+    public MessageDedupServiceImpl() {
+        bloomScript = new DefaultRedisScript<>();
+        bloomScript.setScriptText(BLOOM_LUA_SCRIPT);
+        bloomScript.setResultType(List.class);
+
+        countScript = new DefaultRedisScript<>();
+        countScript.setScriptText(COUNT_LUA_SCRIPT);
+        countScript.setResultType(List.class);
+
+        bloomUnmarkScript = new DefaultRedisScript<>();
+        bloomUnmarkScript.setScriptText(BLOOM_UNMARK_LUA_SCRIPT);
+        bloomUnmarkScript.setResultType(Long.class);
+
+        countUnmarkScript = new DefaultRedisScript<>();
+        countUnmarkScript.setScriptText(COUNT_UNMARK_LUA_SCRIPT);
+        countUnmarkScript.setResultType(Long.class);
+    }
+
+    @Override
+    public Set<String> checkAndMark(SysTemplate template, Map<String, Object> params, Collection<String> recipients) {
+        Plan plan = plan(template, params, recipients);
+        if (plan == null) {
+            return Collections.emptySet();
+        }
+        List<Object> results = cacheService.pipelineExecute(plan.bloom ? bloomScript : countScript,
+                Collections.nCopies(plan.argsList.size(), plan.keys), plan.argsList);
+        if (results == null || results.size() != plan.argsList.size()) {
+            // 降级策略：Redis 不可用时不拦截，避免影响正常发送
+            return Collections.emptySet();
+        }
+        Set<String> duplicates = new HashSet<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (!(results.get(i) instanceof List<?> flags)) {
+                continue;
+            }
+            int from = i * plan.batchSize;
+            for (int j = 0; j < flags.size() && from + j < plan.ordered.size(); j++) {
+                if (flags.get(j) instanceof Number flag && flag.longValue() == 1L) {
+                    duplicates.add(plan.ordered.get(from + j));
+                }
+            }
+        }
+        return duplicates;
+    }
+
+    @Override
+    public void unmark(SysTemplate template, Map<String, Object> params, Collection<String> recipients) {
+        Plan plan = plan(template, params, recipients);
+        if (plan == null) {
+            return;
+        }
+        List<Object> results = cacheService.pipelineExecute(plan.bloom ? bloomUnmarkScript : countUnmarkScript,
+                Collections.nCopies(plan.argsList.size(), plan.keys), plan.argsList);
+        if (results == null || results.size() != plan.argsList.size()) {
+            log.warn("撤销去重登记失败，窗口内重发将被拦截: templateId={}, count={}", template.getId(), recipients.size());
+        }
+    }
+
+    /**
+     * 计算本次检查涉及的桶与各段脚本参数，模板未配置去重时返回 null
+     */
+    private Plan plan(SysTemplate template, Map<String, Object> params, Collection<String> recipients) {
+        if (!properties.isEnabled() || recipients == null || recipients.isEmpty()) {
+            return null;
+        }
+        JSONObject config = parseConfig(template);
+        long interval = config != null ? config.getLongValue(KEY_INTERVAL, 0) : 0;
+        if (interval <= 0) {
+            return null;
+        }
+        int count = Math.max(1, config.getIntValue(KEY_COUNT, 1));
+        boolean bloom = count == 1;
+
+        // 同一请求所有接收者的参数相同，参数只计算一次指纹 (键排序，与参数顺序无关)
+        String contentHash = SCOPE_RECIPIENT.equals(config.getString(KEY_SCOPE)) ? ""
+                : Long.toHexString(BloomFilter.fingerprint(JSON.toJSONString(params, JSONWriter.Feature.MapSortField)));
+        long bucket = System.currentTimeMillis() / 1000 / interval;
+        String keyPrefix = cacheService.buildKey(CacheKeyConstants.DEDUP, "{", String.valueOf(template.getId()), ":",
+                String.valueOf(interval), "}:", bloom ? TYPE_BLOOM : TYPE_COUNT, ":");
+        List<String> keys = List.of(keyPrefix + bucket, keyPrefix + (bucket - 1));
+        String ttl = String.valueOf(interval * 2 + TTL_MARGIN_SECONDS);
+
+        long bitSize = BloomFilter.optimalBitSize(properties.getExpectedInsertions(), properties.getFalsePositiveRate());
+        int hashCount = BloomFilter.optimalHashCount(properties.getExpectedInsertions(), bitSize);
+        List<String> ordered = new ArrayList<>(recipients);
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<List<String>> argsList = new ArrayList<>((ordered.size() + batchSize - 1) / batchSize);
+        for (int from = 0; from < ordered.size(); from += batchSize) {
+            List<String> chunk = ordered.subList(from, Math.min(ordered.size(), from + batchSize));
+            List<String> args = new ArrayList<>(2 + chunk.size() * (bloom ? hashCount : 1));
+            args.add(bloom ? String.valueOf(hashCount) : String.valueOf(count));
+            args.add(ttl);
+            for (String recipient : chunk) {
+                String item = recipient + '\n' + contentHash;
+                if (bloom) {
+                    for (long index : BloomFilter.bitIndexes(item, bitSize, hashCount)) {
+                        args.add(String.valueOf(index));
+                    }
+                } else {
+                    args.add(Long.toHexString(BloomFilter.fingerprint(item)));
+                }
+            }
+            argsList.add(args);
+        }
+        return new Plan(bloom, keys, ordered, batchSize, argsList);
+    }
+
+    private JSONObject parseConfig(SysTemplate template) {
+        String config = template.getDeduplicationConfig();
+        if (config == null || config.isBlank()) {
+            return null;
+        }
+        try {
+            return JSON.parseObject(config);
+        } catch (Exception e) {
+            log.warn("模板去重配置解析失败，不去重: templateId={}", template.getId());
+            return null;
+        }
+    }
+
+    /**
+     * 一次去重检查的桶键与分段参数
+     */
+    private static final class Plan {
+        private final boolean bloom;
+        private final List<String> keys;
+        private final List<String> ordered;
+        private final int batchSize;
+        private final List<List<String>> argsList;
+
+        private Plan(boolean bloom, List<String> keys, List<String> ordered, int batchSize, List<List<String>> argsList) {
+            this.bloom = bloom;
+            this.keys = keys;
+            this.ordered = ordered;
+            this.batchSize = batchSize;
+            this.argsList = argsList;
+        }
+    }
+}
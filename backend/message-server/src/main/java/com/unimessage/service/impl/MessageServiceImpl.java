@@ -2,10 +2,19 @@ package com.unimessage.service.impl;
 
 import com.alibaba.fastjson2.JSON;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.toolkit.Db;
 import com.unimessage.cache.CacheService;
+import com.unimessage.cache.MetadataCacheService;
+import com.unimessage.config.DispatchProperties;
+import com.unimessage.config.MqProperties;
 import com.unimessage.constant.CacheKeyConstants;
 import com.unimessage.context.AppContext;
+import com.unimessage.dispatch.ChannelCircuitBreaker;
+import com.unimessage.dispatch.ChannelRateLimiter;
+import com.unimessage.dispatch.ChannelRouter;
+import com.unimessage.dispatch.MessageDispatcher;
+import com.unimessage.dispatch.MessageRetryQueue;
 import com.unimessage.dto.MqMessage;
 import com.unimessage.dto.SendRequest;
 import com.unimessage.dto.SendResponse;
@@ -15,11 +24,14 @@ import com.unimessage.enums.ChannelType;
 import com.unimessage.enums.DetailStatus;
 import com.unimessage.handler.ChannelHandler;
 import com.unimessage.handler.ChannelHandlerFactory;
+import com.unimessage.handler.ShortLinkRewriter;
 import com.unimessage.mapper.LogMsgBatchMapper;
-import com.unimessage.mapper.SysChannelMapper;
+import com.unimessage.mapper.LogMsgDetailMapper;
 import com.unimessage.mapper.SysRecipientMapper;
-import com.unimessage.mapper.SysTemplateMapper;
+import com.unimessage.mq.ChunkInProgressException;
+import com.unimessage.mq.ChunkLeaseRenewer;
 import com.unimessage.mq.producer.MqProducer;
+import com.unimessage.service.MessageDedupService;
 import com.unimessage.service.MessageService;
 import com.unimessage.service.RateLimiterService;
 import com.unimessage.util.UserIdUtil;
@@ -27,9 +39,12 @@ import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 消息发送服务实现类
@@ -41,13 +56,15 @@ import java.util.*;
 @Service
 public class MessageServiceImpl implements MessageService {
 
-    @Resource
-    private SysTemplateMapper templateMapper;
-    @Resource
-    private SysChannelMapper channelMapper;
+    private static final String CHUNK_PROCESSING = "PROCESSING";
+    private static final String CHUNK_DONE = "DONE";
+    private static final String RATE_LIMITED_ERROR_MSG = "渠道发送频率超限";
+
     @Resource
     private LogMsgBatchMapper batchMapper;
     @Resource
+    private LogMsgDetailMapper detailMapper;
+    @Resource
     private SysRecipientMapper recipientMapper;
     @Resource
     private ChannelHandlerFactory handlerFactory;
@@ -56,7 +73,31 @@ public class MessageServiceImpl implements MessageService {
     @Resource
     private RateLimiterService rateLimiterService;
     @Resource
+    private MessageDedupService messageDedupService;
+    @Resource
     private CacheService cacheService;
+    @Resource
+    private MetadataCacheService metadataCacheService;
+    @Resource
+    private MessageDispatcher messageDispatcher;
+    @Resource
+    private ChannelRateLimiter channelRateLimiter;
+    @Resource
+    private ChannelCircuitBreaker circuitBreaker;
+    @Resource
+    private ChannelRouter channelRouter;
+    @Resource
+    private MqProperties mqProperties;
+    @Resource
+    private ChunkLeaseRenewer chunkLeaseRenewer;
+    @Resource
+    private TransactionTemplate transactionTemplate;
+    @Resource
+    private ShortLinkRewriter shortLinkRewriter;
+    @Resource
+    private MessageRetryQueue retryQueue;
+    @Resource
+    private DispatchProperties dispatchProperties;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -101,23 +142,38 @@ public class MessageServiceImpl implements MessageService {
         if (finalRecipientMap.isEmpty()) {
             return SendResponse.fail("未指定接收者，且模板未关联有效的接收人或分组");
         }
-        request.setRecipients(new ArrayList<>(finalRecipientMap.keySet()));
 
         if (handlerFactory.getHandler(channel.getType()) == null) {
             return SendResponse.fail("未找到该渠道的处理器: " + channel.getType());
         }
 
-        return createAndPushBatch(request, template, channel, finalRecipientMap);
+        // 模板去重：时间窗口内已发送过相同消息的接收者不再发送 (整批一次 Pipeline 检查)
+        Set<String> duplicates = messageDedupService.checkAndMark(template, request.getParams(), finalRecipientMap.keySet());
+        if (!duplicates.isEmpty()) {
+            finalRecipientMap.keySet().removeAll(duplicates);
+            log.info("重复消息已拦截, templateCode={}, duplicates={}, remaining={}",
+                    template.getCode(), duplicates.size(), finalRecipientMap.size());
+            if (finalRecipientMap.isEmpty()) {
+                return SendResponse.fail("重复消息已拦截，去重时间窗口内已向所有接收者发送过");
+            }
+        }
+        request.setRecipients(new ArrayList<>(finalRecipientMap.keySet()));
+
+        try {
+            return createAndPushBatch(request, template, channel, finalRecipientMap);
+        } catch (RuntimeException e) {
+            // 入队失败时撤销去重登记，否则调用方重发会在时间窗口内被拦截
+            messageDedupService.unmark(template, request.getParams(), finalRecipientMap.keySet());
+            throw e;
+        }
     }
 
     private SysTemplate getTemplate(String code) {
-        LambdaQueryWrapper<SysTemplate> query = new LambdaQueryWrapper<>();
-        query.eq(SysTemplate::getCode, code);
-        return templateMapper.selectOne(query);
+        return metadataCacheService.getTemplateByCode(code);
     }
 
     private SysChannel getChannel(Long id) {
-        SysChannel channel = channelMapper.selectById(id);
+        SysChannel channel = metadataCacheService.getChannelById(id);
         return (channel != null && channel.getStatus() == 1) ? channel : null;
     }
 
@@ -203,9 +259,8 @@ public class MessageServiceImpl implements MessageService {
         batchMapper.insert(batch);
 
         try {
-            // Push to Redis MQ
-            MqMessage message = new MqMessage(batch.getId(), request, recipientMap);
-            mqProducer.send(message);
+            // 按分片投递，避免单条 MQ 消息过大
+            mqProducer.sendBatch(splitChunks(batch.getId(), batch.getAppId(), request, recipientMap));
         } catch (Exception e) {
             log.error("Push to MQ failed", e);
             throw new RuntimeException("消息入队失败", e);
@@ -214,6 +269,36 @@ public class MessageServiceImpl implements MessageService {
         return SendResponse.success(batchNo);
     }
 
+    /**
+     * 将批次接收者拆分为固定大小的分片消息，所有分片共享同一个 batchId
+     */
+    private List<MqMessage> splitChunks(Long batchId, Long appId, SendRequest request, Map<String, String> recipientMap) {
+        List<String> recipients = request.getRecipients();
+        int chunkSize = Math.max(1, mqProperties.getChunkSize());
+        int chunkCount = (recipients.size() + chunkSize - 1) / chunkSize;
+
+        List<MqMessage> messages = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            List<String> chunkRecipients = new ArrayList<>(
+                    recipients.subList(i * chunkSize, Math.min(recipients.size(), (i + 1) * chunkSize)));
+            Map<String, String> chunkNames = new HashMap<>(chunkRecipients.size() * 2);
+            for (String recipient : chunkRecipients) {
+                chunkNames.put(recipient, recipientMap.get(recipient));
+            }
+
+            SendRequest chunkRequest = new SendRequest();
+            chunkRequest.setTemplateCode(request.getTemplateCode());
+            chunkRequest.setParams(request.getParams());
+            chunkRequest.setBizId(request.getBizId());
+            chunkRequest.setRecipients(chunkRecipients);
+
+            MqMessage message = new MqMessage(batchId, chunkRequest, chunkNames, i, chunkCount);
+            message.setAppId(appId);
+            messages.add(message);
+        }
+        return messages;
+    }
+
     /**
      * 根据渠道类型从接收者实体中提取对应的联系方式
      *
@@ -261,14 +346,35 @@ public class MessageServiceImpl implements MessageService {
     }
 
     @Override
-    public void processBatch(MqMessage message) {
-        // 幂等性校验：防止同一批次被重复处理
-        String processKey = cacheService.buildKey(CacheKeyConstants.RATE_LIMIT_TEMPLATE, "batch:process:", message.getBatchId().toString());
-        if (!cacheService.setIfAbsent(processKey, "1", 24 * 60 * 60)) {
-            log.warn("批次已处理，跳过重复消费, batchId={}", message.getBatchId());
-            return;
+    public void processBatch(MqMessage message, Runnable heartbeat) {
+        int chunkIndex = message.getChunkIndex() != null ? message.getChunkIndex() : 0;
+        // 分片级幂等：先获取处理租约，处理完成后写入完成标记；处理期间定时续期，消费者中途宕机时租约过期即可重新处理
+        String processKey = cacheService.buildKey(CacheKeyConstants.RATE_LIMIT_TEMPLATE, "batch:process:",
+                message.getBatchId().toString(), ":", String.valueOf(chunkIndex));
+        String leaseToken = CHUNK_PROCESSING + ":" + UUID.randomUUID();
+        if (!cacheService.setIfAbsent(processKey, leaseToken, mqProperties.getChunkLeaseSeconds())) {
+            if (CHUNK_DONE.equals(cacheService.get(processKey))) {
+                log.warn("分片已处理，跳过重复消费, batchId={}, chunk={}", message.getBatchId(), chunkIndex);
+                return;
+            }
+            // 处理中 (或处理者宕机后租约未过期)：不能确认消息，否则租约过期后无人再处理该分片
+            throw new ChunkInProgressException(message.getBatchId(), chunkIndex);
         }
 
+        ChunkLeaseRenewer.Renewal renewal = chunkLeaseRenewer.start(processKey, leaseToken, heartbeat);
+        try {
+            processChunk(message);
+            renewal.cancel();
+            cacheService.set(processKey, CHUNK_DONE, 24 * 60 * 60, TimeUnit.SECONDS);
+        } catch (RuntimeException e) {
+            renewal.cancel();
+            // 释放租约，允许 MQ 重投后重新处理该分片
+            cacheService.delete(processKey);
+            throw e;
+        }
+    }
+
+    private void processChunk(MqMessage message) {
         LogMsgBatch batch = batchMapper.selectById(message.getBatchId());
         if (batch == null) {
             log.error("Batch not found: {}", message.getBatchId());
@@ -281,13 +387,13 @@ public class MessageServiceImpl implements MessageService {
             return;
         }
 
-        SysTemplate template = templateMapper.selectById(batch.getTemplateId());
+        SysTemplate template = metadataCacheService.getTemplateById(batch.getTemplateId());
         if (template == null) {
             log.error("Template not found: {}", batch.getTemplateId());
             return;
         }
 
-        SysChannel channel = channelMapper.selectById(batch.getChannelId());
+        SysChannel channel = metadataCacheService.getChannelById(batch.getChannelId());
         if (channel == null) {
             log.error("Channel not found: {}", batch.getChannelId());
             return;
@@ -304,81 +410,579 @@ public class MessageServiceImpl implements MessageService {
             return;
         }
 
-        sendToRecipients(details, handler, channel, template, message.getRequest().getParams(), batch);
+        // 长链接改写为短链接：整个分片只转换一次，所有接收者共享改写结果
+        Map<String, Object> params = message.getRequest().getParams();
+        if (shortLinkRewriter.isEnabled(template)) {
+            params = shortLinkRewriter.rewrite(template, params, batch);
+            template = shortLinkRewriter.rewrite(template, batch);
+        }
+
+        ChannelRouter.Route route = channelRouter.resolve(template, channel, handler);
+        sendToRecipients(details, route, params, batch);
     }
 
     private List<LogMsgDetail> createDetails(MqMessage message, LogMsgBatch batch) {
+        List<String> recipients = message.getRequest().getRecipients();
+        if (recipients == null || recipients.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 分片重投时复用已落库的明细：终态明细已计入批次统计直接跳过，发送中的明细重新发送
+        LambdaQueryWrapper<LogMsgDetail> query = new LambdaQueryWrapper<>();
+        query.eq(LogMsgDetail::getBatchId, batch.getId()).in(LogMsgDetail::getRecipient, recipients);
+        Map<String, LogMsgDetail> existing = new HashMap<>(16);
+        for (LogMsgDetail detail : detailMapper.selectList(query)) {
+            existing.put(detail.getRecipient(), detail);
+        }
+
         List<LogMsgDetail> details = new ArrayList<>();
+        List<LogMsgDetail> newDetails = new ArrayList<>();
         Map<String, String> nameMap = message.getRecipientNames() != null ? message.getRecipientNames() : Collections.emptyMap();
         LocalDateTime now = LocalDateTime.now();
 
-        for (String recipient : message.getRequest().getRecipients()) {
-            LogMsgDetail detail = new LogMsgDetail();
+        for (String recipient : recipients) {
+            LogMsgDetail detail = existing.get(recipient);
+            if (detail != null) {
+                if (DetailStatus.SENDING.getCode().equals(detail.getStatus())) {
+                    details.add(detail);
+                }
+                continue;
+            }
+            detail = new LogMsgDetail();
             detail.setBatchId(batch.getId());
             detail.setRecipient(recipient);
             detail.setRecipientName(nameMap.get(recipient));
             detail.setStatus(DetailStatus.SENDING.getCode());
             detail.setCreatedAt(now);
             details.add(detail);
+            newDetails.add(detail);
         }
 
         try {
-            Db.saveBatch(details);
+            if (!newDetails.isEmpty()) {
+                Db.saveBatch(newDetails);
+            }
             return details;
         } catch (Exception e) {
-            log.error("Batch insert details failed", e);
-            batch.setStatus(BatchStatus.FAIL.getCode());
-            batchMapper.updateById(batch);
+            log.error("Batch insert details failed, batchId={}", batch.getId(), e);
+            // 该分片整体计为失败，其余分片照常处理
+            batchMapper.updateStats(batch.getId(), 0, details.size());
+            finalizeBatchIfComplete(batch.getId());
             return Collections.emptyList();
         }
     }
 
-    private void sendToRecipients(List<LogMsgDetail> details, ChannelHandler handler, SysChannel channel,
-                                  SysTemplate template, Map<String, Object> params, LogMsgBatch batch) {
+    private void sendToRecipients(List<LogMsgDetail> details, ChannelRouter.Route route,
+                                  Map<String, Object> params, LogMsgBatch batch) {
+        dispatchWithFailover(details, route, params);
+
         int success = 0;
         int fail = 0;
+        for (LogMsgDetail detail : details) {
+            if (DetailStatus.SUCCESS.getCode().equals(detail.getStatus())) {
+                success++;
+            } else {
+                fail++;
+            }
+        }
 
+        // 明细状态与批次统计增量在同一事务中提交，分片重投时不会重复计数
+        int successDelta = success;
+        int failDelta = fail;
+        transactionTemplate.executeWithoutResult(status -> {
+            Db.updateBatchById(details);
+            batchMapper.updateStats(batch.getId(), successDelta, failDelta);
+        });
+
+        finalizeBatchIfComplete(batch.getId());
+        scheduleRetries(details, route);
+    }
+
+    /**
+     * 按渠道路由发送：每个接收者按路由顺序尝试渠道，临时性失败或渠道熔断、限流时转移到下一个渠道；
+     * 每一轮按接收者当前渠道分组，各渠道并行发送
+     *
+     * @return 至少有一次实际调用到渠道处理器的明细 (未被熔断、限流拦截)
+     */
+    private Set<LogMsgDetail> dispatchWithFailover(List<LogMsgDetail> details, ChannelRouter.Route route,
+                                                   Map<String, Object> params) {
+        Set<LogMsgDetail> attempted = Collections.newSetFromMap(new IdentityHashMap<>(details.size() * 2));
+        if (route.isSingle()) {
+            ChannelRouter.Candidate primary = route.primary();
+            dispatchDetails(details, primary.getHandler(), primary.getChannel(), primary.getTemplate(), params);
+            for (LogMsgDetail detail : details) {
+                detail.setChannelId(primary.getChannel().getId());
+                if (reachedHandler(detail)) {
+                    attempted.add(detail);
+                }
+            }
+            return attempted;
+        }
+
+        Map<LogMsgDetail, Iterator<ChannelRouter.Candidate>> remaining = new IdentityHashMap<>(details.size() * 2);
         for (LogMsgDetail detail : details) {
-            try {
-                boolean result = handler.send(channel, template, detail, params);
-                if (result) {
-                    detail.setStatus(DetailStatus.SUCCESS.getCode());
-                    success++;
-                } else {
-                    detail.setStatus(DetailStatus.FAIL.getCode());
-                    fail++;
+            remaining.put(detail, route.order().iterator());
+        }
+        List<LogMsgDetail> pending = details;
+        while (!pending.isEmpty()) {
+            Map<ChannelRouter.Candidate, List<LogMsgDetail>> partitions = new LinkedHashMap<>();
+            for (LogMsgDetail detail : pending) {
+                ChannelRouter.Candidate candidate = remaining.get(detail).next();
+                if (detail.getChannelId() != null && !detail.getChannelId().equals(candidate.getChannel().getId())) {
+                    log.debug("渠道故障转移: detailId={}, from={}, to={}, reason={}",
+                            detail.getId(), detail.getChannelId(), candidate.getChannel().getId(), detail.getErrorMsg());
+                    detail.setErrorMsg("");
                 }
-            } catch (Exception e) {
-                log.error("发送异常: recipient={}", detail.getRecipient(), e);
-                detail.setStatus(DetailStatus.FAIL.getCode());
-                detail.setErrorMsg(e.getMessage());
-                fail++;
+                detail.setChannelId(candidate.getChannel().getId());
+                partitions.computeIfAbsent(candidate, c -> new ArrayList<>()).add(detail);
+            }
+
+            List<Runnable> tasks = new ArrayList<>(partitions.size());
+            partitions.forEach((candidate, group) -> tasks.add(() -> dispatchDetails(group, candidate.getHandler(),
+                    candidate.getChannel(), candidate.getTemplate(), params)));
+            messageDispatcher.runConcurrently(tasks);
+
+            List<LogMsgDetail> next = new ArrayList<>();
+            partitions.forEach((candidate, group) -> {
+                for (LogMsgDetail detail : group) {
+                    if (reachedHandler(detail)) {
+                        attempted.add(detail);
+                    }
+                    if (remaining.get(detail).hasNext() && shouldFailover(candidate, detail)) {
+                        next.add(detail);
+                    }
+                }
+            });
+            pending = next;
+        }
+        return attempted;
+    }
+
+    /**
+     * 本轮发送是否实际调用了渠道处理器 (熔断、限流拦截的明细未发出)
+     */
+    private boolean reachedHandler(LogMsgDetail detail) {
+        return DetailStatus.SUCCESS.getCode().equals(detail.getStatus())
+                || !(ChannelCircuitBreaker.OPEN_ERROR_MSG.equals(detail.getErrorMsg())
+                || RATE_LIMITED_ERROR_MSG.equals(detail.getErrorMsg()));
+    }
+
+    /**
+     * 失败原因是否为当前渠道的临时性问题 (换一个渠道可能成功)
+     */
+    private boolean shouldFailover(ChannelRouter.Candidate candidate, LogMsgDetail detail) {
+        if (!DetailStatus.FAIL.getCode().equals(detail.getStatus())) {
+            return false;
+        }
+        if (ChannelCircuitBreaker.OPEN_ERROR_MSG.equals(detail.getErrorMsg())
+                || RATE_LIMITED_ERROR_MSG.equals(detail.getErrorMsg())) {
+            return true;
+        }
+        try {
+            return candidate.getHandler().isRetryable(candidate.getChannel(), detail);
+        } catch (Exception e) {
+            log.warn("判断失败原因异常，不转移渠道: detailId={}", detail.getId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 按渠道并发上限并行发送，全部完成后返回；渠道支持批量接口时按批量大小分组调用
+     */
+    private void dispatchDetails(List<LogMsgDetail> details, ChannelHandler handler, SysChannel channel,
+                                 SysTemplate template, Map<String, Object> params) {
+        int batchSize = handler.getMaxBatchSize(channel);
+        if (batchSize > 1) {
+            List<List<LogMsgDetail>> groups = new ArrayList<>((details.size() + batchSize - 1) / batchSize);
+            for (int i = 0; i < details.size(); i += batchSize) {
+                groups.add(details.subList(i, Math.min(details.size(), i + batchSize)));
+            }
+            messageDispatcher.dispatch(channel, groups, group -> sendToRecipientGroup(group, handler, channel, template, params));
+        } else if (handler.supportsAsync()) {
+            messageDispatcher.dispatchAsync(channel, details, detail -> sendToRecipientAsync(detail, handler, channel, template, params));
+        } else {
+            messageDispatcher.dispatch(channel, details, detail -> sendToRecipient(detail, handler, channel, template, params));
+        }
+    }
+
+    /**
+     * 向单个接收者发送，在分发线程中执行，只修改当前 detail 对象
+     */
+    private void sendToRecipient(LogMsgDetail detail, ChannelHandler handler, SysChannel channel,
+                                 SysTemplate template, Map<String, Object> params) {
+        if (!circuitBreaker.tryAcquire(channel)) {
+            markCircuitOpen(detail);
+            return;
+        }
+        if (!channelRateLimiter.acquire(channel, detail.getRecipient())) {
+            circuitBreaker.release(channel);
+            markRateLimited(detail);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            boolean result = handler.send(channel, template, detail, params);
+            detail.setStatus(result ? DetailStatus.SUCCESS.getCode() : DetailStatus.FAIL.getCode());
+        } catch (Exception e) {
+            log.error("发送异常: recipient={}", detail.getRecipient(), e);
+            detail.setStatus(DetailStatus.FAIL.getCode());
+            detail.setErrorMsg(e.getMessage());
+        }
+        detail.setSendTime(LocalDateTime.now());
+        recordCall(handler, channel, Collections.singletonList(detail), start);
+    }
+
+    private void markRateLimited(LogMsgDetail detail) {
+        detail.setStatus(DetailStatus.FAIL.getCode());
+        detail.setErrorMsg(RATE_LIMITED_ERROR_MSG);
+        detail.setSendTime(LocalDateTime.now());
+    }
+
+    private void markCircuitOpen(LogMsgDetail detail) {
+        detail.setStatus(DetailStatus.FAIL.getCode());
+        detail.setErrorMsg(ChannelCircuitBreaker.OPEN_ERROR_MSG);
+        detail.setSendTime(LocalDateTime.now());
+    }
+
+    /**
+     * 记录一次第三方调用结果到渠道熔断器：全部失败且为临时性错误时计为失败
+     */
+    private void recordCall(ChannelHandler handler, SysChannel channel, List<LogMsgDetail> details, long start) {
+        boolean failure = true;
+        boolean retryable = false;
+        for (LogMsgDetail detail : details) {
+            if (DetailStatus.SUCCESS.getCode().equals(detail.getStatus())) {
+                failure = false;
+                break;
+            }
+            if (!retryable) {
+                try {
+                    retryable = handler.isRetryable(channel, detail);
+                } catch (Exception e) {
+                    log.warn("判断失败原因异常: detailId={}", detail.getId(), e);
+                }
+            }
+        }
+        circuitBreaker.onResult(channel, failure && retryable, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 向单个接收者异步发送，结果在 Future 完成时写回 detail
+     */
+    private CompletableFuture<Void> sendToRecipientAsync(LogMsgDetail detail, ChannelHandler handler, SysChannel channel,
+                                                         SysTemplate template, Map<String, Object> params) {
+        if (!circuitBreaker.tryAcquire(channel)) {
+            markCircuitOpen(detail);
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!channelRateLimiter.acquire(channel, detail.getRecipient())) {
+            circuitBreaker.release(channel);
+            markRateLimited(detail);
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.currentTimeMillis();
+        CompletableFuture<Boolean> future;
+        try {
+            future = handler.sendAsync(channel, template, detail, params);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.handle((result, ex) -> {
+            if (ex != null) {
+                log.error("发送异常: recipient={}", detail.getRecipient(), ex);
+                detail.setErrorMsg(ex.getMessage());
             }
+            detail.setStatus(Boolean.TRUE.equals(result) ? DetailStatus.SUCCESS.getCode() : DetailStatus.FAIL.getCode());
             detail.setSendTime(LocalDateTime.now());
+            recordCall(handler, channel, Collections.singletonList(detail), start);
+            return null;
+        });
+    }
+
+    /**
+     * 通过渠道批量接口向一组接收者发送，并将结果逐个写回明细
+     */
+    private void sendToRecipientGroup(List<LogMsgDetail> group, ChannelHandler handler, SysChannel channel,
+                                      SysTemplate template, Map<String, Object> params) {
+        // 批量接口按一次调用计算渠道熔断与限流
+        if (!circuitBreaker.tryAcquire(channel)) {
+            group.forEach(this::markCircuitOpen);
+            return;
+        }
+        if (!channelRateLimiter.acquire(channel, null)) {
+            circuitBreaker.release(channel);
+            group.forEach(this::markRateLimited);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<Boolean> results;
+        try {
+            results = handler.sendBatch(channel, template, group, params);
+        } catch (Exception e) {
+            log.error("批量发送异常: channelId={}, size={}", channel.getId(), group.size(), e);
+            results = Collections.emptyList();
+            for (LogMsgDetail detail : group) {
+                detail.setErrorMsg(e.getMessage());
+            }
         }
 
-        // 批量更新详情状态，提升性能
-        Db.updateBatchById(details);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < group.size(); i++) {
+            LogMsgDetail detail = group.get(i);
+            boolean success = results != null && i < results.size() && Boolean.TRUE.equals(results.get(i));
+            detail.setStatus(success ? DetailStatus.SUCCESS.getCode() : DetailStatus.FAIL.getCode());
+            detail.setSendTime(now);
+        }
+        recordCall(handler, channel, group, start);
+    }
 
-        updateBatchStatus(batch, success, fail);
+    /**
+     * 所有分片均已计数时，根据累计结果更新批次最终状态
+     */
+    private void finalizeBatchIfComplete(Long batchId) {
+        LogMsgBatch batch = batchMapper.selectById(batchId);
+        if (batch == null || !BatchStatus.PENDING.getCode().equals(batch.getStatus())) {
+            return;
+        }
+        int success = batch.getSuccessCount() != null ? batch.getSuccessCount() : 0;
+        int fail = batch.getFailCount() != null ? batch.getFailCount() : 0;
+        if (success + fail < batch.getTotalCount()) {
+            return;
+        }
+        // 只更新状态字段且要求仍为处理中：统计字段只做增量更新，避免覆盖并发重试写入的计数
+        LambdaUpdateWrapper<LogMsgBatch> update = new LambdaUpdateWrapper<>();
+        update.eq(LogMsgBatch::getId, batchId)
+                .eq(LogMsgBatch::getStatus, BatchStatus.PENDING.getCode())
+                .set(LogMsgBatch::getStatus, resolveBatchStatus(success, fail));
+        if (batchMapper.update(null, update) > 0) {
+            // 读取计数后并发重试可能已改变统计 (当时批次仍为处理中，重试不会刷新状态)，按最新计数校正
+            refreshBatchStatus(batchId);
+        }
     }
 
-    private void updateBatchStatus(LogMsgBatch batch, int success, int fail) {
-        batch.setSuccessCount(success);
-        batch.setFailCount(fail);
+    private Integer resolveBatchStatus(int success, int fail) {
         if (fail == 0) {
-            batch.setStatus(BatchStatus.SUCCESS.getCode());
-        } else if (success == 0) {
-            batch.setStatus(BatchStatus.FAIL.getCode());
-        } else {
-            batch.setStatus(BatchStatus.PARTIAL_SUCCESS.getCode());
+            return BatchStatus.SUCCESS.getCode();
         }
-        batchMapper.updateById(batch);
+        return success == 0 ? BatchStatus.FAIL.getCode() : BatchStatus.PARTIAL_SUCCESS.getCode();
+    }
+
+    // ==================== 失败重试 ====================
+
+    /**
+     * 可重试的失败明细按指数退避加入重试队列，超过模板最大重试次数的不再重试；
+     * 因渠道熔断未实际发送的明细暂存到熔断恢复后重试，不计重试次数，但自创建起超过最长暂存时间后放弃；
+     * 失败原因按明细最后尝试的渠道判断
+     */
+    private void scheduleRetries(List<LogMsgDetail> details, ChannelRouter.Route route) {
+        DispatchProperties.Retry config = dispatchProperties.getRetry();
+        if (!config.isEnabled()) {
+            return;
+        }
+        SysTemplate template = route.primary().getTemplate();
+        int maxRetries = template.getMaxRetryCount() != null ? template.getMaxRetryCount() : config.getDefaultMaxRetries();
+        Map<Long, Integer> attempts = new HashMap<>(16);
+        Map<ChannelRouter.Candidate, List<Long>> parked = new HashMap<>(4);
+        for (LogMsgDetail detail : details) {
+            ChannelRouter.Candidate candidate = route.find(detail.getChannelId());
+            if (detail.getId() != null && DetailStatus.FAIL.getCode().equals(detail.getStatus())
+                    && ChannelCircuitBreaker.OPEN_ERROR_MSG.equals(detail.getErrorMsg())) {
+                if (canPark(detail)) {
+                    parked.computeIfAbsent(candidate, c -> new ArrayList<>()).add(detail.getId());
+                }
+                continue;
+            }
+            int retried = detail.getRetryCount() != null ? detail.getRetryCount() : 0;
+            if (detail.getId() == null || !DetailStatus.FAIL.getCode().equals(detail.getStatus()) || retried >= maxRetries) {
+                continue;
+            }
+            try {
+                if (candidate.getHandler().isRetryable(candidate.getChannel(), detail)) {
+                    attempts.put(detail.getId(), retried + 1);
+                }
+            } catch (Exception e) {
+                log.warn("判断失败原因异常，不重试: detailId={}", detail.getId(), e);
+            }
+        }
+        retryQueue.schedule(attempts);
+        parked.forEach((candidate, ids) -> retryQueue.scheduleAt(ids, circuitBreaker.retryAtMillis(candidate.getChannel())));
+    }
+
+    /**
+     * 熔断暂存的明细自创建起未超过最长暂存时间时才继续暂存，避免渠道长期不可用时无限顺延
+     */
+    private boolean canPark(LogMsgDetail detail) {
+        long maxParkMillis = dispatchProperties.getCircuitBreaker().getMaxParkMillis();
+        if (maxParkMillis <= 0 || detail.getCreatedAt() == null
+                || detail.getCreatedAt().plusNanos(TimeUnit.MILLISECONDS.toNanos(maxParkMillis)).isAfter(LocalDateTime.now())) {
+            return true;
+        }
+        log.warn("渠道熔断暂存超过最长时间，放弃重试: detailId={}, createdAt={}", detail.getId(), detail.getCreatedAt());
+        return false;
     }
 
     @Override
     public boolean retry(Long detailId) {
-        // 重试逻辑暂不修改，因为它依赖已有的 detail 记录
-        return false;
+        LogMsgDetail detail = detailMapper.selectById(detailId);
+        if (detail == null || !DetailStatus.FAIL.getCode().equals(detail.getStatus())) {
+            return false;
+        }
+        return retryQueue.scheduleNow(Collections.singletonList(detailId));
+    }
+
+    @Override
+    public int retryBatch(Long batchId) {
+        LambdaQueryWrapper<LogMsgDetail> query = new LambdaQueryWrapper<>();
+        query.select(LogMsgDetail::getId)
+                .eq(LogMsgDetail::getBatchId, batchId)
+                .eq(LogMsgDetail::getStatus, DetailStatus.FAIL.getCode());
+        List<Long> detailIds = new ArrayList<>();
+        for (LogMsgDetail detail : detailMapper.selectList(query)) {
+            detailIds.add(detail.getId());
+        }
+        return retryQueue.scheduleNow(detailIds) ? detailIds.size() : 0;
+    }
+
+    @Override
+    public void processRetry(List<Long> detailIds) {
+        if (detailIds == null || detailIds.isEmpty()) {
+            return;
+        }
+        // 只重试仍为失败状态 (或重试中途节点宕机遗留) 的明细，按批次分组发送；发送前逐条认领
+        Map<Long, List<LogMsgDetail>> byBatch = new LinkedHashMap<>();
+        for (LogMsgDetail detail : detailMapper.selectBatchIds(detailIds)) {
+            if (!DetailStatus.SUCCESS.getCode().equals(detail.getStatus())) {
+                byBatch.computeIfAbsent(detail.getBatchId(), id -> new ArrayList<>()).add(detail);
+            }
+        }
+        for (Map.Entry<Long, List<LogMsgDetail>> entry : byBatch.entrySet()) {
+            try {
+                retryDetails(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                log.error("重试发送失败，稍后再试: batchId={}, count={}", entry.getKey(), entry.getValue().size(), e);
+                Map<Long, Integer> attempts = new HashMap<>(entry.getValue().size() * 2);
+                for (LogMsgDetail detail : entry.getValue()) {
+                    attempts.put(detail.getId(), (detail.getRetryCount() != null ? detail.getRetryCount() : 0) + 1);
+                }
+                retryQueue.schedule(attempts);
+            }
+        }
+    }
+
+    private void retryDetails(Long batchId, List<LogMsgDetail> details) {
+        LogMsgBatch batch = batchMapper.selectById(batchId);
+        SysTemplate template = batch != null ? metadataCacheService.getTemplateById(batch.getTemplateId()) : null;
+        SysChannel channel = batch != null ? metadataCacheService.getChannelById(batch.getChannelId()) : null;
+        ChannelHandler handler = channel != null ? handlerFactory.getHandler(channel.getType()) : null;
+        if (template == null || handler == null) {
+            log.warn("批次、模板或渠道已不存在，放弃重试: batchId={}, count={}", batchId, details.size());
+            return;
+        }
+        Map<String, Object> params = batch.getContentParams() != null ? JSON.parseObject(batch.getContentParams()) : null;
+        params = shortLinkRewriter.rewrite(template, params, batch);
+        template = shortLinkRewriter.rewrite(template, batch);
+        ChannelRouter.Route route = channelRouter.resolve(template, channel, handler);
+        // 渠道组内所有渠道仍在熔断期，不计重试次数，顺延到最早恢复的渠道可试探时
+        if (route.isOpen()) {
+            retryQueue.scheduleAt(details.stream().filter(this::canPark).map(LogMsgDetail::getId).toList(),
+                    route.retryAtMillis());
+            return;
+        }
+
+        List<LogMsgDetail> claimed = claimForRetry(details);
+        if (claimed.isEmpty()) {
+            return;
+        }
+        try {
+            sendClaimed(batchId, claimed, route, params);
+        } catch (RuntimeException e) {
+            // 认领后发送异常，恢复为失败状态，由调用方重新入队
+            LambdaUpdateWrapper<LogMsgDetail> release = new LambdaUpdateWrapper<>();
+            release.in(LogMsgDetail::getId, claimed.stream().map(LogMsgDetail::getId).toList())
+                    .eq(LogMsgDetail::getStatus, DetailStatus.SENDING.getCode())
+                    .set(LogMsgDetail::getStatus, DetailStatus.FAIL.getCode());
+            detailMapper.update(null, release);
+            throw e;
+        }
+    }
+
+    /**
+     * 逐条认领待重试明细 (失败 -> 发送中)，多节点同时重试同一明细时只有一个节点认领成功；
+     * 发送中超过租约时长的明细视为重试中途宕机遗留，允许重新认领
+     *
+     * @return 认领成功的明细
+     */
+    private List<LogMsgDetail> claimForRetry(List<LogMsgDetail> details) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusNanos(TimeUnit.MILLISECONDS.toNanos(dispatchProperties.getRetry().getLeaseMillis()));
+        List<LogMsgDetail> claimed = new ArrayList<>(details.size());
+        for (LogMsgDetail detail : details) {
+            LambdaUpdateWrapper<LogMsgDetail> claim = new LambdaUpdateWrapper<>();
+            claim.eq(LogMsgDetail::getId, detail.getId())
+                    .and(w -> w.eq(LogMsgDetail::getStatus, DetailStatus.FAIL.getCode())
+                            .or(s -> s.eq(LogMsgDetail::getStatus, DetailStatus.SENDING.getCode())
+                                    .lt(LogMsgDetail::getSendTime, staleBefore)))
+                    .set(LogMsgDetail::getStatus, DetailStatus.SENDING.getCode())
+                    .set(LogMsgDetail::getSendTime, now);
+            if (detailMapper.update(null, claim) > 0) {
+                detail.setStatus(DetailStatus.SENDING.getCode());
+                detail.setSendTime(now);
+                claimed.add(detail);
+            }
+        }
+        if (claimed.size() < details.size()) {
+            log.info("明细已被其他节点重试，跳过: count={}", details.size() - claimed.size());
+        }
+        return claimed;
+    }
+
+    private void sendClaimed(Long batchId, List<LogMsgDetail> details, ChannelRouter.Route route, Map<String, Object> params) {
+        for (LogMsgDetail detail : details) {
+            detail.setErrorMsg("");
+            detail.setChannelId(null);
+        }
+        // 只有实际调用到渠道处理器的明细计入重试次数，被熔断、限流拦截的不占用重试额度
+        for (LogMsgDetail detail : dispatchWithFailover(details, route, params)) {
+            detail.setRetryCount((detail.getRetryCount() != null ? detail.getRetryCount() : 0) + 1);
+        }
+
+        int success = 0;
+        for (LogMsgDetail detail : details) {
+            if (DetailStatus.SUCCESS.getCode().equals(detail.getStatus())) {
+                success++;
+            }
+        }
+        // 重试成功的明细从失败数转入成功数
+        int successDelta = success;
+        transactionTemplate.executeWithoutResult(status -> {
+            Db.updateBatchById(details);
+            if (successDelta > 0) {
+                batchMapper.updateStats(batchId, successDelta, -successDelta);
+            }
+        });
+
+        if (success > 0) {
+            refreshBatchStatus(batchId);
+        }
+        scheduleRetries(details, route);
+    }
+
+    /**
+     * 重试改变统计后重新计算已结束批次的状态 (只更新状态字段，统计字段只做增量更新)
+     */
+    private void refreshBatchStatus(Long batchId) {
+        LogMsgBatch batch = batchMapper.selectById(batchId);
+        if (batch == null || BatchStatus.PENDING.getCode().equals(batch.getStatus())) {
+            return;
+        }
+        int fail = batch.getFailCount() != null ? batch.getFailCount() : 0;
+        int success = batch.getSuccessCount() != null ? batch.getSuccessCount() : 0;
+        Integer status = resolveBatchStatus(success, fail);
+        if (status.equals(batch.getStatus())) {
+            return;
+        }
+        LambdaUpdateWrapper<LogMsgBatch> update = new LambdaUpdateWrapper<>();
+        update.eq(LogMsgBatch::getId, batchId).set(LogMsgBatch::getStatus, status);
+        batchMapper.update(null, update);
     }
 }
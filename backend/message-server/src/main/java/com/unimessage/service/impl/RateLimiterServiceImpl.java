@@ -38,7 +38,42 @@ public class RateLimiterServiceImpl implements RateLimiterService {
                     "else " +
                     "    return 1 " +
                     "end";
+    /**
+     * Lua脚本实现令牌桶 (以 Redis 服务器时间计算补充量，避免节点时钟偏差)
+     * KEYS[1]: 令牌桶Key
+     * ARGV[1]: 每秒生成令牌数
+     * ARGV[2]: 桶容量
+     * ARGV[3]: 期望获取的令牌数
+     * 返回: 获取到的令牌数，或 -等待毫秒数
+     */
+    private static final String TOKEN_BUCKET_LUA_SCRIPT =
+            "local key = KEYS[1] " +
+                    "local rate = tonumber(ARGV[1]) " +
+                    "local burst = tonumber(ARGV[2]) " +
+                    "local requested = tonumber(ARGV[3]) " +
+                    "local time = redis.call('TIME') " +
+                    "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+                    "local state = redis.call('HMGET', key, 'tokens', 'ts') " +
+                    "local tokens = tonumber(state[1]) " +
+                    "local ts = tonumber(state[2]) " +
+                    "if tokens == nil or ts == nil then " +
+                    "    tokens = burst " +
+                    "    ts = now " +
+                    "end " +
+                    "tokens = math.min(burst, tokens + math.max(0, now - ts) * rate / 1000) " +
+                    "local granted = math.min(requested, math.floor(tokens)) " +
+                    "local result " +
+                    "if granted > 0 then " +
+                    "    tokens = tokens - granted " +
+                    "    result = granted " +
+                    "else " +
+                    "    result = -math.max(1, math.ceil((1 - tokens) * 1000 / rate)) " +
+                    "end " +
+                    "redis.call('HSET', key, 'tokens', tostring(tokens), 'ts', tostring(now)) " +
+                    "redis.call('PEXPIRE', key, math.ceil(burst * 1000 / rate) + 1000) " +
+                    "return result";
     private final DefaultRedisScript<Long> redisScript;
+    private final DefaultRedisScript<Long> tokenBucketScript;
 
     @Resource
     private CacheService cacheService;
@@ -47,6 +82,10 @@ public class RateLimiterServiceImpl implements RateLimiterService {
         redisScript = new DefaultRedisScript<>();
         redisScript.setScriptText(LUA_SCRIPT);
         redisScript.setResultType(Long.class);
+
+        tokenBucketScript = new DefaultRedisScript<>();
+        tokenBucketScript.setScriptText(TOKEN_BUCKET_LUA_SCRIPT);
+        tokenBucketScript.setResultType(Long.class);
     }
 
     @Override
@@ -63,4 +102,20 @@ public class RateLimiterServiceImpl implements RateLimiterService {
             return true;
         }
     }
+
+    @Override
+    public long acquireTokens(String key, double ratePerSecond, int burst, int requested) {
+        if (ratePerSecond <= 0 || requested <= 0) {
+            return requested;
+        }
+        try {
+            Long result = cacheService.getRedisUtil().execute(tokenBucketScript, Collections.singletonList(key),
+                    String.valueOf(ratePerSecond), String.valueOf(Math.max(1, burst)), String.valueOf(requested));
+            return result != null ? result : requested;
+        } catch (Exception e) {
+            log.error("Token bucket acquire failed", e);
+            // 降级策略：与固定窗口限流一致，Redis 不可用时放行
+            return requested;
+        }
+    }
 }
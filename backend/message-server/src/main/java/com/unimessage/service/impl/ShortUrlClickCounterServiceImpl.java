@@ -0,0 +1,142 @@
+package com.unimessage.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.unimessage.cache.CacheService;
+import com.unimessage.config.ShortUrlProperties;
+import com.unimessage.constant.CacheKeyConstants;
+import com.unimessage.entity.ShortUrl;
+import com.unimessage.entity.ShortUrlClickCounter;
+import com.unimessage.mapper.ShortUrlClickCounterMapper;
+import com.unimessage.service.ShortUrlClickCounterService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 短链接点击计数服务实现
+ * 每个短链码的点击数分散在多个槽位行上，每次累加随机选择一个槽位，
+ * 热门短链的并发更新不再集中在同一行锁上；读取时对各槽位求和，并在 Redis 中短暂缓存合计值。
+ * 累计点击数 = short_url.click_count (历史计数) + 各槽位之和
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class ShortUrlClickCounterServiceImpl implements ShortUrlClickCounterService {
+
+    /**
+     * 单条 INSERT 最多累加的短链数
+     */
+    private static final int MAX_ROWS_PER_INSERT = 500;
+
+    @Resource
+    private ShortUrlClickCounterMapper counterMapper;
+    @Resource
+    private CacheService cacheService;
+    @Resource
+    private ShortUrlProperties properties;
+
+    @Override
+    public void increment(Map<String, Long> clicks) {
+        if (clicks == null || clicks.isEmpty()) {
+            return;
+        }
+        int slots = Math.max(1, properties.getAccessRecord().getCounterSlots());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<ShortUrlClickCounter> rows = new ArrayList<>(Math.min(clicks.size(), MAX_ROWS_PER_INSERT));
+        for (Map.Entry<String, Long> entry : clicks.entrySet()) {
+            ShortUrlClickCounter row = new ShortUrlClickCounter();
+            row.setShortCode(entry.getKey());
+            row.setSlot(random.nextInt(slots));
+            row.setClicks(entry.getValue());
+            rows.add(row);
+            if (rows.size() >= MAX_ROWS_PER_INSERT) {
+                batchIncrement(rows);
+                rows = new ArrayList<>(MAX_ROWS_PER_INSERT);
+            }
+        }
+        if (!rows.isEmpty()) {
+            batchIncrement(rows);
+        }
+    }
+
+    private void batchIncrement(List<ShortUrlClickCounter> rows) {
+        try {
+            counterMapper.batchIncrement(rows);
+        } catch (Exception e) {
+            log.error("批量累加短链点击数失败: codes={}", rows.size(), e);
+        }
+    }
+
+    @Override
+    public long getTotalClicks(ShortUrl shortUrl) {
+        return getTotalClicks(Collections.singletonList(shortUrl)).getOrDefault(shortUrl.getShortCode(), 0L);
+    }
+
+    @Override
+    public Map<String, Long> getTotalClicks(Collection<ShortUrl> shortUrls) {
+        if (shortUrls == null || shortUrls.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> keys = new ArrayList<>(shortUrls.size());
+        for (ShortUrl shortUrl : shortUrls) {
+            keys.add(cacheKey(shortUrl.getShortCode()));
+        }
+        List<String> cached = cacheService.multiGet(keys);
+
+        // 缓存未命中的短链码一次查询汇总
+        Map<String, Long> counted = new HashMap<>(shortUrls.size() * 2);
+        List<String> missing = new ArrayList<>();
+        int i = 0;
+        for (ShortUrl shortUrl : shortUrls) {
+            String value = cached != null && i < cached.size() ? cached.get(i) : null;
+            i++;
+            if (value != null) {
+                counted.put(shortUrl.getShortCode(), Long.parseLong(value));
+            } else {
+                missing.add(shortUrl.getShortCode());
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, Long> sums = new HashMap<>(missing.size() * 2);
+            for (String shortCode : missing) {
+                sums.put(shortCode, 0L);
+            }
+            for (ShortUrlClickCounter row : counterMapper.sumByShortCodes(missing)) {
+                sums.put(row.getShortCode(), row.getClicks() != null ? row.getClicks() : 0L);
+            }
+            Map<String, String> values = new HashMap<>(sums.size() * 2);
+            Map<String, Long> timeouts = new HashMap<>(sums.size() * 2);
+            long ttl = Math.max(1, properties.getStats().getClickCacheSeconds());
+            sums.forEach((shortCode, sum) -> {
+                values.put(cacheKey(shortCode), String.valueOf(sum));
+                timeouts.put(cacheKey(shortCode), ttl);
+            });
+            cacheService.pipelineSet(values, timeouts);
+            counted.putAll(sums);
+        }
+
+        Map<String, Long> totals = new HashMap<>(shortUrls.size() * 2);
+        for (ShortUrl shortUrl : shortUrls) {
+            long base = shortUrl.getClickCount() != null ? shortUrl.getClickCount() : 0L;
+            totals.put(shortUrl.getShortCode(), base + counted.getOrDefault(shortUrl.getShortCode(), 0L));
+        }
+        return totals;
+    }
+
+    @Override
+    public void delete(String shortCode) {
+        LambdaQueryWrapper<ShortUrlClickCounter> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(ShortUrlClickCounter::getShortCode, shortCode);
+        counterMapper.delete(wrapper);
+        cacheService.delete(cacheKey(shortCode));
+    }
+
+    private String cacheKey(String shortCode) {
+        return cacheService.buildKey(CacheKeyConstants.SHORT_URL_CLICKS, shortCode);
+    }
+}
@@ -2,6 +2,7 @@ package com.unimessage.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.unimessage.cache.CacheService;
+import com.unimessage.cache.LeasedRateLimiter;
 import com.unimessage.config.ShortUrlProperties;
 import com.unimessage.constant.CacheKeyConstants;
 import com.unimessage.entity.ShortUrlIpBlacklist;
@@ -9,16 +10,14 @@ import com.unimessage.mapper.ShortUrlIpBlacklistMapper;
 import com.unimessage.service.ShortUrlRateLimiterService;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 短链接限流服务实现
- * 基于Redis滑动窗口算法
+ * 基于近似滑动窗口 (双窗口加权计数)，各节点从Redis租借配额在本地计数
  *
  * @author 海明
  * @since 2026-01-14
@@ -28,29 +27,9 @@ import java.util.concurrent.TimeUnit;
 public class ShortUrlRateLimiterServiceImpl implements ShortUrlRateLimiterService {
 
     /**
-     * 滑动窗口限流Lua脚本
-     * KEYS[1]: 限流Key
-     * ARGV[1]: 窗口大小(毫秒)
-     * ARGV[2]: 最大请求数
-     * ARGV[3]: 当前时间戳(毫秒)
+     * 限流窗口 (1分钟)
      */
-    private static final String SLIDING_WINDOW_SCRIPT =
-            "local key = KEYS[1] " +
-                    "local window = tonumber(ARGV[1]) " +
-                    "local limit = tonumber(ARGV[2]) " +
-                    "local now = tonumber(ARGV[3]) " +
-                    "local clearBefore = now - window " +
-                    "redis.call('ZREMRANGEBYSCORE', key, 0, clearBefore) " +
-                    "local count = redis.call('ZCARD', key) " +
-                    "if count < limit then " +
-                    "    redis.call('ZADD', key, now, now .. '-' .. math.random()) " +
-                    "    redis.call('EXPIRE', key, math.ceil(window / 1000) + 1) " +
-                    "    return 1 " +
-                    "else " +
-                    "    return 0 " +
-                    "end";
-
-    private final DefaultRedisScript<Long> slidingWindowScript;
+    private static final long WINDOW_MILLIS = 60 * 1000L;
 
     @Resource
     private CacheService cacheService;
@@ -61,11 +40,8 @@ public class ShortUrlRateLimiterServiceImpl implements ShortUrlRateLimiterServic
     @Resource
     private ShortUrlIpBlacklistMapper blacklistMapper;
 
-    public ShortUrlRateLimiterServiceImpl() {
-        slidingWindowScript = new DefaultRedisScript<>();
-        slidingWindowScript.setScriptText(SLIDING_WINDOW_SCRIPT);
-        slidingWindowScript.setResultType(Long.class);
-    }
+    @Resource
+    private LeasedRateLimiter leasedRateLimiter;
 
     @Override
     public boolean checkIpRateLimit(String ip) {
@@ -74,24 +50,9 @@ public class ShortUrlRateLimiterServiceImpl implements ShortUrlRateLimiterServic
         }
 
         String key = cacheService.buildKey(CacheKeyConstants.SHORT_URL_RATE_LIMIT_IP, ip);
-        // 1分钟窗口
-        long windowMs = 60 * 1000L;
         int limit = properties.getRateLimit().getMaxRequestsPerMinute();
-
-        try {
-            Long result = cacheService.getRedisUtil().execute(
-                    slidingWindowScript,
-                    Collections.singletonList(key),
-                    String.valueOf(windowMs),
-                    String.valueOf(limit),
-                    String.valueOf(System.currentTimeMillis())
-            );
-            return result != null && result == 1L;
-        } catch (Exception e) {
-            log.error("IP限流检查失败", e);
-            // 降级策略：Redis故障时放行
-            return true;
-        }
+        int chunk = Math.max(leaseChunk(limit), properties.getRateLimit().getIpMinLeaseChunk());
+        return leasedRateLimiter.tryAcquire(key, limit, WINDOW_MILLIS, chunk);
     }
 
     @Override
@@ -100,22 +61,16 @@ public class ShortUrlRateLimiterServiceImpl implements ShortUrlRateLimiterServic
             return true;
         }
 
-        long windowMs = 60 * 1000L;
         int limit = properties.getRateLimit().getGlobalMaxRequestsPerMinute();
+        return leasedRateLimiter.tryAcquire(CacheKeyConstants.SHORT_URL_RATE_LIMIT_GLOBAL, limit, WINDOW_MILLIS,
+                leaseChunk(limit));
+    }
 
-        try {
-            Long result = cacheService.getRedisUtil().execute(
-                    slidingWindowScript,
-                    Collections.singletonList(CacheKeyConstants.SHORT_URL_RATE_LIMIT_GLOBAL),
-                    String.valueOf(windowMs),
-                    String.valueOf(limit),
-                    String.valueOf(System.currentTimeMillis())
-            );
-            return result != null && result == 1L;
-        } catch (Exception e) {
-            log.error("全局限流检查失败", e);
-            return true;
-        }
+    /**
+     * 单次租借的配额块大小
+     */
+    private int leaseChunk(int limit) {
+        return (int) Math.max(1, Math.ceil(limit * properties.getRateLimit().getLeaseRatio()));
     }
 
     @Override
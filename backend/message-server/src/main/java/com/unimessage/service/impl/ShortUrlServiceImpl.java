@@ -3,6 +3,8 @@ package com.unimessage.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.unimessage.cache.CacheService;
+import com.unimessage.cache.ShortUrlAccessBuffer;
+import com.unimessage.cache.ShortUrlLocalCache;
 import com.unimessage.config.ShortUrlProperties;
 import com.unimessage.constant.CacheKeyConstants;
 import com.unimessage.dto.ShortUrlCreateRequest;
@@ -10,20 +12,26 @@ import com.unimessage.dto.ShortUrlResponse;
 import com.unimessage.dto.ShortUrlStatsResponse;
 import com.unimessage.entity.ShortUrl;
 import com.unimessage.entity.ShortUrlAccessLog;
-import com.unimessage.mapper.ShortUrlAccessLogMapper;
 import com.unimessage.mapper.ShortUrlMapper;
+import com.unimessage.service.IdSegmentService;
+import com.unimessage.service.ShortUrlClickCounterService;
 import com.unimessage.service.ShortUrlService;
+import com.unimessage.service.ShortUrlStatsService;
 import com.unimessage.util.Base62Util;
+import com.unimessage.util.IdPermutation;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
  * 短链接服务实现
@@ -44,19 +52,37 @@ public class ShortUrlServiceImpl implements ShortUrlService {
     );
     private static final Pattern SHORT_CODE_PATTERN = Pattern.compile("^[a-zA-Z0-9]{4,10}$");
     private static final int MAX_RETRY = 5;
+    private static final int SHORT_CODE_MIN_LENGTH = 4;
+    private static final int SHORT_CODE_MAX_LENGTH = 10;
+    private static final String CODE_GENERATOR_SEGMENT = "segment";
+    private static final String SHORT_URL_BIZ_TAG = "short_url";
+    private static final int BATCH_INSERT_SIZE = 1000;
+    private static final int BATCH_QUERY_SIZE = 500;
 
     @Resource
     private ShortUrlMapper shortUrlMapper;
 
-    @Resource
-    private ShortUrlAccessLogMapper accessLogMapper;
-
     @Resource
     private CacheService cacheService;
 
     @Resource
     private ShortUrlProperties properties;
 
+    @Resource
+    private ShortUrlLocalCache shortUrlLocalCache;
+
+    @Resource
+    private ShortUrlAccessBuffer shortUrlAccessBuffer;
+
+    @Resource
+    private ShortUrlStatsService shortUrlStatsService;
+
+    @Resource
+    private ShortUrlClickCounterService shortUrlClickCounterService;
+
+    @Resource
+    private IdSegmentService idSegmentService;
+
     @Override
     public ShortUrlResponse createShortUrl(ShortUrlCreateRequest request, Long createdBy) {
         // 1. 校验URL有效性
@@ -73,63 +99,156 @@ public class ShortUrlServiceImpl implements ShortUrlService {
             throw new IllegalArgumentException("该URL已存在");
         }
 
-        // 3. 生成短链码
-        String shortCode;
+        // 3. 校验自定义短链码 (是否占用由唯一索引判断)
+        String customCode = null;
         if (request.getCustomCode() != null && !request.getCustomCode().isBlank()) {
-            shortCode = request.getCustomCode().trim();
-            // 校验格式
-            if (!SHORT_CODE_PATTERN.matcher(shortCode).matches()) {
+            customCode = request.getCustomCode().trim();
+            if (!SHORT_CODE_PATTERN.matcher(customCode).matches()) {
                 throw new IllegalArgumentException("自定义短链码只能包含字母和数字，长度4-10位");
             }
-            if (getByShortCode(shortCode) != null) {
-                throw new IllegalArgumentException("该短链码已被使用");
+        }
+
+        // 4. 生成短链码并保存到数据库 (利用唯一索引防止重复，冲突时换码重试)
+        ShortUrl shortUrl = buildShortUrl(request, createdBy, LocalDateTime.now());
+        insertWithRetry(shortUrl, customCode);
+        String shortCode = shortUrl.getShortCode();
+
+        // 5. 缓存到Redis，并同步到各节点布隆过滤器
+        cacheShortUrl(shortUrl);
+        shortUrlLocalCache.onCreated(shortCode);
+
+        return buildResponse(shortUrl);
+    }
+
+    @Override
+    public List<ShortUrlResponse> batchCreateShortUrls(List<ShortUrlCreateRequest> requests, Long createdBy) {
+        // 1. 校验
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("URL列表不能为空");
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            ShortUrlCreateRequest request = requests.get(i);
+            if (request == null || request.getUrl() == null || !isValidUrl(request.getUrl())) {
+                throw new IllegalArgumentException("第" + (i + 1) + "条URL格式无效");
+            }
+            if (request.getCustomCode() != null && !request.getCustomCode().isBlank()) {
+                throw new IllegalArgumentException("批量创建不支持自定义短链码");
             }
-        } else {
-            shortCode = generateUniqueCode();
         }
 
-        // 4. 计算过期时间
-        LocalDateTime expireAt = null;
-        long ttl = request.getTtl() != null ? request.getTtl() : properties.getDefaultTtl();
-        if (ttl > 0) {
-            expireAt = LocalDateTime.now().plusSeconds(ttl);
+        // 2. 已存在且有效期覆盖本次请求的短链直接复用 (重试请求不会重复创建)，批次内相同URL只创建一次
+        Map<String, ShortUrl> byUrl = findActiveByOriginalUrls(
+                requests.stream().map(ShortUrlCreateRequest::getUrl).distinct().toList());
+        LocalDateTime now = LocalDateTime.now();
+        List<ShortUrl> results = new ArrayList<>(requests.size());
+        List<ShortUrl> created = new ArrayList<>();
+        for (ShortUrlCreateRequest request : requests) {
+            ShortUrl shortUrl = byUrl.get(request.getUrl());
+            if (shortUrl == null || !coversExpireAt(shortUrl.getExpireAt(), calcExpireAt(request, now))) {
+                shortUrl = buildShortUrl(request, createdBy, now);
+                shortUrl.setShortCode(generateCode());
+                created.add(shortUrl);
+                byUrl.merge(request.getUrl(), shortUrl, (a, b) -> coversExpireAt(a.getExpireAt(), b.getExpireAt()) ? a : b);
+            }
+            results.add(shortUrl);
+        }
+
+        // 3. 多行插入，与存量短链码冲突时该批逐条插入并换码
+        for (int i = 0; i < created.size(); i += BATCH_INSERT_SIZE) {
+            List<ShortUrl> chunk = created.subList(i, Math.min(i + BATCH_INSERT_SIZE, created.size()));
+            try {
+                shortUrlMapper.insertBatch(chunk);
+            } catch (DuplicateKeyException e) {
+                log.warn("批量插入短链码冲突，逐条插入: size={}", chunk.size());
+                for (ShortUrl shortUrl : chunk) {
+                    insertWithRetry(shortUrl, null);
+                }
+            }
         }
 
-        // 5. 保存到数据库 (利用唯一索引防止并发重复)
+        // 4. Pipeline 写入Redis缓存，并同步到各节点布隆过滤器
+        cacheShortUrls(created);
+        shortUrlLocalCache.onCreated(created.stream().map(ShortUrl::getShortCode).toList());
+
+        return results.stream().map(this::buildResponse).toList();
+    }
+
+    private ShortUrl buildShortUrl(ShortUrlCreateRequest request, Long createdBy, LocalDateTime now) {
         ShortUrl shortUrl = new ShortUrl();
-        shortUrl.setShortCode(shortCode);
         shortUrl.setOriginalUrl(request.getUrl());
         shortUrl.setCreatedBy(createdBy);
         shortUrl.setClickCount(0L);
         shortUrl.setStatus(1);
-        shortUrl.setExpireAt(expireAt);
-        shortUrl.setCreatedAt(LocalDateTime.now());
-
-        try {
-            shortUrlMapper.insert(shortUrl);
-        } catch (org.springframework.dao.DuplicateKeyException e) {
-            // 并发冲突，重新生成
-            log.warn("短链码冲突，重新生成: {}", shortCode);
-            return createShortUrl(request, createdBy);
-        }
+        shortUrl.setExpireAt(calcExpireAt(request, now));
+        shortUrl.setCreatedAt(now);
+        return shortUrl;
+    }
 
-        // 6. 缓存到Redis
-        cacheShortUrl(shortUrl);
+    /**
+     * 计算过期时间
+     *
+     * @return 永不过期返回 null
+     */
+    private LocalDateTime calcExpireAt(ShortUrlCreateRequest request, LocalDateTime now) {
+        long ttl = request.getTtl() != null ? request.getTtl() : properties.getDefaultTtl();
+        return ttl > 0 ? now.plusSeconds(ttl) : null;
+    }
 
-        return buildResponse(shortUrl);
+    /**
+     * 过期时间 expireAt 是否不早于 required (null 表示永不过期)
+     */
+    private static boolean coversExpireAt(LocalDateTime expireAt, LocalDateTime required) {
+        return expireAt == null || (required != null && !expireAt.isBefore(required));
+    }
+
+    /**
+     * 插入短链，短链码冲突时重新生成 (自定义短链码冲突直接失败)
+     */
+    private void insertWithRetry(ShortUrl shortUrl, String customCode) {
+        for (int i = 0; i < MAX_RETRY; i++) {
+            String candidate = customCode != null ? customCode
+                    : (i == 0 && shortUrl.getShortCode() != null ? shortUrl.getShortCode() : generateCode());
+            shortUrl.setShortCode(candidate);
+            try {
+                shortUrlMapper.insert(shortUrl);
+                return;
+            } catch (DuplicateKeyException e) {
+                if (customCode != null) {
+                    throw new IllegalArgumentException("该短链码已被使用");
+                }
+                log.warn("短链码冲突，重新生成: {}", candidate);
+            }
+        }
+        throw new IllegalStateException("短链码生成失败，请重试");
     }
 
     @Override
     public String getOriginalUrl(String shortCode) {
-        // 1. 先从Redis缓存获取
+        // 0. 本地热点缓存命中直接返回
+        String localUrl = shortUrlLocalCache.get(shortCode);
+        if (localUrl != null) {
+            return localUrl;
+        }
+        // 布隆过滤器通过 Pub/Sub 同步，通知丢失时可能误判新建短链不存在，仍查一次 Redis (新建时已写入)
+        boolean bloomRejected = !shortUrlLocalCache.mightExist(shortCode);
+
+        // 1. 再从Redis缓存获取
         String cacheKey = cacheService.buildKey(CacheKeyConstants.SHORT_URL, shortCode);
         String cachedUrl = cacheService.get(cacheKey);
         if (cachedUrl != null) {
             if ("NULL".equals(cachedUrl)) {
                 return null;
             }
+            Long ttl = cacheService.getExpire(cacheKey, TimeUnit.MILLISECONDS);
+            if (ttl != null && ttl > 0) {
+                shortUrlLocalCache.put(shortCode, cachedUrl, System.currentTimeMillis() + ttl);
+            }
             return cachedUrl;
         }
+        if (bloomRejected) {
+            // 布隆过滤器判定不存在：不查数据库，也不写空值
+            return null;
+        }
 
         // 2. 从数据库获取
         ShortUrl shortUrl = getByShortCode(shortCode);
@@ -147,6 +266,7 @@ public class ShortUrlServiceImpl implements ShortUrlService {
 
         // 4. 缓存并返回
         cacheShortUrl(shortUrl);
+        shortUrlLocalCache.put(shortUrl);
         return shortUrl.getOriginalUrl();
     }
 
@@ -162,23 +282,15 @@ public class ShortUrlServiceImpl implements ShortUrlService {
     }
 
     @Override
-    @Async("shortUrlAsyncExecutor")
     public void recordAccess(String shortCode, String ip, String userAgent, String referer) {
-        try {
-            // 1. 增加点击量
-            shortUrlMapper.incrementClickCount(shortCode);
-
-            // 2. 记录访问日志
-            ShortUrlAccessLog accessLog = new ShortUrlAccessLog();
-            accessLog.setShortCode(shortCode);
-            accessLog.setIp(ip);
-            accessLog.setUserAgent(truncate(userAgent, 500));
-            accessLog.setReferer(truncate(referer, 500));
-            accessLog.setAccessTime(LocalDateTime.now());
-            accessLogMapper.insert(accessLog);
-        } catch (Exception e) {
-            log.error("记录访问日志失败: shortCode={}, ip={}", shortCode, ip, e);
-        }
+        // 写入访问记录缓冲，由后台线程聚合点击量并批量写入访问日志
+        ShortUrlAccessLog accessLog = new ShortUrlAccessLog();
+        accessLog.setShortCode(shortCode);
+        accessLog.setIp(ip);
+        accessLog.setUserAgent(truncate(userAgent, 500));
+        accessLog.setReferer(truncate(referer, 500));
+        accessLog.setAccessTime(LocalDateTime.now());
+        shortUrlAccessBuffer.offer(accessLog);
     }
 
     @Override
@@ -188,32 +300,22 @@ public class ShortUrlServiceImpl implements ShortUrlService {
             return null;
         }
 
-        // 查询今日点击量
-        LambdaQueryWrapper<ShortUrlAccessLog> todayWrapper = new LambdaQueryWrapper<>();
-        todayWrapper.eq(ShortUrlAccessLog::getShortCode, shortCode)
-                .ge(ShortUrlAccessLog::getAccessTime, LocalDateTime.now().toLocalDate().atStartOfDay());
-        Long todayClicks = accessLogMapper.selectCount(todayWrapper);
-
-        // 查询最近10条访问记录
-        LambdaQueryWrapper<ShortUrlAccessLog> recentWrapper = new LambdaQueryWrapper<>();
-        recentWrapper.eq(ShortUrlAccessLog::getShortCode, shortCode)
-                .orderByDesc(ShortUrlAccessLog::getAccessTime)
-                .last("LIMIT 10");
-        List<ShortUrlAccessLog> recentLogs = accessLogMapper.selectList(recentWrapper);
-
-        List<ShortUrlStatsResponse.AccessRecord> recentAccess = recentLogs.stream()
-                .map(log -> ShortUrlStatsResponse.AccessRecord.builder()
-                        .ip(log.getIp())
-                        .userAgent(log.getUserAgent())
-                        .accessTime(log.getAccessTime())
-                        .build())
-                .collect(Collectors.toList());
+        // 统计均读取汇总数据 (按主键查询，与访问量无关)
+        LocalDateTime now = LocalDateTime.now();
+        ShortUrlStatsResponse.DailyStats today = shortUrlStatsService.getDailyStats(shortCode, now.toLocalDate());
+        List<ShortUrlStatsResponse.HourlyStats> hourlyStats = shortUrlStatsService.listHourlyStats(shortCode,
+                now.truncatedTo(ChronoUnit.HOURS).minusHours(23), now);
+        List<ShortUrlStatsResponse.AccessRecord> recentAccess = shortUrlStatsService.getRecentAccess(shortCode);
 
         return ShortUrlStatsResponse.builder()
                 .shortCode(shortCode)
                 .originalUrl(shortUrl.getOriginalUrl())
-                .totalClicks(shortUrl.getClickCount())
-                .todayClicks(todayClicks)
+                .totalClicks(shortUrlClickCounterService.getTotalClicks(shortUrl))
+                .todayClicks(today.getClicks())
+                .todayUniqueIps(today.getUniqueIps())
+                .topReferers(today.getTopReferers())
+                .uaFamilies(today.getUaFamilies())
+                .hourlyStats(hourlyStats)
                 .createdAt(shortUrl.getCreatedAt())
                 .recentAccess(recentAccess)
                 .build();
@@ -228,6 +330,7 @@ public class ShortUrlServiceImpl implements ShortUrlService {
 
         if (rows > 0) {
             cacheService.delete(cacheService.buildKey(CacheKeyConstants.SHORT_URL, shortCode));
+            shortUrlLocalCache.evict(shortCode);
         }
         return rows > 0;
     }
@@ -240,6 +343,8 @@ public class ShortUrlServiceImpl implements ShortUrlService {
 
         if (rows > 0) {
             cacheService.delete(cacheService.buildKey(CacheKeyConstants.SHORT_URL, shortCode));
+            shortUrlLocalCache.evict(shortCode);
+            shortUrlClickCounterService.delete(shortCode);
         }
         return rows > 0;
     }
@@ -259,25 +364,58 @@ public class ShortUrlServiceImpl implements ShortUrlService {
         return shortUrlMapper.selectOne(wrapper);
     }
 
-    private String generateUniqueCode() {
-        for (int i = 0; i < MAX_RETRY; i++) {
-            String code = Base62Util.randomCode(properties.getCodeLength());
-            if (getByShortCode(code) == null) {
-                return code;
+    /**
+     * 按原始URL批量查询有效且未过期的短链
+     *
+     * @return 原始URL -> 短链 (同一URL有多条时取过期时间最晚的，相同时取最新创建的)
+     */
+    private Map<String, ShortUrl> findActiveByOriginalUrls(List<String> originalUrls) {
+        Map<String, ShortUrl> result = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < originalUrls.size(); i += BATCH_QUERY_SIZE) {
+            LambdaQueryWrapper<ShortUrl> wrapper = new LambdaQueryWrapper<>();
+            wrapper.in(ShortUrl::getOriginalUrl, originalUrls.subList(i, Math.min(i + BATCH_QUERY_SIZE, originalUrls.size())))
+                    .eq(ShortUrl::getStatus, 1)
+                    .and(w -> w.isNull(ShortUrl::getExpireAt).or().gt(ShortUrl::getExpireAt, now))
+                    .orderByAsc(ShortUrl::getCreatedAt);
+            for (ShortUrl shortUrl : shortUrlMapper.selectList(wrapper)) {
+                result.merge(shortUrl.getOriginalUrl(), shortUrl,
+                        (a, b) -> coversExpireAt(b.getExpireAt(), a.getExpireAt()) ? b : a);
             }
-            log.debug("短链码冲突，重试第{}次: {}", i + 1, code);
         }
-        // 如果随机生成冲突，使用雪花算法思路：时间戳后几位 + 随机数，确保长度不超过10位
-        // 取后8位数字编码
-        String timestamp = Base62Util.encode(System.currentTimeMillis() % 100000000L);
-        String random = Base62Util.randomCode(2);
-        String fallbackCode = timestamp + random;
-        // 确保长度在4-10之间
-        if (fallbackCode.length() > 10) {
-            fallbackCode = fallbackCode.substring(0, 10);
+        return result;
+    }
+
+    /**
+     * 生成短链码
+     * segment 模式: 号段分配全局唯一ID，置换后按 Base62 编码，不查库；
+     * random 模式: 随机码，冲突由唯一索引兜底
+     */
+    private String generateCode() {
+        if (!CODE_GENERATOR_SEGMENT.equalsIgnoreCase(properties.getCodeGenerator())) {
+            return Base62Util.randomCode(properties.getCodeLength());
+        }
+        long id = idSegmentService.nextId(SHORT_URL_BIZ_TAG);
+        // ID 超出当前长度可表示范围时自动增加长度
+        int length = Math.max(SHORT_CODE_MIN_LENGTH, Math.min(properties.getCodeLength(), SHORT_CODE_MAX_LENGTH));
+        long domain = pow62(length);
+        while (id >= domain && length < SHORT_CODE_MAX_LENGTH) {
+            length++;
+            domain = pow62(length);
+        }
+        if (id >= domain) {
+            throw new IllegalStateException("短链码ID已耗尽");
+        }
+        long value = properties.isCodeShuffle() ? IdPermutation.permute(id, domain, properties.getCodeSecret()) : id;
+        return Base62Util.encode(value, length);
+    }
+
+    private static long pow62(int length) {
+        long result = 1;
+        for (int i = 0; i < length; i++) {
+            result *= 62;
         }
-        log.info("使用降级方案生成短链码: {}", fallbackCode);
-        return fallbackCode;
+        return result;
     }
 
     private void cacheShortUrl(ShortUrl shortUrl) {
@@ -293,6 +431,26 @@ public class ShortUrlServiceImpl implements ShortUrlService {
         }
     }
 
+    /**
+     * 批量缓存短链 (Pipeline 一次写入)
+     */
+    private void cacheShortUrls(List<ShortUrl> shortUrls) {
+        Map<String, String> values = new HashMap<>(shortUrls.size() * 2);
+        Map<String, Long> timeouts = new HashMap<>(shortUrls.size() * 2);
+        LocalDateTime now = LocalDateTime.now();
+        for (ShortUrl shortUrl : shortUrls) {
+            long ttl = shortUrl.getExpireAt() != null
+                    ? java.time.Duration.between(now, shortUrl.getExpireAt()).getSeconds()
+                    : TimeUnit.HOURS.toSeconds(24);
+            if (ttl > 0) {
+                String cacheKey = cacheService.buildKey(CacheKeyConstants.SHORT_URL, shortUrl.getShortCode());
+                values.put(cacheKey, shortUrl.getOriginalUrl());
+                timeouts.put(cacheKey, ttl);
+            }
+        }
+        cacheService.pipelineSet(values, timeouts);
+    }
+
     private ShortUrlResponse buildResponse(ShortUrl shortUrl) {
         return ShortUrlResponse.builder()
                 .shortCode(shortUrl.getShortCode())
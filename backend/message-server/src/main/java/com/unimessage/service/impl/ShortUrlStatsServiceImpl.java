@@ -0,0 +1,503 @@
+package com.unimessage.service.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.unimessage.cache.CacheService;
+import com.unimessage.config.ShortUrlProperties;
+import com.unimessage.constant.CacheKeyConstants;
+import com.unimessage.dto.ShortUrlStatsResponse;
+import com.unimessage.entity.ShortUrlAccessLog;
+import com.unimessage.entity.ShortUrlStatsDaily;
+import com.unimessage.entity.ShortUrlStatsHourly;
+import com.unimessage.mapper.ShortUrlAccessLogMapper;
+import com.unimessage.mapper.ShortUrlStatsDailyMapper;
+import com.unimessage.mapper.ShortUrlStatsHourlyMapper;
+import com.unimessage.service.ShortUrlStatsService;
+import com.unimessage.util.UserAgentUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * 短链接统计汇总服务实现
+ * 访问日志写入时增量累加到小时/每日统计表，统计查询只按 (短链码, 时间) 主键读取汇总行，
+ * 与短链访问量无关。独立IP、来源域名、浏览器分布分别使用 Redis HyperLogLog/ZSET/HASH 按天累计，
+ * 每次累加后将最新快照写回每日统计表；原始访问日志按保留天数定期清理
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class ShortUrlStatsServiceImpl implements ShortUrlStatsService {
+
+    /**
+     * 统计累加Lua脚本 (同一短链的Key使用相同 hash tag，集群模式下位于同一槽位)
+     * KEYS[1]: 小时独立IP (HyperLogLog)
+     * KEYS[2]: 当日独立IP (HyperLogLog)
+     * KEYS[3]: 当日来源域名 (ZSET)
+     * KEYS[4]: 当日浏览器类型 (HASH)
+     * KEYS[5]: 最近访问记录 (LIST)
+     * ARGV[1]: 统计Key过期时间(秒)
+     * ARGV[2]: 最近访问记录过期时间(秒)
+     * ARGV[3]: 来源域名 Top N
+     * ARGV[4]: 最近访问记录条数
+     * ARGV[5..]: IP数量, IP..., 来源数量, (域名, 次数)..., 浏览器数量, (类型, 次数)..., 访问记录数量, 访问记录...
+     * 返回: {小时独立IP数, 当日独立IP数, 来源域名TopN(域名, 次数...), 浏览器分布(类型, 次数...)}
+     */
+    private static final String ROLLUP_SCRIPT =
+            "local ttl = tonumber(ARGV[1]) " +
+                    "local recentTtl = tonumber(ARGV[2]) " +
+                    "local topN = tonumber(ARGV[3]) " +
+                    "local recentSize = tonumber(ARGV[4]) " +
+                    "local i = 5 " +
+                    "local n = tonumber(ARGV[i]) " +
+                    "i = i + 1 " +
+                    "for j = 1, n do " +
+                    "    redis.call('PFADD', KEYS[1], ARGV[i]) " +
+                    "    redis.call('PFADD', KEYS[2], ARGV[i]) " +
+                    "    i = i + 1 " +
+                    "end " +
+                    "n = tonumber(ARGV[i]) " +
+                    "i = i + 1 " +
+                    "for j = 1, n do " +
+                    "    redis.call('ZINCRBY', KEYS[3], ARGV[i + 1], ARGV[i]) " +
+                    "    i = i + 2 " +
+                    "end " +
+                    "n = tonumber(ARGV[i]) " +
+                    "i = i + 1 " +
+                    "for j = 1, n do " +
+                    "    redis.call('HINCRBY', KEYS[4], ARGV[i], ARGV[i + 1]) " +
+                    "    i = i + 2 " +
+                    "end " +
+                    "n = tonumber(ARGV[i]) " +
+                    "i = i + 1 " +
+                    "for j = 1, n do " +
+                    "    redis.call('LPUSH', KEYS[5], ARGV[i]) " +
+                    "    i = i + 1 " +
+                    "end " +
+                    "if n > 0 then " +
+                    "    redis.call('LTRIM', KEYS[5], 0, recentSize - 1) " +
+                    "    redis.call('EXPIRE', KEYS[5], recentTtl) " +
+                    "end " +
+                    "for k = 1, 4 do " +
+                    "    if redis.call('EXISTS', KEYS[k]) == 1 then " +
+                    "        redis.call('EXPIRE', KEYS[k], ttl) " +
+                    "    end " +
+                    "end " +
+                    "return {redis.call('PFCOUNT', KEYS[1]), redis.call('PFCOUNT', KEYS[2]), " +
+                    "redis.call('ZREVRANGE', KEYS[3], 0, topN - 1, 'WITHSCORES'), redis.call('HGETALL', KEYS[4])}";
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    /**
+     * Redis 中按天累计的统计保留时间，跨天后仍可补写迟到的访问
+     */
+    private static final long STATS_TTL_SECONDS = TimeUnit.DAYS.toSeconds(2);
+    private static final int UPSERT_BATCH_SIZE = 500;
+    private static final int PURGE_BATCH_SIZE = 5000;
+    private static final String PURGE_THREAD_NAME = "short-url-stats-purger";
+
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> rollupScript;
+
+    @Resource
+    private CacheService cacheService;
+    @Resource
+    private ShortUrlProperties properties;
+    @Resource
+    private ShortUrlStatsHourlyMapper hourlyMapper;
+    @Resource
+    private ShortUrlStatsDailyMapper dailyMapper;
+    @Resource
+    private ShortUrlAccessLogMapper accessLogMapper;
+
+    private ScheduledExecutorService purgeExecutor;
+
+    public ShortUrlStatsServiceImpl() {
+        rollupScript = new DefaultRedisScript<>();
+        rollupScript.setScriptText(ROLLUP_SCRIPT);
+        rollupScript.setResultType(List.class);
+    }
+
+    @PostConstruct
+    public void init() {
+        purgeExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, PURGE_THREAD_NAME);
+            t.setDaemon(true);
+            return t;
+        });
+        purgeExecutor.scheduleWithFixedDelay(this::purgeExpired, 10, 60, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void rollup(List<ShortUrlAccessLog> logs) {
+        if (logs == null || logs.isEmpty()) {
+            return;
+        }
+        // 短链码 -> 小时 -> 增量 (按时间升序，当日快照以最后一个小时为准)
+        Map<String, Map<LocalDateTime, HourDelta>> deltas = new TreeMap<>();
+        for (ShortUrlAccessLog accessLog : logs) {
+            LocalDateTime accessTime = accessLog.getAccessTime() != null ? accessLog.getAccessTime() : LocalDateTime.now();
+            deltas.computeIfAbsent(accessLog.getShortCode(), k -> new TreeMap<>())
+                    .computeIfAbsent(accessTime.truncatedTo(ChronoUnit.HOURS), k -> new HourDelta(accessLog.getShortCode(), k))
+                    .add(accessLog, accessTime);
+        }
+        // 按短链码、小时顺序展开，Redis 累加批量执行
+        List<HourDelta> ordered = new ArrayList<>();
+        deltas.values().forEach(hours -> ordered.addAll(hours.values()));
+        List<Snapshot> snapshots = updateRedis(ordered);
+
+        List<ShortUrlStatsHourly> hourlyRows = new ArrayList<>();
+        Map<String, ShortUrlStatsDaily> dailyRows = new LinkedHashMap<>();
+        for (int n = 0; n < ordered.size(); n++) {
+            HourDelta delta = ordered.get(n);
+            String shortCode = delta.shortCode;
+            LocalDateTime hour = delta.hour;
+            Snapshot snapshot = snapshots.get(n);
+
+            ShortUrlStatsHourly hourly = new ShortUrlStatsHourly();
+            hourly.setShortCode(shortCode);
+            hourly.setStatHour(hour);
+            hourly.setClicks(delta.clicks);
+            hourly.setUniqueIps(snapshot != null ? snapshot.hourUniqueIps : 0L);
+            hourlyRows.add(hourly);
+
+            LocalDate date = hour.toLocalDate();
+            ShortUrlStatsDaily daily = dailyRows.computeIfAbsent(shortCode + ":" + date, k -> {
+                ShortUrlStatsDaily row = new ShortUrlStatsDaily();
+                row.setShortCode(shortCode);
+                row.setStatDate(date);
+                row.setClicks(0L);
+                row.setUniqueIps(0L);
+                return row;
+            });
+            daily.setClicks(daily.getClicks() + delta.clicks);
+            if (snapshot != null) {
+                daily.setUniqueIps(snapshot.dayUniqueIps);
+                daily.setTopReferers(JSON.toJSONString(snapshot.topReferers));
+                daily.setUaFamilies(JSON.toJSONString(snapshot.uaFamilies));
+            }
+        }
+
+        batchUpsert(hourlyRows, hourlyMapper::batchUpsert, "short_url_stats_hourly");
+        batchUpsert(new ArrayList<>(dailyRows.values()), dailyMapper::batchUpsert, "short_url_stats_daily");
+    }
+
+    /**
+     * 按 UPSERT_BATCH_SIZE 分段批量写入
+     * 某段写入失败时 (整条语句已回滚) 降级为逐行写入，避免个别异常行拖累同批其他短链的统计
+     */
+    private <T> void batchUpsert(List<T> rows, Function<List<T>, Integer> upsert, String table) {
+        for (int i = 0; i < rows.size(); i += UPSERT_BATCH_SIZE) {
+            List<T> chunk = rows.subList(i, Math.min(i + UPSERT_BATCH_SIZE, rows.size()));
+            try {
+                upsert.apply(chunk);
+            } catch (Exception e) {
+                log.warn("短链统计批量写入失败，降级逐行写入: table={}, size={}", table, chunk.size(), e);
+                for (T row : chunk) {
+                    try {
+                        upsert.apply(Collections.singletonList(row));
+                    } catch (Exception ex) {
+                        log.error("短链统计写入失败，丢弃该行: table={}, row={}", table, row, ex);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 在 Redis 中累加独立IP/来源/浏览器分布，并返回最新快照
+     * 每个短链码每小时执行一次脚本，按 UPSERT_BATCH_SIZE 分段通过 Pipeline 提交
+     *
+     * @return 与 deltas 顺序一致的快照，Redis 不可用时对应位置为 null
+     */
+    private List<Snapshot> updateRedis(List<HourDelta> deltas) {
+        List<Snapshot> snapshots = new ArrayList<>(deltas.size());
+        for (int from = 0; from < deltas.size(); from += UPSERT_BATCH_SIZE) {
+            List<HourDelta> chunk = deltas.subList(from, Math.min(from + UPSERT_BATCH_SIZE, deltas.size()));
+            List<List<String>> keysList = new ArrayList<>(chunk.size());
+            List<List<String>> argsList = new ArrayList<>(chunk.size());
+            for (HourDelta delta : chunk) {
+                keysList.add(rollupKeys(delta));
+                argsList.add(rollupArgs(delta));
+            }
+            List<Object> results = cacheService.pipelineExecute(rollupScript, keysList, argsList);
+            for (int i = 0; i < chunk.size(); i++) {
+                snapshots.add(results != null && i < results.size() ? toSnapshot(results.get(i)) : null);
+            }
+        }
+        return snapshots;
+    }
+
+    private List<String> rollupKeys(HourDelta delta) {
+        String base = statsKeyBase(delta.shortCode);
+        String day = delta.hour.format(DAY_FORMAT);
+        return Arrays.asList(
+                base + "uv:" + delta.hour.format(HOUR_FORMAT),
+                base + "uv:" + day,
+                base + "referer:" + day,
+                base + "ua:" + day,
+                base + "recent");
+    }
+
+    private List<String> rollupArgs(HourDelta delta) {
+        ShortUrlProperties.Stats config = properties.getStats();
+        long recentTtl = config.getAccessLogRetentionDays() > 0
+                ? TimeUnit.DAYS.toSeconds(config.getAccessLogRetentionDays()) : STATS_TTL_SECONDS * 15;
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(STATS_TTL_SECONDS));
+        args.add(String.valueOf(recentTtl));
+        args.add(String.valueOf(Math.max(1, config.getTopReferers())));
+        args.add(String.valueOf(Math.max(1, config.getRecentAccessSize())));
+        args.add(String.valueOf(delta.ips.size()));
+        args.addAll(delta.ips);
+        appendCounts(args, delta.referers);
+        appendCounts(args, delta.uaFamilies);
+        List<String> recent = delta.recent;
+        int recentSize = Math.max(1, config.getRecentAccessSize());
+        if (recent.size() > recentSize) {
+            recent = recent.subList(recent.size() - recentSize, recent.size());
+        }
+        args.add(String.valueOf(recent.size()));
+        args.addAll(recent);
+        return args;
+    }
+
+    private Snapshot toSnapshot(Object value) {
+        if (!(value instanceof List<?> result) || result.size() < 4) {
+            return null;
+        }
+        Snapshot snapshot = new Snapshot();
+        snapshot.hourUniqueIps = toLong(result.get(0));
+        snapshot.dayUniqueIps = toLong(result.get(1));
+        List<?> referers = (List<?>) result.get(2);
+        for (int i = 0; i + 1 < referers.size(); i += 2) {
+            snapshot.topReferers.add(new ShortUrlStatsResponse.CountItem(toText(referers.get(i)),
+                    toLong(referers.get(i + 1))));
+        }
+        List<?> uaFamilies = (List<?>) result.get(3);
+        for (int i = 0; i + 1 < uaFamilies.size(); i += 2) {
+            snapshot.uaFamilies.put(toText(uaFamilies.get(i)), toLong(uaFamilies.get(i + 1)));
+        }
+        return snapshot;
+    }
+
+    private void appendCounts(List<String> args, Map<String, Long> counts) {
+        args.add(String.valueOf(counts.size()));
+        counts.forEach((name, count) -> {
+            args.add(name);
+            args.add(String.valueOf(count));
+        });
+    }
+
+    private long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return value != null ? (long) Double.parseDouble(toText(value)) : 0L;
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Pipeline 返回的嵌套结果可能未经序列化器转换
+     */
+    private String toText(Object value) {
+        return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+
+    private String statsKeyBase(String shortCode) {
+        return CacheKeyConstants.SHORT_URL_STATS + "{" + shortCode + "}:";
+    }
+
+    @Override
+    public ShortUrlStatsResponse.DailyStats getDailyStats(String shortCode, LocalDate date) {
+        LambdaQueryWrapper<ShortUrlStatsDaily> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(ShortUrlStatsDaily::getShortCode, shortCode)
+                .eq(ShortUrlStatsDaily::getStatDate, date);
+        ShortUrlStatsDaily daily = dailyMapper.selectOne(wrapper);
+        if (daily == null) {
+            return ShortUrlStatsResponse.DailyStats.builder()
+                    .date(date)
+                    .clicks(0L)
+                    .uniqueIps(0L)
+                    .topReferers(Collections.emptyList())
+                    .uaFamilies(Collections.emptyMap())
+                    .build();
+        }
+        return toDailyStats(daily);
+    }
+
+    @Override
+    public List<ShortUrlStatsResponse.DailyStats> listDailyStats(String shortCode, LocalDate from, LocalDate to) {
+        LambdaQueryWrapper<ShortUrlStatsDaily> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(ShortUrlStatsDaily::getShortCode, shortCode)
+                .between(ShortUrlStatsDaily::getStatDate, from, to)
+                .orderByAsc(ShortUrlStatsDaily::getStatDate);
+        return dailyMapper.selectList(wrapper).stream().map(this::toDailyStats).toList();
+    }
+
+    @Override
+    public List<ShortUrlStatsResponse.HourlyStats> listHourlyStats(String shortCode, LocalDateTime from, LocalDateTime to) {
+        LambdaQueryWrapper<ShortUrlStatsHourly> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(ShortUrlStatsHourly::getShortCode, shortCode)
+                .between(ShortUrlStatsHourly::getStatHour, from, to)
+                .orderByAsc(ShortUrlStatsHourly::getStatHour);
+        return hourlyMapper.selectList(wrapper).stream()
+                .map(hourly -> ShortUrlStatsResponse.HourlyStats.builder()
+                        .hour(hourly.getStatHour())
+                        .clicks(hourly.getClicks())
+                        .uniqueIps(hourly.getUniqueIps())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    public List<ShortUrlStatsResponse.AccessRecord> getRecentAccess(String shortCode) {
+        int size = Math.max(1, properties.getStats().getRecentAccessSize());
+        List<String> values = cacheService.getRedisUtil().lGet(statsKeyBase(shortCode) + "recent", 0, size - 1);
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        List<ShortUrlStatsResponse.AccessRecord> records = new ArrayList<>(values.size());
+        for (String value : values) {
+            try {
+                records.add(JSON.parseObject(value, ShortUrlStatsResponse.AccessRecord.class));
+            } catch (Exception e) {
+                log.warn("解析最近访问记录失败: shortCode={}", shortCode);
+            }
+        }
+        return records;
+    }
+
+    private ShortUrlStatsResponse.DailyStats toDailyStats(ShortUrlStatsDaily daily) {
+        List<ShortUrlStatsResponse.CountItem> topReferers = daily.getTopReferers() != null
+                ? JSON.parseArray(daily.getTopReferers(), ShortUrlStatsResponse.CountItem.class)
+                : Collections.emptyList();
+        Map<String, Long> uaFamilies = new LinkedHashMap<>();
+        if (daily.getUaFamilies() != null) {
+            JSON.parseObject(daily.getUaFamilies()).forEach((name, count) ->
+                    uaFamilies.put(name, toLong(count)));
+        }
+        return ShortUrlStatsResponse.DailyStats.builder()
+                .date(daily.getStatDate())
+                .clicks(daily.getClicks())
+                .uniqueIps(daily.getUniqueIps())
+                .topReferers(topReferers)
+                .uaFamilies(uaFamilies)
+                .build();
+    }
+
+    /**
+     * 按保留天数分批清理原始访问日志及小时统计 (集群内同一时刻只有一个节点执行)
+     */
+    private void purgeExpired() {
+        ShortUrlProperties.Stats config = properties.getStats();
+        if (!cacheService.setIfAbsent(CacheKeyConstants.SHORT_URL_STATS_PURGE_LOCK, "1", TimeUnit.MINUTES.toSeconds(50))) {
+            return;
+        }
+        try {
+            if (config.getAccessLogRetentionDays() > 0) {
+                LocalDateTime cutoff = LocalDate.now().minusDays(config.getAccessLogRetentionDays()).atStartOfDay();
+                long deleted = purge(() -> accessLogMapper.delete(new LambdaQueryWrapper<ShortUrlAccessLog>()
+                        .lt(ShortUrlAccessLog::getAccessTime, cutoff)
+                        .last("LIMIT " + PURGE_BATCH_SIZE)));
+                log.info("清理过期短链访问日志: cutoff={}, count={}", cutoff, deleted);
+            }
+            if (config.getHourlyRetentionDays() > 0) {
+                LocalDateTime cutoff = LocalDate.now().minusDays(config.getHourlyRetentionDays()).atStartOfDay();
+                long deleted = purge(() -> hourlyMapper.delete(new LambdaQueryWrapper<ShortUrlStatsHourly>()
+                        .lt(ShortUrlStatsHourly::getStatHour, cutoff)
+                        .last("LIMIT " + PURGE_BATCH_SIZE)));
+                log.info("清理过期短链小时统计: cutoff={}, count={}", cutoff, deleted);
+            }
+        } catch (Exception e) {
+            log.error("清理过期短链统计数据失败", e);
+        }
+    }
+
+    /**
+     * 分批删除直到没有过期数据，避免单条 DELETE 长时间持锁
+     */
+    private long purge(IntSupplier deleteBatch) {
+        long total = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            int deleted = deleteBatch.getAsInt();
+            total += deleted;
+            if (deleted < PURGE_BATCH_SIZE) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (purgeExecutor != null) {
+            purgeExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 单个短链单个小时内的增量
+     */
+    private static final class HourDelta {
+        private final String shortCode;
+        private final LocalDateTime hour;
+        private long clicks;
+        private final Set<String> ips = new LinkedHashSet<>();
+        private final Map<String, Long> referers = new HashMap<>();
+        private final Map<String, Long> uaFamilies = new HashMap<>();
+        /**
+         * 访问记录JSON (按时间升序)
+         */
+        private final List<String> recent = new ArrayList<>();
+
+        HourDelta(String shortCode, LocalDateTime hour) {
+            this.shortCode = shortCode;
+            this.hour = hour;
+        }
+
+        void add(ShortUrlAccessLog accessLog, LocalDateTime accessTime) {
+            clicks++;
+            if (accessLog.getIp() != null) {
+                ips.add(accessLog.getIp());
+            }
+            referers.merge(UserAgentUtil.refererHost(accessLog.getReferer()), 1L, Long::sum);
+            uaFamilies.merge(UserAgentUtil.family(accessLog.getUserAgent()), 1L, Long::sum);
+            recent.add(JSON.toJSONString(ShortUrlStatsResponse.AccessRecord.builder()
+                    .ip(accessLog.getIp())
+                    .userAgent(accessLog.getUserAgent())
+                    .accessTime(accessTime)
+                    .build()));
+        }
+    }
+
+    /**
+     * Redis 中的当日统计快照
+     */
+    private static final class Snapshot {
+        private long hourUniqueIps;
+        private long dayUniqueIps;
+        private final List<ShortUrlStatsResponse.CountItem> topReferers = new ArrayList<>();
+        private final Map<String, Long> uaFamilies = new LinkedHashMap<>();
+    }
+}
@@ -40,6 +40,25 @@ public class Base62Util {
         return sb.toString();
     }
 
+    /**
+     * 将数字编码为定长 Base62 字符串 (不足时左侧补0)
+     *
+     * @param num    数字
+     * @param length 最小长度
+     * @return Base62 字符串
+     */
+    public static String encode(long num, int length) {
+        String encoded = encode(num);
+        if (encoded.length() >= length) {
+            return encoded;
+        }
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = encoded.length(); i < length; i++) {
+            sb.append(BASE62_CHARS.charAt(0));
+        }
+        return sb.append(encoded).toString();
+    }
+
     /**
      * 将 Base62 字符串解码为数字
      *
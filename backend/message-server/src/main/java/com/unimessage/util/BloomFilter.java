@@ -0,0 +1,132 @@
+package com.unimessage.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 字符串布隆过滤器 (线程安全)
+ * 使用 64 位 FNV-1a 与 MurmurHash3 finalizer 组合的双重哈希，
+ * 判定不存在时一定不存在，判定存在时有一定误判率
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+public class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions 预期元素数量
+     * @param fpp                期望误判率 (0~1)
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        long m = optimalBitSize(expectedInsertions, fpp);
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * 64;
+        this.hashCount = optimalHashCount(expectedInsertions, m);
+    }
+
+    /**
+     * 按预期元素数量和误判率计算位图大小
+     */
+    public static long optimalBitSize(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(fpp, 1e-9), 0.5);
+        return Math.max(64, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2))));
+    }
+
+    /**
+     * 按预期元素数量和位图大小计算哈希函数个数
+     */
+    public static int optimalHashCount(long expectedInsertions, long bitSize) {
+        return Math.max(1, (int) Math.round((double) bitSize / Math.max(1, expectedInsertions) * Math.log(2)));
+    }
+
+    /**
+     * 计算元素在指定大小位图中的各个位置 (Redis 位图等外部存储复用同一哈希方案)
+     */
+    public static long[] bitIndexes(String value, long bitSize, int hashCount) {
+        long hash1 = fnv1a(value);
+        long hash2 = mix(hash1);
+        long[] indexes = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            indexes[i] = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitSize;
+        }
+        return indexes;
+    }
+
+    /**
+     * 64 位字符串指纹
+     */
+    public static long fingerprint(String value) {
+        return mix(fnv1a(value));
+    }
+
+    /**
+     * 添加元素
+     */
+    public void put(String value) {
+        long hash1 = fnv1a(value);
+        long hash2 = mix(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            setBit(index(hash1 + i * hash2));
+        }
+    }
+
+    /**
+     * 元素是否可能存在
+     *
+     * @return false 一定不存在, true 可能存在
+     */
+    public boolean mightContain(String value) {
+        long hash1 = fnv1a(value);
+        long hash2 = mix(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash1 + i * hash2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(long combined) {
+        return (combined & Long.MAX_VALUE) % bitSize;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    private static long fnv1a(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash | 1;
+    }
+}
@@ -3,12 +3,28 @@ package com.unimessage.util;
 import com.alibaba.fastjson2.JSON;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -69,6 +85,38 @@ public class RedisUtil {
         }
     }
 
+    /**
+     * 批量写入缓存 (Pipeline，一次网络往返)
+     *
+     * @param values   键值对
+     * @param timeouts 各键过期时间(秒)，缺失或不大于0表示永不过期
+     * @return true成功 false失败
+     */
+    public boolean pipelineSet(Map<String, String> values, Map<String, Long> timeouts) {
+        if (values == null || values.isEmpty()) {
+            return true;
+        }
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                values.forEach((key, value) -> {
+                    byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                    byte[] rawValue = value.getBytes(StandardCharsets.UTF_8);
+                    Long timeout = timeouts != null ? timeouts.get(key) : null;
+                    if (timeout != null && timeout > 0) {
+                        connection.stringCommands().setEx(rawKey, timeout, rawValue);
+                    } else {
+                        connection.stringCommands().set(rawKey, rawValue);
+                    }
+                });
+                return null;
+            });
+            return true;
+        } catch (Exception e) {
+            log.error("Redis pipelineSet error: size={}", values.size(), e);
+            return false;
+        }
+    }
+
     /**
      * 读取缓存
      *
@@ -84,6 +132,24 @@ public class RedisUtil {
         }
     }
 
+    /**
+     * 批量读取缓存 (MGET，一次网络往返)
+     *
+     * @param keys 键
+     * @return 与键顺序一致的值列表，不存在的键对应 null；异常时返回 null
+     */
+    public List<String> multiGet(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            return stringRedisTemplate.opsForValue().multiGet(keys);
+        } catch (Exception e) {
+            log.error("Redis multiGet error: size={}", keys.size(), e);
+            return null;
+        }
+    }
+
     /**
      * 读取对象（反序列化）
      *
@@ -171,6 +237,22 @@ public class RedisUtil {
         }
     }
 
+    /**
+     * 获取key剩余过期时间
+     *
+     * @param key      键
+     * @param timeUnit 单位
+     * @return 剩余时间，-1 永不过期，-2 不存在，异常时返回 null
+     */
+    public Long getExpire(String key, TimeUnit timeUnit) {
+        try {
+            return stringRedisTemplate.getExpire(key, timeUnit);
+        } catch (Exception e) {
+            log.error("Redis getExpire error: key={}", key, e);
+            return null;
+        }
+    }
+
     /**
      * 判断key是否存在
      *
@@ -204,6 +286,38 @@ public class RedisUtil {
         }
     }
 
+    /**
+     * 批量如果不存在则设置 (Pipeline SET NX EX，一次网络往返)
+     *
+     * @param values  键值对
+     * @param seconds 过期时间（秒）
+     * @return 各键是否设置成功 (true 键不存在已设置)；异常时返回 null
+     */
+    public Map<String, Boolean> pipelineSetIfAbsent(Map<String, String> values, long seconds) {
+        if (values == null || values.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> keys = new ArrayList<>(values.keySet());
+        try {
+            List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : keys) {
+                    connection.stringCommands().set(key.getBytes(StandardCharsets.UTF_8),
+                            values.get(key).getBytes(StandardCharsets.UTF_8),
+                            Expiration.seconds(seconds), RedisStringCommands.SetOption.SET_IF_ABSENT);
+                }
+                return null;
+            });
+            Map<String, Boolean> acquired = new LinkedHashMap<>(keys.size() * 2);
+            for (int i = 0; i < keys.size(); i++) {
+                acquired.put(keys.get(i), i < results.size() && Boolean.TRUE.equals(results.get(i)));
+            }
+            return acquired;
+        } catch (Exception e) {
+            log.error("Redis pipelineSetIfAbsent error: size={}", values.size(), e);
+            return null;
+        }
+    }
+
     /**
      * 递增
      *
@@ -278,6 +392,26 @@ public class RedisUtil {
         }
     }
 
+    /**
+     * 批量放入list (单条 LPUSH 多个值，弹出顺序与逐条 lPush 一致)
+     *
+     * @param key    键
+     * @param values 值
+     * @return true成功 false失败
+     */
+    public boolean lPush(String key, Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return true;
+        }
+        try {
+            stringRedisTemplate.opsForList().leftPushAll(key, values);
+            return true;
+        } catch (Exception e) {
+            log.error("Redis lPush all error: key={}, size={}", key, values.size(), e);
+            return false;
+        }
+    }
+
     /**
      * 从list中弹出 (Right Pop)
      *
@@ -293,6 +427,23 @@ public class RedisUtil {
         }
     }
 
+    /**
+     * 批量弹出 (RPOP key count，需 Redis 6.2+)
+     *
+     * @param key   键
+     * @param count 最大弹出数量
+     * @return 值列表，队列为空或异常时返回空列表
+     */
+    public List<String> rPop(String key, long count) {
+        try {
+            List<String> values = stringRedisTemplate.opsForList().rightPop(key, count);
+            return values == null ? Collections.emptyList() : values;
+        } catch (Exception e) {
+            log.error("Redis rPop count error: key={}", key, e);
+            return Collections.emptyList();
+        }
+    }
+
     /**
      * 阻塞式弹出 (Right Pop with timeout)
      *
@@ -310,6 +461,237 @@ public class RedisUtil {
         }
     }
 
+    // ==================== Stream ====================
+
+    /**
+     * 追加消息到 Stream (XADD)
+     *
+     * @param key    键
+     * @param fields 消息字段
+     * @return 消息ID，失败返回 null
+     */
+    public String xAdd(String key, Map<String, String> fields) {
+        try {
+            RecordId recordId = stringRedisTemplate.opsForStream().add(StreamRecords.newRecord().in(key).ofMap(fields));
+            return recordId != null ? recordId.getValue() : null;
+        } catch (Exception e) {
+            log.error("Redis xAdd error: key={}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 批量追加消息到 Stream (Pipeline XADD，一次网络往返)
+     *
+     * @param key     键
+     * @param records 各条消息字段
+     * @return true成功 false失败
+     */
+    public boolean pipelineXAdd(String key, List<Map<String, String>> records) {
+        if (records == null || records.isEmpty()) {
+            return true;
+        }
+        try {
+            List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                for (Map<String, String> fields : records) {
+                    Map<byte[], byte[]> raw = new LinkedHashMap<>(fields.size() * 2);
+                    fields.forEach((field, value) -> raw.put(field.getBytes(StandardCharsets.UTF_8),
+                            value.getBytes(StandardCharsets.UTF_8)));
+                    connection.streamCommands().xAdd(StreamRecords.newRecord().in(rawKey).ofMap(raw));
+                }
+                return null;
+            });
+            return results.size() == records.size() && !results.contains(null);
+        } catch (Exception e) {
+            log.error("Redis pipelineXAdd error: key={}, size={}", key, records.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 创建消费者组 (XGROUP CREATE ... MKSTREAM)，组已存在时忽略
+     *
+     * @param key   键
+     * @param group 消费者组
+     * @return true成功或已存在 false失败
+     */
+    public boolean xGroupCreate(String key, String group) {
+        try {
+            byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+            stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(rawKey, group, ReadOffset.from("0"), true));
+            return true;
+        } catch (Exception e) {
+            if (e.getMessage() != null && e.getMessage().contains("BUSYGROUP")) {
+                return true;
+            }
+            Throwable cause = e.getCause();
+            if (cause != null && cause.getMessage() != null && cause.getMessage().contains("BUSYGROUP")) {
+                return true;
+            }
+            log.error("Redis xGroupCreate error: key={}, group={}", key, group, e);
+            return false;
+        }
+    }
+
+    /**
+     * 以消费者组方式读取新消息 (XREADGROUP ... COUNT n BLOCK ms STREAMS key >)
+     *
+     * @param key      键
+     * @param group    消费者组
+     * @param consumer 消费者名称
+     * @param count    最大读取条数
+     * @param block    阻塞时长
+     * @return 消息列表
+     */
+    public List<MapRecord<String, Object, Object>> xReadGroup(String key, String group, String consumer, long count, Duration block) {
+        try {
+            List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+                    Consumer.from(group, consumer),
+                    StreamReadOptions.empty().count(count).block(block),
+                    StreamOffset.create(key, ReadOffset.lastConsumed()));
+            return records != null ? records : Collections.emptyList();
+        } catch (Exception e) {
+            log.error("Redis xReadGroup error: key={}, group={}", key, group, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 确认消息 (XACK)
+     *
+     * @param key      键
+     * @param group    消费者组
+     * @param recordId 消息ID
+     * @return true成功 false失败
+     */
+    public boolean xAck(String key, String group, String recordId) {
+        try {
+            stringRedisTemplate.opsForStream().acknowledge(key, group, recordId);
+            return true;
+        } catch (Exception e) {
+            log.error("Redis xAck error: key={}, id={}", key, recordId, e);
+            return false;
+        }
+    }
+
+    /**
+     * 删除消息 (XDEL)
+     *
+     * @param key      键
+     * @param recordId 消息ID
+     */
+    public void xDel(String key, String recordId) {
+        try {
+            stringRedisTemplate.opsForStream().delete(key, recordId);
+        } catch (Exception e) {
+            log.error("Redis xDel error: key={}, id={}", key, recordId, e);
+        }
+    }
+
+    /**
+     * 查询消费者组待确认消息 (XPENDING key group - + count)
+     *
+     * @param key   键
+     * @param group 消费者组
+     * @param count 最大条数
+     * @return 待确认消息，失败返回 null
+     */
+    public PendingMessages xPending(String key, String group, long count) {
+        try {
+            return stringRedisTemplate.opsForStream().pending(key, group, Range.unbounded(), count);
+        } catch (Exception e) {
+            log.error("Redis xPending error: key={}, group={}", key, group, e);
+            return null;
+        }
+    }
+
+    /**
+     * 认领空闲时间超过阈值的待确认消息 (XCLAIM)
+     *
+     * @param key       键
+     * @param group     消费者组
+     * @param consumer  新的消费者
+     * @param minIdle   最小空闲时长
+     * @param recordIds 消息ID
+     * @return 认领成功的消息
+     */
+    public List<MapRecord<String, Object, Object>> xClaim(String key, String group, String consumer, Duration minIdle, RecordId... recordIds) {
+        try {
+            List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                    .claim(key, group, consumer, minIdle, recordIds);
+            return records != null ? records : Collections.emptyList();
+        } catch (Exception e) {
+            log.error("Redis xClaim error: key={}, group={}", key, group, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 将待确认消息重新认领给当前消费者以重置空闲时间 (XCLAIM JUSTID，不返回消息内容)
+     *
+     * @param key       键
+     * @param group     消费者组
+     * @param consumer  当前消费者
+     * @param recordIds 消息ID
+     * @return true成功 false失败
+     */
+    public boolean xClaimJustId(String key, String group, String consumer, RecordId... recordIds) {
+        try {
+            stringRedisTemplate.execute((RedisCallback<List<RecordId>>) connection -> connection.streamCommands()
+                    .xClaimJustId(key.getBytes(StandardCharsets.UTF_8), group, consumer,
+                            RedisStreamCommands.XClaimOptions.minIdle(Duration.ZERO).ids(recordIds)));
+            return true;
+        } catch (Exception e) {
+            log.error("Redis xClaimJustId error: key={}, group={}", key, group, e);
+            return false;
+        }
+    }
+
+    // ==================== 发布订阅 ====================
+
+    /**
+     * 发布消息到频道
+     *
+     * @param channel 频道
+     * @param message 消息内容
+     * @return true成功 false失败
+     */
+    public boolean publish(String channel, String message) {
+        try {
+            stringRedisTemplate.convertAndSend(channel, message);
+            return true;
+        } catch (Exception e) {
+            log.error("Redis publish error: channel={}", channel, e);
+            return false;
+        }
+    }
+
+    // ==================== ZSet 操作 ====================
+
+    /**
+     * 批量添加有序集合成员 (已存在的成员更新分值)
+     *
+     * @param key     键
+     * @param members 成员 -> 分值
+     * @return true成功 false失败
+     */
+    public boolean zAdd(String key, Map<String, Double> members) {
+        if (members == null || members.isEmpty()) {
+            return true;
+        }
+        try {
+            Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>(members.size() * 2);
+            members.forEach((member, score) -> tuples.add(ZSetOperations.TypedTuple.of(member, score)));
+            stringRedisTemplate.opsForZSet().add(key, tuples);
+            return true;
+        } catch (Exception e) {
+            log.error("Redis zAdd error: key={}, size={}", key, members.size(), e);
+            return false;
+        }
+    }
+
     // ==================== Lua 脚本 ====================
 
     /**
@@ -330,6 +712,44 @@ public class RedisUtil {
         }
     }
 
+    /**
+     * 以 Pipeline 多次执行同一 Lua 脚本 (一次网络往返)
+     * Pipeline 中无法处理 NOSCRIPT 回退，直接使用 EVAL 发送脚本内容
+     *
+     * @param script   脚本
+     * @param keysList 每次执行的键列表
+     * @param argsList 每次执行的参数 (与 keysList 一一对应)
+     * @return 与参数顺序一致的执行结果；异常时返回 null
+     */
+    public List<Object> pipelineExecute(RedisScript<?> script, List<List<String>> keysList, List<List<String>> argsList) {
+        if (argsList == null || argsList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        byte[] body = script.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        ReturnType returnType = ReturnType.fromJavaType(script.getResultType());
+        try {
+            return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int n = 0; n < argsList.size(); n++) {
+                    List<String> keys = keysList.get(n);
+                    List<String> args = argsList.get(n);
+                    byte[][] keysAndArgs = new byte[keys.size() + args.size()][];
+                    int i = 0;
+                    for (String key : keys) {
+                        keysAndArgs[i++] = key.getBytes(StandardCharsets.UTF_8);
+                    }
+                    for (String arg : args) {
+                        keysAndArgs[i++] = arg.getBytes(StandardCharsets.UTF_8);
+                    }
+                    connection.scriptingCommands().eval(body, returnType, keys.size(), keysAndArgs);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Redis pipeline script error: size={}", argsList.size(), e);
+            return null;
+        }
+    }
+
     /**
      * 带重试机制的操作执行
      *
@@ -0,0 +1,92 @@
+package com.unimessage.util;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * 访问来源解析工具类
+ * 用于短链接统计中的浏览器类型及来源域名归类
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+public class UserAgentUtil {
+
+    public static final String UNKNOWN = "Unknown";
+    public static final String DIRECT = "direct";
+
+    /**
+     * 域名最大长度 (RFC 1035)，超长来源截断，避免撑爆 Top N 统计列
+     */
+    public static final int MAX_HOST_LENGTH = 253;
+
+    private UserAgentUtil() {
+    }
+
+    /**
+     * 解析浏览器类型 (按特征顺序匹配，内置浏览器/爬虫优先)
+     *
+     * @param userAgent User-Agent
+     * @return 浏览器类型
+     */
+    public static String family(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return UNKNOWN;
+        }
+        String ua = userAgent.toLowerCase(Locale.ROOT);
+        if (ua.contains("bot") || ua.contains("spider") || ua.contains("crawl")) {
+            return "Bot";
+        }
+        if (ua.contains("micromessenger")) {
+            return "WeChat";
+        }
+        if (ua.contains("dingtalk")) {
+            return "DingTalk";
+        }
+        if (ua.contains("lark") || ua.contains("feishu")) {
+            return "Feishu";
+        }
+        if (ua.contains("edg/") || ua.contains("edge/")) {
+            return "Edge";
+        }
+        if (ua.contains("opr/") || ua.contains("opera")) {
+            return "Opera";
+        }
+        if (ua.contains("firefox/")) {
+            return "Firefox";
+        }
+        if (ua.contains("chrome/") || ua.contains("crios/")) {
+            return "Chrome";
+        }
+        if (ua.contains("safari/")) {
+            return "Safari";
+        }
+        if (ua.contains("curl/") || ua.contains("wget/") || ua.contains("okhttp") || ua.contains("python")
+                || ua.contains("java/") || ua.contains("go-http-client")) {
+            return "HttpClient";
+        }
+        return "Other";
+    }
+
+    /**
+     * 解析来源域名
+     *
+     * @param referer 来源页面
+     * @return 域名，无来源时返回 direct
+     */
+    public static String refererHost(String referer) {
+        if (referer == null || referer.isBlank()) {
+            return DIRECT;
+        }
+        try {
+            String host = URI.create(referer.trim()).getHost();
+            if (host == null) {
+                return UNKNOWN;
+            }
+            host = host.toLowerCase(Locale.ROOT);
+            return host.length() > MAX_HOST_LENGTH ? host.substring(0, MAX_HOST_LENGTH) : host;
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN;
+        }
+    }
+}
@@ -75,6 +75,9 @@ CREATE TABLE `sys_template` (
   `variables` text COMMENT '变量列表JSON',
   `deduplication_config` text COMMENT '去重配置JSON',
   `rate_limit` int DEFAULT NULL COMMENT '限流(TPS)',
+  `short_link_enabled` tinyint(1) DEFAULT '0' COMMENT '长链接自动改写为短链接 1:开启 0:关闭',
+  `max_retry_count` int DEFAULT NULL COMMENT '发送失败最大自动重试次数 (NULL使用全局默认值, 0不重试)',
+  `channel_group` text COMMENT '渠道组配置JSON (备用渠道及路由策略)',
   `recipient_group_ids` varchar(255) DEFAULT NULL COMMENT '关联接收者分组ID列表',
   `recipient_ids` varchar(1024) DEFAULT NULL COMMENT '关联接收者ID列表',
   `status` int DEFAULT '1' COMMENT '状态 1:启用 0:禁用',
@@ -172,6 +175,7 @@ CREATE TABLE `log_msg_detail` (
   `third_party_msg_id` varchar(128) DEFAULT NULL COMMENT '第三方消息ID',
   `error_msg` text DEFAULT NULL COMMENT '错误信息',
   `retry_count` int DEFAULT '0' COMMENT '重试次数',
+  `channel_id` bigint DEFAULT NULL COMMENT '实际发送渠道ID',
   `send_time` datetime DEFAULT NULL COMMENT '发送时间',
   `created_at` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
@@ -194,6 +198,18 @@ CREATE TABLE `sys_config` (
   UNIQUE KEY `uk_config_key` (`config_key`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='系统配置表';
 
+-- ----------------------------
+-- Table structure for id_segment
+-- ----------------------------
+DROP TABLE IF EXISTS `id_segment`;
+CREATE TABLE `id_segment` (
+  `biz_tag` varchar(64) NOT NULL COMMENT '业务标识',
+  `max_id` bigint NOT NULL DEFAULT '0' COMMENT '已分配的最大ID',
+  `step` int NOT NULL DEFAULT '1000' COMMENT '每次分配的号段长度',
+  `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`biz_tag`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='号段ID分配表';
+
 -- ----------------------------
 -- Table structure for short_url
 -- ----------------------------
@@ -209,7 +225,8 @@ CREATE TABLE `short_url` (
   `created_at` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`),
-  UNIQUE KEY `uk_short_code` (`short_code`)
+  UNIQUE KEY `uk_short_code` (`short_code`),
+  KEY `idx_original_url` (`original_url`(191))
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='短链接表';
 
 -- ----------------------------
@@ -226,7 +243,54 @@ CREATE TABLE `short_url_access_log` (
   PRIMARY KEY (`id`),
   KEY `idx_short_code` (`short_code`),
   KEY `idx_access_time` (`access_time`)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='短链接访问日志表';
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='短链接访问日志表 (按 access-log-retention-days 定期清理)';
+
+-- ----------------------------
+-- Table structure for short_url_click_counter
+-- ----------------------------
+DROP TABLE IF EXISTS `short_url_click_counter`;
+CREATE TABLE `short_url_click_counter` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `short_code` varchar(16) NOT NULL COMMENT '短链码',
+  `slot` int NOT NULL COMMENT '分片槽位',
+  `clicks` bigint NOT NULL DEFAULT '0' COMMENT '点击次数',
+  `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_short_code_slot` (`short_code`, `slot`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='短链接分片点击计数表 (每次累加随机槽位，读取时求和)';
+
+-- ----------------------------
+-- Table structure for short_url_stats_hourly
+-- ----------------------------
+DROP TABLE IF EXISTS `short_url_stats_hourly`;
+CREATE TABLE `short_url_stats_hourly` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `short_code` varchar(16) NOT NULL COMMENT '短链码',
+  `stat_hour` datetime NOT NULL COMMENT '统计小时 (整点)',
+  `clicks` bigint NOT NULL DEFAULT '0' COMMENT '点击次数',
+  `unique_ips` bigint NOT NULL DEFAULT '0' COMMENT '独立IP数 (HyperLogLog 估算)',
+  `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_short_code_hour` (`short_code`, `stat_hour`),
+  KEY `idx_stat_hour` (`stat_hour`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='短链接小时统计表';
+
+-- ----------------------------
+-- Table structure for short_url_stats_daily
+-- ----------------------------
+DROP TABLE IF EXISTS `short_url_stats_daily`;
+CREATE TABLE `short_url_stats_daily` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `short_code` varchar(16) NOT NULL COMMENT '短链码',
+  `stat_date` date NOT NULL COMMENT '统计日期',
+  `clicks` bigint NOT NULL DEFAULT '0' COMMENT '点击次数',
+  `unique_ips` bigint NOT NULL DEFAULT '0' COMMENT '独立IP数 (HyperLogLog 估算)',
+  `top_referers` text DEFAULT NULL COMMENT '来源域名 Top N (JSON)',
+  `ua_families` varchar(1024) DEFAULT NULL COMMENT '浏览器类型分布 (JSON)',
+  `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_short_code_date` (`short_code`, `stat_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='短链接每日统计表';
 
 -- ----------------------------
 -- Table structure for short_url_ip_blacklist
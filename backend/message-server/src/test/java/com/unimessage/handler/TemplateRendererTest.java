@@ -0,0 +1,117 @@
+package com.unimessage.handler;
+
+import com.unimessage.entity.SysTemplate;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 模板渲染器测试
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+public class TemplateRendererTest {
+
+    private final TemplateRenderer renderer = new TemplateRenderer();
+
+    @Test
+    public void testRender() {
+        SysTemplate template = template(1L, "您好 ${name}，验证码 ${code}，${minutes}分钟内有效");
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "张三");
+        params.put("code", 123456);
+        params.put("minutes", 5);
+        Assertions.assertEquals("您好 张三，验证码 123456，5分钟内有效", renderer.render(template, params));
+    }
+
+    @Test
+    public void testEmptyContent() {
+        Assertions.assertEquals("", renderer.render(null, new HashMap<>()));
+        Assertions.assertEquals("", renderer.render(template(2L, null), new HashMap<>()));
+        Assertions.assertEquals("无占位符", renderer.render(template(3L, "无占位符"), null));
+    }
+
+    @Test
+    public void testMissingAndNullParamsKeepPlaceholder() {
+        SysTemplate template = template(4L, "${a}-${b}-${c}");
+        Map<String, Object> params = new HashMap<>();
+        params.put("a", "1");
+        params.put("b", null);
+        Assertions.assertEquals("1-${b}-${c}", renderer.render(template, params));
+        Assertions.assertEquals("${a}-${b}-${c}", renderer.render(template, null));
+    }
+
+    @Test
+    public void testUnterminatedPlaceholderKeptAsLiteral() {
+        SysTemplate template = template(5L, "订单 ${id} 状态 ${status");
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", 42);
+        params.put("status", "已发货");
+        Assertions.assertEquals("订单 42 状态 ${status", renderer.render(template, params));
+        Assertions.assertEquals("${", renderer.render(template(6L, "${"), params));
+    }
+
+    @Test
+    public void testParamValueNotExpandedAgain() {
+        SysTemplate template = template(7L, "Hi ${name}, ${greeting}");
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "${greeting}");
+        params.put("greeting", "welcome");
+        Assertions.assertEquals("Hi ${greeting}, welcome", renderer.render(template, params));
+    }
+
+    @Test
+    public void testRecompileWhenContentChanges() {
+        SysTemplate template = template(8L, "旧内容 ${name}");
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "张三");
+        Assertions.assertEquals("旧内容 张三", renderer.render(template, params));
+
+        // 同一模板ID内容变更 (如后台编辑、短链改写)，同一参数对象也须按新内容渲染
+        template.setContent("新内容 ${name}");
+        Assertions.assertEquals("新内容 张三", renderer.render(template, params));
+
+        template.setContent("旧内容 ${name}");
+        Assertions.assertEquals("旧内容 张三", renderer.render(template, params));
+    }
+
+    @Test
+    public void testReuseLastRenderOnlyForSameParamsObject() {
+        SysTemplate template = template(9L, "Hello ${name}");
+        Map<String, Object> first = new HashMap<>();
+        first.put("name", "A");
+        String rendered = renderer.render(template, first);
+        Assertions.assertEquals("Hello A", rendered);
+        // 同一参数对象直接复用上次结果
+        Assertions.assertSame(rendered, renderer.render(template, first));
+
+        // 内容相同的不同参数对象重新渲染
+        Map<String, Object> equal = new HashMap<>(first);
+        String again = renderer.render(template, equal);
+        Assertions.assertEquals("Hello A", again);
+        Assertions.assertNotSame(rendered, again);
+
+        Map<String, Object> second = new HashMap<>();
+        second.put("name", "B");
+        Assertions.assertEquals("Hello B", renderer.render(template, second));
+        Assertions.assertEquals("Hello A", renderer.render(template, first));
+    }
+
+    @Test
+    public void testTemplateWithoutId() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("x", "1");
+        Assertions.assertEquals("x=1", renderer.render(template(null, "x=${x}"), params));
+        Assertions.assertEquals("y=${y}", renderer.render(template(null, "y=${y}"), params));
+    }
+
+    private static SysTemplate template(Long id, String content) {
+        SysTemplate template = new SysTemplate();
+        template.setId(id);
+        template.setContent(content);
+        return template;
+    }
+}
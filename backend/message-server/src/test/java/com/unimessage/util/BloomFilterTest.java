@@ -0,0 +1,58 @@
+package com.unimessage.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 布隆过滤器测试
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+public class BloomFilterTest {
+
+    private static final int INSERTIONS = 100000;
+    private static final double FPP = 0.01;
+
+    @Test
+    public void testNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FPP);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put("code-" + i);
+        }
+        for (int i = 0; i < INSERTIONS; i++) {
+            Assertions.assertTrue(filter.mightContain("code-" + i), "漏判: code-" + i);
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRateNearFpp() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FPP);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put("code-" + i);
+        }
+        int probes = 100000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        Assertions.assertTrue(rate < FPP * 2, "误判率过高: " + rate);
+    }
+
+    @Test
+    public void testBitIndexesStableAndInRange() {
+        // Redis 位图与本地过滤器使用同一哈希方案，同一元素的位置必须在位图范围内且稳定
+        long bitSize = BloomFilter.optimalBitSize(INSERTIONS, FPP);
+        int hashCount = BloomFilter.optimalHashCount(INSERTIONS, bitSize);
+        long[] first = BloomFilter.bitIndexes("13800138000", bitSize, hashCount);
+        long[] second = BloomFilter.bitIndexes("13800138000", bitSize, hashCount);
+        Assertions.assertEquals(hashCount, first.length);
+        for (int i = 0; i < hashCount; i++) {
+            Assertions.assertTrue(first[i] >= 0 && first[i] < bitSize);
+            Assertions.assertEquals(first[i], second[i]);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.unimessage.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 可逆整数置换测试
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+public class IdPermutationTest {
+
+    private static final long KEY = 0x5DEECE66DL;
+
+    @Test
+    public void testRoundTrip() {
+        long domain = 62L * 62 * 62 * 62 * 62 * 62;
+        for (long value = 0; value < 10000; value++) {
+            long permuted = IdPermutation.permute(value, domain, KEY);
+            Assertions.assertTrue(permuted >= 0 && permuted < domain);
+            Assertions.assertEquals(value, IdPermutation.inverse(permuted, domain, KEY));
+        }
+    }
+
+    @Test
+    public void testBijectionOnSmallDomain() {
+        // 非2的幂的值域，覆盖 cycle walking
+        for (long domain : new long[]{2, 3, 10, 97, 1000}) {
+            boolean[] seen = new boolean[(int) domain];
+            for (long value = 0; value < domain; value++) {
+                int permuted = (int) IdPermutation.permute(value, domain, KEY);
+                Assertions.assertFalse(seen[permuted], "置换结果重复: domain=" + domain + ", value=" + value);
+                seen[permuted] = true;
+                Assertions.assertEquals(value, IdPermutation.inverse(permuted, domain, KEY));
+            }
+        }
+    }
+
+    @Test
+    public void testKeyChangesOrder() {
+        long domain = 1000;
+        int same = 0;
+        for (long value = 0; value < domain; value++) {
+            if (IdPermutation.permute(value, domain, KEY) == IdPermutation.permute(value, domain, KEY + 1)) {
+                same++;
+            }
+        }
+        Assertions.assertTrue(same < domain / 10);
+    }
+
+    @Test
+    public void testOutOfRange() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IdPermutation.permute(10, 10, KEY));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IdPermutation.permute(-1, 10, KEY));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IdPermutation.inverse(0, 1, KEY));
+    }
+}
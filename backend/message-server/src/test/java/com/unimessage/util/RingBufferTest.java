@@ -0,0 +1,106 @@
+package com.unimessage.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁环形队列测试
+ *
+ * @author 海明
+ * @since 2026-10-17
+ */
+public class RingBufferTest {
+
+    @Test
+    public void testCapacityRoundsUpToPowerOfTwo() {
+        Assertions.assertEquals(8, new RingBuffer<Integer>(8).capacity());
+        Assertions.assertEquals(8, new RingBuffer<Integer>(5).capacity());
+        Assertions.assertEquals(1024, new RingBuffer<Integer>(1000).capacity());
+    }
+
+    @Test
+    public void testFullAndEmpty() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(8);
+        Assertions.assertNull(buffer.poll());
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertTrue(buffer.offer(i));
+        }
+        Assertions.assertFalse(buffer.offer(8));
+        Assertions.assertEquals(8, buffer.size());
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        Assertions.assertNull(buffer.poll());
+        Assertions.assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testWraparound() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        int next = 0;
+        int expected = 0;
+        // 读写位置多次越过容量，按先进先出顺序出队
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertTrue(buffer.offer(next++));
+            }
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertEquals(Integer.valueOf(expected++), buffer.poll());
+            }
+        }
+        Assertions.assertNull(buffer.poll());
+    }
+
+    @Test
+    public void testConcurrentProducersAndConsumersLoseNothing() throws InterruptedException {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 100000;
+        int total = producers * perProducer;
+        RingBuffer<Integer> buffer = new RingBuffer<>(1024);
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+        AtomicLong consumed = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(producers + consumers);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads.add(new Thread(() -> {
+                while (consumed.get() < total) {
+                    Integer value = buffer.poll();
+                    if (value == null) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    seen.incrementAndGet(value);
+                    consumed.incrementAndGet();
+                }
+                done.countDown();
+            }));
+        }
+        threads.forEach(Thread::start);
+        done.await();
+
+        Assertions.assertEquals(total, consumed.get());
+        for (int i = 0; i < total; i++) {
+            Assertions.assertEquals(1, seen.get(i), "元素丢失或重复: " + i);
+        }
+        Assertions.assertNull(buffer.poll());
+    }
+}
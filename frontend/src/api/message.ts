@@ -47,3 +47,7 @@ export const getDetailByBatchId = (batchId: number, params?: { current?: number;
 export const retryMessage = (id: number) => {
   return request.post(`/log/detail/${id}/retry`);
 };
+
+export const retryBatchFailed = (batchId: number) => {
+  return request.post(`/log/detail/batch/${batchId}/retry`) as Promise<number>;
+};
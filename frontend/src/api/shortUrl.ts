@@ -16,6 +16,10 @@ export interface ShortUrlStats {
   originalUrl: string;
   totalClicks: number;
   todayClicks: number;
+  todayUniqueIps?: number;
+  topReferers?: { name: string; count: number }[];
+  uaFamilies?: Record<string, number>;
+  hourlyStats?: { hour: string; clicks: number; uniqueIps: number }[];
   createdAt: string;
   recentAccess: {
     ip: string;
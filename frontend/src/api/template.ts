@@ -15,6 +15,9 @@ export interface Template {
     recipientGroupIds: string; // Comma separated IDs from backend
     recipientIds: string; // Comma separated IDs from backend
     rateLimit?: number;
+    shortLinkEnabled?: boolean;
+    maxRetryCount?: number;
+    channelGroup?: string;
     status: number;
     createTime: string;
 }
@@ -1,8 +1,8 @@
 import React, {useEffect, useState} from 'react';
-import {Button, Card, Form, Input, Select, Space, Table, Tag, Tooltip, Modal} from 'antd';
-import {ReloadOutlined, SearchOutlined, EyeOutlined} from '@ant-design/icons';
+import {Button, Card, Form, Input, Select, Space, Table, Tag, Tooltip, Modal, message} from 'antd';
+import {ReloadOutlined, SearchOutlined, EyeOutlined, RedoOutlined} from '@ant-design/icons';
 import type {ColumnsType} from 'antd/es/table';
-import {getBatchPage, getDetailByBatchId} from '../../api/message';
+import {getBatchPage, getDetailByBatchId, retryBatchFailed} from '../../api/message';
 import ChannelIcon from '../channel/components/ChannelIcon';
 
 const BatchList: React.FC = () => {
@@ -60,6 +60,17 @@ const BatchList: React.FC = () => {
         await loadDetailData(record.id, 1, detailPageSize);
     };
 
+    // 重试批次内全部失败明细
+    const handleRetryFailed = async (record: any) => {
+        try {
+            const count = await retryBatchFailed(record.id);
+            message.success(`已提交 ${count} 条失败消息重试`);
+            loadData();
+        } catch (error) {
+            console.error(error);
+        }
+    };
+
     // 加载批次详情数据
     const loadDetailData = async (batchId: number, page = detailCurrent, size = detailPageSize) => {
         setDetailLoading(true);
@@ -167,15 +178,26 @@ const BatchList: React.FC = () => {
             title: '操作',
             key: 'action',
             fixed: 'right',
-            width: 100,
+            width: 180,
             render: (_, record) => (
-                <Button 
-                    type="link" 
-                    icon={<EyeOutlined />}
-                    onClick={() => handleViewDetail(record)}
-                >
-                    详情
-                </Button>
+                <Space size={0}>
+                    <Button 
+                        type="link" 
+                        icon={<EyeOutlined />}
+                        onClick={() => handleViewDetail(record)}
+                    >
+                        详情
+                    </Button>
+                    {record.failCount > 0 && (
+                        <Button
+                            type="link"
+                            icon={<RedoOutlined/>}
+                            onClick={() => handleRetryFailed(record)}
+                        >
+                            重试失败
+                        </Button>
+                    )}
+                </Space>
             ),
         },
     ];
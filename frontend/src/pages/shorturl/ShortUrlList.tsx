@@ -411,6 +411,18 @@ const ShortUrlList: React.FC = () => {
               <Descriptions.Item label="今日点击">
                 <Tag color="green">{statsData.todayClicks}</Tag>
               </Descriptions.Item>
+              <Descriptions.Item label="今日独立IP">
+                <Tag color="purple">{statsData.todayUniqueIps ?? 0}</Tag>
+              </Descriptions.Item>
+              <Descriptions.Item label="今日来源">
+                {statsData.topReferers?.length
+                  ? statsData.topReferers.map((item) => (
+                      <Tag key={item.name}>
+                        {item.name}: {item.count}
+                      </Tag>
+                    ))
+                  : '-'}
+              </Descriptions.Item>
               <Descriptions.Item label="创建时间">{statsData.createdAt}</Descriptions.Item>
             </Descriptions>
 
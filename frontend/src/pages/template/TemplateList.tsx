@@ -1,5 +1,5 @@
 import React, {useEffect, useState} from 'react';
-import {Button, Card, Drawer, Form, Input, InputNumber, message, Popconfirm, Select, Space, Table, Tag} from 'antd';
+import {Button, Card, Drawer, Form, Input, InputNumber, message, Popconfirm, Select, Space, Switch, Table, Tag} from 'antd';
 import {DeleteOutlined, EditOutlined, PoweroffOutlined} from '@ant-design/icons';
 import type {ColumnsType} from 'antd/es/table';
 import type {Template} from '../../api/template';
@@ -336,13 +336,30 @@ const TemplateList: React.FC = () => {
                         <Input placeholder='JSON数组格式，如 ["code", "name"]'/>
                     </Form.Item>
 
-                    <Form.Item name="deduplicationConfig" label="去重配置 (可选)">
-                        <Input.TextArea rows={2} placeholder='JSON格式配置，如 {"interval": 60, "count": 1}'/>
+                    <Form.Item name="deduplicationConfig" label="去重配置 (可选)"
+                               tooltip="interval 时间窗口(秒)内同一接收者最多收到 count 次，scope 为 content 时按接收者+参数去重，为 recipient 时只按接收者">
+                        <Input.TextArea rows={2} placeholder='JSON格式配置，如 {"interval": 300, "count": 1, "scope": "content"}'/>
                     </Form.Item>
 
                     <Form.Item name="rateLimit" label="频率限制 (TPS)" tooltip="每秒最大请求数，0或空表示不限制">
                         <InputNumber style={{width: '100%'}} min={0} placeholder="例如: 10"/>
                     </Form.Item>
+
+                    <Form.Item name="maxRetryCount" label="失败重试次数"
+                               tooltip="超时、限流等临时性失败的最大自动重试次数，0表示不重试，空使用系统默认值">
+                        <InputNumber style={{width: '100%'}} min={0} max={10} placeholder="默认: 3"/>
+                    </Form.Item>
+
+                    <Form.Item name="channelGroup" label="备用渠道 (可选)"
+                               tooltip="主渠道失败或熔断时按策略转移到备用渠道，strategy 可选 priority/weighted/health/cost">
+                        <Input.TextArea rows={3}
+                                        placeholder='JSON格式配置，如 {"strategy": "priority", "channels": [{"channelId": 2, "thirdPartyId": "SMS_123"}]}'/>
+                    </Form.Item>
+
+                    <Form.Item name="shortLinkEnabled" label="短链改写" valuePropName="checked"
+                               tooltip="开启后发送时自动将消息内容中的长链接替换为短链接">
+                        <Switch/>
+                    </Form.Item>
                 </Form>
             </Drawer>
         </Card>